@@ -35,6 +35,9 @@ public class VertexElement implements Comparable<VertexElement> {
 	/**vertex Identifier*/
 	private String vertexID;
 
+	/**Dense index assigned to the vertex by the graph controller, -1 if not inserted*/
+	private int vertexIndex = -1;
+
 	/**coordinates for the vertex*/
 	private double xCoord, yCoord;
 
@@ -97,6 +100,16 @@ public class VertexElement implements Comparable<VertexElement> {
 		return this.vertexID;
 	}
 
+	/**Function to get the index assigned to the vertex by its graph controller*/
+	public int getVertexIndex(){
+		return this.vertexIndex;
+	}
+
+	/**Function to set the index of the vertex, called by the graph controller on insertion*/
+	public void setVertexIndex(int vertexIndex){
+		this.vertexIndex = vertexIndex;
+	}
+
 	/**Function to update the neighbour map*/
 	public void updateNeighbourMap(){
 		//TODO Check this function for bugs
@@ -53,6 +53,14 @@ public interface Gcontroller {
 
     public ArrayList<EdgeElement> allConnectingEdges(VertexElement vertexID1, VertexElement vertexID2);
 
+    /** Function to get an Edge inserted from the source to the destination vertex, null if none */
+    public EdgeElement getDirectedEdge(String sourceID, String destinationID);
+
+    public EdgeElement getDirectedEdge(VertexElement source, VertexElement destination);
+
+    /** Function to get all Edges inserted from the source to the destination vertex, null if none */
+    public ArrayList<EdgeElement> allDirectedEdges(String sourceID, String destinationID);
+
     /** Boolean function to check if an edge exists between 2 vertices */
     public boolean aConnectingEdge(String vertexID1, String vertexID2);
 
@@ -66,10 +74,16 @@ public interface Gcontroller {
     /** Function to get the vertexElement based on VertexID */
     public VertexElement getVertex(String vertexID);
 
+    /** Function to get the vertexElement based on the index assigned on insertion, null if none */
+    public VertexElement getVertexByIndex(int vertexIndex);
+
+    /** Function to get the number of vertices, indices range from 0 to getVertexCount()-1 */
+    public int getVertexCount();
+
     /** Function to get the EdgeElement based on edgeID */
     public EdgeElement getEdge(String edgeID);
 
-    /** Function to create a copy of the Graph Controller */
+    /** Function to create a copy of the Graph Controller, vertex indices are preserved in the copy */
     public Gcontroller createCopy();
 
 }
@@ -0,0 +1,146 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.graph.graphcontroller.impl;
+
+import java.util.ArrayList;
+
+import com.graph.elements.edge.EdgeElement;
+
+/**
+ * Index from a (source vertex index, destination vertex index) pair to the
+ * edges inserted between the two vertices. Parallel edges between the same
+ * pair are chained in insertion order. Lookups are available in the
+ * direction of insertion only, or direction insensitive where edges in the
+ * queried direction are preferred over edges in the reverse direction.
+ * 
+ * The index is maintained by the graph controllers when edges are added, so
+ * that resolving the edge between two hops of a path does not depend on the
+ * degree of the vertices.
+ */
+public class ConnectingEdgeIndex {
+
+	/**Edges stored in the index, in insertion order*/
+	private EdgeElement[] edges;
+
+	/**Position of the next edge with the same (source, destination) pair, -1 terminates the chain*/
+	private int[] nextParallelEdge;
+
+	/**Number of edges stored in the index*/
+	private int edgeCount;
+
+	/**Map from the packed (source index, destination index) pair to the position of the first edge*/
+	private LongIndexMap firstEdgeMap;
+
+	/**default constructor*/
+	public ConnectingEdgeIndex(){
+		this(32);
+	}
+
+	/**Constructor with an expected number of edges*/
+	public ConnectingEdgeIndex(int expectedEdges){
+		if (expectedEdges < 1)
+			expectedEdges = 1;
+		edges = new EdgeElement[expectedEdges];
+		nextParallelEdge = new int[expectedEdges];
+		firstEdgeMap = new LongIndexMap(expectedEdges);
+	}
+
+	/**Function to insert an edge from the source to the destination vertex index*/
+	public void addEdge(int source, int destination, EdgeElement edge){
+		if (edgeCount == edges.length){
+			EdgeElement[] temp = new EdgeElement[edges.length << 1];
+			System.arraycopy(edges, 0, temp, 0, edgeCount);
+			edges = temp;
+			int[] tempNext = new int[temp.length];
+			System.arraycopy(nextParallelEdge, 0, tempNext, 0, edgeCount);
+			nextParallelEdge = tempNext;
+		}
+		int position = edgeCount;
+		edges[position] = edge;
+		nextParallelEdge[position] = -1;
+		edgeCount++;
+
+		long key = LongIndexMap.pack(source, destination);
+		int current = firstEdgeMap.get(key);
+		if (current == LongIndexMap.NOT_FOUND)
+			firstEdgeMap.put(key, position);
+		else {
+			while (nextParallelEdge[current] != -1)
+				current = nextParallelEdge[current];
+			nextParallelEdge[current] = position;
+		}
+	}
+
+	/**Function to get the first edge inserted from source to destination, null if none*/
+	public EdgeElement getDirectedEdge(int source, int destination){
+		int position = firstEdgeMap.get(LongIndexMap.pack(source, destination));
+		if (position == LongIndexMap.NOT_FOUND)
+			return null;
+		return edges[position];
+	}
+
+	/**Function to get an edge between two vertices irrespective of its direction, null if none*/
+	public EdgeElement getConnectingEdge(int vertex1, int vertex2){
+		int position = firstEdgeMap.get(LongIndexMap.pack(vertex1, vertex2));
+		if (position == LongIndexMap.NOT_FOUND && vertex1 != vertex2)
+			position = firstEdgeMap.get(LongIndexMap.pack(vertex2, vertex1));
+		if (position == LongIndexMap.NOT_FOUND)
+			return null;
+		return edges[position];
+	}
+
+	/**Boolean function to check if an edge exists between two vertices irrespective of its direction*/
+	public boolean containsConnectingEdge(int vertex1, int vertex2){
+		return firstEdgeMap.containsKey(LongIndexMap.pack(vertex1, vertex2))
+				|| firstEdgeMap.containsKey(LongIndexMap.pack(vertex2, vertex1));
+	}
+
+	/**Function to get all edges inserted from source to destination, null if none*/
+	public ArrayList<EdgeElement> allDirectedEdges(int source, int destination){
+		ArrayList<EdgeElement> temp = new ArrayList<EdgeElement>();
+		appendChain(temp, source, destination);
+		if (temp.size() == 0)
+			return null;
+		return temp;
+	}
+
+	/**Function to get all edges between two vertices irrespective of their direction, null if none*/
+	public ArrayList<EdgeElement> allConnectingEdges(int vertex1, int vertex2){
+		ArrayList<EdgeElement> temp = new ArrayList<EdgeElement>();
+		appendChain(temp, vertex1, vertex2);
+		if (vertex1 != vertex2)
+			appendChain(temp, vertex2, vertex1);
+		if (temp.size() == 0)
+			return null;
+		return temp;
+	}
+
+	/**Function to append the chain of edges from source to destination to a list*/
+	private void appendChain(ArrayList<EdgeElement> list, int source, int destination){
+		int position = firstEdgeMap.get(LongIndexMap.pack(source, destination));
+		while (position >= 0){
+			list.add(edges[position]);
+			position = nextParallelEdge[position];
+		}
+	}
+
+	/**Function to get the number of edges in the index*/
+	public int size(){
+		return edgeCount;
+	}
+}
@@ -34,8 +34,20 @@ public class GcontrollerImpl implements Gcontroller{
 	/**JDSL Graph Implementation*/
 	protected JDSLGraphImpl graph;
 
+	/**Map from vertex ID to the index assigned to the vertex on insertion*/
+	private StringIndexMap vertexIndexMap;
+
+	/**Vertices in the order of insertion, position in the list is the vertex index*/
+	private ArrayList<VertexElement> indexedVertices;
+
+	/**Index of the edges by their (source index, destination index) pair*/
+	private ConnectingEdgeIndex connectingEdgeIndex;
+
 	public GcontrollerImpl(){
 		graph= new JDSLGraphImpl();
+		vertexIndexMap = new StringIndexMap();
+		indexedVertices = new ArrayList<VertexElement>();
+		connectingEdgeIndex = new ConnectingEdgeIndex();
 	}
 	
 	private static final String classIdentifier = "Gcontroller";
@@ -43,22 +55,53 @@ public class GcontrollerImpl implements Gcontroller{
 
 	
 	public boolean aConnectingEdge(String vertexID1, String vertexID2) {
-		return graph.edgeExists(vertexID1, vertexID2);
+		int vertex1 = vertexIndexMap.get(vertexID1);
+		int vertex2 = vertexIndexMap.get(vertexID2);
+		if (vertex1 == StringIndexMap.NOT_FOUND || vertex2 == StringIndexMap.NOT_FOUND)
+			return false;
+		return connectingEdgeIndex.containsConnectingEdge(vertex1, vertex2);
 	}
 
 	
 	public boolean aConnectingEdge(VertexElement vertex1, VertexElement vertex2) {
-		return graph.edgeExists(vertex1.getVertexID(), vertex2.getVertexID());
+		return aConnectingEdge(vertex1.getVertexID(), vertex2.getVertexID());
 	}
 
 	
 	public EdgeElement getConnectingEdge(String sourceID, String destinationID) {
-		return graph.getConnectingEdge(sourceID, destinationID);
+		int source = vertexIndexMap.get(sourceID);
+		int destination = vertexIndexMap.get(destinationID);
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.getConnectingEdge(source, destination);
 	}
 
 	
 	public EdgeElement getConnectingEdge(VertexElement source, VertexElement destination) {
-		return graph.getConnectingEdge(source.getVertexID(), destination.getVertexID());
+		return getConnectingEdge(source.getVertexID(), destination.getVertexID());
+	}
+
+	
+	public EdgeElement getDirectedEdge(String sourceID, String destinationID) {
+		int source = vertexIndexMap.get(sourceID);
+		int destination = vertexIndexMap.get(destinationID);
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.getDirectedEdge(source, destination);
+	}
+
+	
+	public EdgeElement getDirectedEdge(VertexElement source, VertexElement destination) {
+		return getDirectedEdge(source.getVertexID(), destination.getVertexID());
+	}
+
+	
+	public ArrayList<EdgeElement> allDirectedEdges(String sourceID, String destinationID) {
+		int source = vertexIndexMap.get(sourceID);
+		int destination = vertexIndexMap.get(destinationID);
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.allDirectedEdges(source, destination);
 	}
 
 	
@@ -73,6 +116,18 @@ public class GcontrollerImpl implements Gcontroller{
 	}
 
 	
+	public VertexElement getVertexByIndex(int vertexIndex) {
+		if (vertexIndex < 0 || vertexIndex >= indexedVertices.size())
+			return null;
+		return indexedVertices.get(vertexIndex);
+	}
+
+	
+	public int getVertexCount() {
+		return indexedVertices.size();
+	}
+
+	
 	public Set<EdgeElement> getEdgeSet() {
 		Set<EdgeElement> edgeSet = new HashSet<EdgeElement>();
 		Iterator<String> iter = getEdgeIDSet().iterator();
@@ -107,6 +162,11 @@ public class GcontrollerImpl implements Gcontroller{
 	public void addVertex(VertexElement vertex) {
 		if (this.vertexExists(vertex)==false){
 			this.graph.addVertex(vertex);
+			if (this.graph.getVertexIdSet().contains(vertex.getVertexID())){
+				vertex.setVertexIndex(indexedVertices.size());
+				vertexIndexMap.put(vertex.getVertexID(), indexedVertices.size());
+				indexedVertices.add(vertex);
+			}
 		}
 		else
 			GraphLogger.logMsg("Vertex already exists", classIdentifier);
@@ -118,6 +178,8 @@ public class GcontrollerImpl implements Gcontroller{
 //		if (this.aConnectingEdge(edge.getSourceVertex(), edge.getDestinationVertex())==false){
 			if (this.graph.addEdge(edge))
 			{
+				connectingEdgeIndex.addEdge(vertexIndexMap.get(edge.getSourceVertex().getVertexID()),
+						vertexIndexMap.get(edge.getDestinationVertex().getVertexID()), edge);
 				edge.getSourceVertex().insertConnectedEdge(edge);
 				edge.getDestinationVertex().insertConnectedEdge(edge);
 			}
@@ -130,20 +192,20 @@ public class GcontrollerImpl implements Gcontroller{
 
 	
 	public boolean vertexExists(String vertexID) {
-		return this.getVertexIDSet().contains(vertexID);
+		return vertexIndexMap.containsKey(vertexID);
 	}
 
 	
 	public boolean vertexExists(VertexElement vertex) {
-		return this.getVertexIDSet().contains(vertex.getVertexID());
+		return vertexIndexMap.containsKey(vertex.getVertexID());
 	}
 
 	
 	public Gcontroller createCopy() {
 		Gcontroller newController = new GcontrollerImpl();
-		Iterator<VertexElement> iter = this.getVertexSet().iterator();
-		while(iter.hasNext()){
-			VertexElement newVertex = iter.next().copyVertexElement(newController);
+		//Vertices are copied in index order so that indices are preserved in the copy
+		for (int i=0;i<indexedVertices.size();i++){
+			VertexElement newVertex = indexedVertices.get(i).copyVertexElement(newController);
 			newController.addVertex(newVertex);
 		}
 
@@ -158,13 +220,17 @@ public class GcontrollerImpl implements Gcontroller{
 	
 	public ArrayList<EdgeElement> allConnectingEdges(String vertexID1,
 			String vertexID2) {
-		return graph.allConnectingEdges(vertexID1, vertexID2);
+		int vertex1 = vertexIndexMap.get(vertexID1);
+		int vertex2 = vertexIndexMap.get(vertexID2);
+		if (vertex1 == StringIndexMap.NOT_FOUND || vertex2 == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.allConnectingEdges(vertex1, vertex2);
 	}
 
 	
 	public ArrayList<EdgeElement> allConnectingEdges(VertexElement vertexID1,
 			VertexElement vertexID2) {
-		return graph.allConnectingEdges(vertexID1.getVertexID(), vertexID2.getVertexID());
+		return allConnectingEdges(vertexID1.getVertexID(), vertexID2.getVertexID());
 	}
 
 }
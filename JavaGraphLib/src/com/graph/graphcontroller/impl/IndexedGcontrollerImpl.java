@@ -0,0 +1,266 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.graph.graphcontroller.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.graph.elements.edge.EdgeElement;
+import com.graph.elements.vertex.VertexElement;
+import com.graph.graphcontroller.Gcontroller;
+import com.graph.logger.GraphLogger;
+
+/**
+ * Graph controller that does not depend on the JDSL incidence list graph.
+ * Vertices and edges are stored in arrays indexed by dense integers assigned
+ * in insertion order, IDs are resolved through open addressing maps and
+ * edges are indexed by their (source, destination) vertex pair, so that
+ * vertexExists, getVertex and getConnectingEdge are constant time and do not
+ * depend on the degree of the vertices.
+ * 
+ * Edge lookups between two vertices are direction insensitive, as in the
+ * JDSL based implementation: an edge inserted from A to B is returned for
+ * both (A,B) and (B,A). Edges in the requested direction are preferred, so
+ * that topologies with one directed edge per direction resolve to the edge
+ * in the direction of the query.
+ */
+public class IndexedGcontrollerImpl implements Gcontroller {
+
+	private static final String classIdentifier = "IndexedGcontroller";
+
+	/**Vertices of the graph indexed by their vertex index*/
+	private VertexElement[] vertices;
+
+	/**Number of vertices in the graph*/
+	private int vertexCount;
+
+	/**Edges of the graph indexed by their edge index*/
+	private EdgeElement[] edges;
+
+	/**Number of edges in the graph*/
+	private int edgeCount;
+
+	/**Map from vertex ID to vertex index*/
+	private StringIndexMap vertexIndexMap;
+
+	/**Map from edge ID to edge index*/
+	private StringIndexMap edgeIndexMap;
+
+	/**Index of the edges by their (source index, destination index) pair*/
+	private ConnectingEdgeIndex connectingEdgeIndex;
+
+	/**default constructor*/
+	public IndexedGcontrollerImpl(){
+		this(16, 32);
+	}
+
+	/**Constructor with the expected size of the graph*/
+	public IndexedGcontrollerImpl(int expectedVertices, int expectedEdges){
+		if (expectedVertices < 1)
+			expectedVertices = 1;
+		if (expectedEdges < 1)
+			expectedEdges = 1;
+		vertices = new VertexElement[expectedVertices];
+		edges = new EdgeElement[expectedEdges];
+		vertexIndexMap = new StringIndexMap(expectedVertices);
+		edgeIndexMap = new StringIndexMap(expectedEdges);
+		connectingEdgeIndex = new ConnectingEdgeIndex(expectedEdges);
+	}
+
+	/**Function to get the number of vertices in the graph*/
+	public int getVertexCount(){
+		return vertexCount;
+	}
+
+	/**Function to get the number of edges in the graph*/
+	public int getEdgeCount(){
+		return edgeCount;
+	}
+
+	/**Function to get the index of a vertex, -1 if the vertex does not exist*/
+	public int getVertexIndex(String vertexID){
+		return vertexIndexMap.get(vertexID);
+	}
+
+	/**Function to get the vertex stored at a given index*/
+	public VertexElement getVertexByIndex(int index){
+		if (index < 0 || index >= vertexCount)
+			return null;
+		return vertices[index];
+	}
+
+	public void addVertex(VertexElement vertex) {
+		if (vertexIndexMap.containsKey(vertex.getVertexID())){
+			GraphLogger.logMsg("Vertex already exists", classIdentifier);
+			return;
+		}
+		if (vertexCount == vertices.length){
+			VertexElement[] temp = new VertexElement[vertices.length << 1];
+			System.arraycopy(vertices, 0, temp, 0, vertexCount);
+			vertices = temp;
+		}
+		vertices[vertexCount] = vertex;
+		vertex.setVertexIndex(vertexCount);
+		vertexIndexMap.put(vertex.getVertexID(), vertexCount);
+		vertexCount++;
+	}
+
+	/**Function to add an edge in the graph. Also responsible for inserting the edges in the VertexElements*/
+	public void addEdge(EdgeElement edge) {
+		int source = vertexIndexMap.get(edge.getSourceVertex().getVertexID());
+		int destination = vertexIndexMap.get(edge.getDestinationVertex().getVertexID());
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND || edgeIndexMap.containsKey(edge.getEdgeID())){
+			GraphLogger.logMsg("Error inserting edge in the graph", classIdentifier);
+			return;
+		}
+		if (edgeCount == edges.length){
+			EdgeElement[] temp = new EdgeElement[edges.length << 1];
+			System.arraycopy(edges, 0, temp, 0, edgeCount);
+			edges = temp;
+		}
+		edges[edgeCount] = edge;
+		edgeIndexMap.put(edge.getEdgeID(), edgeCount);
+		connectingEdgeIndex.addEdge(source, destination, edge);
+		edgeCount++;
+
+		edge.getSourceVertex().insertConnectedEdge(edge);
+		edge.getDestinationVertex().insertConnectedEdge(edge);
+	}
+
+	public EdgeElement getConnectingEdge(String vertexID1, String vertexID2) {
+		int vertex1 = vertexIndexMap.get(vertexID1);
+		int vertex2 = vertexIndexMap.get(vertexID2);
+		if (vertex1 == StringIndexMap.NOT_FOUND || vertex2 == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.getConnectingEdge(vertex1, vertex2);
+	}
+
+	public EdgeElement getConnectingEdge(VertexElement vertexID1, VertexElement vertexID2) {
+		return getConnectingEdge(vertexID1.getVertexID(), vertexID2.getVertexID());
+	}
+
+	public ArrayList<EdgeElement> allConnectingEdges(String vertexID1, String vertexID2) {
+		int vertex1 = vertexIndexMap.get(vertexID1);
+		int vertex2 = vertexIndexMap.get(vertexID2);
+		if (vertex1 == StringIndexMap.NOT_FOUND || vertex2 == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.allConnectingEdges(vertex1, vertex2);
+	}
+
+	public ArrayList<EdgeElement> allConnectingEdges(VertexElement vertexID1, VertexElement vertexID2) {
+		return allConnectingEdges(vertexID1.getVertexID(), vertexID2.getVertexID());
+	}
+
+	public boolean aConnectingEdge(String vertexID1, String vertexID2) {
+		int vertex1 = vertexIndexMap.get(vertexID1);
+		int vertex2 = vertexIndexMap.get(vertexID2);
+		if (vertex1 == StringIndexMap.NOT_FOUND || vertex2 == StringIndexMap.NOT_FOUND)
+			return false;
+		return connectingEdgeIndex.containsConnectingEdge(vertex1, vertex2);
+	}
+
+	public boolean aConnectingEdge(VertexElement vertexID1, VertexElement vertexID2) {
+		return aConnectingEdge(vertexID1.getVertexID(), vertexID2.getVertexID());
+	}
+
+	public EdgeElement getDirectedEdge(String sourceID, String destinationID) {
+		int source = vertexIndexMap.get(sourceID);
+		int destination = vertexIndexMap.get(destinationID);
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.getDirectedEdge(source, destination);
+	}
+
+	public EdgeElement getDirectedEdge(VertexElement source, VertexElement destination) {
+		return getDirectedEdge(source.getVertexID(), destination.getVertexID());
+	}
+
+	public ArrayList<EdgeElement> allDirectedEdges(String sourceID, String destinationID) {
+		int source = vertexIndexMap.get(sourceID);
+		int destination = vertexIndexMap.get(destinationID);
+		if (source == StringIndexMap.NOT_FOUND || destination == StringIndexMap.NOT_FOUND)
+			return null;
+		return connectingEdgeIndex.allDirectedEdges(source, destination);
+	}
+
+	public boolean vertexExists(String vertexID) {
+		return vertexIndexMap.containsKey(vertexID);
+	}
+
+	public boolean vertexExists(VertexElement vertex) {
+		return vertexIndexMap.containsKey(vertex.getVertexID());
+	}
+
+	public VertexElement getVertex(String vertexID) {
+		int index = vertexIndexMap.get(vertexID);
+		if (index == StringIndexMap.NOT_FOUND)
+			return null;
+		return vertices[index];
+	}
+
+	public EdgeElement getEdge(String edgeID) {
+		int index = edgeIndexMap.get(edgeID);
+		if (index == StringIndexMap.NOT_FOUND)
+			return null;
+		return edges[index];
+	}
+
+	/**Returns a new set, in insertion order, that can be modified by the caller*/
+	public Set<String> getVertexIDSet() {
+		Set<String> temp = new LinkedHashSet<String>(vertexCount * 2);
+		for (int i = 0; i < vertexCount; i++)
+			temp.add(vertices[i].getVertexID());
+		return temp;
+	}
+
+	/**Returns a new set, in insertion order, that can be modified by the caller*/
+	public Set<VertexElement> getVertexSet() {
+		Set<VertexElement> temp = new LinkedHashSet<VertexElement>(vertexCount * 2);
+		for (int i = 0; i < vertexCount; i++)
+			temp.add(vertices[i]);
+		return temp;
+	}
+
+	/**Returns a new set, in insertion order, that can be modified by the caller*/
+	public Set<String> getEdgeIDSet() {
+		Set<String> temp = new LinkedHashSet<String>(edgeCount * 2);
+		for (int i = 0; i < edgeCount; i++)
+			temp.add(edges[i].getEdgeID());
+		return temp;
+	}
+
+	/**Returns a new set, in insertion order, that can be modified by the caller*/
+	public Set<EdgeElement> getEdgeSet() {
+		Set<EdgeElement> temp = new LinkedHashSet<EdgeElement>(edgeCount * 2);
+		for (int i = 0; i < edgeCount; i++)
+			temp.add(edges[i]);
+		return temp;
+	}
+
+	/**Function to create a copy of the graph, vertex and edge indices are preserved in the copy*/
+	public Gcontroller createCopy() {
+		IndexedGcontrollerImpl newController = new IndexedGcontrollerImpl(vertexCount, edgeCount);
+		for (int i = 0; i < vertexCount; i++)
+			newController.addVertex(vertices[i].copyVertexElement(newController));
+		for (int i = 0; i < edgeCount; i++)
+			newController.addEdge(edges[i].copyEdgeElement(newController));
+		return newController;
+	}
+
+}
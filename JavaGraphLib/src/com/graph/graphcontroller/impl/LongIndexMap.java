@@ -0,0 +1,163 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.graph.graphcontroller.impl;
+
+/**
+ * Open addressing map from primitive long keys to integer values. The graph
+ * controllers use it to index edges by a packed (source index, destination
+ * index) pair, so that a lookup costs one hash and a short probe instead of
+ * a walk over the incidence list of a vertex. PCEE also uses it to index
+ * requests in flight by request ID.
+ */
+public class LongIndexMap {
+
+	/**Value returned by get() when the key is not present*/
+	public static final int NOT_FOUND = -1;
+
+	/**Table of keys*/
+	private long[] keys;
+
+	/**Table of values aligned with the keys table*/
+	private int[] values;
+
+	/**Flags marking used slots, as every long value is a valid key*/
+	private boolean[] used;
+
+	/**Number of entries in the map*/
+	private int size;
+
+	/**Mask used to wrap the probe sequence, table length is a power of two*/
+	private int mask;
+
+	/**default constructor*/
+	public LongIndexMap(){
+		this(16);
+	}
+
+	/**Constructor with an expected number of entries*/
+	public LongIndexMap(int expectedSize){
+		int capacity = 16;
+		while (capacity < expectedSize * 2)
+			capacity <<= 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+	/**Function to pack two integer indices into a single key*/
+	public static long pack(int first, int second){
+		return (((long) first) << 32) | (second & 0xFFFFFFFFL);
+	}
+
+	/**Function to spread the key over the table*/
+	private static int hash(long key){
+		key ^= (key >>> 33);
+		key *= 0xff51afd7ed558ccdL;
+		key ^= (key >>> 33);
+		return (int) key;
+	}
+
+	/**Function to get the value associated with a key, NOT_FOUND if absent*/
+	public int get(long key){
+		int slot = hash(key) & mask;
+		while (used[slot]){
+			if (keys[slot] == key)
+				return values[slot];
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**Function to check if a key is present in the map*/
+	public boolean containsKey(long key){
+		return get(key) != NOT_FOUND;
+	}
+
+	/**Function to insert or replace the value associated with a key*/
+	public void put(long key, int value){
+		if ((size + 1) * 2 > keys.length)
+			resize();
+		int slot = hash(key) & mask;
+		while (used[slot]){
+			if (keys[slot] == key){
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	/**Function to remove a key, returns its value or NOT_FOUND if absent*/
+	public int remove(long key){
+		int slot = hash(key) & mask;
+		while (used[slot]){
+			if (keys[slot] == key){
+				int value = values[slot];
+				// Move back the following entries of the probe sequence which
+				// would no longer be found past the freed slot
+				int free = slot;
+				int next = (slot + 1) & mask;
+				while (used[next]){
+					int home = hash(keys[next]) & mask;
+					if (((next - home) & mask) >= ((next - free) & mask)){
+						keys[free] = keys[next];
+						values[free] = values[next];
+						free = next;
+					}
+					next = (next + 1) & mask;
+				}
+				used[free] = false;
+				size--;
+				return value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**Function to get the number of entries in the map*/
+	public int size(){
+		return size;
+	}
+
+	/**Function to double the size of the table and rehash all entries*/
+	private void resize(){
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new long[oldKeys.length << 1];
+		values = new int[oldKeys.length << 1];
+		used = new boolean[oldKeys.length << 1];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++){
+			if (oldUsed[i]){
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot])
+					slot = (slot + 1) & mask;
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.graph.graphcontroller.impl;
+
+/**
+ * Open addressing map from String identifiers to dense integer indices. Used
+ * by the graph controllers to resolve vertex and edge IDs without boxing or
+ * chaining. Entries can only be added, which matches the way topologies are
+ * populated by the importers.
+ */
+public class StringIndexMap {
+
+	/**Value returned by get() when the key is not present*/
+	public static final int NOT_FOUND = -1;
+
+	/**Table of keys, null marks an empty slot*/
+	private String[] keys;
+
+	/**Table of values aligned with the keys table*/
+	private int[] values;
+
+	/**Number of entries in the map*/
+	private int size;
+
+	/**Mask used to wrap the probe sequence, table length is a power of two*/
+	private int mask;
+
+	/**default constructor*/
+	public StringIndexMap(){
+		this(16);
+	}
+
+	/**Constructor with an expected number of entries*/
+	public StringIndexMap(int expectedSize){
+		int capacity = 16;
+		while (capacity < expectedSize * 2)
+			capacity <<= 1;
+		keys = new String[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**Function to spread the String hash code over the table*/
+	private static int hash(String key){
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h;
+	}
+
+	/**Function to get the index associated with a key, NOT_FOUND if absent*/
+	public int get(String key){
+		int slot = hash(key) & mask;
+		String current;
+		while ((current = keys[slot]) != null){
+			if (current == key || current.equals(key))
+				return values[slot];
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**Function to check if a key is present in the map*/
+	public boolean containsKey(String key){
+		return get(key) != NOT_FOUND;
+	}
+
+	/**Function to insert or replace the index associated with a key*/
+	public void put(String key, int value){
+		if ((size + 1) * 2 > keys.length)
+			resize();
+		int slot = hash(key) & mask;
+		String current;
+		while ((current = keys[slot]) != null){
+			if (current.equals(key)){
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	/**Function to get the number of entries in the map*/
+	public int size(){
+		return size;
+	}
+
+	/**Function to double the size of the table and rehash all entries*/
+	private void resize(){
+		String[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new String[oldKeys.length << 1];
+		values = new int[oldKeys.length << 1];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++){
+			if (oldKeys[i] != null){
+				int slot = hash(oldKeys[i]) & mask;
+				while (keys[slot] != null)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
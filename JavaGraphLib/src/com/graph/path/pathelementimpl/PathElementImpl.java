@@ -180,21 +180,15 @@ public class PathElementImpl extends PathElement {
 
 	/** Function to set the edges of a path element, from a stack */
 	public void setEdges(Stack<VertexElement> pathNodes) {
-
-		int i = 0;
-		boolean allLinks = false;
-		for (VertexElement n : pathNodes) {
-			if (!allLinks) {
-				for (EdgeElement l : n.getConnectedEdges()) {
-					if (l.getDestinationVertex().equals(pathNodes.get(i + 1))) {
-						edges.add(l);
-						if (edges.size() + 1 == pathNodes.size()) {
-							allLinks = true;
-						}
-					}
-				}
-				i++;
-			}
+		for (int i = 0; i < pathNodes.size() - 1; i++) {
+			EdgeElement edge = graph.getDirectedEdge(pathNodes.get(i),
+					pathNodes.get(i + 1));
+			if (edge != null)
+				edges.add(edge);
+			else
+				GraphLogger.logError("No edge from "
+						+ pathNodes.get(i).getVertexID() + " to "
+						+ pathNodes.get(i + 1).getVertexID(), classIdentifier);
 		}
 	}
 }
@@ -0,0 +1,122 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.graph.graphcontroller.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongIndexMapTest {
+
+	@Test
+	public void putGetAndReplace() {
+		LongIndexMap map = new LongIndexMap();
+		map.put(LongIndexMap.pack(1, 2), 10);
+		map.put(LongIndexMap.pack(2, 1), 20);
+		assertEquals(10, map.get(LongIndexMap.pack(1, 2)));
+		assertEquals(20, map.get(LongIndexMap.pack(2, 1)));
+		assertEquals(LongIndexMap.NOT_FOUND, map.get(LongIndexMap.pack(1, 1)));
+
+		map.put(LongIndexMap.pack(1, 2), 11);
+		assertEquals(11, map.get(LongIndexMap.pack(1, 2)));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void packKeepsNegativeIndicesApart() {
+		assertFalse(LongIndexMap.pack(0, -1) == LongIndexMap.pack(-1, -1));
+		assertFalse(LongIndexMap.pack(1, 0) == LongIndexMap.pack(0, 1));
+	}
+
+	@Test
+	public void removeReturnsValueOnce() {
+		LongIndexMap map = new LongIndexMap();
+		map.put(7L, 70);
+		assertEquals(70, map.remove(7L));
+		assertEquals(LongIndexMap.NOT_FOUND, map.remove(7L));
+		assertFalse(map.containsKey(7L));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void resizeKeepsAllEntries() {
+		LongIndexMap map = new LongIndexMap(1);
+		for (int i = 0; i < 1000; i++)
+			map.put(LongIndexMap.pack(i, i + 1), i);
+		assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, map.get(LongIndexMap.pack(i, i + 1)));
+	}
+
+	/**
+	 * Removing entries from a full small table moves back the entries of
+	 * their probe sequences, none of which may be lost
+	 */
+	@Test
+	public void removeKeepsProbeSequencesReachable() {
+		// Each entry of a crowded 16 slot table is removed in turn
+		for (int removed = 0; removed < 7; removed++) {
+			LongIndexMap map = new LongIndexMap(7);
+			for (int i = 0; i < 7; i++)
+				map.put(i * 16L, i);
+			assertEquals(removed, map.remove(removed * 16L));
+			for (int i = 0; i < 7; i++) {
+				if (i == removed)
+					assertFalse(map.containsKey(i * 16L));
+				else
+					assertEquals(i, map.get(i * 16L));
+			}
+			assertEquals(6, map.size());
+		}
+	}
+
+	@Test
+	public void randomOperationsMatchHashMap() {
+		Random random = new Random(42);
+		LongIndexMap map = new LongIndexMap();
+		HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+		ArrayList<Long> keys = new ArrayList<Long>();
+
+		for (int i = 0; i < 100000; i++) {
+			int operation = random.nextInt(3);
+			if (operation < 2 || keys.isEmpty()) {
+				// Few distinct keys so that the table keeps crowded clusters
+				long key = random.nextInt(512);
+				int value = random.nextInt(Integer.MAX_VALUE);
+				map.put(key, value);
+				if (expected.put(key, value) == null)
+					keys.add(key);
+			} else {
+				long key = keys.remove(random.nextInt(keys.size()));
+				assertEquals(expected.remove(key).intValue(), map.remove(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+
+		for (Long key : expected.keySet())
+			assertEquals(expected.get(key).intValue(), map.get(key));
+		for (long key = 0; key < 512; key++)
+			assertTrue(map.containsKey(key) == expected.containsKey(key));
+	}
+}
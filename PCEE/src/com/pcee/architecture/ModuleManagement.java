@@ -28,10 +28,12 @@ import com.pcee.architecture.computationmodule.ComputationModule;
 import com.pcee.architecture.computationmodule.ComputationModuleImpl;
 import com.pcee.architecture.computationmodule.ted.TopologyInformation;
 import com.pcee.architecture.networkmodule.NetworkModule;
+import com.pcee.architecture.networkmodule.BlockingNetworkModuleImpl;
 import com.pcee.architecture.networkmodule.NetworkModuleImpl;
 import com.pcee.architecture.sessionmodule.SessionModule;
 import com.pcee.architecture.sessionmodule.SessionModuleImpl;
 import com.pcee.logger.Logger;
+import com.pcee.protocol.message.PCEPMessagePool;
 
 public class ModuleManagement {
 
@@ -73,7 +75,8 @@ public class ModuleManagement {
 			Properties reader = new Properties();
 			reader.load(new FileInputStream(configFile));
 
-			int port = 0, sessionThreads = 0, computationThreads = 0;
+			int port = 0, sessionThreads = 0, computationThreads = 0, selectorThreads = 1;
+			String networkModuleType = "nio";
 
 			try {
 				String logger = reader.getProperty("logging");
@@ -95,10 +98,49 @@ public class ModuleManagement {
 						.getProperty("sessionThreads"));
 				computationThreads = Integer.valueOf(reader
 						.getProperty("computationThreads"));
+				networkModuleType = reader.getProperty("networkModule", "nio")
+						.trim();
+				selectorThreads = Integer.valueOf(reader.getProperty(
+						"selectorThreads", "1").trim());
+				NetworkModuleImpl.setUnixSocketPath(reader
+						.getProperty("unixSocketPath"));
+				NetworkModuleImpl.setMaxQueuedBytes(Long.parseLong(reader
+						.getProperty("maxQueuedBytes", "4194304").trim()));
+				NetworkModuleImpl.setWriteCoalesceWindow(Integer.parseInt(reader
+						.getProperty("writeCoalesceWindow", "0").trim()));
+				NetworkModuleImpl.setMaxInFlightRequests(Integer.parseInt(reader
+						.getProperty("maxInFlightRequests", "1024").trim()));
+				PCEPMessagePool.setMaxPooledMessages(Integer.parseInt(reader
+						.getProperty("messagePoolSize", "64").trim()));
+				// Messages which are never released are reported in debug mode
+				PCEPMessagePool.setLeakDetection(Logger.debugging);
+				ComputationModuleImpl.setRequestQueueWatermark(Integer
+						.parseInt(reader.getProperty("requestQueueWatermark",
+								"16384").trim()));
+				ClientModuleImpl.setRequestWindow(Integer.parseInt(reader
+						.getProperty("requestWindow", "64").trim()));
+				ClientModuleImpl.setRequestTimeout(Long.parseLong(reader
+						.getProperty("requestTimeout", "30000").trim()));
+				ComputationModuleImpl.setRemotePeerWindow(Integer
+						.parseInt(reader.getProperty("remotePeerWindow", "64")
+								.trim()));
+				ComputationModuleImpl.setRemotePeerTimeout(Long.parseLong(reader
+						.getProperty("remotePeerTimeout", "30000").trim()));
 				TopologyInformation.setTopoPath(reader.getProperty("topology"));
 				TopologyInformation.setImporter(reader.getProperty("importer"));
 				TopologyInformation.setTopologyUpdatePort(Integer
 						.parseInt(reader.getProperty("topologyUpdatePort")));
+				TopologyInformation.setGraphImplementation(reader.getProperty(
+						"graphImplementation", "JDSL").trim());
+				TopologyInformation.setSharedTopologyFile(reader
+						.getProperty("sharedTopologyFile"));
+				TopologyInformation.setJournalDirectory(reader
+						.getProperty("tedJournal"));
+				TopologyInformation.setSnapshotInterval(Integer.parseInt(reader
+						.getProperty("tedSnapshotInterval", "300").trim()));
+				TopologyInformation.setJournalCommitInterval(Integer
+						.parseInt(reader.getProperty("tedJournalCommitInterval",
+								"0").trim()));
 			} catch (Exception e) {
 				System.out.println("Wrong Configuration Inputs!");
 				System.exit(0);
@@ -106,7 +148,12 @@ public class ModuleManagement {
 			if (running == false) {
 
 				this.isServer = isServer;
-				networkModule = new NetworkModuleImpl(isServer, this, port);
+				if (networkModuleType.equalsIgnoreCase("blocking"))
+					networkModule = new BlockingNetworkModuleImpl(isServer,
+							this, port);
+				else
+					networkModule = new NetworkModuleImpl(isServer, this, port,
+							selectorThreads);
 				if (isServer == false)
 					sessionModule = new SessionModuleImpl(this, sessionThreads);
 				else
@@ -133,9 +180,9 @@ public class ModuleManagement {
 		networkModule.stop();
 		if (isServer == true) {
 			computationModule.stop();
-		} else {
-			clientModule.stop();
+			TopologyInformation.stopTopologyUpdateListener();
 		}
+		clientModule.stop();
 	}
 
 	public NetworkModule getNetworkModule() {
@@ -18,6 +18,14 @@
 package com.pcee.architecture.clientmodule;
 
 import com.pcee.architecture.Module;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 
 public abstract class ClientModule implements Module{
+
+	//Function to send a path computation request without waiting for the replies to the previous requests on the session
+	public abstract boolean sendRequest(PCEPMessage request, ResponseListener listener);
+
+	//Function called by the session module once a session is closed, fails the requests waiting for a reply on it
+	public abstract void sessionClosed(PCEPAddress address);
 }
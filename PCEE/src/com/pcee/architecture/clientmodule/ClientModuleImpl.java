@@ -17,9 +17,14 @@
 
 package com.pcee.architecture.clientmodule;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import com.pcee.architecture.ModuleEnum;
 import com.pcee.architecture.ModuleManagement;
+import com.pcee.architecture.sessionmodule.TimingWheel;
+import com.pcee.common.InFlightTable;
 import com.pcee.logger.Logger;
 import com.pcee.protocol.message.PCEPMessage;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
@@ -33,6 +38,40 @@ public class ClientModuleImpl extends ClientModule {
 
 	public LinkedBlockingQueue<PCEPMessage> receiveQueue;
 
+	// Maximum number of requests in flight on a session
+	private static int requestWindow = 64;
+
+	// Time after which a request without reply fails, in milliseconds
+	private static long requestTimeout = 30000;
+
+	// Interval at which the requests in flight are checked for timeouts
+	private static final long TIMEOUT_CHECK_INTERVAL = 1000;
+
+	/** Request sent through sendRequest() waiting for its reply */
+	private static class PendingRequest {
+		private final PCEPMessage request;
+		private final ResponseListener listener;
+
+		PendingRequest(PCEPMessage request, ResponseListener listener) {
+			this.request = request;
+			this.listener = listener;
+		}
+	}
+
+	// Requests in flight on each session, indexed by the address key of the
+	// session
+	private ConcurrentHashMap<Long, InFlightTable<PendingRequest>> inFlightTables;
+
+	// Timer checking the requests in flight for timeouts
+	private TimingWheel requestTimer;
+
+	private TimingWheel.Timeout timeoutCheck = new TimingWheel.Timeout() {
+		protected void expire() {
+			expireRequests();
+			requestTimer.schedule(this, TIMEOUT_CHECK_INTERVAL);
+		}
+	};
+
 
 
 	public ClientModuleImpl(ModuleManagement layerManagement) {
@@ -44,15 +83,121 @@ public class ClientModuleImpl extends ClientModule {
 		this.start();
 	}
 
+	public static void setRequestWindow(int requestWindow) {
+		if (requestWindow > 0)
+			ClientModuleImpl.requestWindow = requestWindow;
+	}
+
+	public static void setRequestTimeout(long requestTimeout) {
+		if (requestTimeout > 0)
+			ClientModuleImpl.requestTimeout = requestTimeout;
+	}
+
 	public void stop() {
 		localDebugger("|");
 		localLogger("Entering: stop()");
+		requestTimer.stop();
 	}
 
 	public void start() {
 		localDebugger("|");
 		localLogger("Entering: start()");
 		receiveQueue = new LinkedBlockingQueue<PCEPMessage>();
+		inFlightTables = new ConcurrentHashMap<Long, InFlightTable<PendingRequest>>();
+		requestTimer = new TimingWheel("ClientRequestTimer", 100, 64);
+		requestTimer.schedule(timeoutCheck, TIMEOUT_CHECK_INTERVAL);
+	}
+
+	/**
+	 * Function to send a path computation request on the session of its
+	 * address without waiting for the replies to the previous requests. The
+	 * reply is correlated with the request through the request ID of the RP
+	 * object and passed to the listener, replies to requests sent with
+	 * sendMessage() go to the receive queue
+	 * 
+	 * @param request
+	 * @param listener
+	 * @return false if the window of requests in flight on the session is
+	 *         full or the request ID is already in flight
+	 */
+	public boolean sendRequest(PCEPMessage request, ResponseListener listener) {
+		long requestID = request.getRequestID();
+		if (requestID < 0) {
+			localLogger("| Error: Request without RP object");
+			return false;
+		}
+		if (!getInFlightTable(request.getAddress()).add(requestID,
+				new PendingRequest(request, listener), requestTimeout))
+			return false;
+		lm.getSessionModule().receiveMessage(request, ModuleEnum.CLIENT_MODULE);
+		return true;
+	}
+
+	/**
+	 * Number of requests sent through sendRequest() waiting for their reply
+	 * on the session of an address
+	 * 
+	 * @param address
+	 * @return
+	 */
+	public int getRequestsInFlight(PCEPAddress address) {
+		InFlightTable<PendingRequest> table = inFlightTables.get(address
+				.getAddressKey());
+		return table == null ? 0 : table.size();
+	}
+
+	private InFlightTable<PendingRequest> getInFlightTable(PCEPAddress address) {
+		Long key = address.getAddressKey();
+		InFlightTable<PendingRequest> table = inFlightTables.get(key);
+		if (table == null) {
+			table = new InFlightTable<PendingRequest>(requestWindow);
+			InFlightTable<PendingRequest> existing = inFlightTables.putIfAbsent(
+					key, table);
+			if (existing != null)
+				table = existing;
+		}
+		return table;
+	}
+
+	/**
+	 * Function to pass a reply to the listener of its request. The late
+	 * reply of a request which timed out is dropped
+	 * 
+	 * @param response
+	 * @return false if the reply does not belong to a request sent through
+	 *         sendRequest()
+	 */
+	private boolean completeRequest(PCEPMessage response) {
+		InFlightTable<PendingRequest> table = inFlightTables.get(response
+				.getAddress().getAddressKey());
+		long requestID = response.getRequestID();
+		if (table == null || requestID < 0)
+			return false;
+		PendingRequest pending = table.remove(requestID);
+		if (pending != null) {
+			pending.listener.responseReceived(pending.request, response);
+			return true;
+		}
+		if (table.removeExpired(requestID)) {
+			localLogger("| Dropping reply to a request which timed out");
+			response.release();
+			return true;
+		}
+		return false;
+	}
+
+	/** Function to fail the requests which timed out */
+	private void expireRequests() {
+		long now = System.nanoTime();
+		ArrayList<PendingRequest> expired = new ArrayList<PendingRequest>();
+		Iterator<InFlightTable<PendingRequest>> iter = inFlightTables.values()
+				.iterator();
+		while (iter.hasNext())
+			iter.next().expire(now, expired);
+		for (int i = 0; i < expired.size(); i++) {
+			localLogger("| Request timed out");
+			expired.get(i).listener.requestFailed(expired.get(i).request);
+		}
 	}
 
 	public void closeConnection(PCEPAddress address) {
@@ -61,6 +206,23 @@ public class ClientModuleImpl extends ClientModule {
 		localDebugger("| address: " + address.getIPv4Address(true));
 
 		lm.getSessionModule().closeConnection(address);
+		// The session module reports the closed session, unless it was
+		// already closed
+		sessionClosed(address);
+	}
+
+	public void sessionClosed(PCEPAddress address) {
+		// Requests in flight on the session will not be answered
+		InFlightTable<PendingRequest> table = inFlightTables.remove(address
+				.getAddressKey());
+		if (table != null) {
+			ArrayList<PendingRequest> removed = new ArrayList<PendingRequest>();
+			table.clear(removed);
+			for (int i = 0; i < removed.size(); i++) {
+				localLogger("| Session closed with a request in flight");
+				removed.get(i).listener.requestFailed(removed.get(i).request);
+			}
+		}
 	}
 
 	public void registerConnection(PCEPAddress address, boolean connected,
@@ -77,23 +239,29 @@ public class ClientModuleImpl extends ClientModule {
 		}
 	}
 
-	public synchronized void receiveMessage(PCEPMessage message,
+	public void receiveMessage(PCEPMessage message,
 			ModuleEnum sourceLayer) {
-		localDebugger("|");
-		localDebugger("Entering: receiveMessage(PCEPMessage message, ModuleEnum sourceLayer)");
-		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| sourceLayer: " + sourceLayer);
+		if (Logger.debugging) {
+			localDebugger("|");
+			localDebugger("Entering: receiveMessage(PCEPMessage message, ModuleEnum sourceLayer)");
+			localDebugger("| message: " + message.contentInformation());
+			localDebugger("| sourceLayer: " + sourceLayer);
+		}
 
 		switch (sourceLayer) {
 		case SESSION_MODULE:
 			if (message.getMessageHeader().getTypeDecimalValue() == 4) {
 				// Path Computation Ressponse received
 				//ClientTest.messageQueue.add(message);
-				PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
-						.getPathComputationResponseFrame(message);
-				localLogger("| COMPUTATION RECEIVED: "
-						+ responseFrame.getTraversedVertexes());
-				receiveQueue.add(message);
+				if (Logger.logging) {
+					PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
+							.getPathComputationResponseFrame(message);
+					localLogger("| COMPUTATION RECEIVED: "
+							+ responseFrame.getTraversedVertexes());
+				}
+				// Replies are passed on as they arrive, in any order
+				if (!completeRequest(message))
+					receiveQueue.add(message);
 				
 			} else if (message.getMessageHeader().getTypeDecimalValue() == 5) {
 				receiveQueue.add(message);
@@ -112,12 +280,14 @@ public class ClientModuleImpl extends ClientModule {
 
 	}
 
-	public synchronized void sendMessage(PCEPMessage message,
+	public void sendMessage(PCEPMessage message,
 			ModuleEnum targetLayer) {
-		localDebugger("|");
-		localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
-		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| targetLayer: " + targetLayer);
+		if (Logger.debugging) {
+			localDebugger("|");
+			localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
+			localDebugger("| message: " + message.contentInformation());
+			localDebugger("| targetLayer: " + targetLayer);
+		}
 
 		switch (targetLayer) {
 		case SESSION_MODULE:
@@ -0,0 +1,46 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.clientmodule;
+
+import com.pcee.protocol.message.PCEPMessage;
+
+/**
+ * Callback receiving the outcome of a request sent through
+ * ClientModule.sendRequest(). Replies are delivered in the order they are
+ * received, which needs not be the order of the requests. The callbacks run
+ * on session layer threads and must not block.
+ */
+public interface ResponseListener {
+
+	/**
+	 * Function called when the reply to a request is received
+	 * 
+	 * @param request
+	 * @param response
+	 */
+	public void responseReceived(PCEPMessage request, PCEPMessage response);
+
+	/**
+	 * Function called when no reply was received before the request timeout,
+	 * or the session was closed
+	 * 
+	 * @param request
+	 */
+	public void requestFailed(PCEPMessage request);
+
+}
@@ -31,8 +31,15 @@ import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 public abstract class ComputationModule implements Module{
 
 	//Functions to suppoort worker tasks to receive incoming messages from other PCE peers
-	public abstract boolean  isValidRequestToRemotePeer(PCEPAddress address, String requestID);	
-	public abstract void registerRequestToRemotePeer(PCEPAddress address, String requestID, LinkedBlockingQueue<PCEPMessage> queue);
+	public abstract boolean  isValidRequestToRemotePeer(PCEPAddress address, long requestID);	
+	public abstract boolean registerRequestToRemotePeer(PCEPAddress address, long requestID, LinkedBlockingQueue<PCEPMessage> queue);
+	public abstract boolean sendRequestToRemotePeer(PCEPMessage request, LinkedBlockingQueue<PCEPMessage> queue);
 	protected abstract void processResponseFromRemotePeer(PCEPMessage message);
 
+	//Function called by the session module once a session is closed, drops the requests waiting for a reply on it
+	public abstract void sessionClosed(PCEPAddress address);
+
+	//Function called by the workers once a path computation request has been processed, releases the request
+	public abstract void requestCompleted(PCEPMessage request);
+
 }
@@ -17,8 +17,9 @@
 
 package com.pcee.architecture.computationmodule;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 import com.pcee.architecture.ModuleEnum;
@@ -26,11 +27,10 @@ import com.pcee.architecture.ModuleManagement;
 import com.pcee.architecture.computationmodule.gurobi.GurobiThreadPool;
 import com.pcee.architecture.computationmodule.ted.TopologyInformation;
 import com.pcee.architecture.computationmodule.threadpool.ThreadPool;
+import com.pcee.common.InFlightTable;
 import com.pcee.logger.Logger;
 import com.pcee.protocol.message.PCEPMessage;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
-import com.pcee.protocol.response.PCEPResponseFrame;
-import com.pcee.protocol.response.PCEPResponseFrameFactory;
 
 /**
  * 
@@ -52,8 +52,23 @@ public class ComputationModuleImpl extends ComputationModule {
 	// Thread-safe queue to store requests to be used by the thread pool
 	private LinkedBlockingQueue<PCEPMessage> requestQueue;
 
-	//HashMap for keeping track of requests made to remote peers and the associated worker tasks
-	private HashMap <String, LinkedBlockingQueue<PCEPMessage>> remotePeerResponseAssociationHashMap;
+	// Length of the request queue above which the network module stops
+	// reading new requests, reading resumes once the queue is half empty.
+	// Requests are dropped when the queue reaches twice this length
+	private static int requestQueueWatermark = 16384;
+
+	// Flag set while the request queue is above its watermark
+	private AtomicBoolean overloaded = new AtomicBoolean(false);
+
+	//Requests made to each remote peer and the queues of the associated worker tasks, indexed by the address key of the peer and the request ID
+	private ConcurrentHashMap<Long, InFlightTable<LinkedBlockingQueue<PCEPMessage>>> remotePeerRequestTables;
+
+	// Maximum number of requests in flight to a remote peer
+	private static int remotePeerWindow = 64;
+
+	// Time after which a request to a remote peer without reply is dropped,
+	// in milliseconds
+	private static long remotePeerTimeout = 30000;
 	
 	//Boolean to use GUROBI
 	private boolean isGurobi = false;
@@ -94,6 +109,21 @@ public class ComputationModuleImpl extends ComputationModule {
 		start();
 	}
 
+	public static void setRequestQueueWatermark(int requestQueueWatermark) {
+		if (requestQueueWatermark > 0)
+			ComputationModuleImpl.requestQueueWatermark = requestQueueWatermark;
+	}
+
+	public static void setRemotePeerWindow(int remotePeerWindow) {
+		if (remotePeerWindow > 0)
+			ComputationModuleImpl.remotePeerWindow = remotePeerWindow;
+	}
+
+	public static void setRemotePeerTimeout(long remotePeerTimeout) {
+		if (remotePeerTimeout > 0)
+			ComputationModuleImpl.remotePeerTimeout = remotePeerTimeout;
+	}
+
 	public void stop() {
 		if(!isGurobi)
 			threadPool.stop();
@@ -107,9 +137,9 @@ public class ComputationModuleImpl extends ComputationModule {
 		TopologyInformation.getInstance(isGurobi);
 		
 		//Innitialize the map that will record the responses coming from remote peers
-		remotePeerResponseAssociationHashMap = new HashMap<String, LinkedBlockingQueue<PCEPMessage>>();
+		remotePeerRequestTables = new ConcurrentHashMap<Long, InFlightTable<LinkedBlockingQueue<PCEPMessage>>>();
 		// Initialize a new request Queue
-		requestQueue = new LinkedBlockingQueue<PCEPMessage>();
+		requestQueue = new LinkedBlockingQueue<PCEPMessage>(2 * requestQueueWatermark);
 		if(!isGurobi)
 			// Initialize the thread pool used for computing requests
 			threadPool = new ThreadPool(lm, computationThreads, requestQueue);
@@ -138,7 +168,7 @@ public class ComputationModuleImpl extends ComputationModule {
 		case SESSION_MODULE:
 			//If message is a path computation request process message 
 			if (message.getMessageHeader().getTypeDecimalValue()==3)
-				requestQueue.add(message);
+				admitRequest(message);
 			else if (message.getMessageHeader().getTypeDecimalValue()==4) 
 				//Path computation response received from another PCE server /// needs to be sent to a worker in the computataion module
 				processResponseFromRemotePeer(message);
@@ -151,46 +181,112 @@ public class ComputationModuleImpl extends ComputationModule {
 
 	}
 
-	private String getKeyForRemotePeerAssociation(PCEPAddress address, String requestID) {
-		return address.getIPv4Address(true) + "-" + requestID;
+	/**
+	 * Function to queue a path computation request for the thread pool. The
+	 * network module is asked to stop reading new requests while the queue is
+	 * above its watermark
+	 * 
+	 * @param message
+	 */
+	private void admitRequest(PCEPMessage message) {
+		if (!requestQueue.offer(message)) {
+			lm.getNetworkModule().requestCompleted(message.getAddress());
+			Logger.logError("[MessageHandler] Request queue full, dropping request from "
+					+ message.getAddress().getIPv4Address());
+			message.release();
+			return;
+		}
+		if (requestQueue.size() >= requestQueueWatermark
+				&& overloaded.compareAndSet(false, true)) {
+			localLogger("Request queue above watermark, suspending reads");
+			lm.getNetworkModule().setOverloaded(true);
+		}
+	}
+
+	public void requestCompleted(PCEPMessage request) {
+		lm.getNetworkModule().requestCompleted(request.getAddress());
+		// The response has been sent, the request goes back to the message
+		// pool
+		request.release();
+		if (overloaded.get() && requestQueue.size() <= requestQueueWatermark / 2
+				&& overloaded.compareAndSet(true, false)) {
+			localLogger("Request queue drained, resuming reads");
+			lm.getNetworkModule().setOverloaded(false);
+		}
+	}
+
+	private InFlightTable<LinkedBlockingQueue<PCEPMessage>> getRemotePeerRequestTable(PCEPAddress address) {
+		Long key = address.getAddressKey();
+		InFlightTable<LinkedBlockingQueue<PCEPMessage>> table = remotePeerRequestTables.get(key);
+		if (table == null) {
+			table = new InFlightTable<LinkedBlockingQueue<PCEPMessage>>(remotePeerWindow);
+			InFlightTable<LinkedBlockingQueue<PCEPMessage>> existing = remotePeerRequestTables.putIfAbsent(key, table);
+			if (existing != null)
+				table = existing;
+		}
+		return table;
 	}
 	
-	public synchronized boolean  isValidRequestToRemotePeer(PCEPAddress address, String requestID){
+	public boolean  isValidRequestToRemotePeer(PCEPAddress address, long requestID){
 		//If the particular combination of remote PCE peer and request ID already exist do not make a new association
-		String key = getKeyForRemotePeerAssociation(address, requestID);
-		if (remotePeerResponseAssociationHashMap.containsKey(key)) 
-			return false;
-		return true;
+		return !getRemotePeerRequestTable(address).contains(requestID);
 	}
 	
-	public synchronized void registerRequestToRemotePeer(PCEPAddress address, String requestID, LinkedBlockingQueue<PCEPMessage> queue){
-		if (isValidRequestToRemotePeer(address, requestID)) {
-			String key = getKeyForRemotePeerAssociation(address, requestID);
-			remotePeerResponseAssociationHashMap.put(key, queue);
-		}
-		else
-			localLogger("registerRequestToRemotePeer: Not a valid request");
+	public boolean registerRequestToRemotePeer(PCEPAddress address, long requestID, LinkedBlockingQueue<PCEPMessage> queue){
+		InFlightTable<LinkedBlockingQueue<PCEPMessage>> table = getRemotePeerRequestTable(address);
+		// Requests whose reply never came do not hold their place in the window
+		table.expire(System.nanoTime(), null);
+		if (table.add(requestID, queue, remotePeerTimeout))
+			return true;
+		localLogger("registerRequestToRemotePeer: Not a valid request or too many requests in flight");
+		return false;
+	}
+	
+	/**
+	 * Function for worker tasks to send a path computation request to a
+	 * remote peer, the reply is added to the queue of the worker task
+	 * 
+	 * @param request
+	 * @param queue
+	 * @return false if the request has no RP object, its request ID is
+	 *         already in flight to the peer or too many requests are in
+	 *         flight to the peer
+	 */
+	public boolean sendRequestToRemotePeer(PCEPMessage request, LinkedBlockingQueue<PCEPMessage> queue) {
+		long requestID = request.getRequestID();
+		if (requestID < 0 || !registerRequestToRemotePeer(request.getAddress(), requestID, queue))
+			return false;
+		sendMessage(request, ModuleEnum.SESSION_MODULE);
+		return true;
 	}
 	
 	//Function to implement a mechanism where a response from another server (hierarchical or PCE peer) is sent to the correct worker task
-	protected synchronized void processResponseFromRemotePeer(PCEPMessage message) {
-		PCEPAddress address = message.getAddress();
-		//Message is of type PCEP Response
-		PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
-				.getPathComputationResponseFrame(message);
-		String requestID = Integer.toString(responseFrame.getRequestID());
-		String key = getKeyForRemotePeerAssociation(address, requestID);
-		if (remotePeerResponseAssociationHashMap.containsKey(key)) {
+	protected void processResponseFromRemotePeer(PCEPMessage message) {
+		//Message is of type PCEP Response, replies are passed on in the order they arrive
+		InFlightTable<LinkedBlockingQueue<PCEPMessage>> table = remotePeerRequestTables.get(message.getAddress().getAddressKey());
+		long requestID = message.getRequestID();
+		LinkedBlockingQueue<PCEPMessage> queue = (table == null || requestID < 0) ? null : table.remove(requestID);
+		if (queue != null) {
 			localLogger("Path Computation Response Received by the computation Module, adding to queue from worker task");
-			remotePeerResponseAssociationHashMap.get(key).add(message);
-			remotePeerResponseAssociationHashMap.remove(key);
+			queue.add(message);
 		} else {
-			localLogger("Response for Peer-requestID combnation that is not registered with the computation module");
+			if (table != null && table.removeExpired(requestID))
+				localLogger("Response received after the request to the peer timed out");
+			else
+				localLogger("Response for Peer-requestID combnation that is not registered with the computation module");
+			message.release();
 		}
 		
 		
 	}
 
+	public void sessionClosed(PCEPAddress address) {
+		// Replies to the requests sent to the peer will not be received
+		InFlightTable<LinkedBlockingQueue<PCEPMessage>> table = remotePeerRequestTables.remove(address.getAddressKey());
+		if (table != null)
+			table.clear(null);
+	}
+
 	public void sendMessage(PCEPMessage message, ModuleEnum targetLayer) {
 		switch (targetLayer) {
 		case NETWORK_MODULE:
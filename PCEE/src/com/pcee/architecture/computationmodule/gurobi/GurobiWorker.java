@@ -114,6 +114,8 @@ public class GurobiWorker extends Thread {
 			// The request was computed successfully, and the flag variable is
 			// set to indicate
 			// that a new request be processed in the next iteration
+			for (int i = 0; i < requestList.size(); i++)
+				lm.getComputationModule().requestCompleted(requestList.get(i));
 			flag = 0;
 		}
 	}
@@ -31,18 +31,11 @@ import com.pcee.architecture.computationmodule.gurobi.impl.GurobiModel;
 import com.pcee.architecture.computationmodule.gurobi.impl.PathsComputation;
 import com.pcee.logger.Logger;
 import com.pcee.protocol.message.PCEPMessage;
-import com.pcee.protocol.message.PCEPMessageFactory;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
-import com.pcee.protocol.message.objectframe.impl.PCEPBandwidthObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPExplicitRouteObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPNoPathObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 import com.pcee.protocol.request.PCEPRequestFrame;
 import com.pcee.protocol.request.PCEPRequestFrameFactory;
-import com.pcee.protocol.response.PCEPResponseFrame;
-import com.pcee.protocol.response.PCEPResponseFrameFactory;
+import com.pcee.protocol.response.PCEPResponseTemplates;
 
 /**
  * Runnable class used by the thread pool to process path computation requests
@@ -164,28 +157,16 @@ public class GurobiWorkerTask implements Runnable {
 			ArrayList<EROSubobjects> vertexList = getTraversedVertexes(element
 					.getTraversedVertices());
 
-			// Generate ERO Object
-			PCEPExplicitRouteObject ERO = PCEPObjectFrameFactory
-					.generatePCEPExplicitRouteObject("1", "0", vertexList);
-			// atleast one path was computed
-			PCEPRequestParametersObject RP = PCEPObjectFrameFactory
-					.generatePCEPRequestParametersObject("1", "0", "0", "0",
-							"0", "1",
-							Integer.toString(requestFrame.getRequestID()));
-
-			PCEPResponseFrame respFrame = PCEPResponseFrameFactory
-					.generatePathComputationResponseFrame(RP);
-
-			respFrame.insertExplicitRouteObject(ERO);
-
-			if (requestFrame.containsBandwidthObject()) {
-				PCEPBandwidthObject bw = PCEPObjectFrameFactory
-						.generatePCEPBandwidthObject("1", "0", (float) element
-								.getPathParams().getAvailableCapacity());
-				respFrame.insertBandwidthObject(bw);
-			}
-
-			PCEPMessage mesg = PCEPMessageFactory.generateMessage(respFrame);
+			// atleast one path was computed, the response is encoded from
+			// the template with a single ERO object
+			PCEPMessage mesg;
+			if (requestFrame.containsBandwidthObject())
+				mesg = PCEPResponseTemplates.generatePathMessage(
+						requestFrame.getRequestID(), vertexList,
+						(float) element.getPathParams().getAvailableCapacity());
+			else
+				mesg = PCEPResponseTemplates.generatePathMessage(
+						requestFrame.getRequestID(), vertexList);
 			mesg.setAddress(request.getAddress());
 
 			localLogger("Path found in the domain. Sending back to client");
@@ -203,16 +184,8 @@ public class GurobiWorkerTask implements Runnable {
 
 	/** Function to return the no Path message to the Client */
 	protected void returnNoPathMessage(int requestID, PCEPMessage request) {
-		// Generate a No path object
-		PCEPRequestParametersObject RP = PCEPObjectFrameFactory
-				.generatePCEPRequestParametersObject("1", "0", "0", "0", "0",
-						"1", Integer.toString(requestID));
-		PCEPNoPathObject noPath = PCEPObjectFrameFactory
-				.generatePCEPNoPathObject("1", "0", 1, "0");
-		PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
-				.generatePathComputationResponseFrame(RP);
-		responseFrame.insertNoPathObject(noPath);
-		PCEPMessage mesg = PCEPMessageFactory.generateMessage(responseFrame);
+		// Generate a No path message from the template
+		PCEPMessage mesg = PCEPResponseTemplates.generateNoPathMessage(requestID);
 		mesg.setAddress(request.getAddress());
 		lm.getComputationModule().sendMessage(mesg, ModuleEnum.SESSION_MODULE);
 	}
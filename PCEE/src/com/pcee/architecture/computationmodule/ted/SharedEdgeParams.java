@@ -0,0 +1,140 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.computationmodule.ted;
+
+import com.graph.elements.edge.EdgeElement;
+import com.graph.elements.edge.params.EdgeParams;
+import com.graph.elements.edge.params.impl.BasicEdgeParams;
+import com.pcee.logger.Logger;
+
+/**
+ * Edge parameters backed by a record of the SharedTopologyStore. Every read
+ * and update goes to the shared memory, so all processes attached to the
+ * store see the same capacity state. Copies are plain BasicEdgeParams
+ * snapshots, as used by the computation threads on their graph copies.
+ */
+public class SharedEdgeParams extends EdgeParams {
+
+	// Store holding the record of the edge
+	private SharedTopologyStore store;
+
+	// Index of the record in the store
+	private int record;
+
+	private boolean isDynamicLink;
+
+	public SharedEdgeParams(EdgeElement edge, SharedTopologyStore store,
+			int record, boolean isDynamicLink) {
+		this.setEdgeElement(edge);
+		this.store = store;
+		this.record = record;
+		this.isDynamicLink = isDynamicLink;
+	}
+
+	/** Function to get the index of the record backing the edge */
+	public int getRecord() {
+		return record;
+	}
+
+	public boolean isDynamicLink() {
+		return isDynamicLink;
+	}
+
+	public void setDynamicLink(boolean isDynamicLink) {
+		this.isDynamicLink = isDynamicLink;
+	}
+
+	public double getDelay() {
+		return store.getDelay(record);
+	}
+
+	protected void setDelay(double delay) {
+		store.setDelay(record, delay);
+	}
+
+	public double getWeight() {
+		return store.getWeight(record);
+	}
+
+	public void setWeight(double w) {
+		store.setWeight(record, w);
+	}
+
+	public double getMaxCapacity() {
+		return store.getMaxCapacity(record);
+	}
+
+	public void setMaxCapacity(double capacity) {
+		store.setMaxCapacity(record, capacity);
+	}
+
+	public void setAvailableCapacity(double capacity) {
+		store.setAvailableCapacity(record, capacity);
+	}
+
+	public double getUsedCapacity() {
+		return store.getMaxCapacity(record) - store.getAvailableCapacity(record);
+	}
+
+	public double getAvailableCapacity() {
+		return store.getAvailableCapacity(record);
+	}
+
+	public boolean reserveCapacity(double capacity) {
+		if (!store.addAvailableCapacity(record, -capacity)) {
+			localDebugger("Not Enough Capacity left for reservation");
+			return false;
+		}
+		return true;
+	}
+
+	public boolean releaseCapacity(double capacity) {
+		if (!store.addAvailableCapacity(record, capacity)) {
+			localDebugger("Capacity release requested is greater than total used capacity");
+			return false;
+		}
+		return true;
+	}
+
+	/** Function to replace the definition of the edge in the shared record */
+	public void updateEdgeDefinition(double delay, double weight,
+			double maxCapacity, double availableCapacity) {
+		store.setDelay(record, delay);
+		store.setWeight(record, weight);
+		store.setMaxCapacity(record, maxCapacity);
+		store.setAvailableCapacity(record, availableCapacity);
+	}
+
+	/** Copies are local snapshots of the shared record */
+	public EdgeParams copyEdgeParams(EdgeElement newElement) {
+		EdgeParams params = new BasicEdgeParams(newElement, getDelay(),
+				getWeight(), getMaxCapacity());
+		params.setAvailableCapacity(getAvailableCapacity());
+		params.setDynamicLink(isDynamicLink);
+		return params;
+	}
+
+	/**
+	 * Function for logging debug information
+	 * 
+	 * @param event
+	 */
+	private void localDebugger(String event) {
+		Logger.debugger("[SharedEdgeParams]     " + event);
+	}
+}
@@ -0,0 +1,348 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.computationmodule.ted;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.graph.elements.edge.EdgeElement;
+import com.graph.elements.edge.params.EdgeParams;
+import com.graph.graphcontroller.Gcontroller;
+import com.pcee.logger.Logger;
+
+/**
+ * Off-heap store for the capacity state of the TED, kept in a memory mapped
+ * file so that several PCEE processes on the same host share one view of the
+ * link state.
+ * 
+ * Only the edge parameters live in the file: maximum and available
+ * capacity, weight and delay. The vertices, the edges and the indices of the
+ * graph are still imported from the topology file into the heap of every
+ * process, so the memory footprint of the topology itself grows with the
+ * number of processes.
+ * 
+ * The file starts with a fixed header followed by one fixed size record per
+ * edge. Records are ordered by edge ID, so every process importing the same
+ * topology binds the same record to the same edge. All fields are accessed
+ * through VarHandles on the mapped buffer, and the available capacity is
+ * updated with compare and set, so reservations made by one process are
+ * visible to the others immediately and never lost.
+ * 
+ * <pre>
+ * Header (64 bytes)
+ *   0  int   magic
+ *   4  int   version
+ *   8  int   state (0 initializing, 1 ready)
+ *   12 int   number of edge records
+ *   16 long  checksum of the edge IDs and end points
+ * 
+ * Edge record (64 bytes)
+ *   0  long  maximum capacity (double bits)
+ *   8  long  available capacity (double bits)
+ *   16 long  weight (double bits)
+ *   24 long  delay (double bits)
+ *   32 long  update counter
+ * </pre>
+ */
+public class SharedTopologyStore {
+
+	private static final int MAGIC = 0x50434554;
+
+	private static final int VERSION = 1;
+
+	private static final int STATE_READY = 1;
+
+	private static final int HEADER_LENGTH = 64;
+
+	private static final int RECORD_LENGTH = 64;
+
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int STATE_OFFSET = 8;
+	private static final int EDGE_COUNT_OFFSET = 12;
+	private static final int CHECKSUM_OFFSET = 16;
+
+	private static final int MAX_CAPACITY_OFFSET = 0;
+	private static final int AVAILABLE_CAPACITY_OFFSET = 8;
+	private static final int WEIGHT_OFFSET = 16;
+	private static final int DELAY_OFFSET = 24;
+	private static final int UPDATE_COUNTER_OFFSET = 32;
+
+	// Views of the mapped buffer as big endian int and long values
+	private static final VarHandle INT_VIEW = MethodHandles
+			.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_VIEW = MethodHandles
+			.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	// Memory mapped file holding the header and the edge records
+	private MappedByteBuffer buffer;
+
+	// Number of edge records in the file
+	private int edgeCount;
+
+	// Path of the mapped file
+	private String path;
+
+	private SharedTopologyStore(String path, MappedByteBuffer buffer,
+			int edgeCount) {
+		this.path = path;
+		this.buffer = buffer;
+		this.edgeCount = edgeCount;
+	}
+
+	/**
+	 * Function to attach the edges of a graph to the shared store in the
+	 * given file. The first process to open the file initializes the records
+	 * from the parameters of the graph, later processes attach to the
+	 * existing records. On success the parameters of every edge are replaced
+	 * by SharedEdgeParams bound to the corresponding record.
+	 * 
+	 * @param path
+	 *            file backing the store
+	 * @param graph
+	 *            graph to be attached
+	 * @return the store, or null if the file could not be used, in which case
+	 *         the graph keeps its local parameters
+	 */
+	public static SharedTopologyStore attach(String path, Gcontroller graph) {
+		ArrayList<EdgeElement> edges = sortedEdges(graph);
+		long checksum = checksum(edges);
+		int length = HEADER_LENGTH + edges.size() * RECORD_LENGTH;
+
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(new File(path), "rw");
+			FileChannel channel = file.getChannel();
+			MappedByteBuffer buffer;
+			// The lock serializes initialization between processes
+			FileLock lock = channel.lock();
+			try {
+				boolean initialize = channel.size() < HEADER_LENGTH;
+				if (initialize)
+					file.setLength(length);
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+						Math.max(length, channel.size()));
+
+				if (!initialize
+						&& (int) INT_VIEW.getVolatile(buffer, STATE_OFFSET) != STATE_READY) {
+					// A previous process died during initialization
+					initialize = true;
+				}
+				if (initialize) {
+					initializeStore(buffer, edges, checksum);
+				} else if ((int) INT_VIEW.get(buffer, MAGIC_OFFSET) != MAGIC
+						|| (int) INT_VIEW.get(buffer, VERSION_OFFSET) != VERSION
+						|| (int) INT_VIEW.get(buffer, EDGE_COUNT_OFFSET) != edges
+								.size()
+						|| (long) LONG_VIEW.get(buffer, CHECKSUM_OFFSET) != checksum) {
+					localLogger("Shared topology file " + path
+							+ " was created for a different topology, using local TED");
+					return null;
+				}
+			} finally {
+				lock.release();
+			}
+
+			SharedTopologyStore store = new SharedTopologyStore(path, buffer,
+					edges.size());
+			for (int i = 0; i < edges.size(); i++) {
+				EdgeElement edge = edges.get(i);
+				edge.setEdgeParams(new SharedEdgeParams(edge, store, i, edge
+						.getEdgeParams().isDynamicLink()));
+			}
+			localLogger("Attached " + edges.size()
+					+ " edges to shared topology file " + path);
+			return store;
+		} catch (IOException e) {
+			localLogger("Could not map shared topology file " + path + ": "
+					+ e.getMessage() + ", using local TED");
+			return null;
+		} finally {
+			// The mapping stays valid after the file is closed
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/** Function to write the header and the edge records of a new store */
+	private static void initializeStore(MappedByteBuffer buffer,
+			ArrayList<EdgeElement> edges, long checksum) {
+		INT_VIEW.setVolatile(buffer, STATE_OFFSET, 0);
+		INT_VIEW.set(buffer, MAGIC_OFFSET, MAGIC);
+		INT_VIEW.set(buffer, VERSION_OFFSET, VERSION);
+		INT_VIEW.set(buffer, EDGE_COUNT_OFFSET, edges.size());
+		LONG_VIEW.set(buffer, CHECKSUM_OFFSET, checksum);
+		for (int i = 0; i < edges.size(); i++) {
+			EdgeParams params = edges.get(i).getEdgeParams();
+			int record = HEADER_LENGTH + i * RECORD_LENGTH;
+			LONG_VIEW.set(buffer, record + MAX_CAPACITY_OFFSET,
+					Double.doubleToRawLongBits(params.getMaxCapacity()));
+			LONG_VIEW.set(buffer, record + AVAILABLE_CAPACITY_OFFSET,
+					Double.doubleToRawLongBits(params.getAvailableCapacity()));
+			LONG_VIEW.set(buffer, record + WEIGHT_OFFSET,
+					Double.doubleToRawLongBits(params.getWeight()));
+			LONG_VIEW.set(buffer, record + DELAY_OFFSET,
+					Double.doubleToRawLongBits(params.getDelay()));
+			LONG_VIEW.set(buffer, record + UPDATE_COUNTER_OFFSET, 0L);
+		}
+		buffer.force();
+		INT_VIEW.setVolatile(buffer, STATE_OFFSET, STATE_READY);
+		buffer.force();
+	}
+
+	/** Function to get the edges of the graph ordered by edge ID */
+	private static ArrayList<EdgeElement> sortedEdges(Gcontroller graph) {
+		ArrayList<String> edgeIDs = new ArrayList<String>(graph.getEdgeIDSet());
+		Collections.sort(edgeIDs);
+		ArrayList<EdgeElement> edges = new ArrayList<EdgeElement>(
+				edgeIDs.size());
+		Iterator<String> iter = edgeIDs.iterator();
+		while (iter.hasNext())
+			edges.add(graph.getEdge(iter.next()));
+		return edges;
+	}
+
+	/** Function to compute a checksum of the edge IDs and their end points */
+	private static long checksum(ArrayList<EdgeElement> edges) {
+		long checksum = 1125899906842597L;
+		for (int i = 0; i < edges.size(); i++) {
+			EdgeElement edge = edges.get(i);
+			checksum = 31 * checksum + edge.getEdgeID().hashCode();
+			checksum = 31 * checksum
+					+ edge.getSourceVertex().getVertexID().hashCode();
+			checksum = 31 * checksum
+					+ edge.getDestinationVertex().getVertexID().hashCode();
+		}
+		return checksum;
+	}
+
+	/** Function to get the number of edge records in the store */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/** Function to get the path of the file backing the store */
+	public String getPath() {
+		return path;
+	}
+
+	private static int recordOffset(int record, int field) {
+		return HEADER_LENGTH + record * RECORD_LENGTH + field;
+	}
+
+	private double getDouble(int record, int field) {
+		return Double.longBitsToDouble((long) LONG_VIEW.getVolatile(buffer,
+				recordOffset(record, field)));
+	}
+
+	private void setDouble(int record, int field, double value) {
+		LONG_VIEW.setVolatile(buffer, recordOffset(record, field),
+				Double.doubleToRawLongBits(value));
+		LONG_VIEW.getAndAdd(buffer,
+				recordOffset(record, UPDATE_COUNTER_OFFSET), 1L);
+	}
+
+	double getMaxCapacity(int record) {
+		return getDouble(record, MAX_CAPACITY_OFFSET);
+	}
+
+	void setMaxCapacity(int record, double capacity) {
+		setDouble(record, MAX_CAPACITY_OFFSET, capacity);
+	}
+
+	double getAvailableCapacity(int record) {
+		return getDouble(record, AVAILABLE_CAPACITY_OFFSET);
+	}
+
+	void setAvailableCapacity(int record, double capacity) {
+		setDouble(record, AVAILABLE_CAPACITY_OFFSET, capacity);
+	}
+
+	double getWeight(int record) {
+		return getDouble(record, WEIGHT_OFFSET);
+	}
+
+	void setWeight(int record, double weight) {
+		setDouble(record, WEIGHT_OFFSET, weight);
+	}
+
+	double getDelay(int record) {
+		return getDouble(record, DELAY_OFFSET);
+	}
+
+	void setDelay(int record, double delay) {
+		setDouble(record, DELAY_OFFSET, delay);
+	}
+
+	/** Function to get the number of updates applied to a record */
+	public long getUpdateCounter(int record) {
+		return (long) LONG_VIEW.getVolatile(buffer,
+				recordOffset(record, UPDATE_COUNTER_OFFSET));
+	}
+
+	/**
+	 * Function to atomically add to the available capacity of a record
+	 * 
+	 * @param record
+	 * @param delta
+	 *            capacity to be added, negative to reserve
+	 * @return false if the available capacity would drop below zero or rise
+	 *         above the maximum capacity
+	 */
+	boolean addAvailableCapacity(int record, double delta) {
+		int offset = recordOffset(record, AVAILABLE_CAPACITY_OFFSET);
+		while (true) {
+			long current = (long) LONG_VIEW.getVolatile(buffer, offset);
+			double available = Double.longBitsToDouble(current);
+			double updated = available + delta;
+			if (delta < 0 && updated < 0)
+				return false;
+			if (delta > 0 && updated > getMaxCapacity(record))
+				return false;
+			if (LONG_VIEW.compareAndSet(buffer, offset, current,
+					Double.doubleToRawLongBits(updated))) {
+				LONG_VIEW.getAndAdd(buffer,
+						recordOffset(record, UPDATE_COUNTER_OFFSET), 1L);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Function for logging events
+	 * 
+	 * @param event
+	 */
+	private static void localLogger(String event) {
+		Logger.logSystemEvents("[SharedTopologyStore]     " + event);
+	}
+}
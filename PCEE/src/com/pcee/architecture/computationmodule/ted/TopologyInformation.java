@@ -35,6 +35,7 @@ import com.graph.elements.edge.params.EdgeParams;
 import com.graph.elements.edge.params.impl.BasicEdgeParams;
 import com.graph.graphcontroller.Gcontroller;
 import com.graph.graphcontroller.impl.GcontrollerImpl;
+import com.graph.graphcontroller.impl.IndexedGcontrollerImpl;
 import com.graph.topology.importers.ImportTopology;
 import com.graph.topology.importers.impl.BRITEImportTopology;
 import com.graph.topology.importers.impl.SNDLibImportTopology;
@@ -57,18 +58,50 @@ public class TopologyInformation {
 	// Thread for topology Update Listener
 	private static Thread topologyUpdateThread;
 
+	// Server socket of the topology update listener, closed to stop it
+	private static ServerSocket topologyUpdateSocket;
+
+	// Flag cleared when the topology update listener is stopped
+	private static volatile boolean listening = false;
+
 	// Static oject instance of the TopologyInformation Class
 	static private TopologyInformation _instance;
 
 	// Graph Instance
 	private Gcontroller graph;
 
+	// Table interning the IPv4 vertex identifiers of the graph
+	private VertexAddressTable addressTable;
+
 	// Topology Importer used to populate the graph instance
 	private static ImportTopology topology;
 
 	// path to the topology description file
 	private static String topoPath = ".//atlanta.txt";
 
+	// Graph implementation used for the TED, JDSL or Indexed
+	private static String graphImplementation = "JDSL";
+
+	// Memory mapped file shared with other PCEE processes, null for a local
+	// TED
+	private static String sharedTopologyFile = null;
+
+	// Shared store holding the capacity state, null for a local TED
+	private SharedTopologyStore sharedStore;
+
+	// Directory holding the TED journal and snapshot, null to keep the TED
+	// state in memory only
+	private static String journalDirectory = null;
+
+	// Seconds between two snapshots of the TED
+	private static int snapshotInterval = 300;
+
+	// Milliseconds the journal writer waits to group concurrent updates
+	private static int journalCommitInterval = 0;
+
+	// Journal of the topology updates, null if not persisted
+	private TopologyJournal journal;
+
 	/**
 	 * Function to set the port for topology Updates
 	 * 
@@ -100,10 +133,91 @@ public class TopologyInformation {
 		}
 	}
 
+	/**
+	 * @param implementation
+	 *            ONLY JDSL or Indexed supported as input
+	 */
+	public static void setGraphImplementation(String implementation) {
+		if (implementation.equalsIgnoreCase("Indexed")) {
+			graphImplementation = "Indexed";
+		} else {
+			graphImplementation = "JDSL";
+		}
+	}
+
+	/**
+	 * @param path
+	 *            memory mapped file used to share the capacity state with
+	 *            other PCEE processes on the same host, null or empty for a
+	 *            local TED. Each process still holds its own copy of the
+	 *            graph.
+	 */
+	public static void setSharedTopologyFile(String path) {
+		if (path == null || path.trim().length() == 0)
+			sharedTopologyFile = null;
+		else
+			sharedTopologyFile = path.trim();
+	}
+
+	/**
+	 * @param path
+	 *            directory used to persist the topology updates across
+	 *            restarts, null or empty to keep them in memory only. Not
+	 *            used together with a shared topology file.
+	 */
+	public static void setJournalDirectory(String path) {
+		if (path == null || path.trim().length() == 0)
+			journalDirectory = null;
+		else
+			journalDirectory = path.trim();
+	}
+
+	/**
+	 * @param seconds
+	 *            interval between two snapshots of the TED, 0 to disable
+	 *            snapshots
+	 */
+	public static void setSnapshotInterval(int seconds) {
+		snapshotInterval = seconds;
+	}
+
+	/**
+	 * @param millis
+	 *            time the journal writer waits to group concurrent updates
+	 *            into one write
+	 */
+	public static void setJournalCommitInterval(int millis) {
+		journalCommitInterval = millis;
+	}
+
+	/**
+	 * Function to apply a new definition to an edge, the shared record is
+	 * updated in place for a shared TED
+	 */
+	static void applyEdgeDefinition(EdgeElement edge, double delay,
+			double weight, double capacity, double avcapacity) {
+		if (edge.getEdgeParams() instanceof SharedEdgeParams) {
+			((SharedEdgeParams) edge.getEdgeParams()).updateEdgeDefinition(
+					delay, weight, capacity, avcapacity);
+		} else {
+			EdgeParams params = new BasicEdgeParams(edge, delay, weight,
+					capacity);
+			params.setAvailableCapacity(avcapacity);
+			edge.setEdgeParams(params);
+		}
+	}
+
+	/** Function to create an empty graph of the configured implementation */
+	private static Gcontroller newGraphInstance() {
+		if (graphImplementation.equals("Indexed"))
+			return new IndexedGcontrollerImpl();
+		return new GcontrollerImpl();
+	}
+
 	/** default constructor */
 	private TopologyInformation(boolean isGurobi) {
 		topology = new SNDLibImportTopology();
-		graph = new GcontrollerImpl();
+		graph = newGraphInstance();
 
 		// Source file used to instantiate the topology
 		File file = new File(topoPath);
@@ -116,8 +230,23 @@ public class TopologyInformation {
 			topology.importTopologyForGurobi(graph, file.getAbsolutePath());
 		if (graph == null)
 			localDebugger("Error in loading graph from file");
-		else
+		else {
+			addressTable = new VertexAddressTable(graph);
 			localLogger("NetworkSize: " + networkSize());
+			// The shared file holds the state of every attached process while
+			// a journal only records the updates of its own process, so the
+			// two are not combined and the shared store takes precedence
+			if (sharedTopologyFile != null && journalDirectory != null)
+				localLogger("Ignoring journal directory " + journalDirectory
+						+ ", TED updates are not journaled with a shared topology file");
+			else if (journalDirectory != null)
+				// Restore the updates received before the last shutdown
+				journal = TopologyJournal.open(journalDirectory, graph,
+						snapshotInterval, journalCommitInterval);
+			if (sharedTopologyFile != null)
+				sharedStore = SharedTopologyStore.attach(sharedTopologyFile,
+						graph);
+		}
 
 		// Start Topology Update Listener
 		localLogger("Starting thread to listen for topology updates on port "
@@ -132,6 +261,7 @@ public class TopologyInformation {
 	 * @param newGraph
 	 */
 	public synchronized void updateGraph(Gcontroller newGraph) {
+		addressTable = new VertexAddressTable(newGraph);
 		graph = newGraph;
 	}
 
@@ -152,6 +282,21 @@ public class TopologyInformation {
 		return graph;
 	}
 
+	/** Function to get the shared capacity store, null for a local TED */
+	public SharedTopologyStore getSharedStore() {
+		return sharedStore;
+	}
+
+	/** Function to get the journal of topology updates, null if not persisted */
+	public TopologyJournal getJournal() {
+		return journal;
+	}
+
+	/** Function to get the table of IPv4 vertex identifiers of the graph */
+	public VertexAddressTable getAddressTable() {
+		return addressTable;
+	}
+
 	/**
 	 * Function to get the topology importer used in the implementation
 	 * 
@@ -188,10 +333,48 @@ public class TopologyInformation {
 		System.out.println(new File(topoPath).getAbsolutePath());
 	}
 
+	/**
+	 * Function to stop the thread listening for topology updates, so that
+	 * stopping the modules does not leave it running
+	 */
+	public static void stopTopologyUpdateListener() {
+		listening = false;
+		synchronized (TopologyInformation.class) {
+			if (topologyUpdateSocket != null) {
+				try {
+					topologyUpdateSocket.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		if (topologyUpdateThread != null) {
+			try {
+				topologyUpdateThread.join(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
 	/** Function to initialize a thread to listen for topology updates */
 	private void startTopologyUpdateListner() {
+		listening = true;
 		topologyUpdateThread = new Thread() {
 
+			// Function to check that a vertex sequence holds at least one edge,
+			// returns the reply to send if it does not
+			@SuppressWarnings({ "rawtypes", "unchecked" })
+			private String checkVertexSequence(ArrayList vertexSequence) {
+				if (vertexSequence != null && vertexSequence.size() >= 2)
+					return null;
+				localLogger("Invalid Vertex Sequence sent, at least two vertices are required");
+				Map map = new HashMap();
+				map.put("response", new Boolean(false));
+				map.put("reason",
+						"Invalid Vertex Sequence sent, at least two vertices are required");
+				return json.toJson(map);
+			}
+
 			// Function to parse and implement incoming topology Updates
 			@SuppressWarnings({ "rawtypes", "unchecked" })
 			public String parseInput(String text) {
@@ -206,60 +389,28 @@ public class TopologyInformation {
 									"capacity").toString());
 							ArrayList vertexSequence = ((ArrayList) input
 									.get("vertexSequence"));
+							String invalidSequence = checkVertexSequence(vertexSequence);
+							if (invalidSequence != null)
+								return invalidSequence;
 							synchronized (graph) {
+								EdgeElement[] edges = new EdgeElement[vertexSequence
+										.size() - 1];
 								int i = 0;
-								for (i = 0; i < vertexSequence.size() - 1; i++) {
-
+								for (i = 0; i < edges.length; i++) {
 									String sourceID = (String) vertexSequence
 											.get(i);
 									String destID = (String) vertexSequence
 											.get(i + 1);
-									if (graph.aConnectingEdge(sourceID, destID)) {
-										if (!graph
-												.getConnectingEdge(sourceID,
-														destID).getEdgeParams()
-												.reserveCapacity(capacity)) {
-											localLogger("Cannot reserve capacity between "
-													+ sourceID
-													+ " and "
-													+ destID);
-											for (int j = 0; j < i; j++) {
-												// Releasing capacity that was
-												// reserved till before i
-												String srcID = (String) vertexSequence
-														.get(j);
-												String dstID = (String) vertexSequence
-														.get(j + 1);
-												graph.getConnectingEdge(srcID,
-														dstID)
-														.getEdgeParams()
-														.releaseCapacity(
-																capacity);
-											}
-											// break;
-											Map map = new HashMap();
-											map.put("response", new Boolean(
-													false));
-											map.put("reason",
-													"could not reserve capacity on edge from "
-															+ sourceID + " to "
-															+ destID);
-											return json.toJson(map);
-										}
-									} else {
+									edges[i] = graph.getConnectingEdge(sourceID,
+											destID);
+									if (edges[i] == null) {
 										localLogger("Invalid Vertex Sequence sent, no edge found between "
 												+ sourceID + " and " + destID);
-										for (int j = 0; j < i; j++) {
-											// Releasing capacity that was
-											// reserved till before i
-											String srcID = (String) vertexSequence
-													.get(j);
-											String dstID = (String) vertexSequence
-													.get(j + 1);
-											graph.getConnectingEdge(srcID,
-													dstID).getEdgeParams()
+										// Releasing capacity that was reserved
+										// till before i
+										for (int j = 0; j < i; j++)
+											edges[j].getEdgeParams()
 													.releaseCapacity(capacity);
-										}
 										Map map = new HashMap();
 										map.put("response", new Boolean(false));
 										map.put("reason",
@@ -268,14 +419,30 @@ public class TopologyInformation {
 														+ destID);
 										return json.toJson(map);
 									}
+									if (!edges[i].getEdgeParams().reserveCapacity(
+											capacity)) {
+										localLogger("Cannot reserve capacity between "
+												+ sourceID + " and " + destID);
+										// Releasing capacity that was reserved
+										// till before i
+										for (int j = 0; j < i; j++)
+											edges[j].getEdgeParams()
+													.releaseCapacity(capacity);
+										Map map = new HashMap();
+										map.put("response", new Boolean(false));
+										map.put("reason",
+												"could not reserve capacity on edge from "
+														+ sourceID + " to "
+														+ destID);
+										return json.toJson(map);
+									}
 								}
-								if (i == vertexSequence.size() - 1) {
-									localLogger("Successfully reserved capacity on provided sequence");
-									Map map = new HashMap();
-									map.put("response", new Boolean(true));
-									return json.toJson(map);
-								}
-
+								if (journal != null)
+									journal.logReservation(capacity, edges);
+								localLogger("Successfully reserved capacity on provided sequence");
+								Map map = new HashMap();
+								map.put("response", new Boolean(true));
+								return json.toJson(map);
 							}
 
 						} else if (input.get("operation").toString()
@@ -286,59 +453,28 @@ public class TopologyInformation {
 									"capacity").toString());
 							ArrayList vertexSequence = ((ArrayList) input
 									.get("vertexSequence"));
+							String invalidSequence = checkVertexSequence(vertexSequence);
+							if (invalidSequence != null)
+								return invalidSequence;
 							synchronized (graph) {
+								EdgeElement[] edges = new EdgeElement[vertexSequence
+										.size() - 1];
 								int i = 0;
-								for (i = 0; i < vertexSequence.size() - 1; i++) {
+								for (i = 0; i < edges.length; i++) {
 									String sourceID = (String) vertexSequence
 											.get(i);
 									String destID = (String) vertexSequence
 											.get(i + 1);
-									if (graph.aConnectingEdge(sourceID, destID)) {
-										if (!graph
-												.getConnectingEdge(sourceID,
-														destID).getEdgeParams()
-												.releaseCapacity(capacity)) {
-											localLogger("Cannot release additional capacity between "
-													+ sourceID
-													+ " and "
-													+ destID);
-											for (int j = 0; j < i; j++) {
-												// Releasing capacity that was
-												// reserved till before i
-												String srcID = (String) vertexSequence
-														.get(j);
-												String dstID = (String) vertexSequence
-														.get(j + 1);
-												graph.getConnectingEdge(srcID,
-														dstID)
-														.getEdgeParams()
-														.reserveCapacity(
-																capacity);
-											}
-											Map map = new HashMap();
-											map.put("response", new Boolean(
-													false));
-											map.put("reason",
-													"could not release capacity on edge from "
-															+ sourceID + " to "
-															+ destID);
-											return json.toJson(map);
-
-										}
-									} else {
+									edges[i] = graph.getConnectingEdge(sourceID,
+											destID);
+									if (edges[i] == null) {
 										localLogger("Invalid Vertex Sequence sent, no edge found between "
 												+ sourceID + " and " + destID);
-										for (int j = 0; j < i; j++) {
-											// Releasing capacity that was
-											// reserved till before i
-											String srcID = (String) vertexSequence
-													.get(j);
-											String dstID = (String) vertexSequence
-													.get(j + 1);
-											graph.getConnectingEdge(srcID,
-													dstID).getEdgeParams()
+										// Reserving capacity that was released
+										// till before i
+										for (int j = 0; j < i; j++)
+											edges[j].getEdgeParams()
 													.reserveCapacity(capacity);
-										}
 										Map map = new HashMap();
 										map.put("response", new Boolean(false));
 										map.put("reason",
@@ -347,13 +483,30 @@ public class TopologyInformation {
 														+ destID);
 										return json.toJson(map);
 									}
+									if (!edges[i].getEdgeParams().releaseCapacity(
+											capacity)) {
+										localLogger("Cannot release additional capacity between "
+												+ sourceID + " and " + destID);
+										// Reserving capacity that was released
+										// till before i
+										for (int j = 0; j < i; j++)
+											edges[j].getEdgeParams()
+													.reserveCapacity(capacity);
+										Map map = new HashMap();
+										map.put("response", new Boolean(false));
+										map.put("reason",
+												"could not release capacity on edge from "
+														+ sourceID + " to "
+														+ destID);
+										return json.toJson(map);
+									}
 								}
-								if (i == vertexSequence.size() - 1) {
-									localLogger("Successfully released capacity on provided sequence");
-									Map map = new HashMap();
-									map.put("response", new Boolean(true));
-									return json.toJson(map);
-								}
+								if (journal != null)
+									journal.logRelease(capacity, edges);
+								localLogger("Successfully released capacity on provided sequence");
+								Map map = new HashMap();
+								map.put("response", new Boolean(true));
+								return json.toJson(map);
 							}
 
 						} else if (input.get("operation").toString()
@@ -378,13 +531,14 @@ public class TopologyInformation {
 								String sourceID = vertexSequence.get(0);
 								String destID = vertexSequence
 										.get(vertexSequence.size() - 1);
-								if (graph.aConnectingEdge(sourceID, destID)) {
-									EdgeElement edge = graph.getConnectingEdge(
-											sourceID, destID);
-									EdgeParams params = new BasicEdgeParams(
-											edge, delay, weight, capacity);
-									params.setAvailableCapacity(avcapacity);
-									edge.setEdgeParams(params);
+								EdgeElement edge = graph.getConnectingEdge(
+										sourceID, destID);
+								if (edge != null) {
+									applyEdgeDefinition(edge, delay, weight,
+											capacity, avcapacity);
+									if (journal != null)
+										journal.logEdgeDefinition(edge, delay,
+												weight, capacity, avcapacity);
 									localLogger("Updated Edge definition from "
 											+ sourceID + " to " + destID);
 									Map map = new HashMap();
@@ -432,8 +586,14 @@ public class TopologyInformation {
 				ServerSocket serverSocket;
 				try {
 					serverSocket = new ServerSocket(topologyUpdatePort);
+					synchronized (TopologyInformation.class) {
+						topologyUpdateSocket = serverSocket;
+						// Stopped before the socket was opened
+						if (!listening)
+							serverSocket.close();
+					}
 
-					while (true) {
+					while (listening) {
 						try {
 							Socket clientSocket = serverSocket.accept();
 							BufferedReader bufferedReader = new BufferedReader(
@@ -447,6 +607,16 @@ public class TopologyInformation {
 								text = text + line;
 							}
 							String outText = parseInput(text);
+							// Acknowledge only once the update is on disk
+							if (journal != null
+									&& !journal.awaitDurable(journal
+											.getAppendedSequence())) {
+								Map<String, Object> map = new HashMap<String, Object>();
+								map.put("response", new Boolean(false));
+								map.put("reason",
+										"Update applied but could not be persisted");
+								outText = json.toJson(map);
+							}
 							BufferedOutputStream out = new BufferedOutputStream(
 									clientSocket.getOutputStream());
 							out.write(outText.getBytes());
@@ -458,6 +628,8 @@ public class TopologyInformation {
 							// client
 							// clientSocket.close();
 						} catch (IOException e) {
+							if (!listening)
+								break;
 							localDebugger("IOException during read for new connections. Discarding update");
 							continue;
 						}
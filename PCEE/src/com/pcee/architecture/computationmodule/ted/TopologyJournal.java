@@ -0,0 +1,596 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.computationmodule.ted;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.graph.elements.edge.EdgeElement;
+import com.graph.elements.edge.params.EdgeParams;
+import com.graph.graphcontroller.Gcontroller;
+import com.pcee.logger.Logger;
+
+/**
+ * Append-only binary journal of the mutations applied to the TED through
+ * the topology update listener, with periodic compacted snapshots.
+ * 
+ * Mutations are appended to an in-memory batch while the caller holds the
+ * graph lock, and a single writer thread writes and fsyncs everything
+ * appended since its last pass (group commit). Callers wait with
+ * awaitDurable() before acknowledging an update. Every snapshotInterval
+ * seconds the writer captures the state of all edges under the graph lock,
+ * writes it to the snapshot file and starts a new journal, so the journal
+ * only holds the mutations since the last snapshot.
+ * 
+ * On startup the TED is restored from the snapshot followed by the journal
+ * records with a higher sequence number. A torn record at the end of the
+ * journal (crash during a write) ends the replay and is cut off.
+ * 
+ * <pre>
+ * Journal record: int payload length, int CRC32 of payload, payload
+ *   payload: long sequence, byte operation, operation specific fields
+ *   RESERVE/RELEASE: double capacity, short hop count, UTF edge IDs
+ *   EDGE_DEFINITION: UTF edge ID, double delay, weight, capacity, available capacity
+ * Snapshot: int magic, int version, long last sequence, int edge count,
+ *   per edge UTF edge ID, double delay, weight, capacity, available capacity,
+ *   followed by the CRC32 of everything before it
+ * </pre>
+ */
+public class TopologyJournal {
+
+	private static final byte OPERATION_RESERVE = 1;
+	private static final byte OPERATION_RELEASE = 2;
+	private static final byte OPERATION_EDGE_DEFINITION = 3;
+
+	private static final int SNAPSHOT_MAGIC = 0x50434553;
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final String JOURNAL_FILE = "ted.journal";
+	private static final String SNAPSHOT_FILE = "ted.snapshot";
+
+	// Graph whose mutations are journaled, also used as the lock for state
+	// captures
+	private Gcontroller graph;
+
+	private File journalFile;
+	private File snapshotFile;
+
+	// Channel of the current journal file, only used by the writer thread
+	private FileChannel journalChannel;
+
+	// Records appended and not yet written, guarded by this
+	private ArrayList<ByteBuffer> pendingRecords = new ArrayList<ByteBuffer>();
+
+	// Sequence number of the last appended record, guarded by this
+	private long appendedSequence;
+
+	// Sequence number of the last record on stable storage, guarded by this
+	private long durableSequence;
+
+	// Sequence number of the last record included in the snapshot
+	private long snapshotSequence;
+
+	// Number of replayed records that did not apply to the graph as logged
+	private int unappliedRecords;
+
+	// Flag set when a write or fsync failed, guarded by this
+	private boolean failed = false;
+
+	// Interval between snapshots in milliseconds
+	private long snapshotInterval;
+
+	// Maximum time the writer waits to gather a batch, in milliseconds
+	private long commitInterval;
+
+	private Thread writerThread;
+
+	private volatile boolean running = true;
+
+	private TopologyJournal(Gcontroller graph, File directory,
+			long snapshotInterval, long commitInterval) {
+		this.graph = graph;
+		this.journalFile = new File(directory, JOURNAL_FILE);
+		this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+		// Snapshots are disabled with a non positive interval
+		this.snapshotInterval = snapshotInterval > 0 ? snapshotInterval
+				: Long.MAX_VALUE / 2;
+		this.commitInterval = commitInterval;
+	}
+
+	/**
+	 * Function to restore the graph from the journal in the given directory
+	 * and start journaling further mutations
+	 * 
+	 * @param directory
+	 *            directory holding the journal and snapshot files
+	 * @param graph
+	 *            graph freshly imported from the topology file
+	 * @param snapshotInterval
+	 *            seconds between snapshots
+	 * @param commitInterval
+	 *            milliseconds the writer waits to gather a batch
+	 * @return the journal, or null if the directory cannot be used
+	 */
+	public static TopologyJournal open(String directory, Gcontroller graph,
+			int snapshotInterval, int commitInterval) {
+		File dir = new File(directory);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			localLogger("Cannot create journal directory " + directory
+					+ ", TED updates will not be persisted");
+			return null;
+		}
+		TopologyJournal journal = new TopologyJournal(graph, dir,
+				snapshotInterval * 1000L, commitInterval);
+		try {
+			journal.restore();
+			journal.journalChannel = new RandomAccessFile(journal.journalFile,
+					"rw").getChannel();
+			journal.journalChannel.position(journal.journalChannel.size());
+		} catch (IOException e) {
+			localLogger("Cannot open TED journal in " + directory + ": "
+					+ e.getMessage() + ", TED updates will not be persisted");
+			return null;
+		}
+		journal.startWriterThread();
+		return journal;
+	}
+
+	/** Function to record a successful reservation on a sequence of edges */
+	public void logReservation(double capacity, EdgeElement[] edges) {
+		logCapacityOperation(OPERATION_RESERVE, capacity, edges);
+	}
+
+	/** Function to record a successful release on a sequence of edges */
+	public void logRelease(double capacity, EdgeElement[] edges) {
+		logCapacityOperation(OPERATION_RELEASE, capacity, edges);
+	}
+
+	/** Function to record a new definition of an edge */
+	public synchronized void logEdgeDefinition(EdgeElement edge,
+			double delay, double weight, double capacity, double avcapacity) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(appendedSequence + 1);
+			out.writeByte(OPERATION_EDGE_DEFINITION);
+			out.writeUTF(edge.getEdgeID());
+			out.writeDouble(delay);
+			out.writeDouble(weight);
+			out.writeDouble(capacity);
+			out.writeDouble(avcapacity);
+			append(bytes.toByteArray());
+		} catch (IOException e) {
+			// Cannot happen when writing to a byte array
+		}
+	}
+
+	private synchronized void logCapacityOperation(byte operation,
+			double capacity, EdgeElement[] edges) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+					32 + edges.length * 8);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(appendedSequence + 1);
+			out.writeByte(operation);
+			out.writeDouble(capacity);
+			out.writeShort(edges.length);
+			for (int i = 0; i < edges.length; i++)
+				out.writeUTF(edges[i].getEdgeID());
+			append(bytes.toByteArray());
+		} catch (IOException e) {
+			// Cannot happen when writing to a byte array
+		}
+	}
+
+	/** Function to frame a payload and queue it for the writer thread */
+	private void append(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+		record.putInt(payload.length);
+		record.putInt((int) crc.getValue());
+		record.put(payload);
+		record.flip();
+		pendingRecords.add(record);
+		appendedSequence++;
+		notifyAll();
+	}
+
+	/** Function to get the sequence number of the last appended record */
+	public synchronized long getAppendedSequence() {
+		return appendedSequence;
+	}
+
+	/**
+	 * Function to wait until a record is on stable storage
+	 * 
+	 * @param sequence
+	 *            sequence number of the record
+	 * @return false if the journal failed to persist the record
+	 */
+	public synchronized boolean awaitDurable(long sequence) {
+		while (durableSequence < sequence && !failed && running) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return durableSequence >= sequence;
+	}
+
+	/** Function to stop the writer thread after flushing pending records */
+	public void stop() {
+		running = false;
+		synchronized (this) {
+			notifyAll();
+		}
+		try {
+			writerThread.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void startWriterThread() {
+		writerThread = new Thread() {
+			public void run() {
+				long lastSnapshot = System.currentTimeMillis();
+				while (running || hasPendingRecords()) {
+					ArrayList<ByteBuffer> batch;
+					long batchSequence;
+					synchronized (TopologyJournal.this) {
+						long now = System.currentTimeMillis();
+						long snapshotDue = lastSnapshot + snapshotInterval;
+						if (pendingRecords.isEmpty() && running
+								&& now < snapshotDue) {
+							try {
+								TopologyJournal.this.wait(snapshotDue - now);
+							} catch (InterruptedException e) {
+							}
+							continue;
+						}
+					}
+					// Let concurrent updates join the batch
+					if (commitInterval > 0 && running) {
+						try {
+							Thread.sleep(commitInterval);
+						} catch (InterruptedException e) {
+						}
+					}
+					synchronized (TopologyJournal.this) {
+						batch = pendingRecords;
+						pendingRecords = new ArrayList<ByteBuffer>();
+						batchSequence = appendedSequence;
+					}
+					writeBatch(batch, batchSequence);
+
+					if (System.currentTimeMillis() >= lastSnapshot
+							+ snapshotInterval) {
+						if (batchSequence > snapshotSequence)
+							writeSnapshot();
+						lastSnapshot = System.currentTimeMillis();
+					}
+				}
+				try {
+					journalChannel.close();
+				} catch (IOException e) {
+				}
+			}
+		};
+		writerThread.setName("TopologyJournalThread");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	private synchronized boolean hasPendingRecords() {
+		return !pendingRecords.isEmpty();
+	}
+
+	/** Function to write and fsync a batch of records */
+	private void writeBatch(ArrayList<ByteBuffer> batch, long batchSequence) {
+		if (batch.isEmpty())
+			return;
+		try {
+			ByteBuffer[] buffers = batch.toArray(new ByteBuffer[batch.size()]);
+			long remaining = 0;
+			for (int i = 0; i < buffers.length; i++)
+				remaining += buffers[i].remaining();
+			while (remaining > 0)
+				remaining -= journalChannel.write(buffers);
+			journalChannel.force(false);
+			synchronized (this) {
+				durableSequence = batchSequence;
+				notifyAll();
+			}
+		} catch (IOException e) {
+			localLogger("Failed to write TED journal: " + e.getMessage());
+			synchronized (this) {
+				failed = true;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Function to write a snapshot of all edges and start a new journal. Only
+	 * called by the writer thread.
+	 */
+	private void writeSnapshot() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		ArrayList<ByteBuffer> tail;
+		long sequence;
+		try {
+			// Capture the state together with the matching sequence number,
+			// mutations hold the graph lock while appending
+			synchronized (graph) {
+				synchronized (this) {
+					sequence = appendedSequence;
+					tail = pendingRecords;
+					pendingRecords = new ArrayList<ByteBuffer>();
+				}
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(sequence);
+				Set<EdgeElement> edges = graph.getEdgeSet();
+				out.writeInt(edges.size());
+				Iterator<EdgeElement> iter = edges.iterator();
+				while (iter.hasNext()) {
+					EdgeElement edge = iter.next();
+					EdgeParams params = edge.getEdgeParams();
+					out.writeUTF(edge.getEdgeID());
+					out.writeDouble(params.getDelay());
+					out.writeDouble(params.getWeight());
+					out.writeDouble(params.getMaxCapacity());
+					out.writeDouble(params.getAvailableCapacity());
+				}
+			}
+			// Records appended before the capture belong to the snapshot, but
+			// are made durable in the old journal first
+			writeBatch(tail, sequence);
+
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray(), 0, bytes.size());
+			out.writeInt((int) crc.getValue());
+
+			File temp = new File(snapshotFile.getPath() + ".tmp");
+			FileOutputStream file = new FileOutputStream(temp);
+			try {
+				file.write(bytes.toByteArray());
+				file.getFD().sync();
+			} finally {
+				file.close();
+			}
+			if (!temp.renameTo(snapshotFile)) {
+				snapshotFile.delete();
+				if (!temp.renameTo(snapshotFile))
+					throw new IOException("cannot rename " + temp);
+			}
+			snapshotSequence = sequence;
+
+			// All journaled records are now part of the snapshot
+			journalChannel.truncate(0);
+			journalChannel.position(0);
+			journalChannel.force(true);
+			localLogger("Wrote TED snapshot at sequence " + sequence);
+		} catch (IOException e) {
+			localLogger("Failed to write TED snapshot: " + e.getMessage());
+		}
+	}
+
+	/** Function to restore the graph from the snapshot and the journal */
+	private void restore() throws IOException {
+		if (snapshotFile.exists())
+			restoreSnapshot();
+		appendedSequence = snapshotSequence;
+		durableSequence = snapshotSequence;
+		if (journalFile.exists())
+			replayJournal();
+	}
+
+	private void restoreSnapshot() throws IOException {
+		byte[] data = readFile(snapshotFile);
+		if (data.length < 4) {
+			localLogger("Ignoring truncated TED snapshot " + snapshotFile);
+			return;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - 4);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		if (ByteBuffer.wrap(data, data.length - 4, 4).getInt() != (int) crc
+				.getValue() || in.readInt() != SNAPSHOT_MAGIC
+				|| in.readInt() != SNAPSHOT_VERSION) {
+			localLogger("Ignoring corrupt TED snapshot " + snapshotFile);
+			return;
+		}
+		long sequence = in.readLong();
+		int edgeCount = in.readInt();
+		int missing = 0;
+		for (int i = 0; i < edgeCount; i++) {
+			String edgeID = in.readUTF();
+			double delay = in.readDouble();
+			double weight = in.readDouble();
+			double capacity = in.readDouble();
+			double avcapacity = in.readDouble();
+			EdgeElement edge = graph.getEdge(edgeID);
+			if (edge == null)
+				missing++;
+			else
+				TopologyInformation.applyEdgeDefinition(edge, delay, weight,
+						capacity, avcapacity);
+		}
+		snapshotSequence = sequence;
+		localLogger("Restored " + (edgeCount - missing)
+				+ " edges from TED snapshot at sequence " + sequence);
+		if (missing > 0)
+			localLogger(missing
+					+ " edges of the snapshot are not part of the topology");
+	}
+
+	private void replayJournal() throws IOException {
+		RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+		int replayed = 0;
+		try {
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(
+							file.getFD())));
+			long validLength = 0;
+			while (true) {
+				byte[] payload;
+				try {
+					int length = in.readInt();
+					int checksum = in.readInt();
+					if (length <= 0 || length > 1 << 20)
+						break;
+					payload = new byte[length];
+					in.readFully(payload);
+					CRC32 crc = new CRC32();
+					crc.update(payload, 0, length);
+					if ((int) crc.getValue() != checksum)
+						break;
+					validLength += 8 + length;
+				} catch (EOFException e) {
+					break;
+				}
+				if (applyRecord(payload))
+					replayed++;
+			}
+			if (validLength < file.length()) {
+				localLogger("Discarding " + (file.length() - validLength)
+						+ " bytes of incomplete records at the end of the TED journal");
+				file.setLength(validLength);
+			}
+		} finally {
+			file.close();
+		}
+		durableSequence = appendedSequence;
+		localLogger("Replayed " + replayed + " TED journal records up to sequence "
+				+ appendedSequence);
+		if (unappliedRecords > 0)
+			localLogger(unappliedRecords
+					+ " TED journal records did not apply to the topology as logged");
+	}
+
+	/**
+	 * Function to get the number of replayed records which referenced an edge
+	 * missing from the topology, or whose reservation or release was refused
+	 */
+	public int getUnappliedRecords() {
+		return unappliedRecords;
+	}
+
+	/** Function to apply a journal record, records covered by the snapshot are skipped */
+	private boolean applyRecord(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				payload));
+		long sequence = in.readLong();
+		if (sequence > appendedSequence)
+			appendedSequence = sequence;
+		if (sequence <= snapshotSequence)
+			return false;
+		byte operation = in.readByte();
+		if (operation == OPERATION_EDGE_DEFINITION) {
+			String edgeID = in.readUTF();
+			EdgeElement edge = graph.getEdge(edgeID);
+			double delay = in.readDouble();
+			double weight = in.readDouble();
+			double capacity = in.readDouble();
+			double avcapacity = in.readDouble();
+			if (edge == null) {
+				unapplied(sequence, "edge " + edgeID + " is not part of the topology");
+				return true;
+			}
+			TopologyInformation.applyEdgeDefinition(edge, delay, weight,
+					capacity, avcapacity);
+		} else if (operation == OPERATION_RESERVE
+				|| operation == OPERATION_RELEASE) {
+			double capacity = in.readDouble();
+			int hops = in.readShort();
+			String failedEdges = null;
+			for (int i = 0; i < hops; i++) {
+				String edgeID = in.readUTF();
+				EdgeElement edge = graph.getEdge(edgeID);
+				boolean applied;
+				if (edge == null)
+					applied = false;
+				else if (operation == OPERATION_RESERVE)
+					applied = edge.getEdgeParams().reserveCapacity(capacity);
+				else
+					applied = edge.getEdgeParams().releaseCapacity(capacity);
+				if (!applied)
+					failedEdges = failedEdges == null ? edgeID : failedEdges
+							+ ", " + edgeID;
+			}
+			if (failedEdges != null)
+				unapplied(sequence, (operation == OPERATION_RESERVE ? "reservation"
+						: "release") + " of " + capacity + " failed on " + failedEdges);
+		} else {
+			unapplied(sequence, "unknown operation " + operation);
+		}
+		return true;
+	}
+
+	/** Function to report a replayed record which diverges from the logged state */
+	private void unapplied(long sequence, String reason) {
+		unappliedRecords++;
+		localLogger("TED journal record " + sequence + " not applied: " + reason);
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			byte[] data = new byte[(int) file.length()];
+			int read = 0;
+			while (read < data.length) {
+				int count = in.read(data, read, data.length - read);
+				if (count < 0)
+					break;
+				read += count;
+			}
+			return data;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Function for logging events
+	 * 
+	 * @param event
+	 */
+	private static void localLogger(String event) {
+		Logger.logSystemEvents("[TopologyJournal]     " + event);
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.computationmodule.ted;
+
+import java.nio.ByteBuffer;
+
+import com.graph.elements.vertex.VertexElement;
+import com.graph.graphcontroller.Gcontroller;
+import com.graph.graphcontroller.impl.LongIndexMap;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+
+/**
+ * Table interning the IPv4 vertex identifiers of a topology. Maps 32 bit
+ * IPv4 addresses, as carried in the END-POINTS object, to the dense vertex
+ * indices assigned by the graph controller, and vertex indices back to their
+ * addresses for ERO construction. Request processing can therefore resolve
+ * end points without creating or hashing strings. The table is built once
+ * per topology, and stays valid for copies of the graph as createCopy
+ * preserves vertex indices.
+ * 
+ * The table also holds the encoded IPv4 prefix ERO subobject of each vertex,
+ * so that an ERO is built by copying the subobjects of the traversed
+ * vertices into the response.
+ * 
+ * Vertices whose identifier is not a dotted IPv4 address are not part of
+ * the table.
+ */
+public class VertexAddressTable {
+
+	// Value returned when an address or index is not part of the table
+	public static final int NOT_FOUND = -1;
+
+	// Length of an IPv4 prefix ERO subobject
+	public static final int SUBOBJECT_LENGTH = 8;
+
+	// Map from the unsigned IPv4 address to the vertex index
+	private LongIndexMap addressToIndexMap;
+
+	// IPv4 address of each vertex, indexed by vertex index
+	private int[] indexToAddress;
+
+	// Flags marking vertices with a valid IPv4 identifier
+	private boolean[] hasAddress;
+
+	// Encoded ERO subobject of each vertex, indexed by vertex index
+	private byte[] subobjects;
+
+	/** Default Constructor, builds the table for the given graph */
+	public VertexAddressTable(Gcontroller graph) {
+		int vertexCount = graph.getVertexCount();
+		addressToIndexMap = new LongIndexMap(vertexCount);
+		indexToAddress = new int[vertexCount];
+		hasAddress = new boolean[vertexCount];
+		subobjects = new byte[vertexCount * SUBOBJECT_LENGTH];
+		ByteBuffer subobjectBuffer = ByteBuffer.wrap(subobjects);
+		for (int i = 0; i < vertexCount; i++) {
+			VertexElement vertex = graph.getVertexByIndex(i);
+			long address = parseAddress(vertex.getVertexID());
+			if (address >= 0) {
+				indexToAddress[i] = (int) address;
+				hasAddress[i] = true;
+				addressToIndexMap.put(address, i);
+				subobjectBuffer.position(i * SUBOBJECT_LENGTH);
+				new PCEPAddress((int) address).encode(subobjectBuffer);
+			}
+		}
+	}
+
+	/**
+	 * Function to get the vertex index of an IPv4 address
+	 * 
+	 * @param address
+	 *            32 bit IPv4 address
+	 * @return vertex index, NOT_FOUND if the address is not a vertex
+	 */
+	public int getVertexIndex(int address) {
+		return addressToIndexMap.get(address & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Function to get the IPv4 address of a vertex
+	 * 
+	 * @param vertexIndex
+	 * @return 32 bit IPv4 address
+	 */
+	public int getAddress(int vertexIndex) {
+		return indexToAddress[vertexIndex];
+	}
+
+	/**
+	 * Function to copy the encoded ERO subobject of a vertex with an IPv4
+	 * identifier at the position of the buffer
+	 * 
+	 * @param vertexIndex
+	 * @param buffer
+	 */
+	public void putSubobject(int vertexIndex, ByteBuffer buffer) {
+		buffer.put(subobjects, vertexIndex * SUBOBJECT_LENGTH,
+				SUBOBJECT_LENGTH);
+	}
+
+	/** Function to check if a vertex has an IPv4 identifier */
+	public boolean hasAddress(int vertexIndex) {
+		return vertexIndex >= 0 && vertexIndex < hasAddress.length
+				&& hasAddress[vertexIndex];
+	}
+
+	/** Function to get the number of vertices covered by the table */
+	public int size() {
+		return indexToAddress.length;
+	}
+
+	/**
+	 * Function to parse a dotted IPv4 address
+	 * 
+	 * @param vertexID
+	 * @return unsigned 32 bit address, -1 if the ID is not an IPv4 address
+	 */
+	public static long parseAddress(String vertexID) {
+		long address = 0;
+		int octet = -1;
+		int octetCount = 0;
+		String id = vertexID.trim();
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			if (c >= '0' && c <= '9') {
+				octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+				if (octet > 255)
+					return -1;
+			} else if (c == '.' && octet >= 0 && octetCount < 3) {
+				address = (address << 8) | octet;
+				octet = -1;
+				octetCount++;
+			} else
+				return -1;
+		}
+		if (octet < 0 || octetCount != 3)
+			return -1;
+		return (address << 8) | octet;
+	}
+}
@@ -83,7 +83,8 @@ public class Worker extends Thread {
 			//Flag to check if thread was interrupted during a wait operation or during a computation 
 			flag=1;
 			if (request!=null){
-				task = new WorkerTask(lm, request, TopologyInformation.getInstance(false).getGraph().createCopy());
+				TopologyInformation topology = TopologyInformation.getInstance(false);
+				task = new WorkerTask(lm, request, topology.getGraph().createCopy(), topology.getAddressTable());
 				task.run();
 //				localLogger("Completed processing of request ID " + request.getRequestID());
 			}
@@ -96,6 +97,8 @@ public class Worker extends Thread {
 			}
 			//The request was computed successfully, and the flag variable is set to indicate 
 			//that a new request be processed in the next iteration
+			if (request!=null)
+				lm.getComputationModule().requestCompleted(request);
 			flag=0;
 		}
 	}
@@ -17,6 +17,7 @@
 
 package com.pcee.architecture.computationmodule.threadpool;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 
@@ -31,20 +32,13 @@ import com.graph.path.algorithms.impl.MaxBandwidthShortestPathComputationAlgorit
 import com.graph.path.algorithms.impl.SimplePathComputationAlgorithm;
 import com.pcee.architecture.ModuleEnum;
 import com.pcee.architecture.ModuleManagement;
+import com.pcee.architecture.computationmodule.ted.VertexAddressTable;
 import com.pcee.logger.Logger;
 import com.pcee.protocol.message.PCEPMessage;
-import com.pcee.protocol.message.PCEPMessageFactory;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
-import com.pcee.protocol.message.objectframe.impl.PCEPBandwidthObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPExplicitRouteObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPNoPathObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
-import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 import com.pcee.protocol.request.PCEPRequestFrame;
 import com.pcee.protocol.request.PCEPRequestFrameFactory;
-import com.pcee.protocol.response.PCEPResponseFrame;
-import com.pcee.protocol.response.PCEPResponseFrameFactory;
+import com.pcee.protocol.response.PCEPResponseTemplates;
 
 /**
  * Runnable class used by the thread pool to process path computation requests
@@ -57,19 +51,28 @@ public class WorkerTask implements Runnable {
 	private PCEPMessage request;
 	// Graph used for computation of the request
 	private Gcontroller graph;
+	// Table of IPv4 vertex identifiers, valid for the graph and its copies
+	private VertexAddressTable addressTable;
 	// Module management object to send the response to the session layer
 	private ModuleManagement lm;
 
 	/** Default Constructor */
 	public WorkerTask(ModuleManagement layerManagement, PCEPMessage request, Gcontroller graph) {
+		this(layerManagement, request, graph, new VertexAddressTable(graph));
+	}
+
+	/** Constructor with the address table already built for the graph, or the graph it was copied from */
+	public WorkerTask(ModuleManagement layerManagement, PCEPMessage request, Gcontroller graph, VertexAddressTable addressTable) {
 		lm = layerManagement;
 		this.request = request;
 		this.graph = graph;
+		this.addressTable = addressTable;
 	}
 
 	/** Function to update the graph instance used for computation */
 	public void updateGraph(Gcontroller newGraph) {
 		this.graph = newGraph;
+		this.addressTable = new VertexAddressTable(newGraph);
 	}
 
 	/** Function to implement the path computation operations */
@@ -83,19 +86,19 @@ public class WorkerTask implements Runnable {
 
 	private void processSingleDomainRequest(PCEPRequestFrame requestFrame) {
 		//Check if source and destination domain are available in the graph, if not send a no path object 
-		String sourceID = requestFrame.getSourceAddress().getIPv4Address(false).trim();
-		String destID = requestFrame.getDestinationAddress().getIPv4Address(false).trim();
-		if (graph.vertexExists(sourceID) && graph.vertexExists(destID)) {
+		VertexElement source = graph.getVertexByIndex(addressTable.getVertexIndex(requestFrame.getSourceAddressDecimalValue()));
+		VertexElement destination = graph.getVertexByIndex(addressTable.getVertexIndex(requestFrame.getDestinationAddressDecimalValue()));
+		if (source != null && destination != null) {
 			//begin path computation
 			//Check if bandwidth objecy exists in the request frame
 			Constraint constr = null;
 			PathComputationAlgorithm algo = null;
 			if (requestFrame.containsBandwidthObject()) {
 				localLogger("Request Contains bandwidth Object");
-				constr = new SimplePathComputationConstraint (graph.getVertex(sourceID), graph.getVertex(destID), requestFrame.extractBandwidthObject().getBandwidthFloatValue());
+				constr = new SimplePathComputationConstraint (source, destination, requestFrame.extractBandwidthObject().getBandwidthFloatValue());
 				algo = new MaxBandwidthShortestPathComputationAlgorithm();
 			} else {
-				constr = new SimplePathComputationConstraint (graph.getVertex(sourceID), graph.getVertex(destID));
+				constr = new SimplePathComputationConstraint (source, destination);
 				algo = new SimplePathComputationAlgorithm();
 			}
 			//Start Path Computation
@@ -103,23 +106,17 @@ public class WorkerTask implements Runnable {
 			if (element !=null) {
 				localLogger("Computed path is " + element.getVertexSequence());
 				// return response
-				ArrayList<EROSubobjects> vertexList = getTraversedVertexes(element.getTraversedVertices());
-
-				//Generate ERO Object
-				PCEPExplicitRouteObject ERO = PCEPObjectFrameFactory.generatePCEPExplicitRouteObject("1", "0", vertexList);
-				//atleast one path was computed
-				PCEPRequestParametersObject RP = PCEPObjectFrameFactory.generatePCEPRequestParametersObject("1", "0", "0", "0", "0", "1", Integer.toString(requestFrame.getRequestID()));
-
-				PCEPResponseFrame respFrame = PCEPResponseFrameFactory.generatePathComputationResponseFrame(RP);
-
-				respFrame.insertExplicitRouteObject(ERO);
-
-				if (requestFrame.containsBandwidthObject()) {
-					PCEPBandwidthObject bw = PCEPObjectFrameFactory.generatePCEPBandwidthObject("1", "0", (float) element.getPathParams().getAvailableCapacity());
-					respFrame.insertBandwidthObject(bw);
-				}
-
-				PCEPMessage mesg = PCEPMessageFactory.generateMessage(respFrame);
+				ArrayList<VertexElement> vertexList = element.getTraversedVertices();
+				int subobjectsLength = vertexList.size() * VertexAddressTable.SUBOBJECT_LENGTH;
+
+				//atleast one path was computed, the response is encoded from the template with a single ERO object
+				PCEPMessage mesg;
+				if (requestFrame.containsBandwidthObject())
+					mesg = PCEPResponseTemplates.beginPathMessage(requestFrame.getRequestID(), subobjectsLength, (float) element.getPathParams().getAvailableCapacity());
+				else
+					mesg = PCEPResponseTemplates.beginPathMessage(requestFrame.getRequestID(), subobjectsLength);
+				encodeTraversedVertexes(vertexList, mesg.getWireBuffer());
+				PCEPResponseTemplates.endPathMessage(mesg);
 				mesg.setAddress(request.getAddress());
 
 				localLogger("Path found in the domain. Sending back to client");
@@ -134,9 +131,11 @@ public class WorkerTask implements Runnable {
 
 		} else {
 			//Source and/or destination not present in the PCE
-			if (graph.vertexExists(sourceID))
+			String sourceID = requestFrame.getSourceAddress().getIPv4Address(false);
+			String destID = requestFrame.getDestinationAddress().getIPv4Address(false);
+			if (source != null)
 				localLogger("Destination IP address " + destID + " not in the topology. Returning a no path object");
-			else if (graph.vertexExists(destID)) 
+			else if (destination != null) 
 				localLogger("Source IP address " + sourceID + " not in the topology. Returning a no path object");
 			else {
 				localLogger("Both source IP address " + sourceID + " and destination IP address " + destID + " not in the topology. Returning a no path object");
@@ -148,30 +147,27 @@ public class WorkerTask implements Runnable {
 
 	/**Function to return the no Path message to the Client*/
 	protected void returnNoPathMessage(int requestID) {
-		//Generate a No path object
-		PCEPRequestParametersObject RP = PCEPObjectFrameFactory.generatePCEPRequestParametersObject("1", "0", "0", "0", "0", "1", Integer.toString(requestID));
-		PCEPNoPathObject noPath = PCEPObjectFrameFactory.generatePCEPNoPathObject("1", "0", 1, "0");
-		PCEPResponseFrame responseFrame = PCEPResponseFrameFactory.generatePathComputationResponseFrame(RP);
-		responseFrame.insertNoPathObject(noPath);
-		PCEPMessage mesg = PCEPMessageFactory.generateMessage(responseFrame);
+		//Generate a No path message from the template
+		PCEPMessage mesg = PCEPResponseTemplates.generateNoPathMessage(requestID);
 		mesg.setAddress(request.getAddress());
 		lm.getComputationModule().sendMessage(mesg, ModuleEnum.SESSION_MODULE);
 	}
 
 	/**
-	 * Function to get the list of traversed vertices as PCEP addresses from the List of vertices in the graph. Used to create ERO
+	 * Function to write the ERO subobjects of the traversed vertices from the List of vertices in the graph. The encoded subobjects
+	 * of the address table are copied, other vertices are encoded from their ID
 	 *
-	 * @param resp
-	 * @return
+	 * @param vertexArrayList
+	 * @param buffer
 	 */
-	protected ArrayList<EROSubobjects> getTraversedVertexes(ArrayList<VertexElement> vertexArrayList) {
-
-		ArrayList<EROSubobjects> traversedVertexesList = new ArrayList<EROSubobjects>();
-
+	protected void encodeTraversedVertexes(ArrayList<VertexElement> vertexArrayList, ByteBuffer buffer) {
 		for (int i=0;i<vertexArrayList.size();i++) {
-			traversedVertexesList.add(new PCEPAddress(vertexArrayList.get(i).getVertexID(), false));			
+			VertexElement vertex = vertexArrayList.get(i);
+			if (addressTable.hasAddress(vertex.getVertexIndex()))
+				addressTable.putSubobject(vertex.getVertexIndex(), buffer);
+			else
+				new PCEPAddress(vertex.getVertexID(), false).encode(buffer);
 		}
-		return traversedVertexesList;
 	}
 
 	/**
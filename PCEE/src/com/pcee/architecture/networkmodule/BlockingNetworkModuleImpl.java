@@ -0,0 +1,720 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.networkmodule;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.pcee.architecture.ModuleEnum;
+import com.pcee.architecture.ModuleManagement;
+import com.pcee.logger.Logger;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+
+/**
+ * Implementation of the Network Module serving each connection with blocking
+ * reads and writes on threads of its own. Connection threads are virtual
+ * threads when the runtime supports them (JDK 21+), platform threads
+ * otherwise.
+ * 
+ * The framing, the connection table and the limits on queued output and in
+ * flight requests are shared with the selector based implementation.
+ */
+public class BlockingNetworkModuleImpl extends NetworkModule {
+
+	// Management Object used to forward communications between the different
+	// modules
+	private ModuleManagement lm;
+
+	// Port at which the acceptor thread listens for incoming PCEP connections
+	private int port;
+
+	// Boolean flag to indicate if the Network Module is used on the server side
+	private boolean isServer;
+
+	// Server channels listening for incoming connections, on the TCP port and
+	// on the Unix domain socket if configured
+	private ArrayList<ServerSocketChannel> serverChannels = new ArrayList<ServerSocketChannel>();
+
+	// Path of the Unix domain socket file created by this instance
+	private Path unixSocketFile;
+
+	// Synthetic ports given to clients connected over the Unix domain socket
+	private AtomicInteger nextUnixSocketPort = new AtomicInteger(65536);
+
+	// Boolean flag used by the connection threads for graceful stop
+	private volatile boolean stopped = false;
+
+	// Flag set by the computation module while its request queue is above
+	// its watermark, no connection is read from while set
+	private volatile boolean overloaded = false;
+
+	// Table of the open connections indexed by connection ID
+	private ConnectionTable<Connection> connectionTable = new ConnectionTable<Connection>(
+			64);
+
+	// Map to store correlation between the session ID and the corresponding
+	// connection, used for addresses that do not carry a connection ID
+	private ConcurrentHashMap<String, Connection> addressToConnectionHashMap = new ConcurrentHashMap<String, Connection>();
+
+	// Message queued to ask the writer thread to close the connection, never
+	// written
+	private static final PCEPMessage CLOSE_MARKER = new PCEPMessage(
+			new byte[MessageFraming.MESSAGE_HEADER_LENGTH]);
+
+	// Maximum number of buffers handed to a single gathering write
+	private static final int WRITE_BATCH_SIZE = 16;
+
+	// Builder methods of virtual threads, null if not supported
+	private static Method ofVirtualMethod;
+	private static Method nameMethod;
+	private static Method unstartedMethod;
+
+	static {
+		try {
+			ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			nameMethod = builderClass.getMethod("name", String.class);
+			unstartedMethod = builderClass.getMethod("unstarted",
+					Runnable.class);
+		} catch (Exception e) {
+			ofVirtualMethod = null;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param isServer
+	 * @param layerManagement
+	 * @param port
+	 */
+	public BlockingNetworkModuleImpl(boolean isServer,
+			ModuleManagement layerManagement, int port) {
+		localDebugger("Entering: BlockingNetworkModuleImpl(boolean isServer, ModuleManagement layerManagement, int port)");
+
+		lm = layerManagement;
+		this.port = port;
+		this.isServer = isServer;
+		this.start();
+	}
+
+	public void start() {
+		localDebugger("Entering: start()");
+
+		if (!isServer)
+			return;
+
+		try {
+			ServerSocketChannel serverSocketChannel = ServerSocketChannel
+					.open();
+			try {
+				serverSocketChannel.socket().bind(new InetSocketAddress(port));
+			} catch (java.net.BindException e) {
+				Logger.logError("[NetworkModule] The PCEP Port is Already in use by another application. Terminating Server Instance");
+				System.exit(-1);
+			}
+			startAcceptor(serverSocketChannel, "AcceptorThread-NetworkHandler");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		String unixSocketPath = NetworkModuleImpl.getUnixSocketPath();
+		if (unixSocketPath != null) {
+			try {
+				Path path = Paths.get(unixSocketPath);
+				// A socket file left by a previous instance prevents the bind
+				Files.deleteIfExists(path);
+				ServerSocketChannel unixServerChannel = ServerSocketChannel
+						.open(StandardProtocolFamily.UNIX);
+				unixServerChannel.bind(UnixDomainSocketAddress.of(path));
+				unixSocketFile = path;
+				startAcceptor(unixServerChannel,
+						"UnixAcceptorThread-NetworkHandler");
+			} catch (IOException e) {
+				Logger.logError("[NetworkModule] Could not listen on the Unix domain socket "
+						+ unixSocketPath + ": " + e.getMessage());
+			} catch (UnsupportedOperationException e) {
+				Logger.logError("[NetworkModule] Unix domain sockets are not supported on this platform");
+			}
+		}
+	}
+
+	public void stop() {
+		localDebugger("Entering: stop()");
+
+		stopped = true;
+		for (int i = 0; i < serverChannels.size(); i++) {
+			try {
+				serverChannels.get(i).close();
+			} catch (IOException e) {
+				localDebugger("| IOException in closing server socket ");
+			}
+		}
+		Iterator<Connection> iter = addressToConnectionHashMap.values()
+				.iterator();
+		while (iter.hasNext())
+			iter.next().close(false);
+		connectionTable.clear();
+		addressToConnectionHashMap.clear();
+		if (unixSocketFile != null) {
+			try {
+				Files.deleteIfExists(unixSocketFile);
+			} catch (IOException e) {
+				localLogger("Could not remove the Unix domain socket file "
+						+ unixSocketFile);
+			}
+		}
+	}
+
+	public void receiveMessage(PCEPMessage message, ModuleEnum sourceLayer) {
+		localDebugger("Entering: receiveMessage(PCEPMessage message, ModuleEnum sourceLayer)");
+		localDebugger("| message: " + message.contentInformation());
+		localDebugger("| sourceLayer: " + sourceLayer);
+
+		writeSocket(message);
+	}
+
+	public void sendMessage(PCEPMessage message, ModuleEnum targetLayer) {
+		localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
+		localDebugger("| message: " + message.contentInformation());
+		localDebugger("| targetLayer: " + targetLayer);
+
+		switch (targetLayer) {
+		case SESSION_MODULE:
+			lm.getSessionModule().receiveMessage(message,
+					ModuleEnum.NETWORK_MODULE);
+			break;
+		case COMPUTATION_MODULE:
+			// Not possible
+			break;
+		case CLIENT_MODULE:
+			// Not possible
+			break;
+		default:
+			localLogger("Error in sendMessage(PCEPMessage message, LayerEnum targetLayer)");
+			localLogger("Wrong target Layer");
+			break;
+		}
+	}
+
+	public void registerConnection(PCEPAddress address, boolean connected,
+			boolean connectionInitialized, boolean forceClient) {
+		localDebugger("Entering: registerConnection(Address address, boolean connected, boolean connectionInitialized)");
+		localDebugger("| address: " + address.getIPv4Address(false));
+
+		localLogger("Trying to initialise a Connection to "
+				+ address.getIPv4Address(false));
+		try {
+			// Opening a new connection to the remote peer
+			SocketChannel socketChannel = SocketChannel.open();
+			socketChannel.socket().setReuseAddress(true);
+			socketChannel.connect(new InetSocketAddress(address
+					.getIPv4Address(false), address.getPort()));
+
+			if (socketChannel.isConnected() == true) {
+				localLogger("Connected to " + address.getIPv4Address(false)
+						+ ":" + address.getPort());
+				PCEPAddress remoteAddress = new PCEPAddress(socketChannel
+						.socket().getInetAddress().getHostAddress(),
+						socketChannel.socket().getPort());
+				socketChannel.socket().setTcpNoDelay(true);
+
+				Connection connection = insertConnection(remoteAddress,
+						socketChannel);
+
+				// This step intimates the state machine that connection is
+				// established. State Machine can then send out The first OPEN
+				// message
+				lm.getSessionModule().registerConnection(remoteAddress, true,
+						true, forceClient);
+
+				// The reader is started only after state machine is
+				// initialized so that an OPEN message is not received before
+				// an OPEN message has been sent out
+				connection.start();
+			}
+		} catch (java.net.ConnectException e) {
+			Logger.logError("[NetworkModule] Count not connect to Server. Please Check if server is running on the remote address");
+		} catch (IOException e) {
+			Logger.logError("[NetworkModule] " + e.getMessage());
+		}
+	}
+
+	public void closeConnection(PCEPAddress address) {
+		localDebugger("Entering: closeConnection(Address address)");
+		localDebugger("| address: " + address.getIPv4Address());
+
+		// The writer thread flushes the messages already queued for the
+		// connection before closing the socket channel
+		Connection connection = removeConnection(address);
+		if (connection != null)
+			connection.close(true);
+	}
+
+	public void requestCompleted(PCEPAddress address) {
+		Connection connection = getConnection(address);
+		if (connection != null
+				&& connection.inFlight.decrementAndGet() <= NetworkModuleImpl
+						.getMaxInFlightRequests() / 2)
+			connection.signalReadable();
+	}
+
+	public void setOverloaded(boolean overloaded) {
+		this.overloaded = overloaded;
+		if (!overloaded) {
+			Iterator<Connection> iter = addressToConnectionHashMap.values()
+					.iterator();
+			while (iter.hasNext())
+				iter.next().signalReadable();
+		}
+	}
+
+	/**
+	 * Function to start a thread accepting connections on a server channel
+	 * 
+	 * @param serverChannel
+	 * @param name
+	 */
+	private void startAcceptor(final ServerSocketChannel serverChannel,
+			String name) {
+		serverChannels.add(serverChannel);
+		Thread acceptor = new Thread() {
+			public void run() {
+				while (!stopped) {
+					try {
+						connectionReceived(serverChannel.accept());
+					} catch (AsynchronousCloseException e) {
+						break;
+					} catch (IOException e) {
+						if (stopped)
+							break;
+						localLogger("IOException with the acceptor");
+						e.printStackTrace();
+					}
+				}
+			}
+		};
+		acceptor.setName(name);
+		acceptor.start();
+	}
+
+	/**
+	 * Function to accept new Incoming connections from a server channel
+	 * 
+	 * @param socketChannel
+	 * @throws IOException
+	 */
+	private void connectionReceived(SocketChannel socketChannel)
+			throws IOException {
+		localDebugger("Entering: connectionReceived(SocketChannel socketChannel)");
+
+		boolean tcp = socketChannel.getRemoteAddress() instanceof InetSocketAddress;
+		PCEPAddress address;
+		if (tcp) {
+			address = new PCEPAddress(socketChannel.socket().getInetAddress()
+					.getHostAddress().trim(), socketChannel.socket().getPort());
+			socketChannel.socket().setTcpNoDelay(true);
+		} else {
+			address = new PCEPAddress("127.0.0.1",
+					nextUnixSocketPort.getAndIncrement());
+		}
+
+		// Check if a connection is already registered
+		if (getConnection(address) == null) {
+			Connection connection = insertConnection(address, socketChannel);
+
+			// if the server is receiving a connection then the remote peer is
+			// a client
+			lm.getSessionModule().registerConnection(address, true, false,
+					false);
+
+			localLogger("New Connection Accepted, starting connection threads");
+			connection.start();
+		} else {
+			localLogger("Terminating incoming connection as a connection from the IP address"
+					+ address.getIPv4Address() + " already exists.");
+			socketChannel.close();
+		}
+	}
+
+	/**
+	 * Function to queue a PCEPMessage for the writer thread of its connection
+	 * 
+	 * @param message
+	 */
+	private void writeSocket(PCEPMessage message) {
+		localDebugger("Entering: writeSocket(PCEPMessage message)");
+
+		Connection connection = getConnection(message.getAddress());
+		if (connection == null) {
+			localLogger("| Did not find the connection of the address");
+			message.release();
+			lm.getSessionModule().closeConnection(message.getAddress());
+			return;
+		}
+
+		long queuedBytes = connection.queuedBytes.addAndGet(message
+				.getWriteBuffer().remaining());
+		if (queuedBytes > NetworkModuleImpl.getMaxQueuedBytes()) {
+			Logger.logError("[NetworkModule] " + queuedBytes
+					+ " bytes queued for "
+					+ message.getAddress().getIPv4Address()
+					+ ", closing connection to slow peer");
+			message.release();
+			lm.getSessionModule().closeConnection(message.getAddress());
+			return;
+		}
+		connection.writeQueue.add(message);
+		if (connection.writerStopped) {
+			// The writer thread exited meanwhile and will not write the queue
+			// anymore
+			while ((message = connection.writeQueue.poll()) != null)
+				message.release();
+		}
+	}
+
+	/**
+	 * Function to retrieve the connection designated by an address
+	 * 
+	 * @param address
+	 * @return the connection, or null if the address does not designate an
+	 *         open connection
+	 */
+	private Connection getConnection(PCEPAddress address) {
+		int connectionId = address.getConnectionId();
+		if (connectionId >= 0)
+			return connectionTable.get(connectionId);
+		return addressToConnectionHashMap.get(address.getIPv4Address());
+	}
+
+	/**
+	 * Function to create a new connection and insert it in the connection
+	 * table and the hash map. The connection ID is set on the address
+	 * 
+	 * @param address
+	 * @param channel
+	 * @return
+	 */
+	private Connection insertConnection(PCEPAddress address,
+			SocketChannel channel) {
+		Connection connection = new Connection(address, channel);
+		connection.id = connectionTable.add(connection);
+		address.setConnectionId(connection.id);
+		// The address is shared by all messages of the connection, hash it
+		// once for the session layer here
+		address.getSessionHash();
+		addressToConnectionHashMap.put(address.getIPv4Address(), connection);
+		return connection;
+	}
+
+	/**
+	 * Function to remove a connection from the connection table and the hash
+	 * map
+	 * 
+	 * @param address
+	 * @return the removed connection, or null if the address does not
+	 *         designate an open connection
+	 */
+	private Connection removeConnection(PCEPAddress address) {
+		Connection connection = getConnection(address);
+		if (connection == null)
+			return null;
+		connectionTable.remove(connection.id);
+		addressToConnectionHashMap.remove(connection.address.getIPv4Address(),
+				connection);
+		return connection;
+	}
+
+	/**
+	 * Function to create a connection thread, virtual if supported
+	 * 
+	 * @param task
+	 * @param name
+	 * @return the unstarted thread
+	 */
+	private static Thread newConnectionThread(Runnable task, String name) {
+		if (ofVirtualMethod != null) {
+			try {
+				Object builder = ofVirtualMethod.invoke(null);
+				builder = nameMethod.invoke(builder, name);
+				return (Thread) unstartedMethod.invoke(builder, task);
+			} catch (Exception e) {
+				ofVirtualMethod = null;
+			}
+		}
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Connection served by a reader thread and a writer thread
+	 */
+	private class Connection {
+
+		// ID of the connection in the connection table
+		private int id;
+
+		// Address of the remote peer, carrying the connection ID
+		private PCEPAddress address;
+
+		private SocketChannel channel;
+
+		// Messages waiting to be written by the writer thread, released once
+		// written
+		private LinkedBlockingQueue<PCEPMessage> writeQueue = new LinkedBlockingQueue<PCEPMessage>();
+
+		// Number of bytes queued and not written yet
+		private AtomicLong queuedBytes = new AtomicLong(0);
+
+		// Number of requests received on the connection and not processed yet
+		private AtomicInteger inFlight = new AtomicInteger(0);
+
+		// Lock and condition used by the reader thread to wait while reading
+		// is suspended
+		private ReentrantLock readLock = new ReentrantLock();
+		private Condition readable = readLock.newCondition();
+
+		// Flag set once the connection is closing
+		private volatile boolean closing = false;
+
+		// Flag set once the writer thread stopped writing the queue, messages
+		// added afterwards are released by the thread adding them
+		private volatile boolean writerStopped = false;
+
+		Connection(PCEPAddress address, SocketChannel channel) {
+			this.address = address;
+			this.channel = channel;
+		}
+
+		void start() {
+			String name = "Connection-" + address.getIPv4Address();
+			newConnectionThread(new Runnable() {
+				public void run() {
+					readLoop();
+				}
+			}, name + "-Reader").start();
+			newConnectionThread(new Runnable() {
+				public void run() {
+					writeLoop();
+				}
+			}, name + "-Writer").start();
+		}
+
+		/**
+		 * Function to close the connection
+		 * 
+		 * @param flush
+		 *            true to write the queued messages before closing
+		 */
+		void close(boolean flush) {
+			closing = true;
+			signalReadable();
+			if (flush
+					&& queuedBytes.get() <= NetworkModuleImpl
+							.getMaxQueuedBytes())
+				writeQueue.add(CLOSE_MARKER);
+			else
+				closeChannel();
+		}
+
+		void signalReadable() {
+			readLock.lock();
+			try {
+				readable.signalAll();
+			} finally {
+				readLock.unlock();
+			}
+		}
+
+		private void closeChannel() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				localDebugger("| IOException in closing socket ");
+			}
+			// Wake up the writer thread if it is waiting for messages
+			writeQueue.add(CLOSE_MARKER);
+		}
+
+		/**
+		 * Function to wait until the requests of the connection and the
+		 * request queue are below their limits
+		 * 
+		 * @throws InterruptedException
+		 */
+		private void awaitAdmission() throws InterruptedException {
+			int maxInFlightRequests = NetworkModuleImpl
+					.getMaxInFlightRequests();
+			if (!overloaded && inFlight.get() < maxInFlightRequests)
+				return;
+			readLock.lock();
+			try {
+				// Once suspended, reading resumes when half of the requests
+				// have been processed
+				while (!closing
+						&& (overloaded || inFlight.get() > maxInFlightRequests / 2))
+					readable.await();
+			} finally {
+				readLock.unlock();
+			}
+		}
+
+		private void readLoop() {
+			ByteBuffer buffer = ByteBuffer
+					.allocate(MessageFraming.READ_BUFFER_SIZE);
+			try {
+				while (!closing) {
+					if (!buffer.hasRemaining())
+						buffer = MessageFraming.growReadBuffer(buffer);
+					if (channel.read(buffer) < 0) {
+						localLogger("Socket Shut Down Cleanly, Closing Connection for address: "
+								+ address.getIPv4Address());
+						break;
+					}
+
+					buffer.flip();
+					int length;
+					while ((length = MessageFraming
+							.completeMessageLength(buffer)) > 0) {
+						awaitAdmission();
+						if (closing)
+							return;
+						PCEPMessage receivedMessage = MessageFraming
+								.readMessage(buffer, length);
+						receivedMessage.setAddress(address);
+						if (receivedMessage.getMessageHeader()
+								.getTypeDecimalValue() == MessageFraming.PCREQ_MESSAGE_TYPE)
+							inFlight.incrementAndGet();
+						sendMessage(receivedMessage, ModuleEnum.SESSION_MODULE);
+					}
+					buffer.compact();
+					if (length < 0) {
+						localLogger("Invalid message length received, Closing Connection from address: "
+								+ address.getIPv4Address());
+						break;
+					}
+				}
+			} catch (IOException e) {
+				if (!closing)
+					localLogger("Error when reading from socket for address "
+							+ address.getIPv4Address() + " Closing connection");
+			} catch (InterruptedException e) {
+				localLogger("Reader interrupted for address "
+						+ address.getIPv4Address());
+			}
+			if (!closing)
+				lm.getSessionModule().closeConnection(address);
+		}
+
+		private void writeLoop() {
+			PCEPMessage[] messages = new PCEPMessage[WRITE_BATCH_SIZE];
+			ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH_SIZE];
+			try {
+				while (true) {
+					// Wait for a message, then write it together with the
+					// messages queued in the meantime
+					messages[0] = writeQueue.take();
+					int count = 1;
+					while (messages[count - 1] != CLOSE_MARKER
+							&& count < messages.length
+							&& (messages[count] = writeQueue.poll()) != null)
+						count++;
+					boolean close = messages[count - 1] == CLOSE_MARKER;
+					if (close)
+						messages[--count] = null;
+
+					long bytes = 0;
+					for (int i = 0; i < count; i++) {
+						batch[i] = messages[i].getWriteBuffer();
+						bytes += batch[i].remaining();
+					}
+					long written = 0;
+					while (written < bytes)
+						written += channel.write(batch, 0, count);
+					queuedBytes.addAndGet(-written);
+					for (int i = 0; i < count; i++) {
+						messages[i].release();
+						messages[i] = null;
+						batch[i] = null;
+					}
+
+					if (close)
+						break;
+				}
+			} catch (IOException e) {
+				if (!closing) {
+					localLogger("Error when writing to socket for address "
+							+ address.getIPv4Address() + " Closing connection");
+					lm.getSessionModule().closeConnection(address);
+				}
+			} catch (InterruptedException e) {
+				localLogger("Writer interrupted for address "
+						+ address.getIPv4Address());
+			}
+			closeChannel();
+			writerStopped = true;
+
+			// Release the messages which were not written
+			for (int i = 0; i < messages.length; i++)
+				if (messages[i] != null)
+					messages[i].release();
+			PCEPMessage message;
+			while ((message = writeQueue.poll()) != null)
+				message.release();
+		}
+	}
+
+	/**
+	 * Logger Event for logging events inside the network module
+	 * 
+	 * @param event
+	 */
+	private void localLogger(String event) {
+		////Logger.logSystemEvents("[NetworkModule] " + event);
+	}
+
+	/**
+	 * Logger Event for logging debugging information inside the network module
+	 * 
+	 * @param event
+	 */
+	private void localDebugger(String event) {
+		//Logger.debugger("[NetworkModule] " + event);
+	}
+
+}
@@ -0,0 +1,163 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.networkmodule;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent table of the open connections indexed by an integer connection
+ * ID. Lookups are lock free and do not build or hash any key, insertions and
+ * removals are serialized.
+ * 
+ * A connection ID combines the slot of the connection in the table with a
+ * generation counter of the slot, so that the ID of a closed connection is
+ * not resolved to a later connection reusing the same slot.
+ * 
+ * @param <T>
+ *            connection type
+ */
+class ConnectionTable<T> {
+
+	// Number of low order bits of a connection ID holding the slot index
+	private static final int SLOT_BITS = 20;
+
+	private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+	// Generation counters wrap within the positive range of the ID
+	private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+	private static class Entry<T> {
+		private final int id;
+		private final T connection;
+
+		Entry(int id, T connection) {
+			this.id = id;
+			this.connection = connection;
+		}
+	}
+
+	private volatile AtomicReferenceArray<Entry<T>> slots;
+
+	// Generation of each slot, incremented when the slot is released
+	private int[] generations;
+
+	// Stack of released slots
+	private int[] freeSlots;
+
+	private int freeCount = 0;
+
+	// Number of slots handed out at least once
+	private int usedSlots = 0;
+
+	private int size = 0;
+
+	ConnectionTable(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 16);
+		slots = new AtomicReferenceArray<Entry<T>>(capacity);
+		generations = new int[capacity];
+		freeSlots = new int[capacity];
+	}
+
+	/**
+	 * Function to insert a connection in the table
+	 * 
+	 * @param connection
+	 * @return the ID of the connection
+	 */
+	synchronized int add(T connection) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (usedSlots > SLOT_MASK)
+				throw new IllegalStateException("Connection table is full");
+			if (usedSlots == slots.length())
+				grow();
+			slot = usedSlots++;
+		}
+		int id = (generations[slot] << SLOT_BITS) | slot;
+		slots.set(slot, new Entry<T>(id, connection));
+		size++;
+		return id;
+	}
+
+	/**
+	 * Function to retrieve a connection from its ID
+	 * 
+	 * @param id
+	 * @return the connection, or null if no open connection has this ID
+	 */
+	T get(int id) {
+		if (id < 0)
+			return null;
+		AtomicReferenceArray<Entry<T>> current = slots;
+		int slot = id & SLOT_MASK;
+		if (slot >= current.length())
+			return null;
+		Entry<T> entry = current.get(slot);
+		if (entry == null || entry.id != id)
+			return null;
+		return entry.connection;
+	}
+
+	/**
+	 * Function to remove a connection from the table
+	 * 
+	 * @param id
+	 * @return the removed connection, or null if no open connection has this
+	 *         ID
+	 */
+	synchronized T remove(int id) {
+		T connection = get(id);
+		if (connection == null)
+			return null;
+		int slot = id & SLOT_MASK;
+		slots.set(slot, null);
+		generations[slot] = (generations[slot] + 1) & GENERATION_MASK;
+		freeSlots[freeCount++] = slot;
+		size--;
+		return connection;
+	}
+
+	synchronized int size() {
+		return size;
+	}
+
+	synchronized void clear() {
+		for (int slot = 0; slot < usedSlots; slot++) {
+			if (slots.get(slot) != null)
+				remove(slots.get(slot).id);
+		}
+	}
+
+	private void grow() {
+		int capacity = Math.min(slots.length() * 2, SLOT_MASK + 1);
+		AtomicReferenceArray<Entry<T>> grown = new AtomicReferenceArray<Entry<T>>(
+				capacity);
+		for (int i = 0; i < slots.length(); i++)
+			grown.set(i, slots.get(i));
+		int[] grownGenerations = new int[capacity];
+		System.arraycopy(generations, 0, grownGenerations, 0,
+				generations.length);
+		int[] grownFreeSlots = new int[capacity];
+		System.arraycopy(freeSlots, 0, grownFreeSlots, 0, freeCount);
+		generations = grownGenerations;
+		freeSlots = grownFreeSlots;
+		slots = grown;
+	}
+}
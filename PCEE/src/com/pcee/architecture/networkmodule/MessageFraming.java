@@ -0,0 +1,123 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.networkmodule;
+
+import java.nio.ByteBuffer;
+
+import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessagePool;
+
+/**
+ * Framing of PCEP messages in the read buffers of the network module
+ * implementations. Messages are delimited by the length field of their common
+ * header, read directly from the buffer. Each message is copied once out of
+ * the buffer, as the buffer is reused for the next reads while the message
+ * waits in the queues of the session and computation modules.
+ */
+final class MessageFraming {
+
+	// Initial size of the read buffer of a connection
+	static final int READ_BUFFER_SIZE = 4096;
+
+	// Length in bytes of the common message header
+	static final int MESSAGE_HEADER_LENGTH = PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH / 8;
+
+	// Message type of path computation requests, counted as in flight until
+	// the computation module reports their completion
+	static final int PCREQ_MESSAGE_TYPE = 3;
+
+	private MessageFraming() {
+	}
+
+	/**
+	 * Function to check if the message starting at the position of a buffer
+	 * has been completely received
+	 * 
+	 * @param buffer
+	 *            buffer in read mode
+	 * @return the length of the message if it lies completely between the
+	 *         position and the limit of the buffer, 0 if more bytes are needed,
+	 *         -1 if the header carries an invalid length
+	 */
+	static int completeMessageLength(ByteBuffer buffer) {
+		if (buffer.remaining() < MESSAGE_HEADER_LENGTH)
+			return 0;
+		int length = buffer.getShort(buffer.position() + 2) & 0xFFFF;
+		if (length < MESSAGE_HEADER_LENGTH)
+			return -1;
+		if (buffer.remaining() < length)
+			return 0;
+		return length;
+	}
+
+	/**
+	 * Function to take the next message out of a buffer, without copying it
+	 * 
+	 * @param buffer
+	 *            buffer in read mode, its position is moved past the message
+	 * @param length
+	 *            length of the message, as returned by completeMessageLength
+	 * @return a slice of the buffer holding the message
+	 */
+	static ByteBuffer nextMessage(ByteBuffer buffer, int length) {
+		ByteBuffer message = buffer.slice();
+		message.limit(length);
+		buffer.position(buffer.position() + length);
+		return message;
+	}
+
+	/**
+	 * Function to copy the next message of a buffer into a PCEPMessage. Path
+	 * computation requests are copied into messages of PCEPMessagePool,
+	 * released once the request is completed or dropped, other messages into
+	 * a byte array of their own
+	 * 
+	 * @param buffer
+	 *            buffer in read mode, its position is moved past the message
+	 * @param length
+	 *            length of the message, as returned by completeMessageLength
+	 * @return
+	 */
+	static PCEPMessage readMessage(ByteBuffer buffer, int length) {
+		if ((buffer.get(buffer.position() + 1) & 0xFF) == PCREQ_MESSAGE_TYPE)
+			return PCEPMessagePool.acquire(buffer, length);
+		return new PCEPMessage(nextMessage(buffer, length));
+	}
+
+	/**
+	 * Function to replace a full read buffer by a larger one, large enough to
+	 * hold the pending message if its header has already been received
+	 * 
+	 * @param buffer
+	 *            full read buffer in write mode
+	 * @return the new read buffer in write mode
+	 */
+	static ByteBuffer growReadBuffer(ByteBuffer buffer) {
+		int capacity = buffer.capacity() * 2;
+		if (buffer.position() >= MESSAGE_HEADER_LENGTH) {
+			int length = buffer.getShort(2) & 0xFFFF;
+			if (length > capacity)
+				capacity = length;
+		}
+		ByteBuffer grown = ByteBuffer.allocate(capacity);
+		buffer.flip();
+		grown.put(buffer);
+		return grown;
+	}
+}
@@ -18,6 +18,7 @@
 package com.pcee.architecture.networkmodule;
 
 import com.pcee.architecture.Module;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 
 /**
  * Abstract Super class to unify multiple Network Module implementations
@@ -28,4 +29,8 @@ import com.pcee.architecture.Module;
 public abstract class NetworkModule implements Module{
 	//Abstract class definition used in order to ensure that new functions specific to the layer may be incorporated easily
 
+	//Functions to suspend reading from connections with too many requests waiting for computation
+	public abstract void requestCompleted(PCEPAddress address);
+	public abstract void setOverloaded(boolean overloaded);
+
 }
@@ -19,22 +19,29 @@ package com.pcee.architecture.networkmodule;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import com.pcee.architecture.ModuleEnum;
 import com.pcee.architecture.ModuleManagement;
 import com.pcee.logger.Logger;
-import com.pcee.protocol.message.PCEPCommonMessageHeader;
-import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPMessage;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 
@@ -51,35 +58,70 @@ public class NetworkModuleImpl extends NetworkModule {
 	// modules
 	private ModuleManagement lm;
 
-	// Java NIO selector object used to monitor incoming connection requests as
-	// well as data read requests
-	private Selector selector;
+	// Java NIO selector object used by the acceptor thread to monitor incoming
+	// connection requests
+	private Selector acceptSelector;
 
-	// Thread instance used to operate the Selector
-	private Thread selectorthread;
+	// Thread instance used to accept incoming connections, only started on the
+	// server side
+	private Thread acceptorThread;
 
-	// Boolean flag used by the selector thread for graceful stop
-	private boolean selectorStop = false;
+	// Selector threads reading from the registered connections. New
+	// connections are spread over the reactors in a round robin fashion
+	private SelectorReactor[] reactors;
 
-	// Port at which the selector threads listens for incoming PCEP connections,
+	// Index of the reactor used for the next registered connection
+	private AtomicInteger nextReactor = new AtomicInteger(0);
+
+	// Boolean flag used by the acceptor and selector threads for graceful stop
+	private volatile boolean selectorStop = false;
+
+	// Port at which the acceptor thread listens for incoming PCEP connections,
 	// default value is 4189
 	private int port;
 
-	// Map to store correlation between the session ID and the corresponding
-	// Selection Key
-	private HashMap<String, SelectionKey> addressToSelectionKeyHashMap = new HashMap<String, SelectionKey>();
+	// Path of the Unix domain socket on which the acceptor thread listens for
+	// PCEP connections from clients on the same host, null if disabled
+	private static String unixSocketPath = null;
+
+	// Path of the Unix domain socket file created by this instance
+	private Path unixSocketFile;
+
+	// Clients connected over the Unix domain socket have no address of their
+	// own. They are given the loopback address and a synthetic port above the
+	// TCP range, so that they never collide with a TCP peer
+	private AtomicInteger nextUnixSocketPort = new AtomicInteger(65536);
+
+	// Table of the open connections indexed by connection ID. Addresses of
+	// received messages carry the ID of their connection, so that responses
+	// are routed without building or hashing the address string
+	private ConnectionTable<ConnectionContext> connectionTable = new ConnectionTable<ConnectionContext>(
+			64);
 
 	// Map to store correlation between the session ID and the corresponding
-	// socket channel
-	private HashMap<String, SocketChannel> addressToSocketChannelHashMap = new HashMap<String, SocketChannel>();
+	// connection, used for addresses that do not carry a connection ID
+	private ConcurrentHashMap<String, ConnectionContext> addressToConnectionHashMap = new ConcurrentHashMap<String, ConnectionContext>();
+
+	// Maximum number of bytes queued for a connection before the remote peer
+	// is considered too slow and disconnected
+	private static long maxQueuedBytes = 4 * 1024 * 1024;
+
+	// Time in nanoseconds during which the responses for a connection are
+	// gathered before being written with a single gathering write. With a
+	// window of 0 the responses ready within one reactor cycle are coalesced
+	private static long writeCoalesceWindow = 0;
 
-	// Map based buffer to store partial messages received by the selector
-	// during a read cycle
-	private HashMap<String, String> partialMessageHashMap = new HashMap<String, String>();
+	// Number of requests of a connection waiting for computation above which
+	// the connection is no longer read from. Reading resumes once half of
+	// them have been processed
+	private static int maxInFlightRequests = 1024;
 
-	// Queues of Socket Channels for registering connections gracefully in the
-	// socket layer
-	private LinkedBlockingQueue<SocketChannel> registerConnQueue = new LinkedBlockingQueue<SocketChannel>();
+	// Flag set by the computation module while its request queue is above
+	// its watermark, no connection is read from while set
+	private volatile boolean overloaded = false;
+
+	// Maximum number of buffers handed to a single gathering write
+	private static final int WRITE_BATCH_SIZE = 16;
 
 	// Boolean flag to indicate if the Network Module is used on the server side
 	// (indicating if it should listen for new connection requests
@@ -97,6 +139,7 @@ public class NetworkModuleImpl extends NetworkModule {
 		lm = layerManagement;
 		port = 4189;
 		this.isServer = isServer;
+		reactors = new SelectorReactor[1];
 		this.start();
 	}
 
@@ -107,27 +150,96 @@ public class NetworkModuleImpl extends NetworkModule {
 		lm = layerManagement;
 		this.port = port;
 		this.isServer = isServer;
+		reactors = new SelectorReactor[1];
+		this.start();
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param isServer
+	 * @param layerManagement
+	 * @param port
+	 * @param selectorThreads
+	 *            number of selector threads reading from the connections
+	 */
+	public NetworkModuleImpl(boolean isServer,
+			ModuleManagement layerManagement, int port, int selectorThreads) {
+		localDebugger("Entering: NetworkModuleImpl(boolean isServer, ModuleManagement layerManagement, int port, int selectorThreads)");
+
+		lm = layerManagement;
+		this.port = port;
+		this.isServer = isServer;
+		reactors = new SelectorReactor[Math.max(1, selectorThreads)];
 		this.start();
 	}
 
+	public static void setUnixSocketPath(String unixSocketPath) {
+		if (unixSocketPath != null && unixSocketPath.trim().length() > 0)
+			NetworkModuleImpl.unixSocketPath = unixSocketPath.trim();
+		else
+			NetworkModuleImpl.unixSocketPath = null;
+	}
+
+	public static void setMaxQueuedBytes(long maxQueuedBytes) {
+		if (maxQueuedBytes > 0)
+			NetworkModuleImpl.maxQueuedBytes = maxQueuedBytes;
+	}
+
+	/**
+	 * @param microseconds
+	 *            write coalescing window in microseconds
+	 */
+	public static void setWriteCoalesceWindow(int microseconds) {
+		if (microseconds >= 0)
+			NetworkModuleImpl.writeCoalesceWindow = microseconds * 1000L;
+	}
+
+	public static void setMaxInFlightRequests(int maxInFlightRequests) {
+		if (maxInFlightRequests > 1)
+			NetworkModuleImpl.maxInFlightRequests = maxInFlightRequests;
+	}
+
+	// Settings shared with the blocking implementation of the network module
+	static String getUnixSocketPath() {
+		return unixSocketPath;
+	}
+
+	static long getMaxQueuedBytes() {
+		return maxQueuedBytes;
+	}
+
+	static int getMaxInFlightRequests() {
+		return maxInFlightRequests;
+	}
+
 	public void stop() {
 		localDebugger("Entering: stop()");
 
 		// Clear mappings
-		addressToSelectionKeyHashMap.clear();
-		addressToSocketChannelHashMap.clear();
-		partialMessageHashMap.clear();
-		registerConnQueue.clear();
-		// Close the selector
+		connectionTable.clear();
+		addressToConnectionHashMap.clear();
+		// Close the selectors
 		selectorStop = true;
-		selector.wakeup();
+		if (acceptSelector != null)
+			acceptSelector.wakeup();
+		for (int i = 0; i < reactors.length; i++)
+			reactors[i].shutdown();
+		if (unixSocketFile != null) {
+			try {
+				Files.deleteIfExists(unixSocketFile);
+			} catch (IOException e) {
+				localLogger("Could not remove the Unix domain socket file "
+						+ unixSocketFile);
+			}
+		}
 	}
 
 	public void start() {
 		localDebugger("Entering: start()");
 
 		initSelectorParams();
-		startSelectorThread();
+		startSelectorThreads();
 	}
 
 	public void receiveMessage(PCEPMessage message, ModuleEnum sourceLayer) {
@@ -140,7 +252,6 @@ public class NetworkModuleImpl extends NetworkModule {
 
 	public void sendMessage(PCEPMessage message, ModuleEnum targetLayer) {
 		localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
-		localDebugger("message:" + message.binaryInformation());
 		localDebugger("| message: " + message.contentInformation());
 		localDebugger("| targetLayer: " + targetLayer);
 
@@ -162,6 +273,19 @@ public class NetworkModuleImpl extends NetworkModule {
 		}
 	}
 
+	public void requestCompleted(PCEPAddress address) {
+		ConnectionContext connection = getConnection(address);
+		if (connection != null
+				&& connection.inFlight.decrementAndGet() == maxInFlightRequests / 2)
+			connection.reactor.scheduleReadInterestUpdate(connection);
+	}
+
+	public void setOverloaded(boolean overloaded) {
+		this.overloaded = overloaded;
+		for (int i = 0; i < reactors.length; i++)
+			reactors[i].scheduleReadInterestUpdate(null);
+	}
+
 	public void registerConnection(PCEPAddress address, boolean connected,
 			boolean connectionInitialized, boolean forceClient) {
 		localDebugger("Entering: registerConnection(Address address, boolean connected, boolean connectionInitialized)");
@@ -189,11 +313,15 @@ public class NetworkModuleImpl extends NetworkModule {
 						.socket().getInetAddress().getHostAddress(),
 						socketChannel.socket().getPort());
 
-				// Configuring socket channel properties
+				// Configuring socket channel properties. Responses are
+				// coalesced by the reactors, Nagle's algorithm would only
+				// delay them further
 				socketChannel.configureBlocking(false);
+				socketChannel.socket().setTcpNoDelay(true);
 
 				// Register SocketChannel first
-				insertSocketChannelToHashMap(remoteAddress, socketChannel);
+				ConnectionContext connection = insertConnection(
+						remoteAddress, socketChannel);
 
 				// This step intimates the state machine that connection is
 				// established. State Machine can then send out The first OPEN
@@ -204,8 +332,7 @@ public class NetworkModuleImpl extends NetworkModule {
 				// Socket is registered with the selector only after state
 				// machine is initialized so that an OPEN message is not
 				// received before an OPEN message has been sent out
-				registerConnQueue.add(socketChannel);
-				selector.wakeup();
+				connection.reactor.register(connection);
 
 			}
 		}catch (java.net.ConnectException e){
@@ -220,122 +347,86 @@ public class NetworkModuleImpl extends NetworkModule {
 		localDebugger("Entering: closeConnection(Address address)");
 		localDebugger("| address: " + address.getIPv4Address());
 
-		SelectionKey key = getSelectionKeyFromHashMap(address);
-		if (key != null) {
-			SocketChannel socketChannel = (SocketChannel) key.channel();
-			if (socketChannel != null) {
-				try {
-					// close the socket channel
-					socketChannel.close();
-					// cancel the key with the selector
-					key.cancel();
-				} catch (IOException e) {
-					localDebugger("| IOException in closing socket ");
-				}
-			}
-		}
-		// Remove the mappings from the different Map structures
-		removePartialMessageFromHashMap(address);
-		removeSelectionKey(address);
-		removeSocketChannel(address);
+		// The owning reactor flushes the messages already queued for the
+		// connection before closing the socket channel
+		ConnectionContext connection = removeConnection(address);
+		if (connection != null)
+			connection.close();
 	}
 
-	private void startSelectorThread() {
-		localDebugger("Entering: startSelectorThread()");
+	private void startSelectorThreads() {
+		localDebugger("Entering: startSelectorThreads()");
+
+		for (int i = 0; i < reactors.length; i++)
+			reactors[i].start();
+
+		if (acceptSelector == null)
+			return;
 
 		// Anonymous Class
-		// volatile boolean selectorStop = false;
-		selectorthread = new Thread() {
+		acceptorThread = new Thread() {
 			public void run() {
 
 				while (!selectorStop) {
 					try {
 
-						localLogger("| Listening for Events");
-						selector.select();
+						localLogger("| Listening for Connections");
+						acceptSelector.select();
 
 						// Processing Events received from the selector
-						Iterator<SelectionKey> keyIterator = selector
+						Iterator<SelectionKey> keyIterator = acceptSelector
 								.selectedKeys().iterator();
 						while (keyIterator.hasNext()) {
 
 							SelectionKey key = keyIterator.next();
-							// localDebugger("| Removing Current key from the KeyIterator");
 							keyIterator.remove();
 
-							if (key.isValid()) {
-								if (key.isAcceptable()) {
-
-									SocketChannel socketChannel = ((ServerSocketChannel) key
-											.channel()).accept();
-									if (socketChannel != null) {
-										// Call function to receive a new
-										// Connection
-										connectionReceived(socketChannel);
-									}
-
-								} else if (key.isReadable()) {
-
-									if (((SocketChannel) key.channel())
-											.socket().isClosed() == false) {
-										readSocket(key);
-									} else
-										key.cancel();
-
+							if (key.isValid() && key.isAcceptable()) {
+								SocketChannel socketChannel = ((ServerSocketChannel) key
+										.channel()).accept();
+								if (socketChannel != null) {
+									// Call function to receive a new
+									// Connection
+									connectionReceived(socketChannel);
 								}
 							}
 						}
 
-						// Register new sockets into the selector
-						while (registerConnQueue.size() != 0) {
-							localLogger("Registering new Connection");
-							SocketChannel socketChannel = registerConnQueue
-									.take();
-							// Retreiving SelectionKey associated with socket
-							// channel
-							SelectionKey key = socketChannel.register(selector,
-									SelectionKey.OP_READ);
-							// Register the socket channel in the hash map
-							PCEPAddress address = new PCEPAddress(socketChannel
-									.socket().getInetAddress().getHostAddress()
-									.trim(), socketChannel.socket().getPort());
-							insertSelectionKeyToHashMap(address, key);
-						}
-
 						// If selector is scheduled for stopping, close the
 						// selector and terminate the thread
 						if (selectorStop) {
-							localLogger("Closing the Selector");
-							selector.close();
+							localLogger("Closing the Acceptor");
+							acceptSelector.close();
 							break;
 						}
 					} catch (IOException e) {
-						localLogger("IOException with the selector");
+						localLogger("IOException with the acceptor");
 						e.printStackTrace();
-					} catch (InterruptedException e) {
-						localLogger("Thread Interrupted when reading new connections from the register connection queue");
 					}
 				}
 
 			}
 
 		};
-		selectorthread.setName("SelectorThread-NetworkHandler");
-		selectorthread.start();
+		acceptorThread.setName("AcceptorThread-NetworkHandler");
+		acceptorThread.start();
 	}
 
 	/**
-	 * Function to initialize the selector, and if server, start a
-	 * serversocketchannel to recieve connections
+	 * Function to initialize the selectors of the reactors, and if server,
+	 * start a serversocketchannel to recieve connections, as well as a Unix
+	 * domain socket channel if configured
 	 */
 	private void initSelectorParams() {
 		localDebugger("Entering: initSelectorParams()");
 		localDebugger("| isServer: " + isServer);
 
 		try {
-			selector = Selector.open();
+			for (int i = 0; i < reactors.length; i++)
+				reactors[i] = new SelectorReactor(i);
 
 			if (isServer) {
+				acceptSelector = Selector.open();
 				ServerSocketChannel serverSocketChannel = ServerSocketChannel
 						.open();
 				try {
@@ -345,13 +436,56 @@ public class NetworkModuleImpl extends NetworkModule {
 					System.exit(-1);
 				}
 				serverSocketChannel.configureBlocking(false);
-				serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+				serverSocketChannel.register(acceptSelector,
+						SelectionKey.OP_ACCEPT);
+
+				if (unixSocketPath != null)
+					initUnixSocketListener();
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Function to listen for PCEP connections on the Unix domain socket, in
+	 * addition to the TCP port. Connections accepted on both are handled by
+	 * the same acceptor thread and reactors
+	 */
+	private void initUnixSocketListener() {
+		localDebugger("Entering: initUnixSocketListener()");
+		localDebugger("| unixSocketPath: " + unixSocketPath);
+
+		try {
+			Path path = Paths.get(unixSocketPath);
+			// A socket file left by a previous instance prevents the bind
+			Files.deleteIfExists(path);
+			ServerSocketChannel unixServerChannel = ServerSocketChannel
+					.open(StandardProtocolFamily.UNIX);
+			unixServerChannel.bind(UnixDomainSocketAddress.of(path));
+			unixServerChannel.configureBlocking(false);
+			unixServerChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+			unixSocketFile = path;
+			localLogger("Listening on Unix domain socket " + path);
+		} catch (IOException e) {
+			Logger.logError("[NetworkModule] Could not listen on the Unix domain socket "
+					+ unixSocketPath + ": " + e.getMessage());
+		} catch (UnsupportedOperationException e) {
+			Logger.logError("[NetworkModule] Unix domain sockets are not supported on this platform");
+		}
+	}
+
+	/**
+	 * Function to select the reactor handling the next registered connection
+	 * 
+	 * @return
+	 */
+	private SelectorReactor nextReactor() {
+		int index = (nextReactor.getAndIncrement() & Integer.MAX_VALUE)
+				% reactors.length;
+		return reactors[index];
+	}
+
 	/**
 	 * Function to accept new Incoming connections from the serversocket
 	 * 
@@ -363,24 +497,32 @@ public class NetworkModuleImpl extends NetworkModule {
 		localDebugger("Entering: connectionReceived(SocketChannel socketChannel)");
 		localDebugger("| socketChannel: " + socketChannel.toString());
 
-		String addressString = socketChannel.socket().getInetAddress()
-				.getHostAddress().trim();
-		int port = socketChannel.socket().getPort();
-		PCEPAddress address = new PCEPAddress(addressString, port);
+		boolean tcp = socketChannel.getRemoteAddress() instanceof InetSocketAddress;
+		PCEPAddress address;
+		if (tcp) {
+			String addressString = socketChannel.socket().getInetAddress()
+					.getHostAddress().trim();
+			int port = socketChannel.socket().getPort();
+			address = new PCEPAddress(addressString, port);
+		} else {
+			address = new PCEPAddress("127.0.0.1",
+					nextUnixSocketPort.getAndIncrement());
+		}
 
-		// Check if a selection key is already registered
-		if (getSelectionKeyFromHashMap(address) == null) {
+		// Check if a connection is already registered
+		if (getConnection(address) == null) {
 			// Configure Socket Properties
 			socketChannel.configureBlocking(false);
-			insertSocketChannelToHashMap(address, socketChannel);
+			if (tcp)
+				socketChannel.socket().setTcpNoDelay(true);
+			ConnectionContext connection = insertConnection(address,
+					socketChannel);
 			
 			//if the server is receiving a connection then the remote peer is a client 
 			lm.getSessionModule().registerConnection(address, true, false, false);
 
 			localLogger("New Connection Accepted, registering with selector");
-			SelectionKey key = socketChannel.register(selector,
-					SelectionKey.OP_READ);
-			insertSelectionKeyToHashMap(address, key);
+			connection.reactor.register(connection);
 
 		} else {
 			localLogger("Terminating incoming connection as a connection from the IP address"
@@ -393,32 +535,27 @@ public class NetworkModuleImpl extends NetworkModule {
 		localDebugger("Entering: readSocket(SelectionKey key)");
 		localDebugger("| key: " + key.toString());
 
-		ByteBuffer messageBuffer = ByteBuffer.allocate(2000);
+		ConnectionContext connection = (ConnectionContext) key.attachment();
 
-		SocketChannel inputSocketChannel = (SocketChannel) key.channel();
-		// System.out.println("Reading Data From remote address:" +
-		// inputSocketChannel.socket().getInetAddress().getHostAddress().trim()
-		// + ":" + inputSocketChannel.socket().getPort());
+		// Read buffer of the connection, holding in [0, position) the bytes of
+		// a message that has not been completely received yet
+		ByteBuffer messageBuffer = connection.readBuffer;
 
-		String addressString = inputSocketChannel.socket().getInetAddress()
-				.getHostAddress().trim();
-		int port = inputSocketChannel.socket().getPort();
-		PCEPAddress address = new PCEPAddress(addressString, port);
+		SocketChannel inputSocketChannel = connection.channel;
+		PCEPAddress address = connection.address;
 
 		if (inputSocketChannel.isConnected()) {
 			try {
-				// Appends the initial buffer string to the incoming message
-				// string
-				String messageString = getPartialMessageFromHashMap(address);
-				// Clear the buffer for this string
-				removePartialMessageFromHashMap(address);
-
 				int loopCount = 0;
 				int flag = 0;
-				byte[] receivedMessageByteArray = null;
 				while (true) {
-					// //System.out.println("\t\t\tReading from Input Buffer Queue");
-					messageBuffer.clear();
+					if (!messageBuffer.hasRemaining()) {
+						// The pending message does not fit in the buffer, replace
+						// it with a larger one holding the bytes read so far
+						messageBuffer = MessageFraming.growReadBuffer(messageBuffer);
+						connection.readBuffer = messageBuffer;
+					}
+
 					int byteCounter;
 					byteCounter = inputSocketChannel.read(messageBuffer);
 
@@ -438,7 +575,6 @@ public class NetworkModuleImpl extends NetworkModule {
 					}
 
 					if (byteCounter == 0) {
-						// //System.out.println("LoopCount == " + loopCount);
 						if ((loopCount == 0) && (flag == 0)) {
 							flag = 1;
 							continue;
@@ -452,41 +588,21 @@ public class NetworkModuleImpl extends NetworkModule {
 						}
 						break;
 					}
-					messageBuffer.flip();
-					receivedMessageByteArray = new byte[byteCounter];
-					messageBuffer.get(receivedMessageByteArray);
-
-					// Append the received string onto the existing buffered
-					// data
-					messageString += PCEPComputationFactory
-							.byteArrayToRawMessage(receivedMessageByteArray);
-					// //System.out.println("MessageString = " + messageString);
 					loopCount++;
-				}
-
-				String messageStringTrimed = messageString.trim();
-
-				if (messageStringTrimed.length() != 0) {
-					LinkedList<String> messages = parseMultipleMessages(
-							messageStringTrimed, address);
-					Iterator<String> iter = messages.iterator();
-					while (iter.hasNext()) {
-						String temp = iter.next();
-						byte[] messageByteArray = PCEPComputationFactory
-								.rawMessageToByteArray(temp);
-
-						PCEPMessage receivedMessage = new PCEPMessage(
-								messageByteArray);
-						receivedMessage.setAddress(address);
-
-
-/*						System.out.println("Received Message type  = "
-								+ receivedMessage.getMessageHeader()
-										.getTypeDecimalValue());
-						System.out.println("Received message data " + temp);
-*/						sendMessage(receivedMessage, ModuleEnum.SESSION_MODULE);
+					connection.bytesReceived += byteCounter;
 
+					if (!parseMultipleMessages(messageBuffer, connection)) {
+						localLogger("Invalid message length received, Closing Connection from address: "
+								+ address.getIPv4Address());
+						lm.getSessionModule().closeConnection(address);
+						break;
 					}
+
+					// Stop reading when the requests of the connection or
+					// the request queue went above their limits, TCP flow
+					// control then pushes back on the remote peer
+					if (connection.readSuspended)
+						break;
 				}
 			} catch (IOException e) {
 				localLogger("Error when reading from socket for address "
@@ -502,43 +618,47 @@ public class NetworkModuleImpl extends NetworkModule {
 	}
 
 	/**
-	 * Function to check if the incoming string has multiple concatenated
-	 * messages if one of the messages is smaller than a full message, adds this
-	 * message to the insertPartialMessageToHashMap based buffer
+	 * Function to extract the complete messages from the read buffer of a
+	 * connection. Messages are framed on the length field of the common
+	 * message header and copied out of the buffer by MessageFraming. The
+	 * bytes of a trailing partial message are moved to the start of the buffer
+	 * and kept there until the rest of the message is received. While reading
+	 * from the connection is suspended, complete messages are kept in the
+	 * buffer as well
 	 * 
-	 * @param binaryString
-	 * @param address
-	 * @return LinkedList<String> containing the complete concatenated messages
+	 * @param messageBuffer
+	 *            read buffer in write mode
+	 * @param connection
+	 * @return false if a message header carries an invalid length
 	 */
-	private LinkedList<String> parseMultipleMessages(String binaryString,
-			PCEPAddress address) {
-		localDebugger("Entering: parseMultipleMessages(String binaryString, Address address)");
-
-		LinkedList<String> output = new LinkedList<String>();
-		while (binaryString.length() > 0) {
-			if (binaryString.length() >= 32) {
-				String currentHeaderString = binaryString.substring(0, 32);
-				PCEPCommonMessageHeader messageHeader = new PCEPCommonMessageHeader(
-						currentHeaderString);
-
-				int bitLength = messageHeader.getLengthDecimalValue() * 8;
-
-				if (binaryString.length() >= bitLength) {
-					String subString = binaryString.substring(0, bitLength);
-					output.add(subString);
-					binaryString = binaryString.substring(bitLength);
-				} else {
-					insertPartialMessageToHashMap(address, binaryString);
-					binaryString = "";
-					break;
-				}
-			} else {
-				insertPartialMessageToHashMap(address, binaryString);
-				binaryString = "";
+	private boolean parseMultipleMessages(ByteBuffer messageBuffer,
+			ConnectionContext connection) {
+		localDebugger("Entering: parseMultipleMessages(ByteBuffer messageBuffer, ConnectionContext connection)");
+
+		boolean valid = true;
+		messageBuffer.flip();
+		while (!connection.readSuspended) {
+			int length = MessageFraming.completeMessageLength(messageBuffer);
+			if (length <= 0) {
+				valid = length == 0;
 				break;
 			}
+
+			PCEPMessage receivedMessage = MessageFraming.readMessage(
+					messageBuffer, length);
+			receivedMessage.setAddress(connection.address);
+			connection.messagesReceived++;
+			if (receivedMessage.getMessageHeader().getTypeDecimalValue() == MessageFraming.PCREQ_MESSAGE_TYPE)
+				connection.inFlight.incrementAndGet();
+			sendMessage(receivedMessage, ModuleEnum.SESSION_MODULE);
+			connection.reactor.updateReadInterest(connection);
 		}
-		return output;
+
+		if (messageBuffer.hasRemaining())
+			localLogger("Keeping partial message of " + messageBuffer.remaining()
+					+ " bytes for " + connection.address.getIPv4Address());
+		messageBuffer.compact();
+		return valid;
 	}
 
 	/**
@@ -549,189 +669,528 @@ public class NetworkModuleImpl extends NetworkModule {
 	private void writeSocket(PCEPMessage message) {
 		localDebugger("Entering: writeSocket(PCEPMessage message)");
 		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| " + message.binaryInformation());
-		localDebugger("| " + message.toString());
-
-		SocketChannel outputSocketChannel = getSocketChannelFromHashMap(message
-				.getAddress());
-
-		if (outputSocketChannel != null) {
-			if (outputSocketChannel.isConnected() == true) {
-
-				byte[] messageByteArray = message.getMessageByteArray();
-				// System.out.println("Sending data to " +
-				// message.getAddress().getAddress() + ", Size = " +
-				// messageByteArray.length);
-				ByteBuffer messageBuffer = ByteBuffer
-						.allocate(messageByteArray.length);
-				messageBuffer.clear();
-
-				messageBuffer.put(messageByteArray);
-				messageBuffer.flip();
-				while (messageBuffer.hasRemaining()) {
-					try {
-						synchronized (outputSocketChannel) {
-							outputSocketChannel.write(messageBuffer);
-						}
-					} catch (ClosedByInterruptException e) {
-						// System.out.println("Problem is synchronous operation");
-						break;
-					} catch (IOException e) {
-						// System.out.println("Connection Closed Illegally");
-						// lm.getSessionLayer().closeConnection(message.getAddress());
-						break;
-					}
+
+		ConnectionContext connection = getConnection(message.getAddress());
+
+		if (connection != null) {
+			if (connection.channel.isConnected() == true) {
+
+				// The message is only queued here, it is written and released
+				// by the reactor owning the connection
+				long queuedBytes = connection.offer(message);
+				if (connection.closed) {
+					// The reactor closed the connection meanwhile and will not
+					// write the queue anymore
+					connection.releaseMessages();
+					return;
+				}
+				if (queuedBytes > maxQueuedBytes) {
+					Logger.logError("[NetworkModule] " + queuedBytes
+							+ " bytes queued for "
+							+ message.getAddress().getIPv4Address()
+							+ ", closing connection to slow peer");
+					lm.getSessionModule().closeConnection(message.getAddress());
+					return;
 				}
+				connection.schedule();
 			} else {
 				localLogger("| Socket Channel is not connected");
+				message.release();
 				lm.getSessionModule().closeConnection(message.getAddress());
 			}
 		} else {
-			localLogger("| Did not find Socket Channel in Hash map");
+			localLogger("| Did not find the connection of the address");
+			message.release();
 			lm.getSessionModule().closeConnection(message.getAddress());
 		}
 
 	}
 
 	/**
-	 * Function to retrieve a socket channel from the hash map
+	 * Function to retrieve the connection designated by an address. The
+	 * connection ID of the address is used when set, the address string
+	 * otherwise
 	 * 
 	 * @param address
-	 * @return
+	 * @return the connection, or null if the address does not designate an
+	 *         open connection
 	 */
-	private SocketChannel getSocketChannelFromHashMap(PCEPAddress address) {
-		localDebugger("Entering: getSocketChannel(Address address)");
-		localDebugger("| address: " + address.getIPv4Address());
-
-		localLogger("Getting SocketChannel for " + address.getIPv4Address());
-		// Check if mapping exists
-		if (addressToSocketChannelHashMap.containsKey(address.getIPv4Address()))
-			return addressToSocketChannelHashMap.get(address.getIPv4Address());
-		else
-			return null;
+	private ConnectionContext getConnection(PCEPAddress address) {
+		int connectionId = address.getConnectionId();
+		if (connectionId >= 0)
+			return connectionTable.get(connectionId);
+		return addressToConnectionHashMap.get(address.getIPv4Address());
 	}
 
 	/**
-	 * Function to retrieve a Selection Key from the hash map
+	 * Function to create the context of a new connection and insert it in the
+	 * connection table and the hash map. The connection ID is set on the
+	 * address
 	 * 
 	 * @param address
+	 * @param channel
 	 * @return
 	 */
-	private SelectionKey getSelectionKeyFromHashMap(PCEPAddress address) {
-		localDebugger("Entering: getSelectionKey(Address address)");
+	private ConnectionContext insertConnection(PCEPAddress address,
+			SocketChannel channel) {
+		localDebugger("Entering: insertConnection(PCEPAddress address, SocketChannel channel)");
+		localDebugger("| address: " + address.getIPv4Address(false));
 
-		localLogger("| Getting SelectionKey for " + address.getIPv4Address());
-		// Check if mapping exists
-		if (addressToSelectionKeyHashMap.containsKey(address.getIPv4Address()))
-			return addressToSelectionKeyHashMap.get(address.getIPv4Address());
-		else
-			return null;
+		ConnectionContext connection = new ConnectionContext(address, channel,
+				nextReactor());
+		connection.id = connectionTable.add(connection);
+		address.setConnectionId(connection.id);
+		// The address is shared by all messages of the connection, hash it
+		// once for the session layer here
+		address.getSessionHash();
+		addressToConnectionHashMap.put(address.getIPv4Address(), connection);
+		return connection;
 	}
 
 	/**
-	 * Function to insert a selection key to the hash map
+	 * Function to remove a connection from the connection table and the hash
+	 * map
 	 * 
 	 * @param address
-	 * @param key
+	 * @return the removed connection, or null if the address does not
+	 *         designate an open connection
 	 */
-	private void insertSelectionKeyToHashMap(PCEPAddress address,
-			SelectionKey key) {
-		localDebugger("Entering: insertSelectionKeyToHashMap(Address address, SelectionKey key)");
+	private ConnectionContext removeConnection(PCEPAddress address) {
+		localDebugger("Entering: removeConnection(Address address)");
 		localDebugger("| address: " + address.getIPv4Address());
 
-		addressToSelectionKeyHashMap.put(address.getIPv4Address(), key);
+		ConnectionContext connection = getConnection(address);
+		if (connection == null)
+			return null;
+		connectionTable.remove(connection.id);
+		addressToConnectionHashMap.remove(connection.address.getIPv4Address(),
+				connection);
+		return connection;
 	}
 
 	/**
-	 * Function to insert the socket channel to hash map
-	 * 
-	 * @param address
-	 * @param channel
+	 * Context of a connection, attached to its selection key. Holds the read
+	 * buffer and the queue of the encoded messages waiting to be written.
+	 * Messages are offered by any thread, and only read and written by the
+	 * reactor owning the connection
 	 */
-	private void insertSocketChannelToHashMap(PCEPAddress address,
-			SocketChannel channel) {
-		localDebugger("Entering: insertSocketChannelToHashMap(PCEPAddress address, SocketChannel channel)");
-		localDebugger("| address: " + address.getIPv4Address(false));
+	private class ConnectionContext {
 
-		addressToSocketChannelHashMap.put(address.getIPv4Address(), channel);
-	}
+		// ID of the connection in the connection table
+		private int id;
 
-	/**
-	 * Function to remove the selection key from hash map
-	 * 
-	 * @param address
-	 */
-	private void removeSelectionKey(PCEPAddress address) {
-		localDebugger("Entering: removeSelectionKey(Address address)");
-		localDebugger("| address: " + address.getIPv4Address());
+		// Address of the remote peer, carrying the connection ID
+		private PCEPAddress address;
 
-		addressToSelectionKeyHashMap.remove(address.getIPv4Address());
-	}
+		private SocketChannel channel;
 
-	/**
-	 * Function to remove the socket channel from hash map
-	 * 
-	 * @param address
-	 */
-	private void removeSocketChannel(PCEPAddress address) {
-		localDebugger("Entering: removeSocketChannelToHashMap(Address address)");
-		localDebugger("| address: " + address.getIPv4Address());
+		// Reactor owning the connection
+		private SelectorReactor reactor;
 
-		addressToSocketChannelHashMap.remove(address.getIPv4Address());
-	}
+		// Selection key of the connection, set by the reactor on registration
+		private SelectionKey key;
 
-	/**
-	 * Function to retrieve a partial message string from the hash map based
-	 * buffer
-	 * 
-	 * @param address
-	 * @return
-	 */
-	private String getPartialMessageFromHashMap(PCEPAddress address) {
-		localDebugger("Entering: getPartialMessageFromHashMap(Address address)");
-		localDebugger("| address: " + address.getIPv4Address());
+		// Read buffer of the connection, only used by the reactor
+		private ByteBuffer readBuffer = ByteBuffer
+				.allocate(MessageFraming.READ_BUFFER_SIZE);
 
-		localLogger("Getting String for " + address.getIPv4Address());
-		if (partialMessageHashMap.containsKey(address.getIPv4Address())) {
-			return partialMessageHashMap.get(address.getIPv4Address());
-		} else {
-			return "";
+		// Number of requests received on the connection and not processed yet
+		private AtomicInteger inFlight = new AtomicInteger(0);
+
+		// Flag set while OP_READ interest is removed from the selection key,
+		// only used by the reactor
+		private boolean readSuspended = false;
+
+		// Counters of the connection, only updated by the reactor
+		private long messagesReceived = 0;
+		private long bytesReceived = 0;
+		private long bytesSent = 0;
+
+		// Messages waiting to be written, released once written
+		private ConcurrentLinkedQueue<PCEPMessage> messages = new ConcurrentLinkedQueue<PCEPMessage>();
+
+		// Number of bytes offered and not written yet
+		private AtomicLong queuedBytes = new AtomicLong(0);
+
+		// Flag set while the queue is waiting to be flushed by the reactor
+		private AtomicBoolean writeScheduled = new AtomicBoolean(false);
+
+		// Time at which the last flush was scheduled
+		private long scheduledAt;
+
+		// Flag set once the connection is scheduled for closing
+		private volatile boolean closeRequested = false;
+
+		// Flag set by the reactor once the socket channel is closed, messages
+		// offered afterwards are released by the thread offering them
+		private volatile boolean closed = false;
+
+		ConnectionContext(PCEPAddress address, SocketChannel channel,
+				SelectorReactor reactor) {
+			this.address = address;
+			this.channel = channel;
+			this.reactor = reactor;
 		}
-	}
 
-	/**
-	 * Function to insert a partial message string into the hash map based
-	 * buffer
-	 * 
-	 * @param address
-	 * @param partialMessage
-	 */
-	private void insertPartialMessageToHashMap(PCEPAddress address,
-			String partialMessage) {
-		localDebugger("Entering: insertPartialMessageToHashMap(Address address, String partialMessage)");
-		localDebugger("| address: " + address.getIPv4Address());
-		localDebugger("| Partial Message: " + partialMessage);
+		/**
+		 * Function to append a message to the queue
+		 * 
+		 * @param message
+		 * @return the number of bytes queued after appending the message
+		 */
+		long offer(PCEPMessage message) {
+			long length = message.getWriteBuffer().remaining();
+			messages.add(message);
+			return queuedBytes.addAndGet(length);
+		}
 
-		localLogger("Inserting Partial String for " + address.getIPv4Address());
-		// System.out.println("Inserting Partial String for " +
-		// address.getAddress() + ", Stirng = " + partialMessage);
-		partialMessageHashMap.put(address.getIPv4Address(), partialMessage);
+		/**
+		 * Function to release the messages left in the queue of a closed
+		 * connection
+		 */
+		void releaseMessages() {
+			PCEPMessage message;
+			while ((message = messages.poll()) != null)
+				message.release();
+		}
+
+		/**
+		 * Function to schedule a flush by the owning reactor, unless one is
+		 * already pending
+		 */
+		void schedule() {
+			if (writeScheduled.compareAndSet(false, true)) {
+				if (writeCoalesceWindow > 0)
+					scheduledAt = System.nanoTime();
+				reactor.scheduleWrite(this);
+			}
+		}
+
+		/**
+		 * Function to schedule the closing of the connection by the owning
+		 * reactor
+		 */
+		void close() {
+			closeRequested = true;
+			reactor.scheduleWrite(this);
+		}
+
+		/**
+		 * Function to write the queued messages with gathering writes of up to
+		 * batch.length buffers
+		 * 
+		 * @param batch
+		 * @return true if the queue was drained, false if the socket did not
+		 *         accept all the queued bytes
+		 * @throws IOException
+		 */
+		boolean write(ByteBuffer[] batch) throws IOException {
+			while (true) {
+				int count = 0;
+				Iterator<PCEPMessage> iter = messages.iterator();
+				while (count < batch.length && iter.hasNext())
+					batch[count++] = iter.next().getWriteBuffer();
+				if (count == 0)
+					return true;
+
+				long written = channel.write(batch, 0, count);
+				queuedBytes.addAndGet(-written);
+				bytesSent += written;
+
+				boolean drained = true;
+				for (int i = 0; i < count; i++) {
+					if (drained && !batch[i].hasRemaining())
+						messages.poll().release();
+					else
+						drained = false;
+					batch[i] = null;
+				}
+				if (!drained)
+					return false;
+			}
+		}
 	}
 
 	/**
-	 * Function to remove the partial message entry from the hash map based
-	 * buffer
-	 * 
-	 * @param address
+	 * Selector thread owning a subset of the connections. Each reactor has its
+	 * own selector and registration queue, the contexts of its connections are
+	 * attached to their selection keys
 	 */
-	private void removePartialMessageFromHashMap(PCEPAddress address) {
-		localDebugger("Entring: removePartialMessageFromHashMap(Address address)");
-		localDebugger("| address: " + address.getIPv4Address());
+	private class SelectorReactor extends Thread {
+
+		// Java NIO selector object used to monitor data read requests
+		private Selector selector;
+
+		// Queues of connections for registering them gracefully in the socket
+		// layer
+		private LinkedBlockingQueue<ConnectionContext> registerConnQueue = new LinkedBlockingQueue<ConnectionContext>();
+
+		// Connections with outbound messages to write, or to close once their
+		// queued messages are flushed
+		private ConcurrentLinkedQueue<ConnectionContext> pendingWrites = new ConcurrentLinkedQueue<ConnectionContext>();
+
+		// Connections waiting for the end of their coalescing window, in the
+		// order in which they were scheduled
+		private ArrayDeque<ConnectionContext> deferredWrites = new ArrayDeque<ConnectionContext>();
 
-		localLogger("Removing Partial Message for " + address.getIPv4Address());
+		// Connections whose read interest has to be updated
+		private ConcurrentLinkedQueue<ConnectionContext> readInterestUpdates = new ConcurrentLinkedQueue<ConnectionContext>();
 
-		if (partialMessageHashMap.containsKey(address.getIPv4Address()))
-			partialMessageHashMap.remove(address.getIPv4Address());
+		// Flag set when the read interest of all the connections has to be
+		// updated
+		private AtomicBoolean updateAllReadInterests = new AtomicBoolean(false);
+
+		// Buffers handed to a gathering write, only used by this reactor
+		private ByteBuffer[] writeBatch = new ByteBuffer[WRITE_BATCH_SIZE];
+
+		SelectorReactor(int index) throws IOException {
+			selector = Selector.open();
+			setName("SelectorThread-NetworkHandler-" + index);
+		}
+
+		/**
+		 * Function to hand a connected socket channel over to this reactor
+		 * 
+		 * @param connection
+		 */
+		void register(ConnectionContext connection) {
+			registerConnQueue.add(connection);
+			selector.wakeup();
+		}
+
+		/**
+		 * Function to ask the reactor to write the queued messages of a
+		 * connection
+		 * 
+		 * @param connection
+		 */
+		void scheduleWrite(ConnectionContext connection) {
+			pendingWrites.add(connection);
+			selector.wakeup();
+		}
+
+		/**
+		 * Function to ask the reactor to update the read interest of a
+		 * connection
+		 * 
+		 * @param connection
+		 *            connection to update, or null to update all the
+		 *            connections of the reactor
+		 */
+		void scheduleReadInterestUpdate(ConnectionContext connection) {
+			if (connection == null)
+				updateAllReadInterests.set(true);
+			else
+				readInterestUpdates.add(connection);
+			selector.wakeup();
+		}
+
+		/**
+		 * Function to add or remove OP_READ interest for a connection, based on
+		 * its number of requests waiting for computation and the state of the
+		 * request queue. When reading resumes, the complete messages kept in
+		 * the read buffer are processed first
+		 * 
+		 * @param connection
+		 */
+		void updateReadInterest(ConnectionContext connection) {
+			int limit = connection.readSuspended ? maxInFlightRequests / 2
+					: maxInFlightRequests - 1;
+			boolean suspend = overloaded || connection.inFlight.get() > limit;
+			if (suspend == connection.readSuspended || connection.key == null
+					|| !connection.key.isValid())
+				return;
+			if (suspend)
+				connection.key.interestOps(connection.key.interestOps()
+						& ~SelectionKey.OP_READ);
+			else
+				connection.key.interestOps(connection.key.interestOps()
+						| SelectionKey.OP_READ);
+			connection.readSuspended = suspend;
+			if (!suspend
+					&& !parseMultipleMessages(connection.readBuffer, connection))
+				lm.getSessionModule().closeConnection(connection.address);
+		}
+
+		void shutdown() {
+			registerConnQueue.clear();
+			pendingWrites.clear();
+			selector.wakeup();
+		}
+
+		/**
+		 * Function to wait for events, without sleeping past the end of the
+		 * coalescing window of the first deferred connection
+		 * 
+		 * @throws IOException
+		 */
+		private void select() throws IOException {
+			ConnectionContext first = deferredWrites.peek();
+			if (first == null) {
+				selector.select();
+				return;
+			}
+			long wait = first.scheduledAt + writeCoalesceWindow
+					- System.nanoTime();
+			if (wait >= 1000000L) {
+				selector.select(wait / 1000000L);
+			} else {
+				// Windows below the selector resolution are waited for
+				// by parking the thread
+				if (wait > 0)
+					LockSupport.parkNanos(wait);
+				selector.selectNow();
+			}
+		}
+
+		/**
+		 * Function to write as much of the queued messages of a connection as
+		 * the socket accepts. Write interest is kept on the selection key
+		 * while messages remain queued
+		 * 
+		 * @param connection
+		 */
+		private void flush(ConnectionContext connection) {
+			try {
+				while (true) {
+					if (!connection.write(writeBatch)) {
+						// Socket buffer full, wait for the channel to become
+						// writable again
+						if (connection.key != null && connection.key.isValid())
+							connection.key.interestOps(connection.key
+									.interestOps() | SelectionKey.OP_WRITE);
+						return;
+					}
+					connection.writeScheduled.set(false);
+					// Messages offered after the queue was drained are
+					// written in the same pass
+					if (connection.messages.isEmpty()
+							|| !connection.writeScheduled.compareAndSet(false,
+									true))
+						break;
+				}
+				if (connection.key != null && connection.key.isValid())
+					connection.key.interestOps(connection.key.interestOps()
+							& ~SelectionKey.OP_WRITE);
+			} catch (IOException e) {
+				localLogger("Error when writing to socket for address "
+						+ connection.address.getIPv4Address()
+						+ " Closing connection");
+				connection.releaseMessages();
+				lm.getSessionModule().closeConnection(connection.address);
+			}
+		}
+
+		/**
+		 * Function to close the socket channel of a connection
+		 * 
+		 * @param connection
+		 */
+		private void close(ConnectionContext connection) {
+			connection.closed = true;
+			try {
+				// close the socket channel
+				connection.channel.close();
+				// cancel the key with the selector
+				if (connection.key != null)
+					connection.key.cancel();
+			} catch (IOException e) {
+				localDebugger("| IOException in closing socket ");
+			}
+			connection.releaseMessages();
+		}
+
+		public void run() {
+
+			while (!selectorStop) {
+				try {
+
+					localLogger("| Listening for Events");
+					select();
+
+					// Processing Events received from the selector
+					Iterator<SelectionKey> keyIterator = selector
+							.selectedKeys().iterator();
+					while (keyIterator.hasNext()) {
+
+						SelectionKey key = keyIterator.next();
+						keyIterator.remove();
+
+						if (key.isValid() && key.isWritable())
+							flush((ConnectionContext) key.attachment());
+
+						if (key.isValid() && key.isReadable()) {
+							if (key.channel().isOpen()) {
+								readSocket(key);
+							} else
+								key.cancel();
+						}
+					}
+
+					// Register new sockets into the selector
+					while (registerConnQueue.size() != 0) {
+						localLogger("Registering new Connection");
+						ConnectionContext connection = registerConnQueue.take();
+						if (!connection.channel.isOpen())
+							continue;
+						// Retreiving SelectionKey associated with socket
+						// channel
+						connection.key = connection.channel.register(selector,
+								SelectionKey.OP_READ, connection);
+						// Messages may have been queued before the
+						// registration, e.g. the initial OPEN message
+						if (!connection.messages.isEmpty())
+							flush(connection);
+					}
+
+					// Write the queued messages and close the connections
+					// scheduled for closing
+					ConnectionContext connection;
+					while ((connection = pendingWrites.poll()) != null) {
+						if (connection.closeRequested) {
+							flush(connection);
+							close(connection);
+						} else if (writeCoalesceWindow > 0)
+							deferredWrites.add(connection);
+						else
+							flush(connection);
+					}
+
+					// Suspend or resume reading from connections
+					if (updateAllReadInterests.getAndSet(false)) {
+						Iterator<SelectionKey> iter = selector.keys()
+								.iterator();
+						while (iter.hasNext())
+							updateReadInterest((ConnectionContext) iter
+									.next().attachment());
+					}
+					while ((connection = readInterestUpdates.poll()) != null)
+						updateReadInterest(connection);
+
+					// Write the connections whose coalescing window is over
+					long now = System.nanoTime();
+					while ((connection = deferredWrites.peek()) != null
+							&& now - connection.scheduledAt >= writeCoalesceWindow) {
+						deferredWrites.poll();
+						if (!connection.closeRequested)
+							flush(connection);
+					}
+
+					// If selector is scheduled for stopping, close the
+					// selector and terminate the thread
+					if (selectorStop) {
+						localLogger("Closing the Selector");
+						selector.close();
+						break;
+					}
+				} catch (IOException e) {
+					localLogger("IOException with the selector");
+					e.printStackTrace();
+				} catch (InterruptedException e) {
+					localLogger("Thread Interrupted when reading new connections from the register connection connection");
+				}
+			}
+		}
 	}
 
 	/**
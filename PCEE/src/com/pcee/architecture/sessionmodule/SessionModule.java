@@ -18,6 +18,8 @@
 package com.pcee.architecture.sessionmodule;
 
 import com.pcee.architecture.Module;
+import com.pcee.architecture.sessionmodule.statemachine.StateMachine;
+import com.pcee.architecture.sessionmodule.statemachine.SessionTimer;
 
 /**
  * Abstract Super class to unify multiple Session Layer implementations
@@ -26,5 +28,14 @@ import com.pcee.architecture.Module;
  */
 public abstract class SessionModule implements Module {
 
+	/**
+	 * Function to process the expiry of a session timer on the thread
+	 * processing the messages of the session
+	 * 
+	 * @param stateMachine
+	 * @param timer
+	 */
+	public abstract void timerExpired(StateMachine stateMachine,
+			SessionTimer timer);
 
 }
@@ -17,12 +17,11 @@
 
 package com.pcee.architecture.sessionmodule;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Timer;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import com.pcee.architecture.ModuleEnum;
 import com.pcee.architecture.ModuleManagement;
+import com.pcee.architecture.sessionmodule.statemachine.SessionTimer;
 import com.pcee.architecture.sessionmodule.statemachine.StateMachine;
 import com.pcee.architecture.sessionmodule.statemachine.StateMachineClientImpl;
 import com.pcee.architecture.sessionmodule.statemachine.StateMachineImpl;
@@ -44,19 +43,21 @@ public class SessionModuleImpl extends SessionModule {
 	// modules
 	private ModuleManagement lm;
 
-	// Static to define the number of worker threads processing incoming
-	// messages from different modules
+	// Number of worker threads processing incoming messages from different
+	// modules, each session is pinned to one of them
 	final int sessionThreads;
 
 	// Array Of Worker Threads to process incoming messages
 	private ReadingQueueThreadImpl[] readingQueueThread;
 
 	// HashMap to store association between address and the corresponding state
-	// machine
-	private HashMap<String, StateMachine> addressToStateMachineHashMap;
+	// machine, shared by all worker threads. Keyed by the address key of the
+	// address, which the connection address shared by all messages of a
+	// session creates only once
+	private ConcurrentHashMap<Long, StateMachine> addressToStateMachineHashMap;
 
-	// A single Timer to manage timeout events for all state machines
-	private Timer stateMachineTimer;
+	// A single timing wheel to manage timeout events for all state machines
+	private TimingWheel stateMachineTimer;
 
 	/**
 	 * Default Constructor
@@ -76,25 +77,16 @@ public class SessionModuleImpl extends SessionModule {
 		localDebugger("Entering: SessionModuleImpl(ModuleManagement layerManagement, int sessionThreads)");
 
 		lm = layerManagement;
-		this.sessionThreads = 1;
+		this.sessionThreads = Math.max(1, sessionThreads);
 		start();
 	}
 
-	private class ReadingQueueBuffer {
-		PCEPMessage message;
-		ModuleEnum sourceLayer;
-
-		public ReadingQueueBuffer(PCEPMessage message, ModuleEnum sourceLayer) {
-			this.message = message;
-			this.sourceLayer = sourceLayer;
-		}
-	}
-
 	/** Worker threads to process incoming messages from different modules */
 	private class ReadingQueueThreadImpl extends Thread {
 
-		// A blocking Queue to store messages for the thread to process
-		LinkedBlockingQueue<ReadingQueueBuffer> readingQueue = new LinkedBlockingQueue<ReadingQueueBuffer>();
+		// Lock free queue to store messages for the thread to process, the
+		// thread is its only consumer
+		SessionQueue readingQueue = new SessionQueue();
 
 		/**
 		 * Function to add a message to the queue for the worker thread to read
@@ -104,7 +96,7 @@ public class SessionModuleImpl extends SessionModule {
 		public void addMessage(PCEPMessage message, ModuleEnum sourceLayer) {
 			localDebugger("Entering: addMessage(PCEPMessage message)");
 
-			readingQueue.add(new ReadingQueueBuffer(message, sourceLayer));
+			readingQueue.offer(message, sourceLayer);
 		}
 
 		// Main function of the worker thread to process incoming messages
@@ -112,14 +104,19 @@ public class SessionModuleImpl extends SessionModule {
 			localDebugger("Entering: run()");
 
 			while (true) {
-				ReadingQueueBuffer temp = null;
+				SessionQueue.Node temp = null;
 				try {
 					localLogger("Waiting for new Messages");
 					temp = readingQueue.take();
 				} catch (InterruptedException e) {
 					break;
 				}
-				processMessage(temp.message, temp.sourceLayer);
+				if (temp.timer != null)
+					processTimer(temp.stateMachine, temp.timer);
+				else if (temp.stateMachine != null)
+					processClose(temp.stateMachine);
+				else
+					processMessage(temp.message, temp.sourceLayer);
 				if (Thread.currentThread().isInterrupted())
 					break;
 
@@ -131,6 +128,29 @@ public class SessionModuleImpl extends SessionModule {
 	public void stop() {
 		localDebugger("Entering: stop()");
 
+		for (int i = 0; i < sessionThreads; i++)
+			readingQueueThread[i].interrupt();
+		for (int i = 0; i < sessionThreads; i++) {
+			try {
+				readingQueueThread[i].join(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			// Closes queued before the thread stopped are processed here,
+			// messages left in the queue are dropped
+			if (!readingQueueThread[i].isAlive()) {
+				SessionQueue.Node temp;
+				while ((temp = readingQueueThread[i].readingQueue.poll()) != null) {
+					if (temp.timer == null && temp.stateMachine != null)
+						processClose(temp.stateMachine);
+					else if (temp.message != null)
+						temp.message.release();
+				}
+			}
+		}
+		// The session threads are stopped, the remaining sessions are closed
+		// from this thread
 		Iterator<StateMachine> iter = addressToStateMachineHashMap.values()
 				.iterator();
 		while (iter.hasNext()) {
@@ -138,9 +158,7 @@ public class SessionModuleImpl extends SessionModule {
 			StateMachine sm = iter.next();
 			closeConnection(sm.getAddress());
 		}
-		for (int i = 0; i < sessionThreads; i++)
-			readingQueueThread[i].interrupt();
-		stateMachineTimer.cancel();
+		stateMachineTimer.stop();
 
 	}
 
@@ -148,10 +166,11 @@ public class SessionModuleImpl extends SessionModule {
 		localDebugger("Entering: start()");
 
 		// Initialize the timer object
-		stateMachineTimer = new Timer();
+		// Ticks of 100 ms, a round of the wheel covers 51 seconds
+		stateMachineTimer = new TimingWheel("SessionLayerTimer", 100, 512);
 		// Create a new map for storing associations between address and state
 		// machines
-		addressToStateMachineHashMap = new HashMap<String, StateMachine>();
+		addressToStateMachineHashMap = new ConcurrentHashMap<Long, StateMachine>();
 		// Initialize the reading worker threads
 		readingQueueThread = new ReadingQueueThreadImpl[sessionThreads];
 		for (int i = 0; i < sessionThreads; i++) {
@@ -162,38 +181,20 @@ public class SessionModuleImpl extends SessionModule {
 	}
 
 	public void receiveMessage(PCEPMessage message, ModuleEnum sourceLayer) {
-		localDebugger("Entering: receiveMessage(PCEPMessage message, ModuleEnum sourceLayer)");
-		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| sourceLayer: " + sourceLayer);
+		if (Logger.debugging) {
+			localDebugger("Entering: receiveMessage(PCEPMessage message, ModuleEnum sourceLayer)");
+			localDebugger("| message: " + message.contentInformation());
+			localDebugger("| sourceLayer: " + sourceLayer);
+		}
 
-		int x;
 		switch (sourceLayer) {
 		case NETWORK_MODULE:
-			// Simple hash function to determine to which worker thread a
-			// message should be assigned
-			// TODO
-			x = Integer.parseInt(message.getAddress().getIPv4Address()
-					.split(":")[1])
-					% sessionThreads;
-			readingQueueThread[x].addMessage(message, sourceLayer);
-			break;
 		case COMPUTATION_MODULE:
-			 x =
-			 Integer.parseInt(message.getAddress().getIPv4Address().split(":")[1])
-			 % sessionThreads;
-			 readingQueueThread[x].addMessage(message, sourceLayer);
-			//sendMessage(message, ModuleEnum.NETWORK_MODULE);
-			break;
 		case CLIENT_MODULE:
-			x = Integer.parseInt(message.getAddress().getIPv4Address()
-					.split(":")[1])
-					% sessionThreads;
-			readingQueueThread[x].addMessage(message, sourceLayer);
-			// TODO
-			// x =
-			// Integer.parseInt(message.getAddress().getAddress().split(":")[1])
-			// % readingThreadCount;
-			// readingQueueThread[x].addMessage(message);
+			// All messages of a session are processed in order by the worker
+			// thread the session is pinned to
+			readingQueueThread[getSessionThread(message.getAddress())]
+					.addMessage(message, sourceLayer);
 			break;
 		default:
 			localLogger("Error in recieveMessage(PCEPMessage message, LayerEnum sourceLayer)");
@@ -204,9 +205,11 @@ public class SessionModuleImpl extends SessionModule {
 	}
 
 	public void sendMessage(PCEPMessage message, ModuleEnum targetLayer) {
-		localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
-		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| targetLayer: " + targetLayer);
+		if (Logger.debugging) {
+			localDebugger("Entering: sendMessage(PCEPMessage message, ModuleEnum targetLayer)");
+			localDebugger("| message: " + message.contentInformation());
+			localDebugger("| targetLayer: " + targetLayer);
+		}
 
 		switch (targetLayer) {
 		case NETWORK_MODULE:
@@ -237,7 +240,7 @@ public class SessionModuleImpl extends SessionModule {
 		localDebugger("| connectionInitialized: " + connectionInitialized);
 
 		// if state machine exists do nothing
-		if (!addressToStateMachineHashMap.containsKey(address.getIPv4Address())) {
+		if (!addressToStateMachineHashMap.containsKey(address.getAddressKey())) {
 			// Function for the client side, where the node is responsible for
 			// initializing the connection and is not connected initially
 			if ((connectionInitialized == true) && (connected == false)) {
@@ -257,20 +260,36 @@ public class SessionModuleImpl extends SessionModule {
 		localDebugger("Entering: closeConnection(PCEPAddress address)");
 		localDebugger("| address: " + address.getIPv4Address());
 
-		if (addressToStateMachineHashMap.containsKey(address.getIPv4Address())) {
-			// Releasing resources from the state machine
-			StateMachine stateMachine = getStateMachineFromHashMap(address);
-			stateMachine.releaseResources();
-			// removing state machine from hash map
-			removeStateMachineFromHashMap(address);
-			// closing connection in the network layer
-			lm.getNetworkModule().closeConnection(address);
+		// removing state machine from hash map, only one of the threads
+		// closing the same connection concurrently gets it back
+		StateMachine stateMachine = removeStateMachineFromHashMap(address);
+		if (stateMachine != null) {
+			// The state machine is only modified on the session thread, in
+			// order with the messages and timer expiries of the session. A
+			// close from another thread is queued like a timer expiry
+			ReadingQueueThreadImpl thread = readingQueueThread[getSessionThread(stateMachine
+					.getAddress())];
+			if (Thread.currentThread() == thread || !thread.isAlive())
+				processClose(stateMachine);
+			else
+				thread.readingQueue.offer(stateMachine);
 		} else {
 			localDebugger("Could not find a StateMachine for "
 					+ address.getIPv4Address());
 		}
 	}
 
+	/**
+	 * Function to get the worker thread a session is pinned to, from the hash
+	 * computed once for the address of the session
+	 * 
+	 * @param address
+	 * @return index of the worker thread
+	 */
+	private int getSessionThread(PCEPAddress address) {
+		return (address.getSessionHash() & 0x7FFFFFFF) % sessionThreads;
+	}
+
 	/**
 	 * Function to create new state machine
 	 * 
@@ -302,23 +321,73 @@ public class SessionModuleImpl extends SessionModule {
 		insertStateMachineToHashMap(address, stateMachine);
 	}
 
+	public void timerExpired(StateMachine stateMachine, SessionTimer timer) {
+		// Processed in order with the messages of the session
+		readingQueueThread[getSessionThread(stateMachine.getAddress())].readingQueue
+				.offer(stateMachine, timer);
+	}
+
+	/**
+	 * Function to process the expiry of a timer of a state machine
+	 * 
+	 * @param stateMachine
+	 * @param timer
+	 */
+	private void processTimer(StateMachine stateMachine, SessionTimer timer) {
+		// Timers of a state machine removed meanwhile are cancelled when it is
+		// closed, an expiry already queued is dropped here
+		if (addressToStateMachineHashMap.get(stateMachine.getAddress()
+				.getAddressKey()) != stateMachine)
+			return;
+		stateMachine.timerExpired(timer);
+	}
+
+	/**
+	 * Function to close the connection of a state machine removed from the
+	 * hash map
+	 * 
+	 * @param stateMachine
+	 */
+	private void processClose(StateMachine stateMachine) {
+		PCEPAddress address = stateMachine.getAddress();
+		// Releasing resources from the state machine
+		stateMachine.releaseResources();
+		// closing connection in the network layer
+		lm.getNetworkModule().closeConnection(address);
+		// Requests waiting for a reply on the session will not be
+		// answered
+		if (lm.getClientModule() != null)
+			lm.getClientModule().sessionClosed(address);
+		if (lm.getComputationModule() != null)
+			lm.getComputationModule().sessionClosed(address);
+	}
+
 	/**
 	 * Function to process and incoming message
 	 * 
 	 * @param message
 	 */
 	private void processMessage(PCEPMessage message, ModuleEnum sourceLayer) {
-		localDebugger("Entering: processMessage(PCEPMessage message)");
-		localDebugger("| message: " + message.contentInformation());
-		localDebugger("| address: " + message.getAddress().getIPv4Address());
+		if (Logger.debugging) {
+			localDebugger("Entering: processMessage(PCEPMessage message)");
+			localDebugger("| message: " + message.contentInformation());
+			localDebugger("| address: " + message.getAddress().getIPv4Address());
+		}
 
-		localLogger("Processing Message from "
-				+ message.getAddress().getIPv4Address());
+		if (Logger.logging)
+			localLogger("Processing Message from "
+					+ message.getAddress().getIPv4Address());
 		StateMachine machine = getStateMachineFromHashMap(message.getAddress());
 		if (machine == null) {
 			localLogger("State Machine for connection from "
 					+ message.getAddress().getIPv4Address()
 					+ " does not exist. Discarding Message");
+			// A request read from the network gives back its place in the
+			// requests in flight of the connection
+			if (sourceLayer == ModuleEnum.NETWORK_MODULE
+					&& message.getMessageHeader().getTypeDecimalValue() == 3)
+				lm.getNetworkModule().requestCompleted(message.getAddress());
+			message.release();
 		} else
 			machine.updateState(message, sourceLayer);
 	}
@@ -330,11 +399,14 @@ public class SessionModuleImpl extends SessionModule {
 	 * @return
 	 */
 	private StateMachine getStateMachineFromHashMap(PCEPAddress address) {
-		localDebugger("Entering: getStateMachineFromHashMap(PCEPAddress address)");
-		localDebugger("| address: " + address.getIPv4Address());
+		if (Logger.debugging) {
+			localDebugger("Entering: getStateMachineFromHashMap(PCEPAddress address)");
+			localDebugger("| address: " + address.getIPv4Address());
+		}
 
-		localLogger("Getting StateMachine for " + address.getIPv4Address());
-		return addressToStateMachineHashMap.get(address.getIPv4Address());
+		if (Logger.logging)
+			localLogger("Getting StateMachine for " + address.getIPv4Address());
+		return addressToStateMachineHashMap.get(address.getAddressKey());
 	}
 
 	/**
@@ -350,8 +422,7 @@ public class SessionModuleImpl extends SessionModule {
 		localDebugger("| stateMachine: " + stateMachine.toString());
 
 		localLogger("Inserting StateMachine for " + address.getIPv4Address());
-		addressToStateMachineHashMap
-				.put(address.getIPv4Address(), stateMachine);
+		addressToStateMachineHashMap.put(address.getAddressKey(), stateMachine);
 		localLogger("| StateMachines active: "
 				+ addressToStateMachineHashMap.size());
 	}
@@ -360,15 +431,18 @@ public class SessionModuleImpl extends SessionModule {
 	 * Function to remove the state machine from the hash Map
 	 * 
 	 * @param address
+	 * @return the removed state machine, null if there was none
 	 */
-	private void removeStateMachineFromHashMap(PCEPAddress address) {
+	private StateMachine removeStateMachineFromHashMap(PCEPAddress address) {
 		localDebugger("Entering: removeStateMachineFromHashMap(PCEPAddress address)");
 		localDebugger("| address: " + address.getIPv4Address());
 
 		localLogger("Removing StateMachine for " + address.getIPv4Address());
-		addressToStateMachineHashMap.remove(address.getIPv4Address());
+		StateMachine stateMachine = addressToStateMachineHashMap
+				.remove(address.getAddressKey());
 		localLogger("| StateMachines active: "
 				+ addressToStateMachineHashMap.size());
+		return stateMachine;
 	}
 
 	/**
@@ -0,0 +1,163 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pcee.architecture.ModuleEnum;
+import com.pcee.architecture.sessionmodule.statemachine.SessionTimer;
+import com.pcee.architecture.sessionmodule.statemachine.StateMachine;
+import com.pcee.protocol.message.PCEPMessage;
+
+/**
+ * Unbounded multiple producer, single consumer queue of the messages to be
+ * processed by one session thread. Producers append a message with a single
+ * atomic exchange of the tail and never lock, only the session thread owning
+ * the queue removes messages and parks while the queue is empty.
+ */
+final class SessionQueue {
+
+	/**
+	 * Queue node holding either a message and the module it was received
+	 * from, a timer of a state machine which expired, or a state machine
+	 * whose connection is closed
+	 */
+	static final class Node {
+		PCEPMessage message;
+		ModuleEnum sourceLayer;
+		StateMachine stateMachine;
+		SessionTimer timer;
+		volatile Node next;
+
+		Node(PCEPMessage message, ModuleEnum sourceLayer) {
+			this.message = message;
+			this.sourceLayer = sourceLayer;
+		}
+
+		Node(StateMachine stateMachine, SessionTimer timer) {
+			this.stateMachine = stateMachine;
+			this.timer = timer;
+		}
+	}
+
+	private static final AtomicReferenceFieldUpdater<SessionQueue, Node> TAIL = AtomicReferenceFieldUpdater
+			.newUpdater(SessionQueue.class, Node.class, "tail");
+
+	// Last node appended by the producers
+	private volatile Node tail;
+
+	// Node last returned to the consumer, only accessed by the consumer
+	private Node head;
+
+	// Consumer thread and whether it is about to park or parked
+	private volatile Thread consumer;
+	private volatile boolean waiting = false;
+
+	SessionQueue() {
+		head = new Node((PCEPMessage) null, null);
+		tail = head;
+	}
+
+	/**
+	 * Function to append a message to the queue, can be called from any thread
+	 * 
+	 * @param message
+	 * @param sourceLayer
+	 */
+	void offer(PCEPMessage message, ModuleEnum sourceLayer) {
+		append(new Node(message, sourceLayer));
+	}
+
+	/**
+	 * Function to append the expiry of a timer to the queue, can be called
+	 * from any thread
+	 * 
+	 * @param stateMachine
+	 * @param timer
+	 */
+	void offer(StateMachine stateMachine, SessionTimer timer) {
+		append(new Node(stateMachine, timer));
+	}
+
+	/**
+	 * Function to append the close of the connection of a state machine to
+	 * the queue, can be called from any thread
+	 * 
+	 * @param stateMachine
+	 */
+	void offer(StateMachine stateMachine) {
+		append(new Node(stateMachine, null));
+	}
+
+	private void append(Node node) {
+		Node previous = TAIL.getAndSet(this, node);
+		previous.next = node;
+		if (waiting)
+			LockSupport.unpark(consumer);
+	}
+
+	/**
+	 * Function to remove the next message, waiting for one if the queue is
+	 * empty. Must only be called from the thread owning the queue. The fields
+	 * of the returned node are valid until the next call.
+	 * 
+	 * @return node holding the message and its source module
+	 * @throws InterruptedException
+	 */
+	Node take() throws InterruptedException {
+		Node next;
+		while ((next = poll()) == null) {
+			if (Thread.interrupted())
+				throw new InterruptedException();
+			consumer = Thread.currentThread();
+			waiting = true;
+			// Check again once the flag is published, a producer linking its
+			// node before reading the flag is seen here, any later one
+			// unparks the thread
+			if (head.next == null)
+				LockSupport.park(this);
+			waiting = false;
+		}
+		return next;
+	}
+
+	/**
+	 * Function to remove the next message without waiting. Must only be
+	 * called from the thread owning the queue, or once that thread has
+	 * terminated. The fields of the returned node are valid until the next
+	 * call.
+	 * 
+	 * @return node holding the message and its source module, or null if the
+	 *         queue is empty
+	 */
+	Node poll() {
+		Node next = head.next;
+		if (next == null)
+			return null;
+		// The previous node stays reachable from the producers' side until
+		// the next node replaces it, drop its message now
+		head.message = null;
+		head.sourceLayer = null;
+		head.stateMachine = null;
+		head.timer = null;
+		head = next;
+		return next;
+	}
+
+}
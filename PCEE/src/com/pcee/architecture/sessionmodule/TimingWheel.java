@@ -0,0 +1,248 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pcee.logger.Logger;
+
+/**
+ * Hashed timing wheel driving the timers of all PCEP sessions. The wheel is
+ * an array of buckets, each holding a doubly linked list of the timeouts
+ * whose deadline falls on the tick of the bucket modulo the wheel size, so
+ * that scheduling, cancelling and rescheduling a timeout are constant time
+ * operations. A single thread advances the wheel every tick and expires the
+ * timeouts of the current bucket which are due, timeouts due in a later
+ * round of the wheel stay in the bucket.
+ * 
+ * Timeouts are reusable objects, a state machine creates one per timer and
+ * schedules it again instead of allocating a new task on every restart.
+ */
+public class TimingWheel {
+
+	// States of a timeout
+	private static final int IDLE = 0;
+	private static final int SCHEDULED = 1;
+	private static final int EXPIRING = 2;
+
+	/** Timer handled by the wheel, expire() is called on the wheel thread */
+	public static abstract class Timeout {
+
+		// Tick at which the timeout expires
+		private long deadline;
+
+		private int state = IDLE;
+
+		// Links in the bucket list
+		private Timeout previous;
+		private Timeout next;
+
+		// Link in the list of timeouts collected for expiry, separate from the
+		// bucket links as the timeout can be scheduled again meanwhile
+		private Timeout nextExpired;
+
+		/** Function called when the timeout expires */
+		protected abstract void expire();
+	}
+
+	// Duration of a tick in nanoseconds
+	private final long tickNanos;
+
+	private final Timeout[] buckets;
+
+	private final int mask;
+
+	private final long startTime;
+
+	// Last tick processed, guarded by the wheel
+	private long currentTick = 0;
+
+	private final Thread wheelThread;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Default Constructor
+	 * 
+	 * @param name
+	 *            name of the wheel thread
+	 * @param tickMillis
+	 *            duration of a tick in milliseconds
+	 * @param wheelSize
+	 *            number of buckets, rounded up to a power of two
+	 */
+	public TimingWheel(String name, long tickMillis, int wheelSize) {
+		int size = 1;
+		while (size < wheelSize)
+			size <<= 1;
+		tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+		buckets = new Timeout[size];
+		mask = size - 1;
+		startTime = System.nanoTime();
+
+		wheelThread = new Thread() {
+			public void run() {
+				advance();
+			}
+		};
+		wheelThread.setName(name);
+		wheelThread.setDaemon(true);
+		wheelThread.start();
+	}
+
+	/**
+	 * Function to schedule a timeout, a timeout which is already scheduled is
+	 * moved to its new deadline
+	 * 
+	 * @param timeout
+	 * @param delayMillis
+	 */
+	public synchronized void schedule(Timeout timeout, long delayMillis) {
+		if (timeout.state == SCHEDULED)
+			unlink(timeout);
+		// Round up to the next tick boundary, a timeout never expires before
+		// its delay
+		long due = System.nanoTime() - startTime
+				+ TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+		timeout.deadline = Math.max(currentTick + 1, (due + tickNanos - 1)
+				/ tickNanos);
+		timeout.state = SCHEDULED;
+
+		int index = (int) (timeout.deadline & mask);
+		timeout.previous = null;
+		timeout.next = buckets[index];
+		if (buckets[index] != null)
+			buckets[index].previous = timeout;
+		buckets[index] = timeout;
+	}
+
+	/**
+	 * Function to cancel a timeout. A timeout whose expiry is in progress on
+	 * the wheel thread may still run.
+	 * 
+	 * @param timeout
+	 * @return true if the timeout was pending
+	 */
+	public synchronized boolean cancel(Timeout timeout) {
+		if (timeout.state == SCHEDULED) {
+			unlink(timeout);
+			timeout.state = IDLE;
+			return true;
+		}
+		if (timeout.state == EXPIRING) {
+			// Still on the list of expired timeouts, skipped when reached
+			timeout.state = IDLE;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Function to check if a timeout is scheduled
+	 * 
+	 * @param timeout
+	 * @return
+	 */
+	public synchronized boolean isScheduled(Timeout timeout) {
+		return timeout.state == SCHEDULED;
+	}
+
+	/** Function to stop the wheel thread, pending timeouts never expire */
+	public void stop() {
+		running = false;
+		wheelThread.interrupt();
+	}
+
+	// Removes a scheduled timeout from its bucket
+	private void unlink(Timeout timeout) {
+		if (timeout.previous != null)
+			timeout.previous.next = timeout.next;
+		else
+			buckets[(int) (timeout.deadline & mask)] = timeout.next;
+		if (timeout.next != null)
+			timeout.next.previous = timeout.previous;
+		timeout.previous = null;
+		timeout.next = null;
+	}
+
+	// Main loop of the wheel thread
+	private void advance() {
+		while (running) {
+			// Only this thread moves the current tick
+			long tick = currentTick + 1;
+			long wait = startTime + tick * tickNanos - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(this, wait);
+				if (Thread.interrupted() && !running)
+					break;
+				continue;
+			}
+			expire(collect(tick));
+		}
+	}
+
+	/**
+	 * Function to move to the next tick and unlink the timeouts of its bucket
+	 * which are due
+	 * 
+	 * @param tick
+	 * @return list of expired timeouts
+	 */
+	private synchronized Timeout collect(long tick) {
+		currentTick = tick;
+		Timeout expired = null;
+		Timeout timeout = buckets[(int) (tick & mask)];
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			if (timeout.deadline <= tick) {
+				unlink(timeout);
+				timeout.state = EXPIRING;
+				timeout.nextExpired = expired;
+				expired = timeout;
+			}
+			timeout = next;
+		}
+		return expired;
+	}
+
+	// Runs the expired timeouts outside of the lock of the wheel
+	private void expire(Timeout expired) {
+		while (expired != null) {
+			Timeout timeout = expired;
+			boolean due;
+			synchronized (this) {
+				expired = timeout.nextExpired;
+				timeout.nextExpired = null;
+				// Skip timeouts cancelled or scheduled again since collected
+				due = timeout.state == EXPIRING;
+				if (due)
+					timeout.state = IDLE;
+			}
+			if (due) {
+				try {
+					timeout.expire();
+				} catch (RuntimeException e) {
+					Logger.logSystemEvents("[TimingWheel] Timeout failed: "
+							+ e);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule.statemachine;
+
+/**
+ * States of the PCEP session state machine
+ */
+public enum SessionState {
+
+	IDLE("Idle", "*IDLE*"), TCP_PENDING("TCPPending", "*TCP PENDING*"), OPEN_WAIT(
+			"OpenWait", "*OPENWAIT*"), KEEP_WAIT("KeepWait", "*KEEPWAIT*"), SESSION_UP(
+			"SessionUP", "*SESSION UP*");
+
+	// Name of the state in log messages
+	private final String name;
+
+	// Prefix of the log messages of a state machine in the state
+	private final String prefix;
+
+	private SessionState(String name, String prefix) {
+		this.name = name;
+		this.prefix = prefix;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+}
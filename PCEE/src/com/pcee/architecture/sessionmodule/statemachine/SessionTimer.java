@@ -0,0 +1,41 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule.statemachine;
+
+/**
+ * Timers of the PCEP session state machine, each timer is only meaningful in
+ * the state in which it is started
+ */
+public enum SessionTimer {
+
+	CONNECT(SessionState.TCP_PENDING), OPEN_WAIT(SessionState.OPEN_WAIT), KEEP_WAIT(
+			SessionState.KEEP_WAIT), KEEP_ALIVE(SessionState.SESSION_UP), DEAD(
+			SessionState.SESSION_UP);
+
+	// State in which the expiry of the timer is processed
+	private final SessionState state;
+
+	private SessionTimer(SessionState state) {
+		this.state = state;
+	}
+
+	public SessionState getState() {
+		return state;
+	}
+
+}
@@ -27,6 +27,9 @@ public abstract class StateMachine {
 	//public abstract void updateState(PCEPMessage message);
 	public abstract void updateState(PCEPMessage message, ModuleEnum sourceLayer);
 
+	// Called on the session thread owning the state machine
+	public abstract void timerExpired(SessionTimer timer);
+
 	public abstract PCEPAddress getAddress();
 	public abstract void releaseResources();
 }
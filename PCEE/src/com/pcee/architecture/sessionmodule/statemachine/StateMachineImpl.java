@@ -17,12 +17,10 @@
 
 package com.pcee.architecture.sessionmodule.statemachine;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import com.pcee.architecture.ModuleEnum;
 import com.pcee.architecture.ModuleManagement;
+import com.pcee.architecture.sessionmodule.TimingWheel;
 import com.pcee.common.SessionID;
 import com.pcee.logger.Logger;
 import com.pcee.protocol.close.PCEPCloseFrame;
@@ -101,27 +99,59 @@ public abstract class StateMachineImpl extends StateMachine {
 	// Boolean to indicate if the TCP connection was established
 	protected boolean connectionEstablished;
 
-	// Reference variable to the session layer global timer
-	protected Timer stateTimer;
+	// Reference variable to the session layer global timing wheel
+	protected TimingWheel stateTimer;
 
-	// /Timer tasks defined to implement operations for different timeout
-	// operations
-	protected TimerTask connectTimerTask;
-	protected TimerTask openWaitTimerTask;
-	protected TimerTask keepWaitTimerTask;
-	protected TimerTask keepAliveTimerTask;
-	protected TimerTask deadTimerTask;
+	/**
+	 * Timeout of one of the session timers. The wheel thread only hands the
+	 * expiry to the session layer, which processes it on the thread owning
+	 * the session through timerExpired(SessionTimer)
+	 */
+	private class SessionTimeout extends TimingWheel.Timeout {
+		private final SessionTimer timer;
+
+		SessionTimeout(SessionTimer timer) {
+			this.timer = timer;
+		}
+
+		protected void expire() {
+			lm.getSessionModule().timerExpired(StateMachineImpl.this, timer);
+		}
+	}
+
+	// /Timeouts defined to implement operations for different timeout
+	// operations, created once and scheduled again on every restart
+	protected TimingWheel.Timeout connectTimerTask = new SessionTimeout(
+			SessionTimer.CONNECT);
+	protected TimingWheel.Timeout openWaitTimerTask = new SessionTimeout(
+			SessionTimer.OPEN_WAIT);
+	protected TimingWheel.Timeout keepWaitTimerTask = new SessionTimeout(
+			SessionTimer.KEEP_WAIT);
+	protected TimingWheel.Timeout keepAliveTimerTask = new SessionTimeout(
+			SessionTimer.KEEP_ALIVE);
+	protected TimingWheel.Timeout deadTimerTask = new SessionTimeout(
+			SessionTimer.DEAD);
 
 	// Boolean variables to check if timers are running
 	protected boolean connectTimerRunning;
 	protected boolean keepAliveTimerRunning;
-	protected boolean deadTimerRunning;
+	protected volatile boolean deadTimerRunning;
+
+	// Time of the last message received in the session up state, checked when
+	// the dead timer expires
+	protected volatile long lastActivity;
 
 	// Indicator to see if the Session UP state is achieved for the first time, for logging in GUI
 	protected boolean firstTimeSessionUP = true;
 
-	// Variable to store the current state of the state machine
-	protected int state;
+	// Variable to store the current state of the state machine. Messages,
+	// timer expiries and the close of the connection are processed on the
+	// session thread, other threads only read the state
+	protected volatile SessionState state = SessionState.IDLE;
+
+	// Transitions of the session up state, indexed by message type and source
+	// module
+	private final Transition[][] sessionUpTransitions;
 
 	// Int to store the connection retry count
 	protected int connectRetry;
@@ -142,15 +172,16 @@ public abstract class StateMachineImpl extends StateMachine {
 	protected boolean localOk;
 
 	public StateMachineImpl(ModuleManagement layerManagement,
-			PCEPAddress Address, Timer stateTimer, boolean connectionInitialized) {
-		// localDebugger("Entering: StateMachineImpl(ModuleManagement layerManagement, PCEPAddress Address, Timer stateTimer, boolean connectionInitialized)");
+			PCEPAddress Address, TimingWheel stateTimer, boolean connectionInitialized) {
+		// localDebugger("Entering: StateMachineImpl(ModuleManagement layerManagement, PCEPAddress Address, TimingWheel stateTimer, boolean connectionInitialized)");
 
 		lm = layerManagement;
+		sessionUpTransitions = getSessionUpTransitions();
 
 		address = Address;
 		this.stateTimer = stateTimer;
 		this.connectionInitialized = connectionInitialized;
-		this.setState(0);
+		this.setState(SessionState.IDLE);
 
 		this.connectRetry = 0;
 		this.localOk = false;
@@ -165,33 +196,10 @@ public abstract class StateMachineImpl extends StateMachine {
 			this.updateState(true);
 	}
 
-	protected void setState(int state) {
-		localDebugger("Entering: setState(int state)");
-		switch (state) {
-		case 0: {
-			localLogger("Entering Idle State");
-			this.state = state;
-			break;
-		}
-		case 1: {
-			localLogger("Entering TCPPending State");
-			this.state = state;
-			break;
-		}
-		case 2: {
-			localLogger("Entering OpenWait State");
-			this.state = state;
-			break;
-		}
-		case 3: {
-			localLogger("Entering KeepWait State");
-			this.state = state;
-			break;
-		}
-		case 4: {
-			localLogger("Entering SessionUP State");
+	protected void setState(SessionState state) {
+		localLogger("Entering " + state.getName() + " State");
+		if (state == SessionState.SESSION_UP) {
 			if (firstTimeSessionUP) {
-				localLogger("Entering SessionUp State");
 				guiLogger("Connection established");
 				firstTimeSessionUP = false;
 			}
@@ -202,36 +210,98 @@ public abstract class StateMachineImpl extends StateMachine {
 			}
 
 			startDeadTimer();
-
-			break;
-		}
-		default: {
-			localLogger("ERROR: Unkown State");
-			this.setState(0);
-			break;
-		}
-		}
-
-
+		} else
+			this.state = state;
 	}
 
-	public synchronized void updateState(boolean connectionEstablished) {
+	public void updateState(boolean connectionEstablished) {
 		localDebugger("Entering: updateState(boolean connectionEstablished)");
-		localDebugger("| connectionEstablished: " + connectionEstablished);
 
-		if (state != 1) {
-			localLogger("Received connectionEstablished Update in the wrong state! Should have been state 1, received it in state"
-					+ state);
+		if (state != SessionState.TCP_PENDING) {
+			localLogger("Received connectionEstablished Update in the wrong state! Should have been state TCPPending, received it in state "
+					+ state.getName());
 		}
 
 		this.connectionEstablished = connectionEstablished;
 		enterTCPPendingState();
 	}
 
+	public void updateState(PCEPMessage message, ModuleEnum sourceModule) {
+		localDebugger("Entering: updateState(PCEPMessage message, ModuleEnum targetLayer)");
+
+		switch (state) {
+		case IDLE: {
+			enterIdleState();
+			releaseMessage(message, sourceModule);
+			break;
+		}
+		case TCP_PENDING: {
+			// enterTCPPendingState();
+			localLogger("You should not see me!");
+			System.out.println("Message Arrived Before State Was Updated");
+			releaseMessage(message, sourceModule);
+			break;
+		}
+		case OPEN_WAIT: {
+			enterOpenWaitState(message);
+			releaseMessage(message, sourceModule);
+			break;
+		}
+		case KEEP_WAIT: {
+			enterKeepWaitState(message);
+			releaseMessage(message, sourceModule);
+			break;
+		}
+		case SESSION_UP: {
+			enterSessionUPState(message, sourceModule);
+			break;
+		}
+		}
+	}
 
+	/**
+	 * Function to process the expiry of a timer, called on the session thread
+	 * processing the messages of the session. Expiries reaching the session
+	 * thread after the state machine left the state of the timer are ignored
+	 * 
+	 * @param timer
+	 */
+	public void timerExpired(SessionTimer timer) {
+		if (state != timer.getState()) {
+			localDebugger("Ignoring expiry of timer " + timer);
+			return;
+		}
 
-	public abstract void updateState(PCEPMessage message, ModuleEnum sourceModule);
-	
+		switch (timer) {
+		case CONNECT: {
+			localLogger("ConnectTimer Expired");
+			checkPendingStatus();
+			break;
+		}
+		case OPEN_WAIT: {
+			localLogger("OpenWaitTimer Expired");
+			sendErrorMessage(1, 2);
+			// releaseResources();
+			closeTCPConnection();
+			break;
+		}
+		case KEEP_WAIT: {
+			localLogger("KeepWaitTimer Expired");
+			sendErrorMessage(1, 7);
+			// releaseResources();
+			closeTCPConnection();
+			break;
+		}
+		case KEEP_ALIVE: {
+			sendKeepAliveMessage();
+			break;
+		}
+		case DEAD: {
+			deadTimerExpired();
+			break;
+		}
+		}
+	}
 
 
 	/**
@@ -248,7 +318,7 @@ public abstract class StateMachineImpl extends StateMachine {
 		if (connectionInitialized == true) {
 			localLogger("System initiated the Connection");
 			startConnectTimer();
-			setState(1);
+			setState(SessionState.TCP_PENDING);
 		}
 
 		if (connectionInitialized == false) {
@@ -257,7 +327,7 @@ public abstract class StateMachineImpl extends StateMachine {
 			this.sendOpenMessage(keepAlive, deadTimer);
 			this.startOpenWaitTimer();
 
-			this.setState(2);
+			this.setState(SessionState.OPEN_WAIT);
 		}
 
 	}
@@ -274,7 +344,7 @@ public abstract class StateMachineImpl extends StateMachine {
 			sendOpenMessage(keepAlive, deadTimer);
 			cancelConnectTimer();
 			startOpenWaitTimer();
-			setState(2);
+			setState(SessionState.OPEN_WAIT);
 		}
 		if (connectionEstablished == false) { // (b)
 			localLogger("Connection establishment failed with Peer");
@@ -291,7 +361,6 @@ public abstract class StateMachineImpl extends StateMachine {
 	 */
 	protected void enterOpenWaitState(PCEPMessage message) {
 		localDebugger("Entering: enterOpenWaitState(PCEPMessage message)");
-		localDebugger("| message: " + message.contentInformation());
 
 		// PCEPMessageFrame frame =
 		// PCEPMessageFactory.getPCEPMessageFrame(message);
@@ -338,7 +407,7 @@ public abstract class StateMachineImpl extends StateMachine {
 				localLogger("localOk is true");
 
 				this.cancelOpenWaitTimer();
-				this.setState(4);
+				this.setState(SessionState.SESSION_UP);
 			}
 
 			if (localOk == false) {
@@ -346,7 +415,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 				this.cancelOpenWaitTimer();
 				this.startKeepWaitTimer();
-				this.setState(3);
+				this.setState(SessionState.KEEP_WAIT);
 			}
 		}
 
@@ -367,7 +436,7 @@ public abstract class StateMachineImpl extends StateMachine {
 				localLogger("localOk is true");
 
 				this.restartOpenWaitTimer();
-				this.setState(2);
+				this.setState(SessionState.OPEN_WAIT);
 			}
 
 			if (localOk == false) {
@@ -375,7 +444,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 				this.cancelOpenWaitTimer();
 				this.startKeepWaitTimer();
-				this.setState(3);
+				this.setState(SessionState.KEEP_WAIT);
 
 			}
 		}
@@ -389,7 +458,6 @@ public abstract class StateMachineImpl extends StateMachine {
 	 */
 	protected void enterKeepWaitState(PCEPMessage message) {
 		localDebugger("Entering: enterKeepWaitState(PCEPMessage message)");
-		localDebugger("| message: " + message.contentInformation());
 
 		int messageType = message.getMessageHeader().getTypeDecimalValue();
 
@@ -417,14 +485,14 @@ public abstract class StateMachineImpl extends StateMachine {
 				localLogger("remoteOk is true");
 
 				this.cancelKeepWaitTimer();
-				this.setState(4);
+				this.setState(SessionState.SESSION_UP);
 			}
 			if (remoteOk == false) {
 				localLogger("remoteOk is false");
 
 				this.cancelKeepWaitTimer();
 				this.startOpenWaitTimer();
-				this.setState(2);
+				this.setState(SessionState.OPEN_WAIT);
 			}
 		}
 
@@ -455,14 +523,14 @@ public abstract class StateMachineImpl extends StateMachine {
 				localLogger("remoteOk is true");
 
 				this.restartKeepWaitTimer();
-				this.setState(3);
+				this.setState(SessionState.KEEP_WAIT);
 			}
 			if (remoteOk == false) {
 				localLogger("remoteOk is false");
 
 				this.cancelKeepWaitTimer();
 				this.startOpenWaitTimer();
-				this.setState(2);
+				this.setState(SessionState.OPEN_WAIT);
 			}
 
 		}
@@ -470,119 +538,157 @@ public abstract class StateMachineImpl extends StateMachine {
 	}
 
 	/**
-	 * enterSessionUPState
-	 * 
-	 * @param message
+	 * Immutable transition of the session up state for a message type received
+	 * from a module: the side effects to be executed on the session thread
 	 */
-	protected void enterSessionUPState(PCEPMessage message) {
-		localDebugger("Entering: enterSessionUPState(PCEPMessage message)");
-		localDebugger("| message: " + message.contentInformation());
+	protected static final class Transition {
+		// Event logged for the message
+		private final String event;
 
-		// System.out.println("[StateMachine: " + address.getAddress() +
-		// "] entering Session up State" );
+		// Whether the message counts as activity of the peer for the dead timer
+		private final boolean refreshDeadTimer;
 
-		// flushBuffer();
+		// Module the message is forwarded to, null if it is consumed here
+		private final ModuleEnum forwardTo;
 
-		boolean noErrorsDetected = PCEPMessageAnalyser
-				.checkMessageFormat(message);
+		// Whether the session is closed
+		private final boolean close;
 
-		if (noErrorsDetected == false) {
-			localLogger("Message Format Error detected");
-			sendCloseMessage();
-			// releaseResources();
-			closeTCPConnection();
+		protected Transition(String event, boolean refreshDeadTimer,
+				ModuleEnum forwardTo, boolean close) {
+			this.event = event;
+			this.refreshDeadTimer = refreshDeadTimer;
+			this.forwardTo = forwardTo;
+			this.close = close;
 		}
-
-		this.checkMultipleConnections();
-
-		this.analyzeMessage(message);
-
 	}
 
-	private void analyzeMessage(PCEPMessage message) {
-		localDebugger("Entering: analyzeMessage(PCEPMessage message)");
-
-		int messageType = message.getMessageHeader().getTypeDecimalValue();
-
-		switch (messageType) {
-
-		case 1: {
-			localLogger("Received Open Message");
-			localLogger("Waiting to be implemented. Do something with this Message!");
+	// Highest PCEP message type handled by the transition tables
+	protected static final int MAX_MESSAGE_TYPE = 7;
 
-			break;
-		}
-		case 2: {
-			localLogger("Received KeepAlive Message");
-
-			restartDeadTimer();
-			localLogger("Processing Information: "
-					+ message.contentInformation());
-
-			break;
+	/**
+	 * Function to build a transition table of the session up state for the
+	 * message types common to all state machines. The transitions of path
+	 * computation requests and replies are filled in by the state machine
+	 * implementations
+	 * 
+	 * @return table indexed by message type and ordinal of the source module
+	 */
+	protected static Transition[][] newTransitionTable() {
+		int modules = ModuleEnum.values().length;
+		Transition[][] table = new Transition[MAX_MESSAGE_TYPE + 1][modules];
+		for (int source = 0; source < modules; source++) {
+			table[0][source] = new Transition("ERROR: Unkown Message", false,
+					null, false);
+			table[1][source] = new Transition(
+					"Received Open Message, waiting to be implemented", false,
+					null, false);
+			table[2][source] = new Transition("Received KeepAlive Message",
+					true, null, false);
+			table[5][source] = new Transition("Received Notification Message",
+					false, null, false);
+			table[6][source] = new Transition("Received Error Message", false,
+					null, false);
+			table[7][source] = new Transition("Received Close Message", false,
+					null, true);
 		}
-		case 3: {
-			localLogger("Received Path Computation Request Message");
-			// System.out.println("Received Path Computation Request Message");
+		return table;
+	}
 
-			restartDeadTimer();
-			if (message.getAddress().getPort() == 4189) {
-				// System.out.println("\n\n\n\n\n ------------------------------------ Message Send Check ------------------------------");
-				lm.getSessionModule().sendMessage(message,
-						ModuleEnum.NETWORK_MODULE);
-			} else
-				lm.getSessionModule().sendMessage(message,
-						ModuleEnum.COMPUTATION_MODULE);
+	/**
+	 * Function to fill the transitions of a message type from all modules
+	 * 
+	 * @param table
+	 * @param messageType
+	 * @param transition
+	 */
+	protected static void setTransition(Transition[][] table, int messageType,
+			Transition transition) {
+		for (int source = 0; source < table[messageType].length; source++)
+			table[messageType][source] = transition;
+	}
 
-			break;
-		}
-		case 4: {
-			localLogger("Received Path Computation Response Message");
-			restartDeadTimer();
-			// MessageHandler.readResponseMessage(message);
-			if (message.getAddress().getPort() == 4189) {
-				// System.out.println("\n\n\n\n\n ------------------------------------ Message Recieve Check ------------------------------");
-
-				lm.getSessionModule().sendMessage(message,
-						ModuleEnum.CLIENT_MODULE);
-			} else if (lm.isServer()) {
-				lm.getSessionModule().sendMessage(message,
-						ModuleEnum.NETWORK_MODULE);
-			} else {
-				lm.getSessionModule().sendMessage(message,
-						ModuleEnum.CLIENT_MODULE);
-			}
+	/**
+	 * Function to get the transition table of the session up state of the
+	 * implementation, called once from the constructor
+	 * 
+	 * @return table indexed by message type and ordinal of the source module
+	 */
+	protected abstract Transition[][] getSessionUpTransitions();
 
-			break;
-		}
-		case 5: {
-			localLogger("Received Notification Message");
+	/**
+	 * enterSessionUPState
+	 * 
+	 * @param message
+	 * @param sourceModule
+	 */
+	protected void enterSessionUPState(PCEPMessage message,
+			ModuleEnum sourceModule) {
+		localDebugger("Entering: enterSessionUPState(PCEPMessage message)");
 
-			// MessageHandler.processRequestMessage(message);
+		if (sourceModule == ModuleEnum.NETWORK_MODULE
+				&& !checkReceivedMessage(message))
+			return;
 
-			break;
-		}
-		case 6: {
-			localLogger("Received Error Message");
-			if (lm.isServer()==false)
-				lm.getClientModule().receiveMessage(message, ModuleEnum.SESSION_MODULE);
+		this.checkMultipleConnections();
 
-			break;
-		}
-		case 7: {
-			localLogger("Received Close Message");
+		int messageType = message.getMessageHeader().getTypeDecimalValue();
+		Transition transition = sessionUpTransitions[messageType <= MAX_MESSAGE_TYPE ? messageType
+				: 0][sourceModule.ordinal()];
 
+		localLogger(transition.event);
+		if (transition.refreshDeadTimer)
+			restartDeadTimer();
+		if (transition.forwardTo != null)
+			lm.getSessionModule().sendMessage(message, transition.forwardTo);
+		else
+			releaseMessage(message, sourceModule);
+		if (transition.close)
 			this.closeTCPConnection();
+	}
 
-			break;
-		}
-		default: {
-			localLogger("ERROR: Unkown Message");
+	/**
+	 * Checks the format of a message received from the peer. Messages with a
+	 * known PCEP error are answered with a PCErr, malformed messages close the
+	 * session
+	 * 
+	 * @param message
+	 * @return true if the message can be processed
+	 */
+	protected boolean checkReceivedMessage(PCEPMessage message) {
+		int error = PCEPMessageAnalyser.getFormatError(message);
+		if (error == PCEPMessageAnalyser.NO_ERROR)
+			return true;
 
-			break;
-		}
+		if (error == PCEPMessageAnalyser.MALFORMED_MESSAGE) {
+			localLogger("Message Format Error detected");
+			sendCloseMessage();
+			closeTCPConnection();
+		} else {
+			localLogger("Message Format Error detected, Error-type = "
+					+ PCEPMessageAnalyser.getErrorType(error)
+					+ ", Error-value = "
+					+ PCEPMessageAnalyser.getErrorValue(error));
+			sendErrorMessage(PCEPMessageAnalyser.getErrorType(error),
+					PCEPMessageAnalyser.getErrorValue(error));
 		}
+		releaseMessage(message, ModuleEnum.NETWORK_MODULE);
+		return false;
+	}
 
+	/**
+	 * Function to release a message consumed by the state machine. A path
+	 * computation request read from the network is not passed on, so its
+	 * place among the requests in flight of the connection is given back
+	 * 
+	 * @param message
+	 * @param sourceModule
+	 */
+	protected void releaseMessage(PCEPMessage message, ModuleEnum sourceModule) {
+		if (sourceModule == ModuleEnum.NETWORK_MODULE
+				&& message.getMessageHeader().getTypeDecimalValue() == 3)
+			lm.getNetworkModule().requestCompleted(message.getAddress());
+		message.release();
 	}
 
 	/**************************************************************************************************
@@ -616,7 +722,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 	protected void sendMessageToPeer(PCEPMessage message, ModuleEnum targetLayer) {
 		localDebugger("Entering: sendMessageToPeer(PCEPMessage message)");
-		localDebugger("| message: " + message.contentInformation());
 
 		message.setAddress(address);
 		lm.getSessionModule().sendMessage(message, targetLayer);
@@ -660,16 +765,11 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("TERMINATING TIMERS");
 
-		if (connectTimerTask != null)
-			cancelConnectTimer();
-		if (openWaitTimerTask != null)
-			cancelOpenWaitTimer();
-		if (keepWaitTimerTask != null)
-			cancelKeepWaitTimer();
-		if (deadTimerTask != null)
-			cancelDeadTimer();
-		if (keepAliveTimerTask != null)
-			cancelKeepAliveTimer();
+		cancelConnectTimer();
+		cancelOpenWaitTimer();
+		cancelKeepWaitTimer();
+		cancelDeadTimer();
+		cancelKeepAliveTimer();
 	}
 
 	public void releaseResources() {
@@ -677,7 +777,7 @@ public abstract class StateMachineImpl extends StateMachine {
 		localLogger("RELEASING RESSOURCES");
 
 		terminateTimerTasks();
-		this.setState(0);
+		this.setState(SessionState.IDLE);
 	}
 
 	// TODO UPDATE
@@ -754,13 +854,6 @@ public abstract class StateMachineImpl extends StateMachine {
 		localLogger("Starting Connect Timer");
 
 		connectTimerRunning = true;
-
-		connectTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("ConnectTimer Expired");
-				checkPendingStatus();
-			}
-		};
 		stateTimer.schedule(connectTimerTask, connect * 1000);
 	}
 
@@ -769,13 +862,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Restarting Connect Timer");
 
-		this.connectTimerTask.cancel();
-		connectTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("Connect Timer Expired");
-				checkPendingStatus();
-			}
-		};
 		stateTimer.schedule(connectTimerTask, connect * 1000);
 	}
 
@@ -785,7 +871,7 @@ public abstract class StateMachineImpl extends StateMachine {
 		if (connectTimerRunning == true) {
 			localLogger("Cancelling Connect Timer");
 
-			this.connectTimerTask.cancel();
+			stateTimer.cancel(connectTimerTask);
 			connectTimerRunning = false;
 		}
 
@@ -799,14 +885,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Starting OpenWait Timer");
 
-		openWaitTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("OpenWaitTimer Expired");
-				sendErrorMessage(1, 2);
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
 		stateTimer.schedule(openWaitTimerTask, openWait * 1000);
 
 	}
@@ -816,15 +894,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Restarting OpenWait Timer");
 
-		this.openWaitTimerTask.cancel();
-		openWaitTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("OpenWait Timer Expired");
-				sendErrorMessage(1, 2);
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
 		stateTimer.schedule(openWaitTimerTask, openWait * 1000);
 	}
 
@@ -833,7 +902,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Cancelling OpenWait Timer");
 
-		this.openWaitTimerTask.cancel();
+		stateTimer.cancel(openWaitTimerTask);
 	}
 
 	/**************************************************************************************************
@@ -844,14 +913,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Starting KeepWait Timer");
 
-		keepWaitTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("KeepWaitTimer Expired");
-				sendErrorMessage(1, 7);
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
 		stateTimer.schedule(keepWaitTimerTask, keepWait * 1000);
 	}
 
@@ -860,15 +921,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Restarting KeepWait Timer");
 
-		this.keepWaitTimerTask.cancel();
-		keepWaitTimerTask = new TimerTask() {
-			public void run() {
-				localLogger("KeepWait Timer Expired");
-				sendErrorMessage(1, 7);
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
 		stateTimer.schedule(keepWaitTimerTask, keepWait * 1000);
 	}
 
@@ -877,7 +929,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Cancelling KeepWait Timer");
 
-		this.keepWaitTimerTask.cancel();
+		stateTimer.cancel(keepWaitTimerTask);
 	}
 
 	/**************************************************************************************************
@@ -889,12 +941,6 @@ public abstract class StateMachineImpl extends StateMachine {
 		localLogger("Starting KeepAlive Timer");
 
 		keepAliveTimerRunning = true;
-
-		keepAliveTimerTask = new TimerTask() {
-			public void run() {
-				sendKeepAliveMessage();
-			}
-		};
 		stateTimer.schedule(keepAliveTimerTask, keepAlive * 1000);
 	}
 
@@ -903,12 +949,6 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Restarting KeepAlive Timer");
 
-		this.keepAliveTimerTask.cancel();
-		keepAliveTimerTask = new TimerTask() {
-			public void run() {
-				sendKeepAliveMessage();
-			}
-		};
 		stateTimer.schedule(keepAliveTimerTask, keepAlive * 1000);
 	}
 
@@ -917,7 +957,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Cancelling KeepAlive Timer");
 
-		this.keepAliveTimerTask.cancel();
+		stateTimer.cancel(keepAliveTimerTask);
 	}
 
 	/**************************************************************************************************
@@ -928,42 +968,27 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Starting Dead Timer");
 
+		lastActivity = System.nanoTime();
 		deadTimerRunning = true;
-
-		deadTimerTask = new TimerTask() {
-			public void run() {
-
-				cancelKeepAliveTimer(); // TODO remove after closing the
-				// connection is implemented
-				sendCloseMessage();
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
 		stateTimer.schedule(deadTimerTask, deadTimer * 1000);
 
 	}
 
+	/**
+	 * Called for every message received in the session up state. Only the time
+	 * of the message is recorded, the dead timer checks it when it expires
+	 * instead of being rescheduled for each message.
+	 */
 	protected void restartDeadTimer() {
 		localDebugger("Entering: restartDeadTimer()");
 
 		localLogger("Restarting Dead Timer");
+		lastActivity = System.nanoTime();
 		if (deadTimerRunning == false) {
 			localDebugger("DeadTimer was not running. Restarting task");
-		} else
-			this.deadTimerTask.cancel();
-		deadTimerRunning = true;
-		deadTimerTask = new TimerTask() {
-			public void run() {
-
-				cancelKeepAliveTimer(); // TODO remove after closing the
-				// connection is implemented
-				sendCloseMessage();
-				// releaseResources();
-				closeTCPConnection();
-			}
-		};
-		stateTimer.schedule(deadTimerTask, deadTimer * 1000);
+			deadTimerRunning = true;
+			stateTimer.schedule(deadTimerTask, deadTimer * 1000);
+		}
 	}
 
 	protected void cancelDeadTimer() {
@@ -971,7 +996,30 @@ public abstract class StateMachineImpl extends StateMachine {
 
 		localLogger("Cancelling Dead Timer");
 
-		this.deadTimerTask.cancel();
+		deadTimerRunning = false;
+		stateTimer.cancel(deadTimerTask);
+	}
+
+	/**
+	 * Function called when the dead timer expires, reschedules the timer if a
+	 * message was received since it was scheduled
+	 */
+	protected void deadTimerExpired() {
+		if (deadTimerRunning == false)
+			return;
+		long remaining = deadTimer * 1000L
+				- (System.nanoTime() - lastActivity) / 1000000L;
+		if (remaining > 0) {
+			stateTimer.schedule(deadTimerTask, remaining);
+			return;
+		}
+		localLogger("Dead Timer Expired");
+		deadTimerRunning = false;
+		cancelKeepAliveTimer(); // TODO remove after closing the
+		// connection is implemented
+		sendCloseMessage();
+		// releaseResources();
+		closeTCPConnection();
 	}
 
 	public PCEPAddress getAddress() {
@@ -982,7 +1030,7 @@ public abstract class StateMachineImpl extends StateMachine {
 
 	public String toString() {
 		return "Address: " + address.getIPv4Address() + " sessionID: "
-				+ sessionID + " State: " + state + " ConnectionInitialized: "
+				+ sessionID + " State: " + state.getName() + " ConnectionInitialized: "
 				+ connectionInitialized;
 	}
 
@@ -991,6 +1039,9 @@ public abstract class StateMachineImpl extends StateMachine {
 	}
 
 	protected void localLogger(String event) {
+		// Skip building the message for every event when logging is off
+		if (!Logger.logging)
+			return;
 
 		String prefix = prefixGenerator();
 		Logger.logSystemEvents("[StateMachine: " + address.getIPv4Address() +
@@ -1004,35 +1055,6 @@ public abstract class StateMachineImpl extends StateMachine {
 	}
 
 	protected String prefixGenerator() {
-		String prefix;
-
-		switch (state) {
-		case 0: {
-			prefix = "*IDLE*";
-			break;
-		}
-		case 1: {
-			prefix = "*TCP PENDING*";
-			break;
-		}
-		case 2: {
-			prefix = "*OPENWAIT*";
-			break;
-		}
-		case 3: {
-			prefix = "*KEEPWAIT*";
-			break;
-		}
-		case 4: {
-			prefix = "*SESSION UP*";
-			break;
-		}
-		default: {
-			prefix = "UNKNOWN STATE - ERROR";
-			break;
-		}
-		}
-
-		return prefix;
+		return state.getPrefix();
 	}
 }
@@ -0,0 +1,202 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.graph.graphcontroller.impl.LongIndexMap;
+
+/**
+ * Table of the requests in flight on one PCEP session, indexed by the request
+ * ID of their RP object. The table holds at most a window of requests, each
+ * with a deadline after which expire() removes it. Entries are kept in
+ * arrays of the size of the window and located through a primitive long
+ * keyed map, so that adding and removing a request does not allocate. The
+ * IDs of the last expired requests are remembered, so that their late
+ * replies can be told apart from unrelated messages.
+ * 
+ * @param <T>
+ *            type of the entries
+ */
+public class InFlightTable<T> {
+
+	// Slot of each request ID in the arrays below
+	private final LongIndexMap slots;
+
+	private final long[] requestIDs;
+
+	// Entry in each slot, null for free slots
+	private final Object[] entries;
+
+	// Deadline of each entry, System.nanoTime() based
+	private final long[] deadlines;
+
+	// Stack of free slots
+	private final int[] freeSlots;
+
+	private int freeCount;
+
+	// Request IDs which expired recently, in a ring of the size of the
+	// window, so that their late replies are recognized
+	private final long[] expiredIDs;
+
+	// Position of each recently expired request ID in the ring
+	private final LongIndexMap expiredPositions;
+
+	private int nextExpired;
+
+	/**
+	 * Default Constructor
+	 * 
+	 * @param window
+	 *            maximum number of requests in flight
+	 */
+	public InFlightTable(int window) {
+		int size = Math.max(1, window);
+		slots = new LongIndexMap(size);
+		requestIDs = new long[size];
+		entries = new Object[size];
+		deadlines = new long[size];
+		freeSlots = new int[size];
+		for (int i = 0; i < size; i++)
+			freeSlots[i] = size - 1 - i;
+		freeCount = size;
+		expiredIDs = new long[size];
+		expiredPositions = new LongIndexMap(size);
+	}
+
+	/**
+	 * Function to add a request
+	 * 
+	 * @param requestID
+	 * @param entry
+	 * @param timeoutMillis
+	 * @return false if the window is full or the request ID is already in
+	 *         flight
+	 */
+	public synchronized boolean add(long requestID, T entry, long timeoutMillis) {
+		if (freeCount == 0 || slots.containsKey(requestID))
+			return false;
+		int slot = freeSlots[--freeCount];
+		requestIDs[slot] = requestID;
+		entries[slot] = entry;
+		deadlines[slot] = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		slots.put(requestID, slot);
+		return true;
+	}
+
+	/**
+	 * Function to remove a request once answered
+	 * 
+	 * @param requestID
+	 * @return the entry of the request, null if it is not in flight
+	 */
+	public synchronized T remove(long requestID) {
+		int slot = slots.remove(requestID);
+		if (slot == LongIndexMap.NOT_FOUND)
+			return null;
+		return release(slot);
+	}
+
+	public synchronized boolean contains(long requestID) {
+		return slots.containsKey(requestID);
+	}
+
+	/** Number of requests in flight */
+	public synchronized int size() {
+		return entries.length - freeCount;
+	}
+
+	/** Maximum number of requests in flight */
+	public int getWindow() {
+		return entries.length;
+	}
+
+	/**
+	 * Function to remove the requests whose deadline has passed
+	 * 
+	 * @param now
+	 *            current System.nanoTime()
+	 * @param expired
+	 *            list receiving the expired entries, can be null
+	 * @return number of expired requests
+	 */
+	public synchronized int expire(long now, List<T> expired) {
+		int count = 0;
+		for (int slot = 0; slot < entries.length; slot++) {
+			if (entries[slot] != null && now - deadlines[slot] >= 0) {
+				slots.remove(requestIDs[slot]);
+				rememberExpired(requestIDs[slot]);
+				T entry = release(slot);
+				if (expired != null)
+					expired.add(entry);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Function to check whether a request ID belongs to one of the last
+	 * expired requests, the request ID is forgotten afterwards
+	 * 
+	 * @param requestID
+	 * @return true for the late reply of an expired request
+	 */
+	public synchronized boolean removeExpired(long requestID) {
+		return expiredPositions.remove(requestID) != LongIndexMap.NOT_FOUND;
+	}
+
+	private void rememberExpired(long requestID) {
+		int position = nextExpired;
+		nextExpired = (nextExpired + 1) % expiredIDs.length;
+		// The oldest request ID in the ring is overwritten
+		if (expiredPositions.get(expiredIDs[position]) == position)
+			expiredPositions.remove(expiredIDs[position]);
+		expiredIDs[position] = requestID;
+		expiredPositions.put(requestID, position);
+	}
+
+	/**
+	 * Function to remove all requests, when the session is closed
+	 * 
+	 * @param removed
+	 *            list receiving the removed entries, can be null
+	 */
+	public synchronized void clear(List<T> removed) {
+		for (int slot = 0; slot < entries.length; slot++) {
+			if (entries[slot] != null) {
+				slots.remove(requestIDs[slot]);
+				T entry = release(slot);
+				if (removed != null)
+					removed.add(entry);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T release(int slot) {
+		T entry = (T) entries[slot];
+		entries[slot] = null;
+		freeSlots[freeCount++] = slot;
+		return entry;
+	}
+
+}
@@ -17,6 +17,8 @@
 
 package com.pcee.protocol.message;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
 
@@ -35,10 +37,10 @@ public class PCEPCommonMessageHeader {
 
 	private final String NAME = "Message Header";
 
-	private String version;
-	private String type;
-	private String length;
-	private String flags;
+	private int version;
+	private int type;
+	private int length;
+	private int flags;
 
 	private int versionStartBit = PCEPConstantValues.COMMON_MESSAGE_HEADER_VERSION_START_BIT;
 	private int versionEndBit = PCEPConstantValues.COMMON_MESSAGE_HEADER_VERSION_END_BIT;
@@ -60,19 +62,50 @@ public class PCEPCommonMessageHeader {
 		this.setHeaderBinaryString(binaryString);
 	}
 
+	/**
+	 * Decodes the header from the next four bytes of the buffer
+	 */
+	public PCEPCommonMessageHeader(ByteBuffer buffer) {
+		decode(buffer);
+	}
+
 	public PCEPCommonMessageHeader(int version, int type) {
 		this.setVersionDecimalValue(version);
-		this.setFlagsBinaryString(PCEPComputationFactory.generateZeroString(flagsLength));
+		this.flags = 0;
 		this.setTypeDecimalValue(type);
 		this.setLengthDecimalValue(0);
 	}
 
+	/**
+	 * Decodes the header from the next four bytes of the buffer, replacing
+	 * the current values
+	 */
+	public void decode(ByteBuffer buffer) {
+		int firstByte = buffer.get() & 0xFF;
+		this.version = firstByte >>> flagsLength;
+		this.flags = firstByte & 0x1F;
+		this.type = buffer.get() & 0xFF;
+		this.length = buffer.getShort() & 0xFFFF;
+	}
+
+	/**
+	 * Encodes the header into the next four bytes of the buffer
+	 */
+	public void encode(ByteBuffer buffer) {
+		buffer.put((byte) ((version << flagsLength) | flags));
+		buffer.put((byte) type);
+		buffer.putShort((short) length);
+	}
+
 	/**
 	 * Header
 	 */
 	public String getHeaderBinaryString() {
-		String binaryString = version + flags + type + length;
-		return binaryString;
+		long header = ((long) version << (32 - versionLength))
+				| ((long) flags << (32 - flagsEndBit - 1))
+				| ((long) type << lengthLength) | length;
+		return PCEPComputationFactory.toBinaryString(header,
+				PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH);
 	}
 
 	public void setHeaderBinaryString(String binaryString) {
@@ -91,116 +124,104 @@ public class PCEPCommonMessageHeader {
 	 * version
 	 */
 	public int getVersionDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(version);
-		return decimalValue;
+		return version;
 	}
 
 	public String getVersionBinaryString() {
-		return this.version;
+		return PCEPComputationFactory.toBinaryString(version, versionLength);
 	}
 
 	public void setVersionDecimalValue(int decimalValue) {
 		int binaryLength = versionLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.version = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.version = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setVersionBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, versionLength);
-		this.version = checkedBinaryString;
+		this.version = (int) PCEPComputationFactory.setBinaryField(binaryString, versionLength);
 	}
 
 	public void setVersionBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(version, startingBit, binaryString, versionLength);
-		this.version = checkedBinaryString;
+		this.version = (int) PCEPComputationFactory.setBinaryField(version, startingBit, binaryString, versionLength);
 	}
 
 	/**
 	 * type
 	 */
 	public int getTypeDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(type);
-		return decimalValue;
+		return type;
 	}
 
 	public String getTypeBinaryString() {
-		return this.type;
+		return PCEPComputationFactory.toBinaryString(type, typeLength);
 	}
 
 	public void setTypeDecimalValue(int decimalValue) {
 		int binaryLength = typeLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.type = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.type = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setTypeBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(binaryString, typeLength);
 	}
 
 	public void setTypeBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(type, startingBit, binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(type, startingBit, binaryString, typeLength);
 	}
 
 	/**
 	 * length
 	 */
 	public int getLengthDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(length);
-		return decimalValue;
+		return length;
 	}
 
 	public String getLengthBinaryString() {
-		return this.length;
+		return PCEPComputationFactory.toBinaryString(length, lengthLength);
 	}
 
 	public void setLengthDecimalValue(int decimalValue) {
 		int binaryLength = lengthLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.length = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.length = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setLengthBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, lengthLength);
-		this.length = checkedBinaryString;
+		this.length = (int) PCEPComputationFactory.setBinaryField(binaryString, lengthLength);
 	}
 
 	public void setLengthBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(length, startingBit, binaryString, lengthLength);
-		this.length = checkedBinaryString;
+		this.length = (int) PCEPComputationFactory.setBinaryField(length, startingBit, binaryString, lengthLength);
 	}
 
 	/**
 	 * flags
 	 */
 	public int getFlagsDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flags);
-		return decimalValue;
+		return flags;
 	}
 
 	public String getFlagsBinaryString() {
-		return this.flags;
+		return PCEPComputationFactory.toBinaryString(flags, flagsLength);
 	}
 
 	public void setFlagsDecimalValue(int decimalValue) {
 		int binaryLength = flagsLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.flags = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.flags = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setFlagsBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(binaryString, flagsLength);
 	}
 
 	public void setFlagsBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, startingBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, startingBit, binaryString, flagsLength);
 	}
 
 	public String toString() {
@@ -17,6 +17,7 @@
 
 package com.pcee.protocol.message;
 
+import java.nio.ByteBuffer;
 import java.util.StringTokenizer;
 
 import com.pcee.logger.Logger;
@@ -32,13 +33,16 @@ public class PCEPComputationFactory {
 
 		int byteArrayLength = rawMessage.length() / 8;
 		byte[] byteArray = new byte[byteArrayLength];
-		String rawMessageString = rawMessage;
 
+		int bitIndex = 0;
 		for (int i = 0; i < byteArrayLength; i++) {
-			String bits = rawMessageString.substring(0, 8);
-			rawMessageString = rawMessageString.substring(8);
-
-			byteArray[i] = binaryStringToByteConverter(bits);
+			int x = 0;
+			for (int j = 0; j < 8; j++) {
+				x = x << 1;
+				if (rawMessage.charAt(bitIndex++) == '1')
+					x = x + 0x0001;
+			}
+			byteArray[i] = (byte) x;
 		}
 
 		return byteArray;
@@ -46,15 +50,33 @@ public class PCEPComputationFactory {
 	}
 
 	public static String byteArrayToRawMessage(byte[] byteArray) {
+		return byteArrayToRawMessage(byteArray, 0, byteArray.length);
+	}
 
-		String rawMessageString = new String();
+	public static String byteArrayToRawMessage(byte[] byteArray, int offset,
+			int length) {
 
-		for (int i = 0; i < byteArray.length; i++) {
-			rawMessageString = rawMessageString
-					+ byteToBinaryStringConverter(byteArray[i]);
+		char[] bitArray = new char[length * 8];
+
+		for (int i = 0; i < length; i++) {
+			int y = byteArray[offset + i];
+			for (int j = 0; j < 8; j++) {
+				bitArray[i * 8 + j] = ((y >>> (7 - j)) & 0x0001) == 0x0001 ? '1'
+						: '0';
+			}
 		}
 
-		return rawMessageString;
+		return new String(bitArray);
+	}
+
+	/**
+	 * Function to get the binary string view of the remaining bytes of a
+	 * buffer, the position of the buffer is moved to its limit
+	 */
+	public static String byteBufferToRawMessage(ByteBuffer buffer) {
+		byte[] byteArray = new byte[buffer.remaining()];
+		buffer.get(byteArray);
+		return byteArrayToRawMessage(byteArray);
 	}
 
 	public static byte binaryStringToByteConverter(String rawString) {
@@ -137,13 +159,86 @@ public class PCEPComputationFactory {
 	public static long getDecimalValue(String headerMember) {
 		long x = 0;
 		for (int i = 0; i < headerMember.length(); i++) {
-			x += Integer.parseInt(headerMember.substring(headerMember.length()
-					- 1 - i, headerMember.length() - i))
-					* Math.pow(2, i);
+			char bit = headerMember.charAt(i);
+			if (bit < '0' || bit > '9')
+				throw new NumberFormatException("For input string: \""
+						+ bit + "\"");
+			x = (x << 1) + (bit - '0');
 		}
 
 		return x;
 	}
+
+	/**
+	 * Function to get the binary string of the lowest bits of a value, used
+	 * as string view of the fields decoded into numeric values
+	 * 
+	 * @param value
+	 *            field value
+	 * @param length
+	 *            field length in bits
+	 */
+	public static String toBinaryString(long value, int length) {
+		char[] bitArray = new char[length];
+		for (int i = length - 1; i >= 0; i--) {
+			bitArray[i] = (value & 0x0001) == 0x0001 ? '1' : '0';
+			value = value >>> 1;
+		}
+		return new String(bitArray);
+	}
+
+	/**
+	 * Function to get the bits [startingBit, startingBit + bitLength) of a
+	 * field, bits are numbered from the most significant bit as in the
+	 * object layouts
+	 */
+	public static int getBitField(long field, int fieldLength,
+			int startingBit, int bitLength) {
+		return (int) ((field >>> (fieldLength - startingBit - bitLength)) & ((1L << bitLength) - 1));
+	}
+
+	/**
+	 * Numeric counterpart of setBinaryString(String, int), returns the value
+	 * of the checked binary string
+	 */
+	public static long setBinaryField(String binaryString,
+			int headerMemberLength) {
+		if (binaryString.length() == headerMemberLength
+				&& isBinaryString(binaryString))
+			return getDecimalValue(binaryString);
+		return getDecimalValue(setBinaryString(binaryString,
+				headerMemberLength));
+	}
+
+	/**
+	 * Numeric counterpart of setBinaryString(String, int, String, int),
+	 * replaces bits of a field starting at startingBit
+	 */
+	public static long setBinaryField(long headerMember, int startingBit,
+			String binaryString, int headerMemberLength) {
+		int binaryStringLength = binaryString.length();
+		if (startingBit >= 0 && binaryStringLength > 0
+				&& startingBit + binaryStringLength <= headerMemberLength
+				&& isBinaryString(binaryString)) {
+			int shift = headerMemberLength - startingBit - binaryStringLength;
+			long mask = ((1L << binaryStringLength) - 1) << shift;
+			return (headerMember & ~mask)
+					| (getDecimalValue(binaryString) << shift);
+		}
+		// Malformed input, keep the corrections of the string version
+		return getDecimalValue(setBinaryString(
+				toBinaryString(headerMember, headerMemberLength), startingBit,
+				binaryString, headerMemberLength));
+	}
+
+	private static boolean isBinaryString(String binaryString) {
+		for (int i = 0; i < binaryString.length(); i++) {
+			char bit = binaryString.charAt(i);
+			if (bit != '0' && bit != '1')
+				return false;
+		}
+		return true;
+	}
 	
 	public static void main(String[] args){
 		System.out.println("value of 01010101 : " + getDecimalValue("01010101"));
@@ -258,13 +353,16 @@ public class PCEPComputationFactory {
 
 	public static String appendZerosToBinaryString(String binaryString,
 			int headerMemberLength) {
-		String temp = binaryString;
+		int zeros = headerMemberLength - binaryString.length();
+		if (zeros <= 0)
+			return binaryString;
 
-		for (int i = 0; i < (headerMemberLength - binaryString.length()); i++) {
-			temp = "0" + temp;
-		}
+		char[] bitArray = new char[headerMemberLength];
+		for (int i = 0; i < zeros; i++)
+			bitArray[i] = '0';
+		binaryString.getChars(0, binaryString.length(), bitArray, zeros);
 
-		return temp;
+		return new String(bitArray);
 	}
 
 	public static String reverseBinaryString(String binaryString) {
@@ -274,14 +372,18 @@ public class PCEPComputationFactory {
 	}
 
 	public static String generateZeroString(int length) {
-		StringBuffer temp = new StringBuffer();
-		for (int i = 0; i < length; i++) {
-			temp.append("0");
-		}
-		return temp.toString();
+		if (length <= 0)
+			return "";
+		return appendZerosToBinaryString("", length);
 	}
 
 	public static long MaxValueFabrication(int bitLength) {
+		if (bitLength <= 0)
+			return 0;
+		if (bitLength < 32)
+			return (1L << bitLength) - 1;
+		// The int shift below wraps for 32 bits and more, kept for
+		// compatibility
 		long sum = 0;
 		for (short i = 0; i < bitLength; i++) {
 			sum += 1 << i;
@@ -317,25 +419,61 @@ public class PCEPComputationFactory {
 
 	}
 
+	public static String convertDecimalAddressToBinaryAddress(int address) {
+		char[] bitArray = new char[32];
+		for (int i = 0; i < 32; i++) {
+			if (((address >>> (31 - i)) & 0x0001) == 0x0001)
+				bitArray[i] = '1';
+			else
+				bitArray[i] = '0';
+		}
+		return new String(bitArray);
+	}
+
 	public static String convertBinaryAddressToAddress(String binaryAddress) {
 		StringBuffer addressStringBuffer = new StringBuffer();
 
-		while (!binaryAddress.isEmpty()) {
-			addressStringBuffer.append(".");
-
-			String token = binaryAddress.substring(0, 8);
-			binaryAddress = binaryAddress.substring(8);
+		for (int i = 0; i < binaryAddress.length(); i += 8) {
+			if (i > 0)
+				addressStringBuffer.append(".");
+			addressStringBuffer.append(getDecimalValue(binaryAddress
+					.substring(i, i + 8)));
+		}
 
-			String reversedToken = token;
-			int intToken = Integer.valueOf(reversedToken, 2).intValue();
-			String stringToken = Integer.toString(intToken);
+		return addressStringBuffer.toString();
 
-			addressStringBuffer.append(stringToken);
-		}
-		// removes the first dot!
-		String addressString = addressStringBuffer.toString().substring(1);
+	}
 
-		return addressString;
+	/** Transforms a 32 bit address in x.x.x.x schema */
+	public static String convertDecimalAddressToAddress(int address) {
+		return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF)
+				+ "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+	}
 
+	/**
+	 * Transforms x.x.x.x schema in a 32 bit address
+	 * 
+	 * @return the address, or -1 if the input is not a dotted quad of bytes
+	 */
+	public static long convertAddressToDecimalAddress(String input) {
+		long address = 0;
+		int octets = 0;
+		int octet = -1;
+		for (int i = 0; i <= input.length(); i++) {
+			char c = i < input.length() ? input.charAt(i) : '.';
+			if (c == '.') {
+				if (octet < 0 || octet > 255 || ++octets > 4)
+					return -1;
+				address = (address << 8) | octet;
+				octet = -1;
+			} else if (c >= '0' && c <= '9') {
+				octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+				if (octet > 255)
+					return -1;
+			} else {
+				return -1;
+			}
+		}
+		return octets == 4 ? address : -1;
 	}
 }
@@ -17,9 +17,16 @@
 
 package com.pcee.protocol.message;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import com.pcee.logger.Logger;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 
 public class PCEPMessage {
@@ -30,17 +37,75 @@ public class PCEPMessage {
 	private PCEPCommonMessageHeader messageHeader;
 	private LinkedList<PCEPObjectFrame> objectsList;
 	private PCEPAddress address;
+
+	// Message as received on the wire, kept until the objects are decoded so
+	// that messages which are only relayed are forwarded without decoding
+	// and re-encoding their objects
+	private byte[] wireBytes;
+
+	// Offsets of the objects in the wire bytes followed by the end of the
+	// last object, computed in one pass on the first access to an object
+	private int[] objectOffsets;
+
+	// Number of indexed objects, -1 until the objects are indexed
+	private int objectCount = -1;
+
+	// Objects decoded individually from the wire bytes
+	private PCEPObjectFrame[] decodedObjects;
+
+	// Format error found while indexing the objects, see PCEPMessageAnalyser
+	private int formatError = PCEPMessageAnalyser.NO_ERROR;
+
+	// Set for containers owned by PCEPMessagePool, which keep their wire
+	// bytes and buffer across uses
+	private final boolean pooled;
+
+	// Buffer over the wire bytes of a container created by PCEPMessagePool
+	private ByteBuffer wireBuffer;
+
+	// Buffer handed to the network module, see getWriteBuffer
+	private ByteBuffer writeBuffer;
+
+	private volatile int referenceCount;
+
+	private static final AtomicIntegerFieldUpdater<PCEPMessage> REFERENCE_COUNT = AtomicIntegerFieldUpdater
+			.newUpdater(PCEPMessage.class, "referenceCount");
+
+	// Record of the acquisition of the message while leak detection is on
+	PCEPMessagePool.LeakRecord leakRecord;
 	
+	/**
+	 * Decodes the header of the message, the objects are decoded on first
+	 * access
+	 */
 	public PCEPMessage(byte[] messageByteArray){
-		String rawMessageString = PCEPComputationFactory.byteArrayToRawMessage(messageByteArray);
-		
-		
-		String messageHeaderString = rawMessageString.substring(0, PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH);
-		String objectsRawString = rawMessageString.substring(PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH);
+		this.messageHeader = new PCEPCommonMessageHeader(ByteBuffer.wrap(messageByteArray));
+		this.wireBytes = messageByteArray;
+		this.pooled = false;
+	}
+
+	/**
+	 * Container for messages of the given length, created by PCEPMessagePool
+	 */
+	PCEPMessage(int length, boolean pooled) {
+		this.wireBytes = new byte[length];
+		this.wireBuffer = ByteBuffer.wrap(wireBytes);
+		this.messageHeader = new PCEPCommonMessageHeader(1, 0);
+		this.pooled = pooled;
+	}
 
-		this.messageHeader = new PCEPCommonMessageHeader(messageHeaderString);
-		this.objectsList = PCEPObjectFrameFactory.PCEPObjectFabrication(objectsRawString);
-		
+	/**
+	 * Decodes the message between the position and the limit of the buffer.
+	 * The bytes are copied as the buffer is reused for the next messages
+	 */
+	public PCEPMessage(ByteBuffer messageBuffer){
+		this(copyMessage(messageBuffer));
+	}
+
+	private static byte[] copyMessage(ByteBuffer messageBuffer) {
+		byte[] messageByteArray = new byte[messageBuffer.remaining()];
+		messageBuffer.get(messageByteArray);
+		return messageByteArray;
 	}
 	
 //	public PCEPMessage(String rawMessageString) {
@@ -54,6 +119,7 @@ public class PCEPMessage {
 	public PCEPMessage(PCEPCommonMessageHeader header, LinkedList<PCEPObjectFrame> objectsList) {
 		this.messageHeader = header;
 		this.objectsList = objectsList;
+		this.pooled = false;
 	}
 
 	public PCEPCommonMessageHeader getMessageHeader() {
@@ -61,19 +127,146 @@ public class PCEPMessage {
 	}
 
 	public LinkedList<PCEPObjectFrame> getObjectsList() {
+		if (objectsList == null) {
+			LinkedList<PCEPObjectFrame> objects = new LinkedList<PCEPObjectFrame>();
+			for (int i = 0; i < getObjectCount(); i++)
+				objects.add(getObject(i));
+			// The objects can be modified once in the list, the message is
+			// encoded from them from now on
+			objectsList = objects;
+			wireBytes = null;
+			if (!pooled) {
+				objectOffsets = null;
+				decodedObjects = null;
+			}
+		}
 		return objectsList;
 	}
 
+	/**
+	 * Number of objects in the message, counted without decoding them
+	 */
+	public int getObjectCount() {
+		if (objectsList != null)
+			return objectsList.size();
+		if (objectCount < 0)
+			indexObjects();
+		return objectCount;
+	}
+
+	/**
+	 * Class of an object, read from the wire bytes if the object is not
+	 * decoded
+	 */
+	public int getObjectClass(int index) {
+		if (objectsList != null)
+			return objectsList.get(index).getObjectHeader().getClassDecimalValue();
+		if (objectCount < 0)
+			indexObjects();
+		return wireBytes[objectOffsets[index]] & 0xFF;
+	}
+
+	/**
+	 * Object at the given index, decoded on first access. Objects decoded
+	 * this way are only read, the message is still encoded from the wire
+	 * bytes
+	 */
+	public PCEPObjectFrame getObject(int index) {
+		if (objectsList != null)
+			return objectsList.get(index);
+		if (objectCount < 0)
+			indexObjects();
+		if (decodedObjects[index] == null) {
+			int offset = objectOffsets[index];
+			decodedObjects[index] = PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer.wrap(wireBytes, offset, objectOffsets[index + 1] - offset).slice());
+		}
+		return decodedObjects[index];
+	}
+
+	/**
+	 * Format error of the message, NO_ERROR for messages built locally. See
+	 * PCEPMessageAnalyser
+	 */
+	public int getFormatError() {
+		if (objectsList == null && objectCount < 0)
+			indexObjects();
+		return formatError;
+	}
+
+	/**
+	 * Request ID of the RP object starting the message, read from the wire
+	 * bytes if the object is not decoded. -1 if the message does not start
+	 * with an RP object
+	 */
+	public long getRequestID() {
+		if (getObjectCount() == 0 || getObjectClass(0) != PCEPMessageAnalyser.RP_CLASS)
+			return -1;
+		if (objectsList != null) {
+			PCEPObjectFrame object = objectsList.get(0);
+			if (!(object instanceof PCEPRequestParametersObject))
+				return -1;
+			return ((PCEPRequestParametersObject) object).getRequestIDNumberDecimalValue() & 0xFFFFFFFFL;
+		}
+		// Request ID follows the object header and the flags
+		int offset = objectOffsets[0] + PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH / 8 + 4;
+		if (objectOffsets[1] - offset < 4)
+			return -1;
+		return ((wireBytes[offset] & 0xFFL) << 24) | ((wireBytes[offset + 1] & 0xFFL) << 16) | ((wireBytes[offset + 2] & 0xFFL) << 8) | (wireBytes[offset + 3] & 0xFFL);
+	}
+
+	/**
+	 * Indexes the objects and checks the format of the message in one pass
+	 * over the wire bytes. Objects following a malformed object are not
+	 * indexed
+	 */
+	private void indexObjects() {
+		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH / 8;
+		int offset = PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH / 8;
+		int messageType = messageHeader.getTypeDecimalValue();
+		int[] offsets = objectOffsets != null ? objectOffsets : new int[8];
+		int count = 0;
+		int previousClass = 0;
+		int requestCount = 0;
+		int error = PCEPMessageAnalyser.checkHeader(messageHeader.getVersionDecimalValue(), messageHeader.getLengthDecimalValue(), wireBytes.length);
+		while (wireBytes.length - offset >= headerLength) {
+			int objectClass = wireBytes[offset] & 0xFF;
+			int objectLength = ((wireBytes[offset + 2] & 0xFF) << 8) | (wireBytes[offset + 3] & 0xFF);
+			if (objectLength < headerLength || objectLength > wireBytes.length - offset) {
+				Logger.logWarning("Error at PCEPMessage. Object length = " + objectLength + ", remaining bytes = " + (wireBytes.length - offset));
+				error = PCEPMessageAnalyser.MALFORMED_MESSAGE;
+				break;
+			}
+			if (error == PCEPMessageAnalyser.NO_ERROR)
+				error = PCEPMessageAnalyser.checkObject(messageType, previousClass, requestCount, objectClass, (wireBytes[offset + 1] & 0xFF) >>> 4, objectLength);
+			if (count + 1 == offsets.length)
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			offsets[count++] = offset;
+			offset += objectLength;
+			previousClass = objectClass;
+			if (objectClass == PCEPMessageAnalyser.RP_CLASS)
+				requestCount++;
+		}
+		if (offset != wireBytes.length)
+			error = PCEPMessageAnalyser.MALFORMED_MESSAGE;
+		if (error == PCEPMessageAnalyser.NO_ERROR)
+			error = PCEPMessageAnalyser.checkEnd(messageType, previousClass, requestCount);
+		formatError = error;
+		offsets[count] = offset;
+		objectOffsets = offsets;
+		objectCount = count;
+		// Pooled containers reuse their arrays, cleared when recycled
+		if (decodedObjects == null || decodedObjects.length < count)
+			decodedObjects = new PCEPObjectFrame[count];
+	}
+
 	public String getMessageString() {
 
 		StringBuffer messageStringBuffer = new StringBuffer();
 		messageStringBuffer.append(messageHeader.getHeaderBinaryString());
 
-		for (short i = 0; i < objectsList.size(); i++) {
-
-			String currentHeaderString = objectsList.get(i).getObjectHeader().getHeaderBinaryString();
-			String currentObjectString = objectsList.get(i).getObjectBinaryString();
-			messageStringBuffer.append(currentHeaderString + currentObjectString);
+		for (PCEPObjectFrame object : getObjectsList()) {
+			messageStringBuffer.append(object.getObjectHeader().getHeaderBinaryString());
+			messageStringBuffer.append(object.getObjectBinaryString());
 		}
 
 		String outputString = messageStringBuffer.toString();
@@ -82,10 +275,137 @@ public class PCEPMessage {
 	}
 	
 	
+	/**
+	 * Buffer over the bytes of a message acquired with
+	 * PCEPMessagePool.acquire(int). The message is encoded through the buffer,
+	 * then its header is decoded with decodeHeader
+	 */
+	public ByteBuffer getWireBuffer() {
+		if (wireBuffer == null)
+			throw new IllegalStateException("Message not acquired from PCEPMessagePool");
+		return wireBuffer;
+	}
+
+	/**
+	 * Decodes the header of a message encoded through getWireBuffer
+	 */
+	public void decodeHeader() {
+		ByteBuffer buffer = getWireBuffer();
+		buffer.clear();
+		messageHeader.decode(buffer);
+	}
+
+	/**
+	 * Buffer holding the encoded message, handed to the network module. The
+	 * buffer is created on the first call and keeps its position, so that a
+	 * partially written message is resumed. A message is written to a single
+	 * connection
+	 */
+	public ByteBuffer getWriteBuffer() {
+		if (writeBuffer == null) {
+			if (wireBuffer != null && wireBytes != null) {
+				wireBuffer.clear();
+				messageHeader.encode(wireBuffer);
+				wireBuffer.clear();
+				writeBuffer = wireBuffer;
+			} else
+				writeBuffer = ByteBuffer.wrap(getMessageByteArray());
+		}
+		return writeBuffer;
+	}
+
+	/**
+	 * Takes a reference on a pooled message, released with release. Messages
+	 * which are not pooled are not counted
+	 */
+	public PCEPMessage retain() {
+		if (pooled) {
+			int count = REFERENCE_COUNT.getAndIncrement(this);
+			if (count <= 0) {
+				REFERENCE_COUNT.getAndDecrement(this);
+				throw new IllegalStateException("Retaining a released message");
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Releases a reference on the message. A pooled message goes back to the
+	 * pool once its last reference is released, and must not be used anymore
+	 * 
+	 * @return true if the message went back to the pool
+	 */
+	public boolean release() {
+		if (!pooled)
+			return false;
+		int count = REFERENCE_COUNT.decrementAndGet(this);
+		if (count > 0)
+			return false;
+		if (count < 0) {
+			REFERENCE_COUNT.getAndIncrement(this);
+			throw new IllegalStateException("Message released more often than retained");
+		}
+		PCEPMessagePool.recycle(this);
+		return true;
+	}
+
+	public boolean isPooled() {
+		return pooled;
+	}
+
+	/**
+	 * Resets a container taken from the pool, with one reference
+	 */
+	void reset() {
+		wireBytes = wireBuffer.array();
+		wireBuffer.clear();
+		objectsList = null;
+		address = null;
+		objectCount = -1;
+		if (decodedObjects != null)
+			Arrays.fill(decodedObjects, null);
+		formatError = PCEPMessageAnalyser.NO_ERROR;
+		writeBuffer = null;
+		referenceCount = 1;
+	}
+
 	public byte[] getMessageByteArray(){
-		byte[] byteArray = PCEPComputationFactory.rawMessageToByteArray(getMessageString());
-		
-		return byteArray;
+		if (wireBytes != null) {
+			// Only the header may have been changed since the message was
+			// received
+			messageHeader.encode(ByteBuffer.wrap(wireBytes));
+			return wireBytes;
+		}
+
+		// Objects without a binary codec are converted from their binary
+		// string first to know the size of the message
+		byte[][] stringEncodedObjects = new byte[objectsList.size()][];
+		int byteLength = PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH / 8;
+		int i = 0;
+		for (PCEPObjectFrame object : objectsList) {
+			if (object instanceof PCEPBinaryObjectFrame) {
+				byteLength += object.getObjectFrameByteLength();
+			} else {
+				stringEncodedObjects[i] = PCEPComputationFactory.rawMessageToByteArray(object.getObjectHeader().getHeaderBinaryString() + object.getObjectBinaryString());
+				byteLength += stringEncodedObjects[i].length;
+			}
+			i++;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(byteLength);
+		messageHeader.encode(buffer);
+		i = 0;
+		for (PCEPObjectFrame object : objectsList) {
+			if (stringEncodedObjects[i] == null) {
+				object.getObjectHeader().encode(buffer);
+				((PCEPBinaryObjectFrame) object).encodeObject(buffer);
+			} else {
+				buffer.put(stringEncodedObjects[i]);
+			}
+			i++;
+		}
+
+		return buffer.array();
 	}
 
 	public PCEPAddress getAddress() {
@@ -99,6 +419,7 @@ public class PCEPMessage {
 	public String toString() {
 		String messageHeaderInfo = messageHeader.toString();
 		StringBuffer objectFrameBuffer = new StringBuffer();
+		LinkedList<PCEPObjectFrame> objectsList = getObjectsList();
 
 		for (short i = 0; i < objectsList.size(); i++) {
 			objectFrameBuffer.append(objectsList.get(i).toString());
@@ -110,6 +431,7 @@ public class PCEPMessage {
 	public String binaryInformation() {
 		String messageHeaderInfo = messageHeader.binaryInformation();
 		StringBuffer objectFrameBuffer = new StringBuffer();
+		LinkedList<PCEPObjectFrame> objectsList = getObjectsList();
 
 		for (short i = 0; i < objectsList.size(); i++) {
 			String msg = objectsList.get(i).binaryInformation();
@@ -124,6 +446,12 @@ public class PCEPMessage {
 
 		objectFrameBuffer.append("[" + NAME + "]");
 
+		// Debugging output does not force the objects to be decoded
+		if (objectsList == null) {
+			objectFrameBuffer.append("[" + (wireBytes.length - PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH / 8) + " Bytes of Objects]");
+			return objectFrameBuffer.toString();
+		}
+
 		for (short i = 0; i < objectsList.size(); i++) {
 /*			System.out.println("*****************************************************");
 			System.out.println("objectList.size() = " + objectsList.size());
@@ -17,67 +17,194 @@
 
 package com.pcee.protocol.message;
 
-import java.util.LinkedList;
-
-import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
-
+/**
+ * Checks of the format of PCEP messages. The checks are made while the
+ * objects of a received message are indexed, in the same pass over the wire
+ * bytes and without decoding the objects. Errors are reported as a PCEP
+ * Error-type and Error-value pair (RFC 5440), encoded as (type << 8) | value.
+ */
 public class PCEPMessageAnalyser {
 
-	public static boolean checkMessageFormat(PCEPMessage message) {
-		PCEPCommonMessageHeader messageHeader = message.getMessageHeader();
-		LinkedList<PCEPObjectFrame> objectsList = message.getObjectsList();
-
-		int messageType = messageHeader.getTypeDecimalValue();
+	// Message types
+	private static final int OPEN_MESSAGE = 1;
+	private static final int PCREQ_MESSAGE = 3;
+	private static final int PCREP_MESSAGE = 4;
+
+	// Object classes
+	private static final int OPEN_CLASS = 1;
+	static final int RP_CLASS = 2;
+	private static final int END_POINTS_CLASS = 4;
+	private static final int METRIC_CLASS = 6;
+	private static final int SVEC_CLASS = 11;
+	private static final int OF_CLASS = 21;
+
+	// Minimum length of the objects of each class, header included, 0 for
+	// classes not in RFC 5440 and RFC 5541
+	private static final int[] MINIMUM_OBJECT_LENGTH = { 0, 8, 12, 8, 12, 8,
+			12, 4, 4, 20, 4, 8, 8, 8, 12, 8, 0, 0, 0, 0, 0, 8 };
+
+	// Value returned for messages without format errors
+	public static final int NO_ERROR = 0;
+
+	// Reception of an invalid Open message or a non Open message
+	public static final int INVALID_OPEN_MESSAGE = error(1, 1);
+
+	// Unrecognized object class and object type
+	public static final int UNKNOWN_OBJECT_CLASS = error(3, 1);
+	public static final int UNKNOWN_OBJECT_TYPE = error(3, 2);
+
+	// Mandatory RP and END-POINTS objects missing
+	public static final int RP_OBJECT_MISSING = error(6, 1);
+	public static final int END_POINTS_OBJECT_MISSING = error(6, 3);
+
+	// Message with a length inconsistent with its header or objects, or an
+	// object shorter than its fixed fields. There is no Error-type for these
+	// messages, the session is closed with the reason malformed message
+	public static final int MALFORMED_MESSAGE = -1;
+
+	private static int error(int type, int value) {
+		return (type << 8) | value;
+	}
 
-		switch (messageType) {
+	/** Function to get the Error-type of a format error */
+	public static int getErrorType(int error) {
+		return error >>> 8;
+	}
 
-		case 0: { // UNDEFIND MSG
-			return false;
-		}
+	/** Function to get the Error-value of a format error */
+	public static int getErrorValue(int error) {
+		return error & 0xFF;
+	}
 
-		case 1: {
+	/**
+	 * Function to get the format error of a message, checked when its
+	 * objects are indexed
+	 * 
+	 * @param message
+	 * @return NO_ERROR, MALFORMED_MESSAGE or an Error-type and Error-value
+	 *         pair
+	 */
+	public static int getFormatError(PCEPMessage message) {
+		return message.getFormatError();
+	}
 
-			if (objectsList.size() > 1) {
-				return false;
-			}
+	public static boolean checkMessageFormat(PCEPMessage message) {
+		return message.getFormatError() == NO_ERROR;
+	}
 
-			PCEPCommonObjectHeader objectHeader = objectsList.get(0).getObjectHeader();
+	/**
+	 * Function to check the common header of a received message
+	 * 
+	 * @param version
+	 * @param headerLength
+	 *            message length in the header
+	 * @param length
+	 *            number of bytes received
+	 * @return
+	 */
+	static int checkHeader(int version, int headerLength, int length) {
+		if (version != 1 || headerLength != length)
+			return MALFORMED_MESSAGE;
+		return NO_ERROR;
+	}
 
-			if (objectHeader.getClassDecimalValue() != 1 || objectHeader.getTypeDecimalValue() != 1) {
-				return false;
-			}
+	/**
+	 * Function to check an object of a received message against the objects
+	 * preceding it
+	 * 
+	 * @param messageType
+	 * @param previousClass
+	 *            class of the previous object, 0 for the first object
+	 * @param requestCount
+	 *            number of RP objects preceding the object
+	 * @param objectClass
+	 * @param objectType
+	 * @param objectLength
+	 * @return
+	 */
+	static int checkObject(int messageType, int previousClass,
+			int requestCount, int objectClass, int objectType, int objectLength) {
+		if (objectLength % 4 != 0)
+			return MALFORMED_MESSAGE;
+		if (objectClass <= 0 || objectClass >= MINIMUM_OBJECT_LENGTH.length
+				|| MINIMUM_OBJECT_LENGTH[objectClass] == 0)
+			return UNKNOWN_OBJECT_CLASS;
+		if (objectType == 0)
+			return UNKNOWN_OBJECT_TYPE;
+		if (objectLength < MINIMUM_OBJECT_LENGTH[objectClass])
+			return MALFORMED_MESSAGE;
 
-			return true; // TODO
+		switch (messageType) {
+		case OPEN_MESSAGE:
+			// A single OPEN object
+			if (objectClass != OPEN_CLASS || previousClass != 0)
+				return INVALID_OPEN_MESSAGE;
+			break;
+		case PCREQ_MESSAGE:
+			// SVEC list, then requests starting with RP and END-POINTS
+			if (previousClass == RP_CLASS && objectClass != END_POINTS_CLASS)
+				return END_POINTS_OBJECT_MISSING;
+			if (requestCount == 0 && objectClass != RP_CLASS
+					&& !isSynchronizationVectorListObject(previousClass, objectClass))
+				return RP_OBJECT_MISSING;
+			break;
+		case PCREP_MESSAGE:
+			// Responses start with RP
+			if (previousClass == 0 && objectClass != RP_CLASS)
+				return RP_OBJECT_MISSING;
+			break;
+		default:
+			break;
 		}
+		return NO_ERROR;
+	}
 
-		case 2: { // KEEPALIVE MSG
-			return true; // TODO
-		}
-		case 3: { // PATH COMPUTATION REQUEST MSG
-			return true; // TODO
-		}
-		case 4: { // PATH COMPUTATION REPLY MSG
-			return true; // TODO
-		}
-		case 5: { // NOTIFICATION MSG
-			return true; // TODO
-		}
-		case 6: { // ERROR MSG
-			return true; // TODO
-		}
-		case 7: { // CLOSE MSG
-			return true; // TODO
-		}
-		default: { // UNDEFIND MSG
+	/**
+	 * Function to check if an object preceding the first request belongs to
+	 * the SVEC list, made of SVEC objects each followed by an optional OF
+	 * object and METRIC objects (RFC 5541)
+	 */
+	private static boolean isSynchronizationVectorListObject(
+			int previousClass, int objectClass) {
+		if (objectClass == SVEC_CLASS)
 			return true;
-		}
+		return previousClass != 0
+				&& (objectClass == OF_CLASS || objectClass == METRIC_CLASS);
+	}
 
+	/**
+	 * Function to check that no mandatory object is missing at the end of a
+	 * received message
+	 * 
+	 * @param messageType
+	 * @param previousClass
+	 *            class of the last object, 0 if the message has no objects
+	 * @param requestCount
+	 *            number of RP objects in the message
+	 * @return
+	 */
+	static int checkEnd(int messageType, int previousClass, int requestCount) {
+		switch (messageType) {
+		case OPEN_MESSAGE:
+			if (previousClass == 0)
+				return INVALID_OPEN_MESSAGE;
+			break;
+		case PCREQ_MESSAGE:
+			if (previousClass == RP_CLASS)
+				return END_POINTS_OBJECT_MISSING;
+			if (requestCount == 0)
+				return RP_OBJECT_MISSING;
+			break;
+		case PCREP_MESSAGE:
+			if (requestCount == 0)
+				return RP_OBJECT_MISSING;
+			break;
+		default:
+			break;
 		}
-
+		return NO_ERROR;
 	}
 
-	
 	public static int checkSessionCharacteristics(PCEPMessage message) {
 		//TODO
 		// 1=acceptable ; 0 = unacceptable&nagotiable ; -1 =
@@ -0,0 +1,210 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.pcee.logger.Logger;
+
+/**
+ * Pool of message containers, each holding the wire bytes of a message of a
+ * given length and a buffer over them. Containers are taken with acquire with
+ * one reference, and go back to the pool when their last reference is
+ * released with PCEPMessage.release. Messages are released once written to
+ * the network or dropped.
+ * 
+ * With leak detection on, the stack of each acquisition is recorded, and
+ * messages collected by the garbage collector without being released are
+ * reported.
+ */
+public class PCEPMessagePool {
+
+	// Longest pooled message, longer messages are allocated on demand
+	static final int MAX_POOLED_LENGTH = 2048;
+
+	// Messages are pooled by length, in multiples of four bytes
+	private static final int LENGTH_UNIT = 4;
+
+	// Containers kept per message length
+	private static int maxPooledMessages = 64;
+
+	private static volatile boolean leakDetection = false;
+
+	private static final Bucket[] buckets = new Bucket[MAX_POOLED_LENGTH
+			/ LENGTH_UNIT + 1];
+
+	static {
+		for (int i = 0; i < buckets.length; i++)
+			buckets[i] = new Bucket();
+	}
+
+	// Records of the messages acquired and not released yet
+	private static final Set<LeakRecord> leakRecords = Collections
+			.synchronizedSet(new HashSet<LeakRecord>());
+
+	private static final ReferenceQueue<PCEPMessage> leakQueue = new ReferenceQueue<PCEPMessage>();
+
+	/** Free containers of one message length */
+	private static class Bucket {
+
+		private PCEPMessage[] messages = new PCEPMessage[4];
+
+		private int count = 0;
+	}
+
+	/** Acquisition of a message, enqueued if the message is collected */
+	static class LeakRecord extends WeakReference<PCEPMessage> {
+
+		private Throwable acquisition;
+
+		LeakRecord(PCEPMessage message) {
+			super(message, leakQueue);
+			acquisition = new Throwable();
+		}
+	}
+
+	/**
+	 * Function to set the number of free containers kept per message length
+	 * 
+	 * @param maxPooledMessages
+	 */
+	public static void setMaxPooledMessages(int maxPooledMessages) {
+		if (maxPooledMessages >= 0)
+			PCEPMessagePool.maxPooledMessages = maxPooledMessages;
+	}
+
+	/**
+	 * Function to turn the detection of messages which are never released on
+	 * or off
+	 * 
+	 * @param leakDetection
+	 */
+	public static void setLeakDetection(boolean leakDetection) {
+		PCEPMessagePool.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Function to acquire a message of the given length, encoded by the caller
+	 * through PCEPMessage.getWireBuffer before calling
+	 * PCEPMessage.decodeHeader
+	 * 
+	 * @param length
+	 * @return
+	 */
+	public static PCEPMessage acquire(int length) {
+		PCEPMessage message = null;
+		boolean pooled = isPooledLength(length);
+		if (pooled) {
+			Bucket bucket = buckets[length / LENGTH_UNIT];
+			synchronized (bucket) {
+				if (bucket.count > 0) {
+					message = bucket.messages[--bucket.count];
+					bucket.messages[bucket.count] = null;
+				}
+			}
+		}
+		if (message == null)
+			message = new PCEPMessage(length, pooled);
+		message.reset();
+
+		if (leakDetection && pooled) {
+			reportLeaks();
+			message.leakRecord = new LeakRecord(message);
+			leakRecords.add(message.leakRecord);
+		}
+		return message;
+	}
+
+	/**
+	 * Function to acquire a message holding a copy of the next bytes of a
+	 * buffer
+	 * 
+	 * @param buffer
+	 *            buffer in read mode, its position is moved past the message
+	 * @param length
+	 *            length of the message
+	 * @return
+	 */
+	public static PCEPMessage acquire(ByteBuffer buffer, int length) {
+		PCEPMessage message = acquire(length);
+		int limit = buffer.limit();
+		buffer.limit(buffer.position() + length);
+		message.getWireBuffer().put(buffer);
+		buffer.limit(limit);
+		message.decodeHeader();
+		return message;
+	}
+
+	/**
+	 * Function to put a message back in the pool once its last reference is
+	 * released
+	 * 
+	 * @param message
+	 */
+	static void recycle(PCEPMessage message) {
+		if (message.leakRecord != null) {
+			leakRecords.remove(message.leakRecord);
+			message.leakRecord.clear();
+			message.leakRecord = null;
+		}
+
+		int length = message.getWireBuffer().capacity();
+		if (!isPooledLength(length))
+			return;
+		Bucket bucket = buckets[length / LENGTH_UNIT];
+		synchronized (bucket) {
+			if (bucket.count >= maxPooledMessages)
+				return;
+			if (bucket.count == bucket.messages.length) {
+				PCEPMessage[] messages = new PCEPMessage[Math.min(
+						maxPooledMessages, bucket.count * 2)];
+				System.arraycopy(bucket.messages, 0, messages, 0, bucket.count);
+				bucket.messages = messages;
+			}
+			bucket.messages[bucket.count++] = message;
+		}
+	}
+
+	private static boolean isPooledLength(int length) {
+		return length >= PCEPConstantValues.COMMON_MESSAGE_HEADER_LENGTH / 8
+				&& length <= MAX_POOLED_LENGTH && length % LENGTH_UNIT == 0;
+	}
+
+	/**
+	 * Function to report the messages collected without being released
+	 */
+	private static void reportLeaks() {
+		LeakRecord record;
+		while ((record = (LeakRecord) leakQueue.poll()) != null) {
+			if (leakRecords.remove(record)) {
+				StringBuilder event = new StringBuilder(
+						"[MessagePool] LEAK: PCEPMessage collected without being released, acquired at");
+				StackTraceElement[] stack = record.acquisition.getStackTrace();
+				// The first frame is the LeakRecord constructor itself
+				for (int i = 1; i < stack.length; i++)
+					event.append("\n\tat ").append(stack[i]);
+				Logger.logError(event.toString());
+			}
+		}
+	}
+}
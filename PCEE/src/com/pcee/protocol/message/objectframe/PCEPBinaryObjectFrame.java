@@ -0,0 +1,38 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Object frame that encodes its body directly into a buffer instead of going
+ * through the binary string representation. Implementations also provide a
+ * constructor taking the decoded common object header and a buffer holding
+ * the object body.
+ */
+public interface PCEPBinaryObjectFrame extends PCEPObjectFrame {
+
+	/**
+	 * Function to encode the object body, without the common object header,
+	 * at the position of the buffer
+	 * 
+	 * @param buffer
+	 */
+	public void encodeObject(ByteBuffer buffer);
+
+}
@@ -17,6 +17,8 @@
 
 package com.pcee.protocol.message.objectframe;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
 
@@ -39,11 +41,11 @@ public class PCEPCommonObjectHeader {
 
 	private final String NAME = "Object Header";
 
-	private String objectClass;
-	private String type;
-	private String reserved;
-	private String length;
-	private String flags;
+	private int objectClass;
+	private int type;
+	private int reserved;
+	private int length;
+	private int flags;
 
 	private int objectClassStartBit = PCEPConstantValues.COMMON_OBJECT_HEADER_CLASS_START_BIT;
 	private int objectClassEndBit = PCEPConstantValues.COMMON_OBJECT_HEADER_CLASS_END_BIT;
@@ -77,19 +79,40 @@ public class PCEPCommonObjectHeader {
 		this.setHeaderBinaryString(binaryString);
 	}
 
+	/**
+	 * Decodes the header from the next four bytes of the buffer
+	 */
+	public PCEPCommonObjectHeader(ByteBuffer buffer) {
+		this.objectClass = buffer.get() & 0xFF;
+		int secondByte = buffer.get() & 0xFF;
+		this.type = secondByte >>> 4;
+		this.reserved = (secondByte >>> 2) & 0x03;
+		this.flags = secondByte & 0x03;
+		this.length = buffer.getShort() & 0xFFFF;
+	}
+
 	public PCEPCommonObjectHeader(int objectClass, int type, String pFlag, String iFlag) {
 		this.setClassDecimalValue(objectClass);
 		this.setTypeDecimalValue(type);
-		this.setReservedBinaryString(PCEPComputationFactory.generateZeroString(reservedLength));
-		this.setFlagsBinaryString(PCEPComputationFactory.generateZeroString(flagsLength));
+		this.reserved = 0;
+		this.flags = 0;
 		this.setPFlagBinaryString(pFlag);
 		this.setIFlagBinaryString(iFlag);
 		this.setLengthDecimalValue(0);
 	}
 
+	/**
+	 * Encodes the header into the next four bytes of the buffer
+	 */
+	public void encode(ByteBuffer buffer) {
+		buffer.put((byte) objectClass);
+		buffer.put((byte) ((type << 4) | (reserved << 2) | flags));
+		buffer.putShort((short) length);
+	}
+
 	public String getHeaderBinaryString() {
-		String binaryString = objectClass + type + reserved + flags + length;
-		return binaryString;
+		long header = ((long) objectClass << 24) | (type << 20) | (reserved << 18) | (flags << 16) | length;
+		return PCEPComputationFactory.toBinaryString(header, PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH);
 	}
 
 	public void setHeaderBinaryString(String binaryString) {
@@ -114,145 +137,130 @@ public class PCEPCommonObjectHeader {
 	 * objectClass
 	 */
 	public int getClassDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(objectClass);
-		return decimalValue;
+		return objectClass;
 	}
 
 	public String getClassBinaryString() {
-		return this.objectClass;
+		return PCEPComputationFactory.toBinaryString(objectClass, objectClassLength);
 	}
 
 	public void setClassDecimalValue(int decimalValue) {
 		int binaryLength = objectClassLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.objectClass = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.objectClass = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setClassBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, objectClassLength);
-		this.objectClass = checkedBinaryString;
+		this.objectClass = (int) PCEPComputationFactory.setBinaryField(binaryString, objectClassLength);
 	}
 
 	public void setClassBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(objectClass, startingBit, binaryString, objectClassLength);
-		this.objectClass = checkedBinaryString;
+		this.objectClass = (int) PCEPComputationFactory.setBinaryField(objectClass, startingBit, binaryString, objectClassLength);
 	}
 
 	/**
 	 * type
 	 */
 	public int getTypeDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(type);
-		return decimalValue;
+		return type;
 	}
 
 	public String getTypeBinaryString() {
-		return this.type;
+		return PCEPComputationFactory.toBinaryString(type, typeLength);
 	}
 
 	public void setTypeDecimalValue(int decimalValue) {
 		int binaryLength = typeLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.type = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.type = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setTypeBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(binaryString, typeLength);
 	}
 
 	public void setTypeBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(type, startingBit, binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(type, startingBit, binaryString, typeLength);
 	}
 
 	/**
 	 * reserved
 	 */
 	public int getReservedDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(reserved);
-		return decimalValue;
+		return reserved;
 	}
 
 	public String getReservedBinaryString() {
-		return this.reserved;
+		return PCEPComputationFactory.toBinaryString(reserved, reservedLength);
 	}
 
 	public void setReservedDecimalValue(int decimalValue) {
 		int binaryLength = reservedLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.reserved = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.reserved = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setReservedBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(binaryString, reservedLength);
 	}
 
 	public void setReservedBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(reserved, startingBit, binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(reserved, startingBit, binaryString, reservedLength);
 	}
 
 	/**
 	 * length
 	 */
 	public int getLengthDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(length);
-		return decimalValue;
+		return length;
 	}
 
 	public String getLengthBinaryString() {
-		return this.length;
+		return PCEPComputationFactory.toBinaryString(length, lengthLength);
 	}
 
 	public void setLengthDecimalValue(int decimalValue) {
 		int binaryLength = lengthLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.length = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.length = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setLengthBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, lengthLength);
-		this.length = checkedBinaryString;
+		this.length = (int) PCEPComputationFactory.setBinaryField(binaryString, lengthLength);
 	}
 
 	public void setLengthBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(length, startingBit, binaryString, lengthLength);
-		this.length = checkedBinaryString;
+		this.length = (int) PCEPComputationFactory.setBinaryField(length, startingBit, binaryString, lengthLength);
 	}
 
 	/**
 	 * flags
 	 */
 	public int getFlagsDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flags);
-		return decimalValue;
+		return flags;
 	}
 
 	public String getFlagsBinaryString() {
-		return this.flags;
+		return PCEPComputationFactory.toBinaryString(flags, flagsLength);
 	}
 
 	public void setFlagsDecimalValue(int decimalValue) {
 		int binaryLength = flagsLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.flags = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.flags = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setFlagsBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(binaryString, flagsLength);
 	}
 
 	public void setFlagsBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, startingBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, startingBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -261,19 +269,16 @@ public class PCEPCommonObjectHeader {
 
 	public int getPFlagDecimalValue() {
 		int relativeStartBit = (pFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + pFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags, flagsLength, relativeStartBit, pFlagLength);
 	}
 
 	public String getPFlagBinaryString() {
-		String binaryString = flags.substring(0, (pFlagStartBit - flagsStartBit) + pFlagLength);
+		String binaryString = getFlagsBinaryString().substring(0, (pFlagStartBit - flagsStartBit) + pFlagLength);
 		return binaryString;
 	}
 
 	public void setPFlagBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(this.flags, (pFlagStartBit - flagsStartBit), binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(this.flags, (pFlagStartBit - flagsStartBit), binaryString, flagsLength);
 	}
 
 	/**
@@ -281,21 +286,18 @@ public class PCEPCommonObjectHeader {
 	 */
 	public int getIFlagDecimalValue() {
 		int relativeStartBit = (iFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + iFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags, flagsLength, relativeStartBit, iFlagLength);
 	}
 
 	public String getIFlagBinaryString() {
 		int relativeStartBit = (iFlagStartBit - flagsStartBit);
-		String binaryString = flags.substring(relativeStartBit, relativeStartBit + iFlagLength);
+		String binaryString = getFlagsBinaryString().substring(relativeStartBit, relativeStartBit + iFlagLength);
 		return binaryString;
 	}
 
 	public void setIFlagBinaryString(String binaryString) {
 		int relativeStartBit = (iFlagStartBit - flagsStartBit);
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, relativeStartBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, relativeStartBit, binaryString, flagsLength);
 	}
 
 	public String toString() {
@@ -17,6 +17,7 @@
 
 package com.pcee.protocol.message.objectframe;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import com.pcee.common.RequestID;
@@ -218,6 +219,33 @@ public class PCEPObjectFrameFactory {
 		return objectArray;
 	}
 
+	/**
+	 * Decodes the objects between the position and the limit of the buffer
+	 */
+	public static LinkedList<PCEPObjectFrame> PCEPObjectFabrication(
+			ByteBuffer buffer) {
+		LinkedList<PCEPObjectFrame> objectArray = new LinkedList<PCEPObjectFrame>();
+
+		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH / 8;
+		while (buffer.remaining() >= headerLength) {
+			int objectLength = buffer.getShort(buffer.position() + 2) & 0xFFFF;
+			if (objectLength < headerLength
+					|| objectLength > buffer.remaining()) {
+				Logger.logWarning("Error at PCEPObjectFabrication. Object length = "
+						+ objectLength + ", remaining bytes = "
+						+ buffer.remaining());
+				break;
+			}
+			ByteBuffer objectBuffer = buffer.slice();
+			objectBuffer.limit(objectLength);
+			buffer.position(buffer.position() + objectLength);
+
+			objectArray.add(getPCEPObjectFrame(objectBuffer));
+		}
+
+		return objectArray;
+	}
+
 	public static void main(String[] args) {
 		String objectString = "00000000100000001000000000000000";
 		String length = objectString.substring(8, 16);
@@ -238,6 +266,48 @@ public class PCEPObjectFrameFactory {
 		PCEPCommonObjectHeader objectHeader = new PCEPCommonObjectHeader(
 				objectHeaderString);
 
+		return getPCEPObjectFrame(objectHeader, objectString);
+	}
+
+	/**
+	 * Decodes an object, objects without a binary codec are decoded from the
+	 * binary string of their body
+	 * 
+	 * @param objectBuffer
+	 *            buffer holding exactly one object, header included
+	 * @return
+	 */
+	public static PCEPObjectFrame getPCEPObjectFrame(ByteBuffer objectBuffer) {
+		PCEPCommonObjectHeader objectHeader = new PCEPCommonObjectHeader(
+				objectBuffer);
+
+		switch (objectHeader.getClassDecimalValue()) {
+		case 2:
+			return new PCEPRequestParametersObject(objectHeader, objectBuffer);
+		case 3:
+			return new PCEPNoPathObject(objectHeader, objectBuffer);
+		case 4:
+			return new PCEPEndPointsObject(objectHeader, objectBuffer);
+		case 5:
+			return new PCEPBandwidthObject(objectHeader, objectBuffer);
+		case 6:
+			return new PCEPMetricObject(objectHeader, objectBuffer);
+		case 7:
+			if (!PCEPGenericExplicitRouteObjectImpl.isDecodable(objectBuffer)) {
+				Logger.logWarning("Error at getPCEPObjectFrame(ByteBuffer). Malformed ERO subobjects, object length = "
+						+ objectHeader.getLengthDecimalValue());
+				return null;
+			}
+			return new PCEPGenericExplicitRouteObjectImpl(objectHeader,
+					objectBuffer);
+		default:
+			return getPCEPObjectFrame(objectHeader,
+					PCEPComputationFactory.byteBufferToRawMessage(objectBuffer));
+		}
+	}
+
+	private static PCEPObjectFrame getPCEPObjectFrame(
+			PCEPCommonObjectHeader objectHeader, String objectString) {
 		switch (objectHeader.getClassDecimalValue()) {
 		case 1:
 			return new PCEPOpenObject(objectHeader, objectString);
@@ -261,6 +331,9 @@ public class PCEPObjectFrameFactory {
 					objectString);
 		case 10:
 			return new PCEPIncludeRouteObject(objectHeader, objectString);
+		case 11:
+			return new PCEPSynchronizationVectorObject(objectHeader,
+					objectString);
 		case 13:
 			return new PCEPErrorObject(objectHeader, objectString);
 		case 14:
@@ -17,10 +17,12 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 
 /**
  * <pre>
@@ -33,7 +35,7 @@ import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
  */
 
 // TODO Change to IEEE Floating point object
-public class PCEPBandwidthObject implements PCEPObjectFrame {
+public class PCEPBandwidthObject implements PCEPBinaryObjectFrame {
 
 	/*public static void main(String[] args) {
 		PCEPBandwidthObject b = new PCEPBandwidthObject(
@@ -55,7 +57,7 @@ public class PCEPBandwidthObject implements PCEPObjectFrame {
 
 	private final String NAME = "Bandwidth";
 
-	private String bandwidth;
+	private int bandwidth;
 
 	private PCEPCommonObjectHeader objectHeader;
 	// private LinkedList<PCEPTLVObject> tlvList;
@@ -71,6 +73,16 @@ public class PCEPBandwidthObject implements PCEPObjectFrame {
 		this.updateHeaderLength();
 	}
 
+	/**
+	 * Decodes the object body from the buffer
+	 */
+	public PCEPBandwidthObject(PCEPCommonObjectHeader objectHeader,
+			ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+		this.bandwidth = buffer.getInt();
+		this.updateHeaderLength();
+	}
+
 	public PCEPBandwidthObject(PCEPCommonObjectHeader objectHeader,
 			float bandwidth) {
 		this.setObjectHeader(objectHeader);
@@ -94,10 +106,14 @@ public class PCEPBandwidthObject implements PCEPObjectFrame {
 	}
 
 	public String getObjectBinaryString() {
-		String binaryString = bandwidth;
+		String binaryString = getBandwidthBinaryString();
 		return binaryString;
 	}
 
+	public void encodeObject(ByteBuffer buffer) {
+		buffer.putInt(bandwidth);
+	}
+
 	public void setObjectBinaryString(String binaryString) {
 		String bandwidthBinaryString = binaryString.substring(
 				bandwidthStartBit, bandwidthEndBit + 1);
@@ -106,7 +122,7 @@ public class PCEPBandwidthObject implements PCEPObjectFrame {
 	}
 
 	public int getObjectFrameByteLength() {
-		int objectLength = bandwidth.length();
+		int objectLength = bandwidthLength;
 		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH;
 		int objectFrameByteLength = (objectLength + headerLength) / 8;
 		return objectFrameByteLength;
@@ -124,31 +140,19 @@ public class PCEPBandwidthObject implements PCEPObjectFrame {
 	 * bandwidth
 	 */
 	public float getBandwidthFloatValue(){
-		return Float.intBitsToFloat(Integer.parseInt(bandwidth, 2));
+		return Float.intBitsToFloat(bandwidth);
 	}
 
 	public String getBandwidthBinaryString(){
-		return this.bandwidth;
+		return PCEPComputationFactory.toBinaryString(bandwidth, bandwidthLength);
 	}
 
 	public void setBandwidthFloatValue(float floatValue){
-
-		int floatBits = Float.floatToIntBits(floatValue);
-
-		String s = Integer.toBinaryString(floatBits);
-
-		if (s.length() > 32){
-			System.out
-					.println("ERROR in PCEPBandwithObject.setBandwidthFloatValue(...)!!! Bandwith value is bigger than 32 bits, exiting now to let you fix it! :P");
-			System.exit(0);
-		}
-		setBandwidthBinaryString(s);
+		this.bandwidth = Float.floatToIntBits(floatValue);
 	}
 
 	public void setBandwidthBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(
-				binaryString, bandwidthLength);
-		this.bandwidth = checkedBinaryString;
+		this.bandwidth = (int) PCEPComputationFactory.setBinaryField(binaryString, bandwidthLength);
 	}
 
 	public String toString() {
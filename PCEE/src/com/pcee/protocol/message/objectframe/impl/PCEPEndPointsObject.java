@@ -17,10 +17,12 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
 
 /**
@@ -35,12 +37,12 @@ import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
  * </pre>
  */
 
-public class PCEPEndPointsObject implements PCEPObjectFrame {
+public class PCEPEndPointsObject implements PCEPBinaryObjectFrame {
 
 	private final String NAME = "End-Points";
 
-	private String sourceAddress;
-	private String destinationAddress;
+	private int sourceAddress;
+	private int destinationAddress;
 
 	private PCEPCommonObjectHeader objectHeader;
 	// private LinkedList<PCEPTLVObject> tlvList;
@@ -60,12 +62,23 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 		this.updateHeaderLength();
 	}
 
+	/**
+	 * Decodes the object body from the buffer
+	 */
+	public PCEPEndPointsObject(PCEPCommonObjectHeader objectHeader,
+			ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+		this.sourceAddress = buffer.getInt();
+		this.destinationAddress = buffer.getInt();
+		this.updateHeaderLength();
+	}
+
 	public PCEPEndPointsObject(PCEPCommonObjectHeader objectHeader,
 			PCEPAddress sourceAddress, PCEPAddress destinationAddress) {
 		this.setObjectHeader(objectHeader);
-		this.setSourceAddressBinaryString(sourceAddress.getIPv4BinaryAddress());
-		this.setDestinationAddressBinaryString(destinationAddress
-				.getIPv4BinaryAddress());
+		this.sourceAddress = sourceAddress.getIPv4AddressDecimalValue();
+		this.destinationAddress = destinationAddress
+				.getIPv4AddressDecimalValue();
 		this.updateHeaderLength();
 	}
 
@@ -86,10 +99,16 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	}
 
 	public String getObjectBinaryString() {
-		String binaryString = sourceAddress + destinationAddress;
+		String binaryString = getSourceAddressBinaryString()
+				+ getDestinationAddressBinaryString();
 		return binaryString;
 	}
 
+	public void encodeObject(ByteBuffer buffer) {
+		buffer.putInt(sourceAddress);
+		buffer.putInt(destinationAddress);
+	}
+
 	public void setObjectBinaryString(String binaryString) {
 		String sourceAddressBinaryString = binaryString.substring(
 				sourceAddressStartBit, sourceAddressEndBit + 1);
@@ -101,7 +120,7 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	}
 
 	public int getObjectFrameByteLength() {
-		int objectLength = sourceAddress.length() + destinationAddress.length();
+		int objectLength = sourceAddressLength + destinationAddressLength;
 		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH;
 		int objectFrameByteLength = (objectLength + headerLength) / 8;
 		return objectFrameByteLength;
@@ -118,12 +137,12 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	/**
 	 * sourceAddress
 	 */
-	// public int getSourceAddressDecimalValue() {
-	// int decimalValue = (int) getDecimalValue(sourceAddress);
-	// return decimalValue;
-	// }
+	public int getSourceAddressDecimalValue() {
+		return sourceAddress;
+	}
+
 	public String getSourceAddressBinaryString() {
-		return this.sourceAddress;
+		return PCEPComputationFactory.toBinaryString(sourceAddress, sourceAddressLength);
 	}
 
 	// public void setSourceAddressDecimalValue(int decimalValue) {
@@ -135,9 +154,7 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	// binaryLength);
 	// }
 	public void setSourceAddressBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(
-				binaryString, sourceAddressLength);
-		this.sourceAddress = checkedBinaryString;
+		this.sourceAddress = (int) PCEPComputationFactory.setBinaryField(binaryString, sourceAddressLength);
 	}
 
 	/*
@@ -150,12 +167,12 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	/**
 	 * destinationAddress
 	 */
-	// public int getDestinationAddressDecimalValue() {
-	// int decimalValue = (int) getDecimalValue(destinationAddress);
-	// return decimalValue;
-	// }
+	public int getDestinationAddressDecimalValue() {
+		return destinationAddress;
+	}
+
 	public String getDestinationAddressBinaryString() {
-		return this.destinationAddress;
+		return PCEPComputationFactory.toBinaryString(destinationAddress, destinationAddressLength);
 	}
 
 	// public void setDestinationAddressDecimalValue(int decimalValue) {
@@ -167,25 +184,19 @@ public class PCEPEndPointsObject implements PCEPObjectFrame {
 	// binaryLength);
 	// }
 	public void setDestinationAddressBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(
-				binaryString, destinationAddressLength);
-		this.destinationAddress = checkedBinaryString;
+		this.destinationAddress = (int) PCEPComputationFactory.setBinaryField(binaryString, destinationAddressLength);
 	}
 
 	public void setDestinationAddressBinaryString(int startingBit,
 			String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(
-				destinationAddress, startingBit, binaryString,
-				destinationAddressLength);
-		this.destinationAddress = checkedBinaryString;
+		this.destinationAddress = (int) PCEPComputationFactory.setBinaryField(destinationAddress & 0xFFFFFFFFL, startingBit, binaryString, destinationAddressLength);
 	}
 
 	public String toString() {
 
-		PCEPAddress sourceAddress = new PCEPAddress(
-				this.getSourceAddressBinaryString());
+		PCEPAddress sourceAddress = new PCEPAddress(this.sourceAddress);
 		PCEPAddress destinationAddress = new PCEPAddress(
-				this.getDestinationAddressBinaryString());
+				this.destinationAddress);
 
 		String sourceAddressInfo = "SourceAddress="
 				+ sourceAddress.getIPv4Address(false);
@@ -17,10 +17,13 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
+import com.pcee.logger.Logger;
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
 import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROUnnumberedInterface;
@@ -41,7 +44,7 @@ import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
  */
 
 // TODO Generate methods to split and identify objects
-public class PCEPGenericExplicitRouteObjectImpl extends PCEPExplicitRouteObject {
+public class PCEPGenericExplicitRouteObjectImpl extends PCEPExplicitRouteObject implements PCEPBinaryObjectFrame {
 
 	private final String NAME = "Explicit Route Object";
 
@@ -57,6 +60,42 @@ public class PCEPGenericExplicitRouteObjectImpl extends PCEPExplicitRouteObject
 		this.updateHeaderLength();
 	}
 
+	/**
+	 * Decodes the subobjects from the buffer, decoding stops at the first
+	 * subobject which cannot be decoded. Use isDecodable() to reject such
+	 * objects beforehand
+	 */
+	public PCEPGenericExplicitRouteObjectImpl(PCEPCommonObjectHeader objectHeader, ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+
+		ArrayList<EROSubobjects> vertexList = new ArrayList<EROSubobjects>();
+		while (buffer.hasRemaining()) {
+			EROSubobjects temp = EROSubobjects.decode(buffer);
+			if (temp == null) {
+				Logger.logWarning("Error at " + NAME + ". Subobject type = " + (buffer.get(buffer.position()) & 0x7F) + ", remaining bytes = " + buffer.remaining());
+				break;
+			}
+			vertexList.add(temp);
+		}
+
+		setTraversedVertexList(vertexList);
+		this.updateHeaderLength();
+	}
+
+	/**
+	 * Checks that every subobject from the position of the buffer to its
+	 * limit can be decoded, without moving the buffer
+	 */
+	public static boolean isDecodable(ByteBuffer buffer) {
+		ByteBuffer subobjects = buffer.duplicate();
+		while (subobjects.hasRemaining()) {
+			if (!EROSubobjects.isDecodable(subobjects))
+				return false;
+			subobjects.position(subobjects.position() + (subobjects.get(subobjects.position() + 1) & 0xFF));
+		}
+		return true;
+	}
+
 	public PCEPGenericExplicitRouteObjectImpl(PCEPCommonObjectHeader objectHeader, ArrayList<EROSubobjects> traversedVertexList) {
 		this.setObjectHeader(objectHeader);
 		this.setTraversedVertexList(traversedVertexList);
@@ -91,6 +130,12 @@ public class PCEPGenericExplicitRouteObjectImpl extends PCEPExplicitRouteObject
 		return subObjectsStringBuffer.toString();
 	}
 
+	public void encodeObject(ByteBuffer buffer) {
+		for (int i = 0; i < traversedVertexList.size(); i++) {
+			traversedVertexList.get(i).encode(buffer);
+		}
+	}
+
 	public void setObjectBinaryString(String binaryString) {
 
 		ArrayList<EROSubobjects> vertexList = new ArrayList<EROSubobjects>();
@@ -73,6 +73,9 @@ public class PCEPIncludeRouteObject implements PCEPObjectFrame {
 	}
 
 	public String getObjectBinaryString() {
+		// Received objects keep their subobjects as a binary string
+		if (subObjects == null)
+			return objectsString;
 
 		StringBuffer subObjectsStringBuffer = new StringBuffer();
 
@@ -112,6 +115,8 @@ public class PCEPIncludeRouteObject implements PCEPObjectFrame {
 	}
 
 	private int getSubObjectsBinaryLength() {
+		if (subObjects == null)
+			return objectsString.length() / 8;
 		int length = 0;
 		for (int i = 0; i < subObjects.size(); i++) {
 			length += subObjects.get(i).getObjectFrameByteLength();
@@ -126,9 +131,12 @@ public class PCEPIncludeRouteObject implements PCEPObjectFrame {
 		StringBuffer objectInfo = new StringBuffer();
 
 		objectInfo.append("<Include Route Object:");
-		for (int i = 0; i < subObjects.size(); i++) {
-			objectInfo.append(subObjects.get(i).toString());
-		}
+		if (subObjects == null)
+			objectInfo.append("Subobjects=" + getSubObjectsBinaryLength() + " bytes");
+		else
+			for (int i = 0; i < subObjects.size(); i++) {
+				objectInfo.append(subObjects.get(i).toString());
+			}
 		objectInfo.append(">");
 
 		return headerInfo + objectInfo;
@@ -140,9 +148,12 @@ public class PCEPIncludeRouteObject implements PCEPObjectFrame {
 
 		StringBuffer objectInfo = new StringBuffer();
 
-		for (int i = 0; i < subObjects.size(); i++) {
-			objectInfo.append(subObjects.get(i).binaryInformation());
-		}
+		if (subObjects == null)
+			objectInfo.append("[" + objectsString + "]");
+		else
+			for (int i = 0; i < subObjects.size(); i++) {
+				objectInfo.append(subObjects.get(i).binaryInformation());
+			}
 
 		return headerInfo + objectInfo;
 	}
@@ -17,10 +17,12 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 
 /**
  * <pre>
@@ -33,14 +35,14 @@ import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
  * +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
  * </pre>
  */
-public class PCEPMetricObject implements PCEPObjectFrame {
+public class PCEPMetricObject implements PCEPBinaryObjectFrame {
 
 	private final String NAME = "Metric";
 
-	private String reserved;
-	private String type;
-	private String metricValue;
-	private String flags;
+	private int reserved;
+	private int type;
+	private int metricValue;
+	private int flags;
 
 	private PCEPCommonObjectHeader objectHeader;
 	// private LinkedList<PCEPTLVObject> tlvList;
@@ -88,15 +90,30 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 */
 	public PCEPMetricObject(PCEPCommonObjectHeader objectHeader, String cFlag, String bFlag, int type, float metricValue) {
 		this.setObjectHeader(objectHeader);
-		this.setReservedBinaryString(PCEPComputationFactory.generateZeroString(reservedLength));
-		this.setFlagsBinaryString(PCEPComputationFactory.generateZeroString(flagsLength));
+		this.reserved = 0;
+		this.flags = 0;
 		this.setCFlagBinaryString(cFlag);
 		this.setBFlagBinaryString(bFlag);
 		this.setTypeDecimalValue(type);
-		this.setMetricValueBinaryString(Integer.toBinaryString(Float.floatToIntBits(metricValue)));
+		this.metricValue = Float.floatToIntBits(metricValue);
 		this.updateHeaderLength();
 	}
 	
+	/**
+	 * Decodes the object body from the buffer
+	 * 
+	 * @param objectHeader
+	 * @param buffer
+	 */
+	public PCEPMetricObject(PCEPCommonObjectHeader objectHeader, ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+		this.reserved = buffer.getShort() & 0xFFFF;
+		this.flags = buffer.get() & 0xFF;
+		this.type = buffer.get() & 0xFF;
+		this.metricValue = buffer.getInt();
+		this.updateHeaderLength();
+	}
+
 	public PCEPMetricObject(){}
 
 	/**
@@ -125,10 +142,20 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @see com.pcee.protocol.message.objectframe.PCEPObjectFrame#getObjectBinaryString()
 	 */
 	public String getObjectBinaryString() {
-		String binaryString = reserved + flags + type + metricValue;
+		String binaryString = getReservedBinaryString() + getFlagsBinaryString() + getTypeBinaryString() + getMetricValueBinaryString();
 		return binaryString;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame#encodeObject(java.nio.ByteBuffer)
+	 */
+	public void encodeObject(ByteBuffer buffer) {
+		buffer.putShort((short) reserved);
+		buffer.put((byte) flags);
+		buffer.put((byte) type);
+		buffer.putInt(metricValue);
+	}
+
 	/* (non-Javadoc)
 	 * @see com.pcee.protocol.message.objectframe.PCEPObjectFrame#setObjectBinaryString(java.lang.String)
 	 */
@@ -152,7 +179,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @see com.pcee.protocol.message.objectframe.PCEPObjectFrame#getObjectFrameByteLength()
 	 */
 	public int getObjectFrameByteLength() {
-		int objectLength = reserved.length() + flags.length() + type.length() + (metricValue+"").length();
+		int objectLength = reservedLength + flagsLength + typeLength + metricValueLength;
 		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH;
 		int objectFrameByteLength = (objectLength + headerLength) / 8;
 		return objectFrameByteLength;
@@ -172,15 +199,14 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * reserved
 	 */
 	public String getReservedBinaryString() {
-		return this.reserved;
+		return PCEPComputationFactory.toBinaryString(reserved, reservedLength);
 	}
 
 	/**
 	 * @param binaryString
 	 */
 	public void setReservedBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(binaryString, reservedLength);
 	}
 
 	/**
@@ -188,23 +214,21 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @param binaryString
 	 */
 	public void setReservedBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(reserved, startingBit, binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(reserved, startingBit, binaryString, reservedLength);
 	}
 
 	/**
 	 * type
 	 */
 	public int getTypeDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(type);
-		return decimalValue;
+		return type;
 	}
 
 	/**
 	 * @return
 	 */
 	public String getTypeBinaryString() {
-		return this.type;
+		return PCEPComputationFactory.toBinaryString(type, typeLength);
 	}
 
 	/**
@@ -214,15 +238,14 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 		int binaryLength = typeLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.type = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.type = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	/**
 	 * @param binaryString
 	 */
 	public void setTypeBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(binaryString, typeLength);
 	}
 
 	/**
@@ -230,30 +253,28 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @param binaryString
 	 */
 	public void setTypeBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(type, startingBit, binaryString, typeLength);
-		this.type = checkedBinaryString;
+		this.type = (int) PCEPComputationFactory.setBinaryField(type, startingBit, binaryString, typeLength);
 	}
 
 	/**
 	 * metricValue
 	 */
 	public String getMetricValueBinaryString() {
-		return this.metricValue+"";
+		return PCEPComputationFactory.toBinaryString(metricValue, metricValueLength);
 	}
 	
 	/**
 	 * delayValue
 	 */
 	public float getDelayFloatValue(){
-		return Float.intBitsToFloat(Integer.parseInt(metricValue, 2));
+		return Float.intBitsToFloat(metricValue);
 	}
 
 	/**
 	 * @param binaryString
 	 */
 	public void setMetricValueBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString,metricValueLength);
-		this.metricValue = checkedBinaryString;
+		this.metricValue = (int) PCEPComputationFactory.setBinaryField(binaryString, metricValueLength);
 	}
 	
 	/**
@@ -261,23 +282,21 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @param binaryString
 	 */
 	public void setMetricValueBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(String.valueOf(metricValue), startingBit, binaryString, metricValueLength);
-		this.metricValue = checkedBinaryString;
+		this.metricValue = (int) PCEPComputationFactory.setBinaryField(metricValue & 0xFFFFFFFFL, startingBit, binaryString, metricValueLength);
 	}
 	
 	/**
 	 * flags
 	 */
 	public int getFlagsDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flags);
-		return decimalValue;
+		return flags;
 	}
 
 	/**
 	 * @return
 	 */
 	public String getFlagsBinaryString() {
-		return this.flags;
+		return PCEPComputationFactory.toBinaryString(flags, flagsLength);
 	}
 
 	/**
@@ -287,15 +306,14 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 		int binaryLength = flagsLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.flags = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.flags = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	/**
 	 * @param binaryString
 	 */
 	public void setFlagsBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(binaryString, flagsLength);
 	}
 
 	/**
@@ -303,8 +321,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @param binaryString
 	 */
 	public void setFlagsBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, startingBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, startingBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -313,16 +330,14 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 
 	public int getCFlagDecimalValue() {
 		int relativeStartBit = (cFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + cFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags, flagsLength, relativeStartBit, cFlagLength);
 	}
 
 	/**
 	 * @return
 	 */
 	public String getCFlagBinaryString() {
-		String binaryString = flags.substring(0, (cFlagStartBit - flagsStartBit) + cFlagLength);
+		String binaryString = getFlagsBinaryString().substring(0, (cFlagStartBit - flagsStartBit) + cFlagLength);
 		return binaryString;
 	}
 
@@ -330,8 +345,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 * @param binaryString
 	 */
 	public void setCFlagBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(this.flags, (cFlagStartBit - flagsStartBit), binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, (cFlagStartBit - flagsStartBit), binaryString, flagsLength);
 	}
 
 	/**
@@ -339,9 +353,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 */
 	public int getBFlagDecimalValue() {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + bFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags, flagsLength, relativeStartBit, bFlagLength);
 	}
 
 	/**
@@ -349,7 +361,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 */
 	public String getBFlagBinaryString() {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String binaryString = flags.substring(relativeStartBit, relativeStartBit + bFlagLength);
+		String binaryString = getFlagsBinaryString().substring(relativeStartBit, relativeStartBit + bFlagLength);
 		return binaryString;
 	}
 
@@ -358,8 +370,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 	 */
 	public void setBFlagBinaryString(String binaryString) {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, relativeStartBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, relativeStartBit, binaryString, flagsLength);
 	}
 
 	/* (non-Javadoc)
@@ -406,7 +417,7 @@ public class PCEPMetricObject implements PCEPObjectFrame {
 		Integer.valueOf(value,2);
 		System.out.println("length: "+ Integer.toBinaryString(Float.floatToIntBits(245.9f)).length());
 		System.out.println("float value : " + Integer.toBinaryString(Float.floatToIntBits(245.9f)));
-		System.out.println("Binary presentation of metric value: " + Integer.valueOf(object.metricValue,2));
+		System.out.println("Binary presentation of metric value: " + Integer.valueOf(object.getMetricValueBinaryString(),2));
 		System.out.println("value of value after : "+ Integer.valueOf(value,2));
 	}
 
@@ -17,10 +17,12 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 
 /**
  * <pre>
@@ -36,13 +38,13 @@ import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
  * </pre>
  */
 
-public class PCEPNoPathObject implements PCEPObjectFrame {
+public class PCEPNoPathObject implements PCEPBinaryObjectFrame {
 
 	private final String NAME = "No-Path";
 
-	private String natureOfIssue;
-	private String reserved;
-	private String flags;
+	private int natureOfIssue;
+	private int reserved;
+	private int flags;
 
 	private PCEPCommonObjectHeader objectHeader;
 	// private LinkedList<PCEPTLVObject> tlvList;
@@ -69,12 +71,23 @@ public class PCEPNoPathObject implements PCEPObjectFrame {
 		this.updateHeaderLength();
 	}
 
+	/**
+	 * Decodes the object body from the buffer
+	 */
+	public PCEPNoPathObject(PCEPCommonObjectHeader objectHeader, ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+		this.natureOfIssue = buffer.get() & 0xFF;
+		this.flags = buffer.getShort() & 0xFFFF;
+		this.reserved = buffer.get() & 0xFF;
+		this.updateHeaderLength();
+	}
+
 	public PCEPNoPathObject(PCEPCommonObjectHeader objectHeader, int natureOfIssue, String constraintsFlag) {
 		this.setObjectHeader(objectHeader);
 		this.setNatureOfIssueDecimalValue(natureOfIssue);
-		this.setFlagsBinaryString(PCEPComputationFactory.generateZeroString(flagsLength));
+		this.flags = 0;
 		this.setConstraintsFlagBinaryString(constraintsFlag);
-		this.setReservedBinaryString(PCEPComputationFactory.generateZeroString(reservedLength));
+		this.reserved = 0;
 		this.updateHeaderLength();
 	}
 
@@ -95,10 +108,16 @@ public class PCEPNoPathObject implements PCEPObjectFrame {
 	}
 
 	public String getObjectBinaryString() {
-		String binaryString = natureOfIssue + flags + reserved;
+		String binaryString = getNatureOfIssueBinaryString() + getFlagsBinaryString() + getReservedBinaryString();
 		return binaryString;
 	}
 
+	public void encodeObject(ByteBuffer buffer) {
+		buffer.put((byte) natureOfIssue);
+		buffer.putShort((short) flags);
+		buffer.put((byte) reserved);
+	}
+
 	public void setObjectBinaryString(String binaryString) {
 		String natureOfIssueBinaryString = binaryString.substring(natureOfIssueStartBit, natureOfIssueEndBit + 1);
 		String flagsBinaryString = binaryString.substring(flagsStartBit, flagsEndBit + 1);
@@ -112,7 +131,7 @@ public class PCEPNoPathObject implements PCEPObjectFrame {
 	}
 
 	public int getObjectFrameByteLength() {
-		int objectLength = natureOfIssue.length() + flags.length() + reserved.length();
+		int objectLength = natureOfIssueLength + flagsLength + reservedLength;
 		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH;
 		int objectFrameByteLength = (objectLength + headerLength) / 8;
 		return objectFrameByteLength;
@@ -129,87 +148,78 @@ public class PCEPNoPathObject implements PCEPObjectFrame {
 	 * natureOfIssue
 	 */
 	public int getNatureOfIssueDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(natureOfIssue);
-		return decimalValue;
+		return natureOfIssue;
 	}
 
 	public String getNatureOfIssueBinaryString() {
-		return this.natureOfIssue;
+		return PCEPComputationFactory.toBinaryString(natureOfIssue, natureOfIssueLength);
 	}
 
 	public void setNatureOfIssueDecimalValue(int decimalValue) {
 		int binaryLength = natureOfIssueLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.natureOfIssue = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.natureOfIssue = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setNatureOfIssueBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, natureOfIssueLength);
-		this.natureOfIssue = checkedBinaryString;
+		this.natureOfIssue = (int) PCEPComputationFactory.setBinaryField(binaryString, natureOfIssueLength);
 	}
 
 	public void setNatureOfIssueBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(natureOfIssue, startingBit, binaryString, natureOfIssueLength);
-		this.natureOfIssue = checkedBinaryString;
+		this.natureOfIssue = (int) PCEPComputationFactory.setBinaryField(natureOfIssue, startingBit, binaryString, natureOfIssueLength);
 	}
 
 	/**
 	 * reserved
 	 */
 	public int getReservedDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(reserved);
-		return decimalValue;
+		return reserved;
 	}
 
 	public String getReservedBinaryString() {
-		return this.reserved;
+		return PCEPComputationFactory.toBinaryString(reserved, reservedLength);
 	}
 
 	public void setReservedDecimalValue(int decimalValue) {
 		int binaryLength = reservedLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.reserved = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.reserved = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setReservedBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(binaryString, reservedLength);
 	}
 
 	public void setReservedBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(reserved, startingBit, binaryString, reservedLength);
-		this.reserved = checkedBinaryString;
+		this.reserved = (int) PCEPComputationFactory.setBinaryField(reserved, startingBit, binaryString, reservedLength);
 	}
 
 	/**
 	 * flags
 	 */
 	public int getFlagsDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flags);
-		return decimalValue;
+		return flags;
 	}
 
 	public String getFlagsBinaryString() {
-		return this.flags;
+		return PCEPComputationFactory.toBinaryString(flags, flagsLength);
 	}
 
 	public void setFlagsDecimalValue(int decimalValue) {
 		int binaryLength = flagsLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.flags = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.flags = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setFlagsBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(binaryString, flagsLength);
 	}
 
 	public void setFlagsBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, startingBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, startingBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -218,19 +228,16 @@ public class PCEPNoPathObject implements PCEPObjectFrame {
 
 	public int getConstraintsFlagDecimalValue() {
 		int relativeStartBit = (constraintsFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + constraintsFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags, flagsLength, relativeStartBit, constraintsFlagLength);
 	}
 
 	public String getConstraintsFlagBinaryString() {
-		String binaryString = flags.substring(0, (constraintsFlagStartBit - flagsStartBit) + constraintsFlagLength);
+		String binaryString = getFlagsBinaryString().substring(0, (constraintsFlagStartBit - flagsStartBit) + constraintsFlagLength);
 		return binaryString;
 	}
 
 	public void setConstraintsFlagBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(this.flags, (constraintsFlagStartBit - flagsStartBit), binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags, (constraintsFlagStartBit - flagsStartBit), binaryString, flagsLength);
 	}
 
 	public String toString() {
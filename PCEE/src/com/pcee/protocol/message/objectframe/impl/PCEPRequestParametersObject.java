@@ -17,10 +17,12 @@
 
 package com.pcee.protocol.message.objectframe.impl;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 import com.pcee.protocol.message.PCEPConstantValues;
+import com.pcee.protocol.message.objectframe.PCEPBinaryObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
 
 /**
@@ -39,12 +41,12 @@ import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
  * </pre>
  */
 
-public class PCEPRequestParametersObject implements PCEPObjectFrame {
+public class PCEPRequestParametersObject implements PCEPBinaryObjectFrame {
 
 	private final String NAME = "Request Parameters";
 
-	private String requestIDNumber;
-	private String flags;
+	private int requestIDNumber;
+	private int flags;
 
 	private PCEPCommonObjectHeader objectHeader;
 	// private LinkedList<PCEPTLVObject> tlvList;
@@ -79,9 +81,19 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 		this.updateHeaderLength();
 	}
 
+	/**
+	 * Decodes the object body from the buffer
+	 */
+	public PCEPRequestParametersObject(PCEPCommonObjectHeader objectHeader, ByteBuffer buffer) {
+		this.setObjectHeader(objectHeader);
+		this.flags = buffer.getInt();
+		this.requestIDNumber = buffer.getInt();
+		this.updateHeaderLength();
+	}
+
 	public PCEPRequestParametersObject(PCEPCommonObjectHeader objectHeader, String oFlag, String bFlag, String rFlag, String priFlag, String requestIDNumber) {
 		this.setObjectHeader(objectHeader);
-		this.setFlagsBinaryString(PCEPComputationFactory.generateZeroString(flagsLength));
+		this.flags = 0;
 		this.setOFlagBinaryString(oFlag);
 		this.setBFlagBinaryString(bFlag);
 		this.setRFlagBinaryString(rFlag);
@@ -112,10 +124,15 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	}
 
 	public String getObjectBinaryString() {
-		String binaryString = flags + requestIDNumber;
+		String binaryString = getFlagsBinaryString() + getRequestIDNumberBinaryString();
 		return binaryString;
 	}
 
+	public void encodeObject(ByteBuffer buffer) {
+		buffer.putInt(flags);
+		buffer.putInt(requestIDNumber);
+	}
+
 	public void setObjectBinaryString(String binaryString) {
 		String flagsBinaryString = binaryString.substring(flagsStartBit, flagsEndBit + 1);
 		String oFlagBinaryString = binaryString.substring(oFlagStartBit, oFlagEndBit + 1);
@@ -133,7 +150,7 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	}
 
 	public int getObjectFrameByteLength() {
-		int objectLength = flags.length() + requestIDNumber.length();
+		int objectLength = flagsLength + requestIDNumberLength;
 		int headerLength = PCEPConstantValues.COMMON_OBJECT_HEADER_LENGTH;
 		int objectFrameByteLength = (objectLength + headerLength) / 8;
 		return objectFrameByteLength;
@@ -150,29 +167,26 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	 * requestIDNumber
 	 */
 	public int getRequestIDNumberDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(requestIDNumber);
-		return decimalValue;
+		return requestIDNumber;
 	}
 
 	public String getRequestIDNumberBinaryString() {
-		return this.requestIDNumber;
+		return PCEPComputationFactory.toBinaryString(requestIDNumber, requestIDNumberLength);
 	}
 
 	public void setRequestIDNumberDecimalValue(int decimalValue) {
 		int binaryLength = requestIDNumberLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength-1);
 
-		this.requestIDNumber = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.requestIDNumber = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setRequestIDNumberBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, requestIDNumberLength);
-		this.requestIDNumber = checkedBinaryString;
+		this.requestIDNumber = (int) PCEPComputationFactory.setBinaryField(binaryString, requestIDNumberLength);
 	}
 
 	public void setRequestIDNumberBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(requestIDNumber, startingBit, binaryString, requestIDNumberLength);
-		this.requestIDNumber = checkedBinaryString;
+		this.requestIDNumber = (int) PCEPComputationFactory.setBinaryField(requestIDNumber & 0xFFFFFFFFL, startingBit, binaryString, requestIDNumberLength);
 	}
 
 	/**
@@ -183,7 +197,7 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	// return decimalValue;
 	// }
 	public String getFlagsBinaryString() {
-		return this.flags;
+		return PCEPComputationFactory.toBinaryString(flags, flagsLength);
 	}
 
 	// public void setFlagsDecimalValue(int decimalValue) {
@@ -194,13 +208,11 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	// this.flags = this.setDecimalValue(decimalValue, maxValue, binaryLength);
 	// }
 	public void setFlagsBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(binaryString, flagsLength);
 	}
 
 	public void setFlagsBinaryString(int startingBit, String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, startingBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags & 0xFFFFFFFFL, startingBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -209,19 +221,16 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 
 	public int getOFlagDecimalValue() {
 		int relativeStartBit = (oFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + oFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags & 0xFFFFFFFFL, flagsLength, relativeStartBit, oFlagLength);
 	}
 
 	public String getOFlagBinaryString() {
-		String binaryString = flags.substring(0, (oFlagStartBit - flagsStartBit) + oFlagLength);
+		String binaryString = getFlagsBinaryString().substring(0, (oFlagStartBit - flagsStartBit) + oFlagLength);
 		return binaryString;
 	}
 
 	public void setOFlagBinaryString(String binaryString) {
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(this.flags, (oFlagStartBit - flagsStartBit), binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(this.flags & 0xFFFFFFFFL, (oFlagStartBit - flagsStartBit), binaryString, flagsLength);
 	}
 
 	/**
@@ -229,21 +238,18 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	 */
 	public int getBFlagDecimalValue() {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + bFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags & 0xFFFFFFFFL, flagsLength, relativeStartBit, bFlagLength);
 	}
 
 	public String getBFlagBinaryString() {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String binaryString = flags.substring(relativeStartBit, relativeStartBit + bFlagLength);
+		String binaryString = getFlagsBinaryString().substring(relativeStartBit, relativeStartBit + bFlagLength);
 		return binaryString;
 	}
 
 	public void setBFlagBinaryString(String binaryString) {
 		int relativeStartBit = (bFlagStartBit - flagsStartBit);
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, relativeStartBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags & 0xFFFFFFFFL, relativeStartBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -251,21 +257,18 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	 */
 	public int getRFlagDecimalValue() {
 		int relativeStartBit = (rFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + rFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags & 0xFFFFFFFFL, flagsLength, relativeStartBit, rFlagLength);
 	}
 
 	public String getRFlagBinaryString() {
 		int relativeStartBit = (rFlagStartBit - flagsStartBit);
-		String binaryString = flags.substring(relativeStartBit, relativeStartBit + rFlagLength);
+		String binaryString = getFlagsBinaryString().substring(relativeStartBit, relativeStartBit + rFlagLength);
 		return binaryString;
 	}
 
 	public void setRFlagBinaryString(String binaryString) {
 		int relativeStartBit = (rFlagStartBit - flagsStartBit);
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, relativeStartBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags & 0xFFFFFFFFL, relativeStartBit, binaryString, flagsLength);
 	}
 
 	/**
@@ -273,21 +276,18 @@ public class PCEPRequestParametersObject implements PCEPObjectFrame {
 	 */
 	public int getPriFlagDecimalValue() {
 		int relativeStartBit = (priFlagStartBit - flagsStartBit);
-		String flagString = flags.substring(relativeStartBit, relativeStartBit + priFlagLength);
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(flagString);
-		return decimalValue;
+		return PCEPComputationFactory.getBitField(flags & 0xFFFFFFFFL, flagsLength, relativeStartBit, priFlagLength);
 	}
 
 	public String getPriFlagBinaryString() {
 		int relativeStartBit = (priFlagStartBit - flagsStartBit);
-		String binaryString = flags.substring(relativeStartBit, relativeStartBit + priFlagLength);
+		String binaryString = getFlagsBinaryString().substring(relativeStartBit, relativeStartBit + priFlagLength);
 		return binaryString;
 	}
 
 	public void setPriFlagBinaryString(String binaryString) {
 		int relativeStartBit = (priFlagStartBit - flagsStartBit);
-		String checkedBinaryString = PCEPComputationFactory.setBinaryString(flags, relativeStartBit, binaryString, flagsLength);
-		this.flags = checkedBinaryString;
+		this.flags = (int) PCEPComputationFactory.setBinaryField(flags & 0xFFFFFFFFL, relativeStartBit, binaryString, flagsLength);
 	}
 
 	public String toString() {
@@ -69,7 +69,8 @@ public class PCEPSynchronizationVectorObject implements PCEPObjectFrame {
 	private int lFlagLength = PCEPConstantValues.SVEC_OBJECT_FLAG_L_LENGTH;
 
 	/**
-	 * Testconstructor, not implemented for the requestIDNumbers
+	 * Constructor for received objects, the request ID numbers follow the
+	 * flags
 	 */
 	public PCEPSynchronizationVectorObject(PCEPCommonObjectHeader objectHeader, String binaryString) {
 		this.setObjectHeader(objectHeader);
@@ -129,6 +130,12 @@ public class PCEPSynchronizationVectorObject implements PCEPObjectFrame {
 		this.setSFlagBinaryString(sFlagBinaryString);
 		this.setNFlagBinaryString(nFlagBinaryString);
 		this.setLFlagBinaryString(lFlagBinaryString);
+
+		LinkedList<String> requestIDNumbers = new LinkedList<String>();
+		int requestIDNumberLength = PCEPConstantValues.REQUEST_PARAMETERS_OBJECT_REQUEST_ID_NUMBER_LENGTH;
+		for (int i = flagsEndBit + 1; i + requestIDNumberLength <= binaryString.length(); i += requestIDNumberLength)
+			requestIDNumbers.add(binaryString.substring(i, i + requestIDNumberLength));
+		this.requestIDNumbers = requestIDNumbers;
 	}
 
 	public int getObjectFrameByteLength() {
@@ -146,6 +153,10 @@ public class PCEPSynchronizationVectorObject implements PCEPObjectFrame {
 		return headerBinaryString + objectBinaryString;
 	}
 
+	public LinkedList<String> getRequestIDNumbers() {
+		return requestIDNumbers;
+	}
+
 	private int getRequestIDNumbersLength() {
 		int length = 0;
 		for (int i = 0; i < requestIDNumbers.size(); i++) {
@@ -1,5 +1,7 @@
 package com.pcee.protocol.message.objectframe.impl.erosubobjects;
 
+import java.nio.ByteBuffer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 
 /**
@@ -65,6 +67,74 @@ public abstract class EROSubobjects {
 	 public abstract void setObjectBinaryString(String binaryString) ;  
 
 	 public abstract int getByteLength() ;
+
+	 /**
+	  * Function to encode the subobject at the position of the buffer,
+	  * subobjects without a binary codec go through their binary string
+	  */
+	 public void encode(ByteBuffer buffer) {
+		 buffer.put(PCEPComputationFactory.rawMessageToByteArray(getObjectBinaryString()));
+	 }
+
+	 /**
+	  * Function to get the length in bytes of the subobjects of a type
+	  * 
+	  * @return the length, or -1 for a type which cannot be decoded
+	  */
+	 public static int getSubobjectLength(int type) {
+		 switch (type) {
+		 case PCEPIPv4AddressType:
+		 case PCEPMLDelimiterType:
+		 case PCEPLabelEROSubobjectType:
+			 return 8;
+		 case PCEPUnnumberedInterfaceType:
+			 return 12;
+		 default:
+			 return -1;
+		 }
+	 }
+
+	 /**
+	  * Function to check that the subobject at the position of the buffer
+	  * can be decoded: its type is known, its length byte matches the type
+	  * and the buffer holds the whole subobject
+	  */
+	 public static boolean isDecodable(ByteBuffer buffer) {
+		 int start = buffer.position();
+		 if (buffer.remaining() < 2)
+			 return false;
+		 int length = buffer.get(start + 1) & 0xFF;
+		 return length == getSubobjectLength(buffer.get(start) & 0x7F)
+				 && length <= buffer.remaining();
+	 }
+
+	 /**
+	  * Function to decode the subobject at the position of the buffer, the
+	  * buffer is moved past the subobject
+	  * 
+	  * @return the subobject, or null if it cannot be decoded, in which case
+	  *         the buffer is not moved
+	  */
+	 public static EROSubobjects decode(ByteBuffer buffer) {
+		 if (!isDecodable(buffer))
+			 return null;
+		 int start = buffer.position();
+		 int type = buffer.get(start) & 0x7F;
+		 int length = buffer.get(start + 1) & 0xFF;
+		 if (type == PCEPIPv4AddressType)
+			 return new PCEPAddress(buffer);
+
+		 byte[] subobject = new byte[length];
+		 buffer.get(subobject);
+		 String binaryString = PCEPComputationFactory.byteArrayToRawMessage(subobject);
+		 if (type == PCEPUnnumberedInterfaceType)
+			 return new EROUnnumberedInterface(binaryString);
+		 else if (type == PCEPMLDelimiterType)
+			 return new MLDelimiter(binaryString);
+		 else if (type == PCEPLabelEROSubobjectType)
+			 return LabelEROSubobject.getObjectFromBinaryString(binaryString);
+		 return null;
+	 }
 	 /**
 	  * lFlag
 	  */
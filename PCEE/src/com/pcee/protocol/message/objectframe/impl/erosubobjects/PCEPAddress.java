@@ -17,7 +17,9 @@
 
 package com.pcee.protocol.message.objectframe.impl.erosubobjects;
 
+import java.nio.ByteBuffer;
 import java.util.StringTokenizer;
+
 import com.pcee.protocol.message.PCEPComputationFactory;
 
 public class PCEPAddress extends EROSubobjects {
@@ -35,9 +37,9 @@ public class PCEPAddress extends EROSubobjects {
 	 */
 
 
-	private String IPv4Address;
-	private String prefixLength;
-	private String reserved;
+	private int IPv4Address;
+	private int prefixLength;
+	private int reserved;
 
 	private int IPv4AddressStartBit = 16;
 	private int IPv4AddressEndBit = 47;
@@ -53,6 +55,19 @@ public class PCEPAddress extends EROSubobjects {
 
 	private int port; // Not serialized, kind of an attachment
 
+	// Not serialized, ID of the connection on which the address was received,
+	// -1 if the address does not designate an open connection
+	private int connectionId = -1;
+
+	// Not serialized, hash of the address and port computed on first use and
+	// used to pin the session of the address to a session thread, 0 until
+	// computed
+	private int sessionHash = 0;
+
+	// Not serialized, key of the address and port in the session and request
+	// maps of the modules, created on first use
+	private Long addressKey;
+
 	// Only used in PCEPEndPointsObject for 32 bit input
 	public PCEPAddress(String binaryString) {
 		NAME="PCEPAddress";
@@ -61,7 +76,6 @@ public class PCEPAddress extends EROSubobjects {
 			this.setTypeDecimalValue(EROSubobjects.PCEPIPv4AddressType);
 			this.setLengthDecimalValue(8);
 			this.setIPv4AddressBinaryString(binaryString, true);
-			String tmp = getIPv4Address();
 //			System.out.println("****" + tmp);
 			this.setPrefixLengthDecimalValue(32);
 			this.setReservedDecimalValue(0);
@@ -105,6 +119,32 @@ public class PCEPAddress extends EROSubobjects {
 		this.port = port;
 	}
 
+	// IPv4 prefix subobject for a 32 bit address, used to build EROs from
+	// interned vertex addresses
+	public PCEPAddress(int address) {
+		NAME="PCEPAddress";
+		this.setLFlagDecimalValue(0);
+		this.setTypeDecimalValue(EROSubobjects.PCEPIPv4AddressType);
+		this.setLengthDecimalValue(8);
+		this.IPv4Address = address;
+		this.setPrefixLengthDecimalValue(32);
+		this.setReservedDecimalValue(0);
+		this.port = 4189;
+	}
+
+	// Decodes the subobject at the position of the buffer
+	public PCEPAddress(ByteBuffer buffer) {
+		NAME="PCEPAddress";
+		int firstByte = buffer.get() & 0xFF;
+		this.setLFlagDecimalValue(firstByte >>> 7);
+		this.setTypeDecimalValue(firstByte & 0x7F);
+		this.setLengthDecimalValue(buffer.get() & 0xFF);
+		this.IPv4Address = buffer.getInt();
+		this.prefixLength = buffer.get() & 0xFF;
+		this.reserved = buffer.get() & 0xFF;
+		this.port = 4189;
+	}
+
 	public static void main(String[] args) {
 		PCEPAddress a = new PCEPAddress("192.168.1.2", false);
 		System.out.println(a);
@@ -123,10 +163,18 @@ public class PCEPAddress extends EROSubobjects {
 	 * Object
 	 */
 	public String serialize() {
-		String binaryString = lFlag + type + length + IPv4Address + prefixLength + reserved;
+		String binaryString = lFlag + type + length + getIPv4BinaryAddress() + getPrefixLengthBinaryString() + getReservedBinaryString();
 		return binaryString;
 	}
 
+	public void encode(ByteBuffer buffer) {
+		buffer.put((byte) ((getLFlagDecimalValue() << 7) | getTypeDecimalValue()));
+		buffer.put((byte) getLengthDecimalValue());
+		buffer.putInt(IPv4Address);
+		buffer.put((byte) prefixLength);
+		buffer.put((byte) reserved);
+	}
+
 	public void deserialize(String binaryString) {
 		String lFlagBinaryString = binaryString.substring(lFlagStartBit, lFlagEndBit + 1);
 		String typeBinaryString = binaryString.substring(typeStartBit, typeEndBit + 1);
@@ -144,7 +192,7 @@ public class PCEPAddress extends EROSubobjects {
 	}
 
 	public int getByteLength() {
-		int objectLength = lFlag.length() + prefixLength.length() + type.length() + length.length() + IPv4Address.length() + reserved.length();
+		int objectLength = lFlag.length() + prefixLengthLength + type.length() + length.length() + IPv4AddressLength + reservedLength;
 		int objectFrameByteLength = objectLength / 8;
 
 		return objectFrameByteLength;
@@ -157,7 +205,7 @@ public class PCEPAddress extends EROSubobjects {
 	 */
 	public String getIPv4Address(boolean withPort) {
 
-		String address = convertBinaryAddressToAddress(IPv4Address);
+		String address = PCEPComputationFactory.convertDecimalAddressToAddress(IPv4Address);
 
 		if (withPort) {
 			return address + ":" + port;
@@ -167,25 +215,33 @@ public class PCEPAddress extends EROSubobjects {
 	}
 
 	public String getIPv4Address() {
-		String address = convertBinaryAddressToAddress(IPv4Address) + ":" + port;
+		String address = PCEPComputationFactory.convertDecimalAddressToAddress(IPv4Address) + ":" + port;
 
 		return address;
 	}
 
 	public String getIPv4BinaryAddress() {
+		return PCEPComputationFactory.toBinaryString(IPv4Address, IPv4AddressLength);
+	}
+
+	public int getIPv4AddressDecimalValue() {
 		return IPv4Address;
 	}
 
 	public void setIPv4AddressBinaryString(String binaryString, boolean binaryRepresentation) {
+		sessionHash = 0;
+		addressKey = null;
 
 		if (binaryRepresentation) {
-			String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, IPv4AddressLength);
-			String tmp = convertBinaryAddressToAddress(binaryString);
-			this.IPv4Address = checkedBinaryString;
+			this.IPv4Address = (int) PCEPComputationFactory.setBinaryField(binaryString, IPv4AddressLength);
 		} else {
-			String address = convertAddressToBinaryAddress(binaryString);
-			String checkedBinaryString = PCEPComputationFactory.setBinaryString(address, IPv4AddressLength); //TODO CHECK
-			this.IPv4Address = checkedBinaryString;
+			long address = PCEPComputationFactory.convertAddressToDecimalAddress(binaryString);
+			if (address >= 0) {
+				this.IPv4Address = (int) address;
+			} else {
+				String binaryAddress = convertAddressToBinaryAddress(binaryString);
+				this.IPv4Address = (int) PCEPComputationFactory.setBinaryField(binaryAddress, IPv4AddressLength); //TODO CHECK
+			}
 		}
 
 	}
@@ -194,58 +250,102 @@ public class PCEPAddress extends EROSubobjects {
 	 * prefixLength
 	 */
 	public int getPrefixLengthDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(prefixLength);
-		return decimalValue;
+		return prefixLength;
 	}
 
 	public String getPrefixLengthBinaryString() {
-		return this.prefixLength;
+		return PCEPComputationFactory.toBinaryString(prefixLength, prefixLengthLength);
 	}
 
 	public void setPrefixLengthDecimalValue(int decimalValue) {
 		int binaryLength = prefixLengthLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.prefixLength = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.prefixLength = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setPrefixLengthBinaryString(String binaryString) {
 		//	String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, prefixLengthLength);
-		this.prefixLength = binaryString;
+		this.prefixLength = (int) PCEPComputationFactory.getDecimalValue(binaryString);
 	}
 
 	/**
 	 * reserved
 	 */
 	public int getReservedDecimalValue() {
-		int decimalValue = (int) PCEPComputationFactory.getDecimalValue(reserved);
-		return decimalValue;
+		return reserved;
 	}
 
 	public String getReservedBinaryString() {
-		return this.reserved;
+		return PCEPComputationFactory.toBinaryString(reserved, reservedLength);
 	}
 
 	public void setReservedDecimalValue(int decimalValue) {
 		int binaryLength = reservedLength;
 		int maxValue = (int) PCEPComputationFactory.MaxValueFabrication(binaryLength);
 
-		this.reserved = PCEPComputationFactory.setDecimalValue(decimalValue, maxValue, binaryLength);
+		this.reserved = PCEPComputationFactory.checkInputDecimalValue(decimalValue, maxValue);
 	}
 
 	public void setReservedBinaryString(String binaryString) {
 		//	String checkedBinaryString = PCEPComputationFactory.setBinaryString(binaryString, reservedLength);
-		this.reserved = binaryString;
+		this.reserved = (int) PCEPComputationFactory.getDecimalValue(binaryString);
 	}
 
 	public void setPort(int port) {
 		this.port = port;
+		sessionHash = 0;
+		addressKey = null;
 	}
 
 	public int getPort() {
 		return port;
 	}
 
+	public void setConnectionId(int connectionId) {
+		this.connectionId = connectionId;
+	}
+
+	public int getConnectionId() {
+		return connectionId;
+	}
+
+	/**
+	 * Hash of the address and port, equal for all address objects designating
+	 * the same session and computed only once per object
+	 */
+	public int getSessionHash() {
+		int hash = sessionHash;
+		if (hash == 0) {
+			// Mix the bits so that consecutive ports and addresses spread
+			hash = IPv4Address * 31 + port;
+			hash ^= hash >>> 16;
+			hash *= 0x85EBCA6B;
+			hash ^= hash >>> 13;
+			hash *= 0xC2B2AE35;
+			hash ^= hash >>> 16;
+			if (hash == 0)
+				hash = 1;
+			sessionHash = hash;
+		}
+		return hash;
+	}
+
+	/**
+	 * Key of the address and port, equal for all address objects designating
+	 * the same session and created only once per object, so that the maps of
+	 * the modules are not keyed by address strings
+	 */
+	public Long getAddressKey() {
+		Long key = addressKey;
+		if (key == null) {
+			key = Long.valueOf(((long) IPv4Address << 32)
+					| (port & 0xFFFFFFFFL));
+			addressKey = key;
+		}
+		return key;
+	}
+
 	/**
 	 * HELPER
 	 */
@@ -275,29 +375,6 @@ public class PCEPAddress extends EROSubobjects {
 
 	}
 
-	private String convertBinaryAddressToAddress(String binaryAddress) {
-		StringBuffer addressStringBuffer = new StringBuffer();
-
-		while (!binaryAddress.isEmpty()) {
-			addressStringBuffer.append(".");
-
-			String token = binaryAddress.substring(0, 8);
-			binaryAddress = binaryAddress.substring(8);
-
-			String reversedToken = token;
-			int intToken = Integer.valueOf(reversedToken, 2).intValue();
-			String stringToken = Integer.toString(intToken);
-
-			addressStringBuffer.append(stringToken);
-		}
-
-		// removes the first dot!
-		String addressString = addressStringBuffer.toString().substring(1);
-
-		return addressString;
-
-	}
-
 	/**
 	 * OUTPUT
 	 */
@@ -17,7 +17,10 @@
 
 package com.pcee.protocol.request;
 
+import java.util.Arrays;
 import java.util.LinkedList;
+
+import com.pcee.protocol.message.PCEPMessage;
 import com.pcee.protocol.message.PCEPMessageFrame;
 import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 import com.pcee.protocol.message.objectframe.impl.PCEPBandwidthObject;
@@ -70,6 +73,48 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	PCEPLoadBalancingObject loadBalancing;
 	PCEPObjectiveFunctionObject of;
 
+	// Classes of the objects decoded on first access
+	static final int RP_CLASS = 2;
+	static final int END_POINTS_CLASS = 4;
+	static final int BANDWIDTH_CLASS = 5;
+	static final int RRO_CLASS = 8;
+	static final int LSPA_CLASS = 9;
+	static final int IRO_CLASS = 10;
+	static final int LOAD_BALANCING_CLASS = 14;
+
+	// Received message holding the objects which are not decoded yet
+	private PCEPMessage message;
+
+	// Index in the message of the object of each class not decoded yet, -1
+	// if the object is absent or decoded
+	private int[] encodedObjectIndex;
+
+	/**
+	 * Request frame reading its objects from a received message, each object
+	 * is decoded the first time it is extracted
+	 */
+	PCEPRequestFrame(PCEPMessage message) {
+		this.message = message;
+		this.encodedObjectIndex = new int[LOAD_BALANCING_CLASS + 1];
+		Arrays.fill(encodedObjectIndex, -1);
+	}
+
+	void setEncodedObject(int objectClass, int index) {
+		encodedObjectIndex[objectClass] = index;
+	}
+
+	private boolean isEncoded(int objectClass) {
+		return encodedObjectIndex != null
+				&& encodedObjectIndex[objectClass] >= 0;
+	}
+
+	private PCEPObjectFrame decodeObject(int objectClass) {
+		PCEPObjectFrame object = message
+				.getObject(encodedObjectIndex[objectClass]);
+		encodedObjectIndex[objectClass] = -1;
+		return object;
+	}
+
 	public PCEPRequestFrame(PCEPRequestParametersObject RP,
 			PCEPEndPointsObject endPoints) {
 		this.RP = RP;
@@ -97,15 +142,26 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public int getRequestID() {
-		return RP.getRequestIDNumberDecimalValue();
+		return extractRequestParametersObject().getRequestIDNumberDecimalValue();
 	}
 
 	public PCEPAddress getSourceAddress() {
-		return new PCEPAddress(endPoints.getSourceAddressBinaryString());
+		return new PCEPAddress(extractEndPointsObject().getSourceAddressBinaryString());
 	}
 
 	public PCEPAddress getDestinationAddress() {
-		return new PCEPAddress(endPoints.getDestinationAddressBinaryString());
+		return new PCEPAddress(extractEndPointsObject().getDestinationAddressBinaryString());
+	}
+
+	// 32 bit values of the end points, used to resolve vertices without
+	// building PCEPAddress objects
+
+	public int getSourceAddressDecimalValue() {
+		return extractEndPointsObject().getSourceAddressDecimalValue();
+	}
+
+	public int getDestinationAddressDecimalValue() {
+		return extractEndPointsObject().getDestinationAddressDecimalValue();
 	}
 
 
@@ -184,13 +240,23 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	
+	public PCEPRequestParametersObject extractRequestParametersObject() {
+		if (RP == null && isEncoded(RP_CLASS))
+			RP = (PCEPRequestParametersObject) decodeObject(RP_CLASS);
+		return RP;
+	}
+
 	public PCEPEndPointsObject extractEndPointsObject() {
+		if (endPoints == null && isEncoded(END_POINTS_CLASS))
+			endPoints = (PCEPEndPointsObject) decodeObject(END_POINTS_CLASS);
 		if (containsEndPointsObject())
 			return endPoints;
 		return null;
 	}
 
 	public PCEPLabelSwitchedPathAttributesObject extractLabelSwitchedPathAttributesObject() {
+		if (LSPA == null && isEncoded(LSPA_CLASS))
+			LSPA = (PCEPLabelSwitchedPathAttributesObject) decodeObject(LSPA_CLASS);
 		if (containsLabelSwitchedPathAttributesObject()) {
 			return LSPA;
 		}
@@ -198,6 +264,8 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public PCEPBandwidthObject extractBandwidthObject() {
+		if (bandwidth == null && isEncoded(BANDWIDTH_CLASS))
+			bandwidth = (PCEPBandwidthObject) decodeObject(BANDWIDTH_CLASS);
 		if (containsBandwidthObject()) {
 			return bandwidth;
 		}
@@ -212,6 +280,8 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public PCEPReportedRouteObject extractReportedRouteObject() {
+		if (RRO == null && isEncoded(RRO_CLASS))
+			RRO = (PCEPReportedRouteObject) decodeObject(RRO_CLASS);
 		if (containsReportedRouteObject()) {
 			return RRO;
 		}
@@ -219,6 +289,8 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public PCEPIncludeRouteObject extractIncludeRouteObject() {
+		if (IRO == null && isEncoded(IRO_CLASS))
+			IRO = (PCEPIncludeRouteObject) decodeObject(IRO_CLASS);
 		if (containsIncludeRouteObject()) {
 			return IRO;
 		}
@@ -226,6 +298,8 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public PCEPLoadBalancingObject extractLoadBalancingObject() {
+		if (loadBalancing == null && isEncoded(LOAD_BALANCING_CLASS))
+			loadBalancing = (PCEPLoadBalancingObject) decodeObject(LOAD_BALANCING_CLASS);
 		if (containsLoadBalancingObject()) {
 			return loadBalancing;
 		}
@@ -243,7 +317,7 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 
 	
 	public boolean containsEndPointsObject() {
-		if (endPoints == null)
+		if (endPoints == null && !isEncoded(END_POINTS_CLASS))
 			return false;
 		return true;
 	}
@@ -256,14 +330,14 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public boolean containsLabelSwitchedPathAttributesObject() {
-		if (LSPA == null) {
+		if (LSPA == null && !isEncoded(LSPA_CLASS)) {
 			return false;
 		}
 		return true;
 	}
 
 	public boolean containsBandwidthObject() {
-		if (bandwidth == null) {
+		if (bandwidth == null && !isEncoded(BANDWIDTH_CLASS)) {
 			return false;
 		}
 		return true;
@@ -277,21 +351,21 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 	}
 
 	public boolean containsReportedRouteObject() {
-		if (RRO == null) {
+		if (RRO == null && !isEncoded(RRO_CLASS)) {
 			return false;
 		}
 		return true;
 	}
 
 	public boolean containsIncludeRouteObject() {
-		if (IRO == null) {
+		if (IRO == null && !isEncoded(IRO_CLASS)) {
 			return false;
 		}
 		return true;
 	}
 
 	public boolean containsLoadBalancingObject() {
-		if (loadBalancing == null) {
+		if (loadBalancing == null && !isEncoded(LOAD_BALANCING_CLASS)) {
 			return false;
 		}
 		return true;
@@ -309,15 +383,15 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 
-		length += RP.getObjectFrameByteLength();
+		length += extractRequestParametersObject().getObjectFrameByteLength();
 		if (containsEndPointsObject())
-			length += endPoints.getObjectFrameByteLength();
+			length += extractEndPointsObject().getObjectFrameByteLength();
 
 		if (containsLabelSwitchedPathAttributesObject()) {
-			length += LSPA.getObjectFrameByteLength();
+			length += extractLabelSwitchedPathAttributesObject().getObjectFrameByteLength();
 		}
 		if (containsBandwidthObject()) {
-			length += bandwidth.getObjectFrameByteLength();
+			length += extractBandwidthObject().getObjectFrameByteLength();
 		}
 		if (containsMetricObjectList()) {
 			for (int i = 0; i < metricList.size(); i++) {
@@ -325,13 +399,13 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 		if (containsReportedRouteObject()) {
-			length += RRO.getObjectFrameByteLength();
+			length += extractReportedRouteObject().getObjectFrameByteLength();
 		}
 		if (containsIncludeRouteObject()) {
-			length += IRO.getObjectFrameByteLength();
+			length += extractIncludeRouteObject().getObjectFrameByteLength();
 		}
 		if (containsLoadBalancingObject()) {
-			length += loadBalancing.getObjectFrameByteLength();
+			length += extractLoadBalancingObject().getObjectFrameByteLength();
 		}
 		
 		if (containsObjectiveFunctionObject()){
@@ -352,14 +426,14 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 
-		objectsString.append(RP.getObjectFrameBinaryString());
-		objectsString.append(endPoints.getObjectFrameBinaryString());
+		objectsString.append(extractRequestParametersObject().getObjectFrameBinaryString());
+		objectsString.append(extractEndPointsObject().getObjectFrameBinaryString());
 
 		if (containsLabelSwitchedPathAttributesObject()) {
-			objectsString.append(LSPA.getObjectFrameBinaryString());
+			objectsString.append(extractLabelSwitchedPathAttributesObject().getObjectFrameBinaryString());
 		}
 		if (containsBandwidthObject()) {
-			objectsString.append(bandwidth.getObjectFrameBinaryString());
+			objectsString.append(extractBandwidthObject().getObjectFrameBinaryString());
 		}
 		if (containsMetricObjectList()) {
 			for (int i = 0; i < metricList.size(); i++) {
@@ -368,13 +442,13 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 		if (containsReportedRouteObject()) {
-			objectsString.append(RRO.getObjectFrameBinaryString());
+			objectsString.append(extractReportedRouteObject().getObjectFrameBinaryString());
 		}
 		if (containsIncludeRouteObject()) {
-			objectsString.append(IRO.getObjectFrameBinaryString());
+			objectsString.append(extractIncludeRouteObject().getObjectFrameBinaryString());
 		}
 		if (containsIncludeRouteObject()) {
-			objectsString.append(loadBalancing.getObjectFrameBinaryString());
+			objectsString.append(extractLoadBalancingObject().getObjectFrameBinaryString());
 		}
 
 		if (containsObjectiveFunctionObject()){
@@ -394,16 +468,16 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 
-		requestObjects.add(RP);
+		requestObjects.add(extractRequestParametersObject());
 
 		if (containsEndPointsObject())
-			requestObjects.add(endPoints);
+			requestObjects.add(extractEndPointsObject());
 
 		if (containsLabelSwitchedPathAttributesObject()) {
-			requestObjects.add(LSPA);
+			requestObjects.add(extractLabelSwitchedPathAttributesObject());
 		}
 		if (containsBandwidthObject()) {
-			requestObjects.add(bandwidth);
+			requestObjects.add(extractBandwidthObject());
 		}
 		if (containsMetricObjectList()) {
 			for (int i = 0; i < metricList.size(); i++) {
@@ -411,13 +485,13 @@ public class PCEPRequestFrame implements PCEPMessageFrame {
 			}
 		}
 		if (containsReportedRouteObject()) {
-			requestObjects.add(RRO);
+			requestObjects.add(extractReportedRouteObject());
 		}
 		if (containsIncludeRouteObject()) {
-			requestObjects.add(IRO);
+			requestObjects.add(extractIncludeRouteObject());
 		}
 		if (containsLoadBalancingObject()) {
-			requestObjects.add(loadBalancing);
+			requestObjects.add(extractLoadBalancingObject());
 		}
 
 		if (containsObjectiveFunctionObject()) {
@@ -21,15 +21,9 @@ import java.util.LinkedList;
 
 
 import com.pcee.protocol.message.PCEPMessage;
-import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
-import com.pcee.protocol.message.objectframe.PCEPObjectFrame;
 import com.pcee.protocol.message.objectframe.impl.PCEPBandwidthObject;
 import com.pcee.protocol.message.objectframe.impl.PCEPEndPointsObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPIncludeRouteObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPLabelSwitchedPathAttributesObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPLoadBalancingObject;
 import com.pcee.protocol.message.objectframe.impl.PCEPMetricObject;
-import com.pcee.protocol.message.objectframe.impl.PCEPReportedRouteObject;
 import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
 import com.pcee.protocol.message.objectframe.impl.PCEPSynchronizationVectorObject;
 
@@ -49,29 +43,26 @@ public class PCEPRequestFrameFactory {
 		return requestFrame;
 	}
 	
+	/**
+	 * Builds the request frame of a received message from an index of its
+	 * objects. Only the SVEC and METRIC objects are decoded here, the other
+	 * objects are decoded when they are extracted from the frame
+	 */
 	public static PCEPRequestFrame getPathComputationRequestFrame(PCEPMessage message) {
 
 		LinkedList<PCEPSynchronizationVectorObject> SVECList = null;
-		PCEPRequestParametersObject RP = null;
-		PCEPEndPointsObject endPoints = null;
-		PCEPLabelSwitchedPathAttributesObject LSPA = null;
-		PCEPBandwidthObject bandwidth = null;
 		LinkedList<PCEPMetricObject> metricList = null;
-		PCEPReportedRouteObject RRO = null;
-		PCEPIncludeRouteObject IRO = null;
-		PCEPLoadBalancingObject loadBalancing = null;
 //		PCEPGeneralizedEndPointsTNAObject generalizedEndPointTNA = null;
-		LinkedList<PCEPObjectFrame> objectList = message.getObjectsList();
+		PCEPRequestFrame requestFrame = new PCEPRequestFrame(message);
 
-		for (int i = 0; i < objectList.size(); i++) {
+		for (int i = 0; i < message.getObjectCount(); i++) {
 
-			PCEPObjectFrame objectFrame = objectList.get(i);
-			PCEPCommonObjectHeader objectFrameHeader = objectFrame.getObjectHeader();
+			int objectClass = message.getObjectClass(i);
 
-			switch (objectFrameHeader.getClassDecimalValue()) {
+			switch (objectClass) {
 
 			case 11: {
-				PCEPSynchronizationVectorObject SVEC = (PCEPSynchronizationVectorObject) objectFrame;
+				PCEPSynchronizationVectorObject SVEC = (PCEPSynchronizationVectorObject) message.getObject(i);
 
 				if (SVECList != null) {
 					SVECList.add(SVEC);
@@ -83,27 +74,19 @@ public class PCEPRequestFrameFactory {
 				break;
 			}
 
-			case 2: {
-				RP = (PCEPRequestParametersObject) objectFrame;
-				break;
-			}
-			case 4: {
-				//generalizedEndPointTNA = (PCEPGeneralizedEndPointsTNAObject) objectFrame;
-				endPoints = (PCEPEndPointsObject) objectFrame;
-				break;
-			}
-			case 9: {
-				LSPA = (PCEPLabelSwitchedPathAttributesObject) objectFrame;
-				break;
-			}
-
-			case 5: {
-				bandwidth = (PCEPBandwidthObject) objectFrame;
+			case PCEPRequestFrame.RP_CLASS:
+			case PCEPRequestFrame.END_POINTS_CLASS:
+			case PCEPRequestFrame.LSPA_CLASS:
+			case PCEPRequestFrame.BANDWIDTH_CLASS:
+			case PCEPRequestFrame.RRO_CLASS:
+			case PCEPRequestFrame.IRO_CLASS:
+			case PCEPRequestFrame.LOAD_BALANCING_CLASS: {
+				requestFrame.setEncodedObject(objectClass, i);
 				break;
 			}
 
 			case 6: {
-				PCEPMetricObject metricObject = (PCEPMetricObject) objectFrame;
+				PCEPMetricObject metricObject = (PCEPMetricObject) message.getObject(i);
 
 				if (metricList != null) {
 					metricList.add(metricObject);
@@ -115,21 +98,6 @@ public class PCEPRequestFrameFactory {
 				break;
 			}
 
-			case 8: {
-				RRO = (PCEPReportedRouteObject) objectFrame;
-				break;
-			}
-
-			case 10: {
-				IRO = (PCEPIncludeRouteObject) objectFrame;
-				break;
-			}
-
-			case 14: {
-				loadBalancing = (PCEPLoadBalancingObject) objectFrame;
-				break;
-			}
-
 			
 			default: {
 				break;
@@ -139,34 +107,12 @@ public class PCEPRequestFrameFactory {
 
 		}
 
-		PCEPRequestFrame requestFrame = new PCEPRequestFrame(RP, endPoints);
-
-		if(endPoints !=null){
-			requestFrame = new PCEPRequestFrame(RP,endPoints);
-		}
-		
-		
 		if (SVECList != null) {
 			requestFrame.insertSynchronizationVectorObjectList(SVECList);
 		}
-		if (LSPA != null) {
-			requestFrame.insertLabelSwitchedPathAttributesObject(LSPA);
-		}
-		if (bandwidth != null) {
-			requestFrame.insertBandwidthObject(bandwidth);
-		}
 		if (metricList != null) {
 			requestFrame.insertMetricObjectList(metricList);
 		}
-		if (RRO != null) {
-			requestFrame.insertReportedRouteObject(RRO);
-		}
-		if (IRO != null) {
-			requestFrame.insertIncludeRouteObject(IRO);
-		}
-		if (loadBalancing != null) {
-			requestFrame.insertLoadBalancingObject(loadBalancing);
-		}
 
 		//if(generalizedEndPointTNA!=null){
 			//requestFrame = new PCEPRequestFrame(RP,generalizedEndPointTNA);
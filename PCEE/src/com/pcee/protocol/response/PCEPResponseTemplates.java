@@ -0,0 +1,220 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.response;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessageFactory;
+import com.pcee.protocol.message.PCEPMessagePool;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
+
+/**
+ * Encoded PCRep messages for the common reply shapes. The messages are
+ * encoded once with the object factories, each reply copies the template
+ * into a message acquired from PCEPMessagePool and writes its request ID,
+ * lengths, bandwidth and ERO subobjects at fixed offsets.
+ */
+public class PCEPResponseTemplates {
+
+	// Offset of the message length in the common header
+	private static final int MESSAGE_LENGTH_OFFSET = 2;
+
+	// Offset of the request ID, after the common header, the RP object
+	// header and the RP flags
+	private static final int REQUEST_ID_OFFSET = 12;
+
+	// Offset of the length in an object header
+	private static final int OBJECT_LENGTH_OFFSET = 2;
+
+	// Length of the ERO object header ending the path templates
+	private static final int ERO_HEADER_LENGTH = 4;
+
+	// Length of the bandwidth value preceding the ERO object header
+	private static final int BANDWIDTH_LENGTH = 4;
+
+	// RP and NO-PATH objects
+	private static final byte[] noPathTemplate;
+
+	// RP object and ERO object header
+	private static final byte[] pathTemplate;
+
+	// RP, BANDWIDTH objects and ERO object header
+	private static final byte[] bandwidthPathTemplate;
+
+	static {
+		PCEPResponseFrame noPathFrame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(templateRequestParameters());
+		noPathFrame.insertNoPathObject(PCEPObjectFrameFactory
+				.generatePCEPNoPathObject("1", "0", 1, "0"));
+		noPathTemplate = PCEPMessageFactory.generateMessage(noPathFrame)
+				.getMessageByteArray();
+
+		PCEPResponseFrame pathFrame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(templateRequestParameters());
+		pathFrame.insertExplicitRouteObject(PCEPObjectFrameFactory
+				.generatePCEPExplicitRouteObject("1", "0",
+						new ArrayList<EROSubobjects>()));
+		pathTemplate = PCEPMessageFactory.generateMessage(pathFrame)
+				.getMessageByteArray();
+
+		PCEPResponseFrame bandwidthPathFrame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(templateRequestParameters());
+		bandwidthPathFrame.insertExplicitRouteObject(PCEPObjectFrameFactory
+				.generatePCEPExplicitRouteObject("1", "0",
+						new ArrayList<EROSubobjects>()));
+		bandwidthPathFrame.insertBandwidthObject(PCEPObjectFrameFactory
+				.generatePCEPBandwidthObject("1", "0", 0));
+		bandwidthPathTemplate = PCEPMessageFactory.generateMessage(
+				bandwidthPathFrame).getMessageByteArray();
+	}
+
+	private static PCEPRequestParametersObject templateRequestParameters() {
+		return PCEPObjectFrameFactory.generatePCEPRequestParametersObject("1",
+				"0", "0", "0", "0", "1", "0");
+	}
+
+	/**
+	 * Function to generate a PCRep message with a NO-PATH object
+	 * 
+	 * @param requestID
+	 * @return
+	 */
+	public static PCEPMessage generateNoPathMessage(int requestID) {
+		PCEPMessage message = PCEPMessagePool.acquire(noPathTemplate.length);
+		ByteBuffer buffer = message.getWireBuffer();
+		buffer.put(noPathTemplate);
+		buffer.putInt(REQUEST_ID_OFFSET, requestID);
+		message.decodeHeader();
+		return message;
+	}
+
+	/**
+	 * Function to generate a PCRep message with a single ERO object
+	 * 
+	 * @param requestID
+	 * @param subobjects
+	 * @return
+	 */
+	public static PCEPMessage generatePathMessage(int requestID,
+			ArrayList<EROSubobjects> subobjects) {
+		PCEPMessage message = beginPathMessage(requestID,
+				getByteLength(subobjects));
+		encodeSubobjects(subobjects, message.getWireBuffer());
+		return endPathMessage(message);
+	}
+
+	/**
+	 * Function to generate a PCRep message with a BANDWIDTH object and a
+	 * single ERO object
+	 * 
+	 * @param requestID
+	 * @param subobjects
+	 * @param bandwidth
+	 * @return
+	 */
+	public static PCEPMessage generatePathMessage(int requestID,
+			ArrayList<EROSubobjects> subobjects, float bandwidth) {
+		PCEPMessage message = beginPathMessage(requestID,
+				getByteLength(subobjects), bandwidth);
+		encodeSubobjects(subobjects, message.getWireBuffer());
+		return endPathMessage(message);
+	}
+
+	/**
+	 * Function to start a PCRep message with a single ERO object. The ERO
+	 * subobjects are then written at the position of the wire buffer of the
+	 * message, before the message is completed with endPathMessage
+	 * 
+	 * @param requestID
+	 * @param subobjectsLength
+	 *            length in bytes of the ERO subobjects
+	 * @return
+	 */
+	public static PCEPMessage beginPathMessage(int requestID,
+			int subobjectsLength) {
+		return beginPathMessage(pathTemplate, requestID, subobjectsLength);
+	}
+
+	/**
+	 * Function to start a PCRep message with a BANDWIDTH object and a single
+	 * ERO object
+	 * 
+	 * @param requestID
+	 * @param subobjectsLength
+	 *            length in bytes of the ERO subobjects
+	 * @param bandwidth
+	 * @return
+	 */
+	public static PCEPMessage beginPathMessage(int requestID,
+			int subobjectsLength, float bandwidth) {
+		PCEPMessage message = beginPathMessage(bandwidthPathTemplate,
+				requestID, subobjectsLength);
+		message.getWireBuffer().putFloat(
+				bandwidthPathTemplate.length - ERO_HEADER_LENGTH
+						- BANDWIDTH_LENGTH, bandwidth);
+		return message;
+	}
+
+	/**
+	 * Function to complete a PCRep message once its ERO subobjects are
+	 * written
+	 * 
+	 * @param message
+	 * @return
+	 */
+	public static PCEPMessage endPathMessage(PCEPMessage message) {
+		ByteBuffer buffer = message.getWireBuffer();
+		if (buffer.hasRemaining())
+			throw new IllegalStateException(buffer.remaining()
+					+ " bytes of ERO subobjects not written");
+		message.decodeHeader();
+		return message;
+	}
+
+	private static PCEPMessage beginPathMessage(byte[] template,
+			int requestID, int subobjectsLength) {
+		PCEPMessage message = PCEPMessagePool.acquire(template.length
+				+ subobjectsLength);
+		ByteBuffer buffer = message.getWireBuffer();
+		buffer.put(template);
+		buffer.putShort(MESSAGE_LENGTH_OFFSET, (short) buffer.capacity());
+		buffer.putInt(REQUEST_ID_OFFSET, requestID);
+		buffer.putShort(template.length - ERO_HEADER_LENGTH
+				+ OBJECT_LENGTH_OFFSET,
+				(short) (ERO_HEADER_LENGTH + subobjectsLength));
+		return message;
+	}
+
+	private static int getByteLength(ArrayList<EROSubobjects> subobjects) {
+		int subobjectsLength = 0;
+		for (int i = 0; i < subobjects.size(); i++)
+			subobjectsLength += subobjects.get(i).getByteLength();
+		return subobjectsLength;
+	}
+
+	private static void encodeSubobjects(ArrayList<EROSubobjects> subobjects,
+			ByteBuffer buffer) {
+		for (int i = 0; i < subobjects.size(); i++)
+			subobjects.get(i).encode(buffer);
+	}
+
+}
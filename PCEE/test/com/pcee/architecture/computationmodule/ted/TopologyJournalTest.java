@@ -0,0 +1,218 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.computationmodule.ted;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.graph.elements.edge.EdgeElement;
+import com.graph.elements.edge.params.impl.BasicEdgeParams;
+import com.graph.elements.vertex.VertexElement;
+import com.graph.graphcontroller.Gcontroller;
+import com.graph.graphcontroller.impl.GcontrollerImpl;
+
+public class TopologyJournalTest {
+
+	private static final double DELTA = 1e-9;
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("ted").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (int i = 0; i < files.length; i++)
+				files[i].delete();
+		directory.delete();
+	}
+
+	/** Function to create the graph A - B - C with edges of capacity 40 */
+	private static Gcontroller createGraph() {
+		Gcontroller graph = new GcontrollerImpl();
+		VertexElement a = new VertexElement("A", graph);
+		VertexElement b = new VertexElement("B", graph);
+		VertexElement c = new VertexElement("C", graph);
+		graph.addVertex(a);
+		graph.addVertex(b);
+		graph.addVertex(c);
+		addEdge(graph, "AB", a, b);
+		addEdge(graph, "BC", b, c);
+		return graph;
+	}
+
+	private static void addEdge(Gcontroller graph, String edgeID,
+			VertexElement source, VertexElement destination) {
+		EdgeElement edge = new EdgeElement(edgeID, source, destination, graph);
+		edge.setEdgeParams(new BasicEdgeParams(edge, 1, 1, 40));
+		graph.addEdge(edge);
+	}
+
+	private TopologyJournal open(Gcontroller graph, int snapshotInterval) {
+		TopologyJournal journal = TopologyJournal.open(directory.getPath(),
+				graph, snapshotInterval, 0);
+		assertTrue(journal != null);
+		return journal;
+	}
+
+	private static EdgeElement[] path(Gcontroller graph) {
+		return new EdgeElement[] { graph.getEdge("AB"), graph.getEdge("BC") };
+	}
+
+	/** Function to reserve capacity on the graph and journal it */
+	private static long reserve(TopologyJournal journal, Gcontroller graph,
+			double capacity) {
+		EdgeElement[] edges = path(graph);
+		for (int i = 0; i < edges.length; i++)
+			assertTrue(edges[i].getEdgeParams().reserveCapacity(capacity));
+		journal.logReservation(capacity, edges);
+		return journal.getAppendedSequence();
+	}
+
+	private static double available(Gcontroller graph, String edgeID) {
+		return graph.getEdge(edgeID).getEdgeParams().getAvailableCapacity();
+	}
+
+	@Test
+	public void replayRestoresLoggedMutations() {
+		Gcontroller graph = createGraph();
+		TopologyJournal journal = open(graph, 0);
+		reserve(journal, graph, 10);
+		reserve(journal, graph, 5);
+		EdgeElement[] edges = path(graph);
+		for (int i = 0; i < edges.length; i++)
+			assertTrue(edges[i].getEdgeParams().releaseCapacity(10));
+		journal.logRelease(10, edges);
+		journal.logEdgeDefinition(graph.getEdge("AB"), 2, 3, 100, 90);
+		assertTrue(journal.awaitDurable(journal.getAppendedSequence()));
+		journal.stop();
+
+		Gcontroller restored = createGraph();
+		journal = open(restored, 0);
+		assertEquals(4, journal.getAppendedSequence());
+		assertEquals(0, journal.getUnappliedRecords());
+		assertEquals(90, available(restored, "AB"), DELTA);
+		assertEquals(100, restored.getEdge("AB").getEdgeParams()
+				.getMaxCapacity(), DELTA);
+		assertEquals(3, restored.getEdge("AB").getEdgeParams().getWeight(),
+				DELTA);
+		assertEquals(35, available(restored, "BC"), DELTA);
+		journal.stop();
+	}
+
+	@Test
+	public void snapshotCompactsJournal() throws InterruptedException {
+		Gcontroller graph = createGraph();
+		TopologyJournal journal = open(graph, 1);
+		reserve(journal, graph, 10);
+		assertTrue(journal.awaitDurable(journal.getAppendedSequence()));
+
+		// Wait for the snapshot, which empties the journal
+		File snapshot = new File(directory, "ted.snapshot");
+		File journalFile = new File(directory, "ted.journal");
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((!snapshot.exists() || journalFile.length() > 0)
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(50);
+		assertTrue(snapshot.exists());
+		assertEquals(0, journalFile.length());
+
+		// Records after the snapshot go to the new journal
+		long sequence = reserve(journal, graph, 5);
+		assertTrue(journal.awaitDurable(sequence));
+		journal.stop();
+		assertTrue(journalFile.length() > 0);
+
+		Gcontroller restored = createGraph();
+		journal = open(restored, 0);
+		assertEquals(sequence, journal.getAppendedSequence());
+		assertEquals(25, available(restored, "AB"), DELTA);
+		assertEquals(25, available(restored, "BC"), DELTA);
+		journal.stop();
+	}
+
+	@Test
+	public void tornRecordIsCutOff() throws IOException {
+		Gcontroller graph = createGraph();
+		TopologyJournal journal = open(graph, 0);
+		long sequence = reserve(journal, graph, 10);
+		assertTrue(journal.awaitDurable(sequence));
+		journal.stop();
+
+		// Header of a record whose payload was never written
+		File journalFile = new File(directory, "ted.journal");
+		long validLength = journalFile.length();
+		FileOutputStream out = new FileOutputStream(journalFile, true);
+		try {
+			out.write(new byte[] { 0, 0, 0, 40, 1, 2, 3, 4, 0, 0 });
+		} finally {
+			out.close();
+		}
+
+		Gcontroller restored = createGraph();
+		journal = open(restored, 0);
+		assertEquals(sequence, journal.getAppendedSequence());
+		assertEquals(30, available(restored, "AB"), DELTA);
+		assertEquals(validLength, journalFile.length());
+
+		// The journal goes on after the cut
+		sequence = reserve(journal, restored, 10);
+		assertTrue(journal.awaitDurable(sequence));
+		journal.stop();
+
+		Gcontroller again = createGraph();
+		journal = open(again, 0);
+		assertEquals(20, available(again, "AB"), DELTA);
+		journal.stop();
+	}
+
+	@Test
+	public void recordsOfMissingEdgesAreCounted() {
+		Gcontroller graph = createGraph();
+		TopologyJournal journal = open(graph, 0);
+		long sequence = reserve(journal, graph, 10);
+		assertTrue(journal.awaitDurable(sequence));
+		journal.stop();
+
+		// Topology without the BC edge
+		Gcontroller restored = new GcontrollerImpl();
+		VertexElement a = new VertexElement("A", restored);
+		VertexElement b = new VertexElement("B", restored);
+		restored.addVertex(a);
+		restored.addVertex(b);
+		addEdge(restored, "AB", a, b);
+
+		journal = open(restored, 0);
+		assertEquals(1, journal.getUnappliedRecords());
+		assertEquals(30, available(restored, "AB"), DELTA);
+		journal.stop();
+	}
+}
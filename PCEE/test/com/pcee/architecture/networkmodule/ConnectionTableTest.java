@@ -0,0 +1,145 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.networkmodule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class ConnectionTableTest {
+
+	@Test
+	public void addedConnectionsAreFoundByID() {
+		ConnectionTable<String> table = new ConnectionTable<String>(16);
+		int first = table.add("first");
+		int second = table.add("second");
+		assertFalse(first == second);
+		assertSame("first", table.get(first));
+		assertSame("second", table.get(second));
+		assertEquals(2, table.size());
+	}
+
+	@Test
+	public void unknownIDsAreNotResolved() {
+		ConnectionTable<String> table = new ConnectionTable<String>(16);
+		table.add("first");
+		assertNull(table.get(-1));
+		assertNull(table.get(1));
+		assertNull(table.get(1 << 20));
+		assertNull(table.remove(1));
+	}
+
+	@Test
+	public void removedIDIsNotResolved() {
+		ConnectionTable<String> table = new ConnectionTable<String>(16);
+		int id = table.add("first");
+		assertSame("first", table.remove(id));
+		assertNull(table.get(id));
+		assertNull(table.remove(id));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	public void reusedSlotGetsNewID() {
+		ConnectionTable<String> table = new ConnectionTable<String>(16);
+		int closed = table.add("closed");
+		table.remove(closed);
+		int reused = table.add("reused");
+
+		// Same slot, different generation
+		assertEquals(closed & 0xFFFFF, reused & 0xFFFFF);
+		assertFalse(closed == reused);
+		assertNull(table.get(closed));
+		assertNull(table.remove(closed));
+		assertSame("reused", table.get(reused));
+	}
+
+	@Test
+	public void growingKeepsConnections() {
+		ConnectionTable<Integer> table = new ConnectionTable<Integer>(16);
+		int[] ids = new int[1000];
+		HashSet<Integer> distinct = new HashSet<Integer>();
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = table.add(Integer.valueOf(i));
+			distinct.add(Integer.valueOf(ids[i]));
+		}
+		assertEquals(ids.length, distinct.size());
+		assertEquals(ids.length, table.size());
+		for (int i = 0; i < ids.length; i++)
+			assertEquals(Integer.valueOf(i), table.get(ids[i]));
+	}
+
+	@Test
+	public void clearRemovesAllConnections() {
+		ConnectionTable<String> table = new ConnectionTable<String>(16);
+		int first = table.add("first");
+		int second = table.add("second");
+		table.remove(first);
+		table.clear();
+		assertEquals(0, table.size());
+		assertNull(table.get(second));
+	}
+
+	/**
+	 * Lock free lookups running while connections are added, removed and the
+	 * table grows only ever see the connection of the looked up ID
+	 */
+	@Test
+	public void concurrentLookupsSeeOwnConnection() throws InterruptedException {
+		final ConnectionTable<Integer> table = new ConnectionTable<Integer>(16);
+		final int[] ids = new int[4096];
+		final boolean[] mismatch = new boolean[1];
+		final int count = 20000;
+		for (int i = 0; i < ids.length; i++)
+			ids[i] = -1;
+
+		Thread reader = new Thread() {
+			public void run() {
+				for (int i = 0; i < count * 4; i++) {
+					int index = i % ids.length;
+					int id;
+					synchronized (ids) {
+						id = ids[index];
+					}
+					Integer connection = table.get(id);
+					if (connection != null
+							&& (connection.intValue() % ids.length) != index)
+						mismatch[0] = true;
+				}
+			}
+		};
+		reader.start();
+		for (int i = 0; i < count; i++) {
+			int index = i % ids.length;
+			if (i >= ids.length)
+				table.remove(ids[index]);
+			int id = table.add(Integer.valueOf(i));
+			synchronized (ids) {
+				ids[index] = id;
+			}
+		}
+		reader.join();
+		assertFalse(mismatch[0]);
+		assertEquals(ids.length, table.size());
+	}
+}
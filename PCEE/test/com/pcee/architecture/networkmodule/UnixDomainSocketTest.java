@@ -0,0 +1,229 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.networkmodule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.pcee.architecture.ModuleManagement;
+import com.pcee.protocol.keepalive.PCEPKeepaliveFrameFactory;
+import com.pcee.protocol.message.PCEPMessageFactory;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.PCEPEndPointsObject;
+import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+import com.pcee.protocol.open.PCEPOpenFrameFactory;
+import com.pcee.protocol.request.PCEPRequestFrameFactory;
+
+/**
+ * Runs a server listening on a Unix domain socket, and talks PCEP to it over
+ * the socket. Must be run from the PCEE directory, which holds the topology.
+ */
+public class UnixDomainSocketTest {
+
+	private static final int TYPE_OPEN = 1;
+	private static final int TYPE_KEEPALIVE = 2;
+	private static final int TYPE_RESPONSE = 4;
+
+	private static File directory;
+
+	private static Path socketPath;
+
+	private static ModuleManagement server;
+
+	@BeforeClass
+	public static void startServer() throws IOException,
+			InterruptedException {
+		directory = Files.createTempDirectory("pcee").toFile();
+		socketPath = new File(directory, "pcee.sock").toPath();
+		File config = new File(directory, "server.cfg");
+		PrintWriter writer = new PrintWriter(new FileWriter(config));
+		try {
+			writer.println("port = 0");
+			writer.println("unixSocketPath = " + socketPath);
+			writer.println("sessionThreads = 2");
+			writer.println("computationThreads = 2");
+			writer.println("importer = SNDLib");
+			writer.println("topology = "
+					+ new File("atlanta.txt").getAbsolutePath());
+			writer.println("logging = off");
+			writer.println("debug = off");
+			writer.println("topologyUpdatePort = 0");
+			writer.println("graphImplementation = Indexed");
+		} finally {
+			writer.close();
+		}
+		server = new ModuleManagement(true, config.getPath());
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!Files.exists(socketPath)
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(20);
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		if (server != null)
+			server.stop();
+		NetworkModuleImpl.setUnixSocketPath(null);
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (int i = 0; i < files.length; i++)
+				files[i].delete();
+		directory.delete();
+	}
+
+	/** Client end of a PCEP session over the Unix domain socket */
+	private static class Client {
+
+		private SocketChannel channel;
+
+		private DataInputStream in;
+
+		Client() throws IOException {
+			channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+			in = new DataInputStream(Channels.newInputStream(channel));
+		}
+
+		void send(byte[] message) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(message);
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+
+		/** Function to read the next message, returned with its header */
+		byte[] receive() throws IOException {
+			byte[] header = new byte[4];
+			in.readFully(header);
+			int length = ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+			byte[] message = new byte[length];
+			System.arraycopy(header, 0, message, 0, 4);
+			in.readFully(message, 4, length - 4);
+			return message;
+		}
+
+		/** Function to read the next message which is not a keepalive */
+		byte[] receiveSkippingKeepalives() throws IOException {
+			byte[] message;
+			do {
+				message = receive();
+			} while (type(message) == TYPE_KEEPALIVE);
+			return message;
+		}
+
+		/** Function to open the session */
+		void open() throws IOException {
+			send(PCEPMessageFactory.generateMessage(
+					PCEPOpenFrameFactory.generateOpenFrame(30, 120, "0", "0"))
+					.getMessageByteArray());
+			int first = type(receive());
+			int second = type(receive());
+			assertTrue(first == TYPE_OPEN && second == TYPE_KEEPALIVE
+					|| first == TYPE_KEEPALIVE && second == TYPE_OPEN);
+			send(PCEPMessageFactory.generateMessage(
+					PCEPKeepaliveFrameFactory.generateKeepaliveFrame())
+					.getMessageByteArray());
+		}
+
+		void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	private static int type(byte[] message) {
+		return message[1] & 0xFF;
+	}
+
+	// Request ID of the RP object, first object of requests and responses
+	private static int requestID(byte[] message) {
+		return ByteBuffer.wrap(message, 12, 4).getInt();
+	}
+
+	private static byte[] request(int requestID) {
+		PCEPRequestParametersObject rp = PCEPObjectFrameFactory
+				.generatePCEPRequestParametersObject("1", "0", "0", "0", "0",
+						"1", Integer.toString(requestID));
+		PCEPEndPointsObject endPoints = PCEPObjectFrameFactory
+				.generatePCEPEndPointsObject("1", "0", new PCEPAddress(
+						"192.169.2.1", false), new PCEPAddress("192.169.2.14",
+						false));
+		return PCEPMessageFactory.generateMessage(
+				PCEPRequestFrameFactory.generatePathComputationRequestFrame(rp,
+						endPoints)).getMessageByteArray();
+	}
+
+	@Test
+	public void socketFileIsCreated() {
+		assertTrue(Files.exists(socketPath));
+	}
+
+	@Test(timeout = 30000)
+	public void pathComputationOverUnixSocket() throws IOException {
+		Client client = new Client();
+		try {
+			client.open();
+			client.send(request(501));
+			byte[] response = client.receiveSkippingKeepalives();
+			assertEquals(TYPE_RESPONSE, type(response));
+			assertEquals(501, requestID(response));
+		} finally {
+			client.close();
+		}
+	}
+
+	/**
+	 * Clients on the Unix domain socket have no address of their own, each
+	 * connection must still get its own session
+	 */
+	@Test(timeout = 30000)
+	public void concurrentClientsGetSeparateSessions() throws IOException {
+		Client first = new Client();
+		Client second = new Client();
+		try {
+			first.open();
+			second.open();
+			first.send(request(601));
+			second.send(request(602));
+			byte[] response = second.receiveSkippingKeepalives();
+			assertEquals(TYPE_RESPONSE, type(response));
+			assertEquals(602, requestID(response));
+			response = first.receiveSkippingKeepalives();
+			assertEquals(TYPE_RESPONSE, type(response));
+			assertEquals(601, requestID(response));
+		} finally {
+			first.close();
+			second.close();
+		}
+	}
+}
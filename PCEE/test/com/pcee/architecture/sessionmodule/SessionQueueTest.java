@@ -0,0 +1,186 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.pcee.architecture.ModuleEnum;
+import com.pcee.architecture.sessionmodule.statemachine.SessionTimer;
+import com.pcee.architecture.sessionmodule.statemachine.StateMachine;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessagePool;
+
+public class SessionQueueTest {
+
+	private static PCEPMessage newMessage() {
+		return PCEPMessagePool.acquire(8);
+	}
+
+	@Test
+	public void nodesAreTakenInOrder() throws InterruptedException {
+		SessionQueue queue = new SessionQueue();
+		PCEPMessage first = newMessage();
+		PCEPMessage second = newMessage();
+		queue.offer(first, ModuleEnum.NETWORK_MODULE);
+		queue.offer(null, SessionTimer.DEAD);
+		queue.offer(second, ModuleEnum.CLIENT_MODULE);
+
+		SessionQueue.Node node = queue.take();
+		assertSame(first, node.message);
+		assertSame(ModuleEnum.NETWORK_MODULE, node.sourceLayer);
+		assertNull(node.timer);
+
+		node = queue.take();
+		assertNull(node.message);
+		assertSame(SessionTimer.DEAD, node.timer);
+
+		node = queue.take();
+		assertSame(second, node.message);
+		assertSame(ModuleEnum.CLIENT_MODULE, node.sourceLayer);
+	}
+
+	@Test
+	public void closeIsTakenInOrderWithMessagesAndTimers()
+			throws InterruptedException {
+		SessionQueue queue = new SessionQueue();
+		PCEPMessage message = newMessage();
+		queue.offer(message, ModuleEnum.NETWORK_MODULE);
+		queue.offer((StateMachine) null);
+		queue.offer(null, SessionTimer.KEEP_ALIVE);
+
+		assertSame(message, queue.take().message);
+
+		// A close node holds neither a message nor a timer
+		SessionQueue.Node node = queue.take();
+		assertNull(node.message);
+		assertNull(node.timer);
+
+		assertSame(SessionTimer.KEEP_ALIVE, queue.take().timer);
+	}
+
+	@Test
+	public void pollDoesNotWait() {
+		SessionQueue queue = new SessionQueue();
+		assertNull(queue.poll());
+		PCEPMessage message = newMessage();
+		queue.offer(message, ModuleEnum.CLIENT_MODULE);
+		assertSame(message, queue.poll().message);
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void takenNodeIsClearedOnNextTake() throws InterruptedException {
+		SessionQueue queue = new SessionQueue();
+		queue.offer(newMessage(), ModuleEnum.NETWORK_MODULE);
+		queue.offer(newMessage(), ModuleEnum.NETWORK_MODULE);
+		SessionQueue.Node node = queue.take();
+		queue.take();
+		assertNull(node.message);
+		assertNull(node.sourceLayer);
+
+		queue.offer(null, SessionTimer.DEAD);
+		queue.offer(newMessage(), ModuleEnum.NETWORK_MODULE);
+		node = queue.take();
+		queue.take();
+		assertNull(node.timer);
+	}
+
+	@Test(timeout = 5000)
+	public void takeWaitsForOffer() throws InterruptedException {
+		final SessionQueue queue = new SessionQueue();
+		final PCEPMessage message = newMessage();
+		Thread producer = new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+				}
+				queue.offer(message, ModuleEnum.NETWORK_MODULE);
+			}
+		};
+		producer.start();
+		assertSame(message, queue.take().message);
+		producer.join();
+	}
+
+	@Test(timeout = 5000)
+	public void takeIsInterruptible() throws InterruptedException {
+		final SessionQueue queue = new SessionQueue();
+		final boolean[] interrupted = new boolean[1];
+		Thread consumer = new Thread() {
+			public void run() {
+				try {
+					queue.take();
+				} catch (InterruptedException e) {
+					interrupted[0] = true;
+				}
+			}
+		};
+		consumer.start();
+		Thread.sleep(100);
+		consumer.interrupt();
+		consumer.join();
+		assertTrue(interrupted[0]);
+	}
+
+	/**
+	 * Concurrent producers lose no node, and the nodes of each producer are
+	 * taken in the order they were offered
+	 */
+	@Test(timeout = 30000)
+	public void concurrentProducersKeepOrder() throws InterruptedException {
+		final SessionQueue queue = new SessionQueue();
+		final int producers = 4;
+		final int count = 20000;
+		final PCEPMessage[][] messages = new PCEPMessage[producers][count];
+		for (int p = 0; p < producers; p++)
+			for (int i = 0; i < count; i++)
+				messages[p][i] = newMessage();
+
+		Thread[] threads = new Thread[producers];
+		// The source module of a node tells its producer apart
+		for (int p = 0; p < producers; p++) {
+			final ModuleEnum layer = ModuleEnum.values()[p];
+			final PCEPMessage[] own = messages[p];
+			threads[p] = new Thread() {
+				public void run() {
+					for (int i = 0; i < own.length; i++)
+						queue.offer(own[i], layer);
+				}
+			};
+			threads[p].start();
+		}
+
+		int[] next = new int[producers];
+		for (int i = 0; i < producers * count; i++) {
+			SessionQueue.Node node = queue.take();
+			int p = node.sourceLayer.ordinal();
+			assertSame(messages[p][next[p]], node.message);
+			next[p]++;
+		}
+		for (int p = 0; p < producers; p++) {
+			threads[p].join();
+			assertEquals(count, next[p]);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.architecture.sessionmodule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+	/** Timeout counting its expiries and recording the time of the last one */
+	private static class RecordingTimeout extends TimingWheel.Timeout {
+
+		private final CountDownLatch expired;
+
+		private volatile int count = 0;
+
+		private volatile long expiryTime;
+
+		RecordingTimeout(int expiries) {
+			expired = new CountDownLatch(expiries);
+		}
+
+		protected void expire() {
+			count++;
+			expiryTime = System.nanoTime();
+			expired.countDown();
+		}
+
+		boolean await(long millis) throws InterruptedException {
+			return expired.await(millis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private TimingWheel wheel;
+
+	@Before
+	public void startWheel() {
+		// 10 ms ticks and a 80 ms revolution
+		wheel = new TimingWheel("TimingWheelTest", 10, 8);
+	}
+
+	@After
+	public void stopWheel() {
+		wheel.stop();
+	}
+
+	private static long millisSince(long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	@Test
+	public void timeoutNeverExpiresEarly() throws InterruptedException {
+		RecordingTimeout timeout = new RecordingTimeout(1);
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 50);
+		assertTrue(wheel.isScheduled(timeout));
+		assertTrue(timeout.await(5000));
+		assertTrue(timeout.expiryTime - start >= TimeUnit.MILLISECONDS
+				.toNanos(50));
+		assertFalse(wheel.isScheduled(timeout));
+		assertEquals(1, timeout.count);
+	}
+
+	@Test
+	public void timeoutAfterSeveralRevolutions() throws InterruptedException {
+		RecordingTimeout timeout = new RecordingTimeout(1);
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 250);
+		assertTrue(timeout.await(5000));
+		assertTrue(timeout.expiryTime - start >= TimeUnit.MILLISECONDS
+				.toNanos(250));
+		assertEquals(1, timeout.count);
+	}
+
+	@Test
+	public void cancelledTimeoutDoesNotExpire() throws InterruptedException {
+		RecordingTimeout timeout = new RecordingTimeout(1);
+		wheel.schedule(timeout, 30);
+		assertTrue(wheel.cancel(timeout));
+		assertFalse(wheel.isScheduled(timeout));
+		assertFalse(timeout.await(200));
+		assertFalse(wheel.cancel(timeout));
+		assertEquals(0, timeout.count);
+	}
+
+	@Test
+	public void rescheduleMovesDeadline() throws InterruptedException {
+		RecordingTimeout timeout = new RecordingTimeout(1);
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 30);
+		wheel.schedule(timeout, 200);
+		assertTrue(timeout.await(5000));
+		assertTrue(timeout.expiryTime - start >= TimeUnit.MILLISECONDS
+				.toNanos(200));
+		Thread.sleep(100);
+		assertEquals(1, timeout.count);
+	}
+
+	@Test
+	public void timeoutCanBeScheduledAgainWhenExpiring()
+			throws InterruptedException {
+		final int[] remaining = new int[] { 3 };
+		final CountDownLatch done = new CountDownLatch(1);
+		TimingWheel.Timeout timeout = new TimingWheel.Timeout() {
+			protected void expire() {
+				if (--remaining[0] > 0)
+					wheel.schedule(this, 20);
+				else
+					done.countDown();
+			}
+		};
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 20);
+		assertTrue(done.await(5000, TimeUnit.MILLISECONDS));
+		assertTrue(millisSince(start) >= 60);
+		assertFalse(wheel.isScheduled(timeout));
+	}
+
+	@Test
+	public void failingTimeoutDoesNotStopWheel() throws InterruptedException {
+		TimingWheel.Timeout failing = new TimingWheel.Timeout() {
+			protected void expire() {
+				throw new IllegalStateException("expected by the test");
+			}
+		};
+		RecordingTimeout timeout = new RecordingTimeout(1);
+		wheel.schedule(failing, 20);
+		wheel.schedule(timeout, 60);
+		assertTrue(timeout.await(5000));
+	}
+
+	@Test
+	public void manyTimeoutsWithSameDelay() throws InterruptedException {
+		RecordingTimeout[] timeouts = new RecordingTimeout[1000];
+		for (int i = 0; i < timeouts.length; i++) {
+			timeouts[i] = new RecordingTimeout(1);
+			wheel.schedule(timeouts[i], 40);
+		}
+		// Cancel every other timeout, unlinking from the middle of the
+		// bucket lists
+		for (int i = 0; i < timeouts.length; i += 2)
+			assertTrue(wheel.cancel(timeouts[i]));
+		Thread.sleep(300);
+		for (int i = 0; i < timeouts.length; i++)
+			assertEquals(i % 2, timeouts[i].count);
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class InFlightTableTest {
+
+	// Point in time after every deadline used below
+	private static long later() {
+		return System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+	}
+
+	@Test
+	public void addAndRemove() {
+		InFlightTable<String> table = new InFlightTable<String>(4);
+		assertTrue(table.add(1, "one", 1000));
+		assertTrue(table.add(2, "two", 1000));
+		assertTrue(table.contains(1));
+		assertEquals(2, table.size());
+		assertEquals("one", table.remove(1));
+		assertNull(table.remove(1));
+		assertFalse(table.contains(1));
+		assertEquals(1, table.size());
+	}
+
+	@Test
+	public void windowAndDuplicatesAreRefused() {
+		InFlightTable<String> table = new InFlightTable<String>(2);
+		assertEquals(2, table.getWindow());
+		assertTrue(table.add(1, "one", 1000));
+		assertFalse(table.add(1, "again", 1000));
+		assertTrue(table.add(2, "two", 1000));
+		assertFalse(table.add(3, "three", 1000));
+
+		// A freed slot can be used again
+		table.remove(2);
+		assertTrue(table.add(3, "three", 1000));
+		assertEquals("three", table.remove(3));
+	}
+
+	@Test
+	public void slotsAreReused() {
+		InFlightTable<Integer> table = new InFlightTable<Integer>(3);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(table.add(i, Integer.valueOf(i), 1000));
+			if (i >= 2)
+				assertEquals(Integer.valueOf(i - 2), table.remove(i - 2));
+		}
+		assertEquals(2, table.size());
+	}
+
+	@Test
+	public void expireRemovesOnlyDueRequests() {
+		InFlightTable<String> table = new InFlightTable<String>(4);
+		table.add(1, "short", 100);
+		table.add(2, "long", 120000);
+		assertEquals(0, table.expire(System.nanoTime(), null));
+
+		ArrayList<String> expired = new ArrayList<String>();
+		assertEquals(1, table.expire(later(), expired));
+		assertEquals(1, expired.size());
+		assertEquals("short", expired.get(0));
+		assertFalse(table.contains(1));
+		assertTrue(table.contains(2));
+		assertEquals(1, table.size());
+	}
+
+	@Test
+	public void lateReplyOfExpiredRequestIsRecognizedOnce() {
+		InFlightTable<String> table = new InFlightTable<String>(4);
+		table.add(1, "expired", 100);
+		table.add(2, "answered", 100);
+		assertEquals("answered", table.remove(2));
+		table.expire(later(), null);
+
+		assertTrue(table.removeExpired(1));
+		assertFalse(table.removeExpired(1));
+		// Answered and unknown requests never expired
+		assertFalse(table.removeExpired(2));
+		assertFalse(table.removeExpired(3));
+	}
+
+	@Test
+	public void oldestExpiredRequestIsForgotten() {
+		InFlightTable<String> table = new InFlightTable<String>(2);
+		table.add(1, "one", 100);
+		table.add(2, "two", 100);
+		table.expire(later(), null);
+		table.add(3, "three", 100);
+		table.expire(later(), null);
+
+		// The ring holds as many IDs as the window, 3 replaced 1
+		assertFalse(table.removeExpired(1));
+		assertTrue(table.removeExpired(2));
+		assertTrue(table.removeExpired(3));
+	}
+
+	/**
+	 * A request ID which expired twice is kept at its newest position when
+	 * its older position in the ring is overwritten
+	 */
+	@Test
+	public void overwritingStalePositionKeepsNewerOne() {
+		InFlightTable<String> table = new InFlightTable<String>(2);
+		table.add(5, "first", 100);
+		table.expire(later(), null);
+		assertTrue(table.removeExpired(5));
+
+		table.add(5, "second", 100);
+		table.expire(later(), null);
+		table.add(6, "other", 100);
+		table.expire(later(), null);
+
+		assertTrue(table.removeExpired(5));
+		assertTrue(table.removeExpired(6));
+	}
+
+	@Test
+	public void clearRemovesAllRequests() {
+		InFlightTable<String> table = new InFlightTable<String>(4);
+		table.add(1, "one", 1000);
+		table.add(2, "two", 1000);
+		ArrayList<String> removed = new ArrayList<String>();
+		table.clear(removed);
+		assertEquals(2, removed.size());
+		assertEquals(0, table.size());
+		assertFalse(table.contains(1));
+		// Cleared requests did not expire
+		assertFalse(table.removeExpired(1));
+		assertTrue(table.add(1, "again", 1000));
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PCEPCommonMessageHeaderTest {
+
+	private static byte[] encode(PCEPCommonMessageHeader header) {
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		header.encode(buffer);
+		return buffer.array();
+	}
+
+	@Test
+	public void encodesTheRFCLayout() {
+		PCEPCommonMessageHeader header = new PCEPCommonMessageHeader(1, 3);
+		header.setLengthDecimalValue(28);
+		byte[] expected = { 0x20, 0x03, 0x00, 0x1C };
+		assertArrayEquals(expected, encode(header));
+		assertEquals("00100000000000110000000000011100",
+				header.getHeaderBinaryString());
+	}
+
+	/**
+	 * Headers decoded from bytes and from their binary string hold the same
+	 * fields and encode back to the same bytes
+	 */
+	@Test
+	public void roundTripAgainstBinaryString() {
+		Random random = new Random(5440);
+		byte[] bytes = new byte[4];
+		for (int i = 0; i < 1000; i++) {
+			random.nextBytes(bytes);
+			String binaryString = PCEPComputationFactory
+					.byteArrayToRawMessage(bytes);
+			PCEPCommonMessageHeader decoded = new PCEPCommonMessageHeader(
+					ByteBuffer.wrap(bytes));
+			PCEPCommonMessageHeader legacy = new PCEPCommonMessageHeader(
+					binaryString);
+
+			assertArrayEquals(bytes, encode(decoded));
+			assertArrayEquals(bytes, encode(legacy));
+			assertEquals(binaryString, decoded.getHeaderBinaryString());
+			assertEquals(legacy.getVersionDecimalValue(),
+					decoded.getVersionDecimalValue());
+			assertEquals(legacy.getFlagsDecimalValue(),
+					decoded.getFlagsDecimalValue());
+			assertEquals(legacy.getTypeDecimalValue(),
+					decoded.getTypeDecimalValue());
+			assertEquals(legacy.getLengthDecimalValue(),
+					decoded.getLengthDecimalValue());
+			assertArrayEquals(bytes, PCEPComputationFactory
+					.rawMessageToByteArray(legacy.getHeaderBinaryString()));
+		}
+	}
+}
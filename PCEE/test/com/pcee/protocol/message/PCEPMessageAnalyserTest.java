@@ -0,0 +1,294 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+import com.pcee.protocol.request.PCEPRequestFrameFactory;
+
+public class PCEPMessageAnalyserTest {
+
+	// Message types
+	private static final int OPEN = 1;
+	private static final int PCREQ = 3;
+	private static final int PCREP = 4;
+
+	// Object classes
+	private static final int OPEN_CLASS = 1;
+	private static final int RP = 2;
+	private static final int NO_PATH = 3;
+	private static final int END_POINTS = 4;
+	private static final int BANDWIDTH = 5;
+	private static final int METRIC = 6;
+	private static final int ERO = 7;
+	private static final int SVEC = 11;
+	private static final int OF = 21;
+
+	/**
+	 * Object of the given class, object type 1 and length, header included.
+	 * Its body is zero, except the request ID of RP objects
+	 */
+	private static int[] object(int objectClass, int length) {
+		return new int[] { objectClass, 1, length };
+	}
+
+	private static int[] object(int objectClass) {
+		switch (objectClass) {
+		case RP:
+		case END_POINTS:
+		case METRIC:
+			return object(objectClass, 12);
+		case ERO:
+			return object(objectClass, 4);
+		default:
+			return object(objectClass, 8);
+		}
+	}
+
+	/**
+	 * Received message of the given type made of the given objects, with the
+	 * length of its bytes in its header
+	 */
+	private static PCEPMessage message(int type, int[]... objects) {
+		int length = 4;
+		for (int i = 0; i < objects.length; i++)
+			length += objects[i][2];
+		return message(type, length, length, objects);
+	}
+
+	private static PCEPMessage message(int type, int headerLength,
+			int length, int[]... objects) {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.put((byte) (1 << 5));
+		buffer.put((byte) type);
+		buffer.putShort((short) headerLength);
+		for (int i = 0; i < objects.length && buffer.hasRemaining(); i++) {
+			int start = buffer.position();
+			buffer.put((byte) objects[i][0]);
+			buffer.put((byte) (objects[i][1] << 4));
+			buffer.putShort((short) objects[i][2]);
+			if (objects[i][0] == RP && objects[i][2] >= 12)
+				buffer.putInt(start + 8, 100 + i);
+			buffer.position(Math.min(start + objects[i][2], length));
+		}
+		return new PCEPMessage(buffer.array());
+	}
+
+	private static void assertFormatError(int error, PCEPMessage message) {
+		assertEquals(error, message.getFormatError());
+		assertEquals(error, PCEPMessageAnalyser.getFormatError(message));
+		assertEquals(error == PCEPMessageAnalyser.NO_ERROR,
+				PCEPMessageAnalyser.checkMessageFormat(message));
+	}
+
+	@Test
+	public void checkHeader() {
+		assertEquals(PCEPMessageAnalyser.NO_ERROR,
+				PCEPMessageAnalyser.checkHeader(1, 28, 28));
+		assertEquals(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				PCEPMessageAnalyser.checkHeader(2, 28, 28));
+		assertEquals(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				PCEPMessageAnalyser.checkHeader(1, 32, 28));
+		assertEquals(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				PCEPMessageAnalyser.checkHeader(1, 24, 28));
+	}
+
+	@Test
+	public void headerLengthDifferentFromBytesReceived() {
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, 32, 28, object(RP), object(END_POINTS)));
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, 24, 28, object(RP), object(END_POINTS)));
+	}
+
+	@Test
+	public void validRequest() {
+		PCEPMessage message = message(PCREQ, object(RP), object(END_POINTS),
+				object(BANDWIDTH), object(RP), object(END_POINTS));
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR, message);
+		assertEquals(5, message.getObjectCount());
+		assertEquals(RP, message.getObjectClass(0));
+		assertEquals(END_POINTS, message.getObjectClass(1));
+		assertEquals(BANDWIDTH, message.getObjectClass(2));
+		assertEquals(100, message.getRequestID());
+	}
+
+	@Test
+	public void requestBuiltWithTheFactoriesIsValid() {
+		PCEPMessage encoded = PCEPMessageFactory
+				.generateMessage(PCEPRequestFrameFactory.generatePathComputationRequestFrame(
+						PCEPObjectFrameFactory.generatePCEPRequestParametersObject(
+								"1", "0", "0", "0", "0", "1", "77"),
+						PCEPObjectFrameFactory.generatePCEPEndPointsObject("1",
+								"0", new PCEPAddress("192.169.2.1", false),
+								new PCEPAddress("192.169.2.14", false))));
+		PCEPMessage message = new PCEPMessage(encoded.getMessageByteArray());
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR, message);
+		assertEquals(2, message.getObjectCount());
+		assertEquals(77, message.getRequestID());
+	}
+
+	@Test
+	public void requestWithoutRP() {
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ, object(END_POINTS), object(BANDWIDTH)));
+		// Detected at the end of a message without objects
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ));
+	}
+
+	@Test
+	public void RPNotFollowedByEndPoints() {
+		assertFormatError(PCEPMessageAnalyser.END_POINTS_OBJECT_MISSING,
+				message(PCREQ, object(RP), object(BANDWIDTH),
+						object(END_POINTS)));
+		assertFormatError(PCEPMessageAnalyser.END_POINTS_OBJECT_MISSING,
+				message(PCREQ, object(RP), object(END_POINTS), object(RP),
+						object(RP), object(END_POINTS)));
+		// Detected at the end of the message
+		assertFormatError(PCEPMessageAnalyser.END_POINTS_OBJECT_MISSING,
+				message(PCREQ, object(RP), object(END_POINTS), object(RP)));
+	}
+
+	@Test
+	public void synchronizationVectorListPrefix() {
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR,
+				message(PCREQ, object(SVEC), object(OF), object(METRIC),
+						object(SVEC), object(RP), object(END_POINTS)));
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR,
+				message(PCREQ, object(SVEC), object(METRIC), object(METRIC),
+						object(RP), object(END_POINTS)));
+		// OF and METRIC objects only follow an SVEC object
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ, object(OF), object(RP), object(END_POINTS)));
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ, object(METRIC), object(RP), object(END_POINTS)));
+		// Other objects do not belong to the list
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ, object(SVEC), object(BANDWIDTH), object(RP),
+						object(END_POINTS)));
+		// A list without requests
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREQ, object(SVEC), object(OF)));
+	}
+
+	@Test
+	public void openMessage() {
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR,
+				message(OPEN, object(OPEN_CLASS)));
+		assertFormatError(PCEPMessageAnalyser.INVALID_OPEN_MESSAGE,
+				message(OPEN, object(OPEN_CLASS), object(OPEN_CLASS)));
+		assertFormatError(PCEPMessageAnalyser.INVALID_OPEN_MESSAGE,
+				message(OPEN, object(OPEN_CLASS), object(METRIC)));
+		assertFormatError(PCEPMessageAnalyser.INVALID_OPEN_MESSAGE,
+				message(OPEN, object(RP)));
+		assertFormatError(PCEPMessageAnalyser.INVALID_OPEN_MESSAGE,
+				message(OPEN));
+	}
+
+	@Test
+	public void objectLengthNotMultipleOfFour() {
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, object(RP, 14), object(END_POINTS, 14)));
+		assertEquals(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				PCEPMessageAnalyser.checkObject(PCREQ, 0, 0, RP, 1, 13));
+	}
+
+	@Test
+	public void objectShorterThanItsClassMinimum() {
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, object(RP, 8), object(END_POINTS)));
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, object(RP), object(END_POINTS, 8)));
+		// Shorter than an object header
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, 20, 20, object(RP), object(END_POINTS, 0)));
+		// Longer than the bytes left in the message
+		assertFormatError(PCEPMessageAnalyser.MALFORMED_MESSAGE,
+				message(PCREQ, 28, 28, object(RP), object(END_POINTS, 16)));
+	}
+
+	@Test
+	public void unknownObjectClass() {
+		PCEPMessage message = message(PCREQ, object(RP), object(END_POINTS),
+				object(16, 8));
+		assertFormatError(PCEPMessageAnalyser.UNKNOWN_OBJECT_CLASS, message);
+		assertEquals(3, PCEPMessageAnalyser.getErrorType(message
+				.getFormatError()));
+		assertEquals(1, PCEPMessageAnalyser.getErrorValue(message
+				.getFormatError()));
+		// The object is still indexed
+		assertEquals(3, message.getObjectCount());
+		assertEquals(16, message.getObjectClass(2));
+
+		assertEquals(PCEPMessageAnalyser.UNKNOWN_OBJECT_CLASS,
+				PCEPMessageAnalyser.checkObject(PCREQ, 0, 0, 0, 1, 8));
+		assertEquals(PCEPMessageAnalyser.UNKNOWN_OBJECT_CLASS,
+				PCEPMessageAnalyser.checkObject(PCREQ, 0, 0, 255, 1, 8));
+	}
+
+	@Test
+	public void unknownObjectType() {
+		assertFormatError(PCEPMessageAnalyser.UNKNOWN_OBJECT_TYPE,
+				message(PCREQ, object(RP), new int[] { END_POINTS, 0, 12 }));
+	}
+
+	@Test
+	public void validResponse() {
+		PCEPMessage message = message(PCREP, object(RP), object(BANDWIDTH),
+				object(ERO), object(RP), object(NO_PATH));
+		assertFormatError(PCEPMessageAnalyser.NO_ERROR, message);
+		assertEquals(5, message.getObjectCount());
+		assertEquals(ERO, message.getObjectClass(2));
+		assertEquals(NO_PATH, message.getObjectClass(4));
+		assertEquals(100, message.getRequestID());
+	}
+
+	@Test
+	public void responseWithoutRP() {
+		PCEPMessage message = message(PCREP, object(ERO), object(RP),
+				object(NO_PATH));
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING, message);
+		assertEquals(-1, message.getRequestID());
+		assertFormatError(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				message(PCREP));
+	}
+
+	@Test
+	public void checkEnd() {
+		assertEquals(PCEPMessageAnalyser.NO_ERROR,
+				PCEPMessageAnalyser.checkEnd(PCREQ, END_POINTS, 1));
+		assertEquals(PCEPMessageAnalyser.END_POINTS_OBJECT_MISSING,
+				PCEPMessageAnalyser.checkEnd(PCREQ, RP, 1));
+		assertEquals(PCEPMessageAnalyser.RP_OBJECT_MISSING,
+				PCEPMessageAnalyser.checkEnd(PCREQ, SVEC, 0));
+		assertEquals(PCEPMessageAnalyser.NO_ERROR,
+				PCEPMessageAnalyser.checkEnd(PCREP, NO_PATH, 1));
+		assertEquals(PCEPMessageAnalyser.INVALID_OPEN_MESSAGE,
+				PCEPMessageAnalyser.checkEnd(OPEN, 0, 0));
+		// Other message types have no mandatory objects
+		assertEquals(PCEPMessageAnalyser.NO_ERROR,
+				PCEPMessageAnalyser.checkEnd(2, 0, 0));
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+
+public class PCEPCommonObjectHeaderTest {
+
+	private static byte[] encode(PCEPCommonObjectHeader header) {
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		header.encode(buffer);
+		return buffer.array();
+	}
+
+	@Test
+	public void encodesTheRFCLayout() {
+		PCEPCommonObjectHeader header = new PCEPCommonObjectHeader(2, 1, "1",
+				"0");
+		header.setLengthDecimalValue(12);
+		byte[] expected = { 0x02, 0x12, 0x00, 0x0C };
+		assertArrayEquals(expected, encode(header));
+		assertEquals("00000010000100100000000000001100",
+				header.getHeaderBinaryString());
+
+		header = new PCEPCommonObjectHeader(7, 1, "0", "1");
+		header.setLengthDecimalValue(804);
+		byte[] ero = { 0x07, 0x11, 0x03, 0x24 };
+		assertArrayEquals(ero, encode(header));
+	}
+
+	/**
+	 * Headers decoded from bytes and from their binary string hold the same
+	 * fields and encode back to the same bytes
+	 */
+	@Test
+	public void roundTripAgainstBinaryString() {
+		Random random = new Random(5440);
+		byte[] bytes = new byte[4];
+		for (int i = 0; i < 1000; i++) {
+			random.nextBytes(bytes);
+			String binaryString = PCEPComputationFactory
+					.byteArrayToRawMessage(bytes);
+			PCEPCommonObjectHeader decoded = new PCEPCommonObjectHeader(
+					ByteBuffer.wrap(bytes));
+			PCEPCommonObjectHeader legacy = new PCEPCommonObjectHeader(
+					binaryString);
+
+			assertArrayEquals(bytes, encode(decoded));
+			assertArrayEquals(bytes, encode(legacy));
+			assertEquals(binaryString, decoded.getHeaderBinaryString());
+			assertEquals(legacy.getClassDecimalValue(),
+					decoded.getClassDecimalValue());
+			assertEquals(legacy.getTypeDecimalValue(),
+					decoded.getTypeDecimalValue());
+			assertEquals(legacy.getReservedDecimalValue(),
+					decoded.getReservedDecimalValue());
+			assertEquals(legacy.getFlagsDecimalValue(),
+					decoded.getFlagsDecimalValue());
+			assertEquals(legacy.getLengthDecimalValue(),
+					decoded.getLengthDecimalValue());
+			assertEquals(legacy.getPFlagBinaryString(),
+					decoded.getPFlagBinaryString());
+			assertEquals(legacy.getIFlagBinaryString(),
+					decoded.getIFlagBinaryString());
+		}
+	}
+}
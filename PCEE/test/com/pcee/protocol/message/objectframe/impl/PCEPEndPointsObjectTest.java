@@ -0,0 +1,98 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+
+public class PCEPEndPointsObjectTest {
+
+	// Encoding of the object header and body
+	private static byte[] encode(PCEPEndPointsObject object) {
+		ByteBuffer buffer = ByteBuffer.allocate(object
+				.getObjectFrameByteLength());
+		object.getObjectHeader().encode(buffer);
+		object.encodeObject(buffer);
+		return buffer.array();
+	}
+
+	// Encoding of the header and body binary strings
+	private static byte[] legacyEncode(PCEPEndPointsObject object) {
+		return PCEPComputationFactory.rawMessageToByteArray(object
+				.getObjectHeader().getHeaderBinaryString()
+				+ object.getObjectBinaryString());
+	}
+
+	@Test
+	public void encodesTheRFCLayout() {
+		PCEPEndPointsObject object = PCEPObjectFrameFactory
+				.generatePCEPEndPointsObject("1", "0", new PCEPAddress(
+						"192.169.2.1", false), new PCEPAddress("192.169.2.14",
+						false));
+		byte[] expected = { 0x04, 0x12, 0x00, 0x0C, (byte) 192, (byte) 169,
+				2, 1, (byte) 192, (byte) 169, 2, 14 };
+		assertArrayEquals(expected, encode(object));
+		assertArrayEquals(expected, legacyEncode(object));
+		assertEquals(new PCEPAddress("192.169.2.1", false)
+				.getIPv4AddressDecimalValue(),
+				object.getSourceAddressDecimalValue());
+		assertEquals(new PCEPAddress("192.169.2.14", false)
+				.getIPv4AddressDecimalValue(),
+				object.getDestinationAddressDecimalValue());
+	}
+
+	/**
+	 * encode, decode from bytes and from the binary string, encode again
+	 */
+	@Test
+	public void roundTripAgainstBinaryString() {
+		Random random = new Random(5440);
+		for (int i = 0; i < 1000; i++) {
+			PCEPEndPointsObject object = PCEPObjectFrameFactory
+					.generatePCEPEndPointsObject("1", "0", new PCEPAddress(
+							random.nextInt()), new PCEPAddress(random
+							.nextInt()));
+			byte[] bytes = encode(object);
+			assertArrayEquals(legacyEncode(object), bytes);
+
+			PCEPEndPointsObject decoded = (PCEPEndPointsObject) PCEPObjectFrameFactory
+					.getPCEPObjectFrame(ByteBuffer.wrap(bytes));
+			PCEPEndPointsObject legacy = (PCEPEndPointsObject) PCEPObjectFrameFactory
+					.getPCEPObjectFrame(PCEPComputationFactory
+							.byteArrayToRawMessage(bytes));
+			assertArrayEquals(bytes, encode(decoded));
+			assertArrayEquals(bytes, encode(legacy));
+			assertArrayEquals(bytes, legacyEncode(decoded));
+			assertEquals(object.getSourceAddressDecimalValue(),
+					decoded.getSourceAddressDecimalValue());
+			assertEquals(object.getDestinationAddressDecimalValue(),
+					legacy.getDestinationAddressDecimalValue());
+			assertEquals(object.getSourceAddressBinaryString(),
+					legacy.getSourceAddressBinaryString());
+		}
+	}
+}
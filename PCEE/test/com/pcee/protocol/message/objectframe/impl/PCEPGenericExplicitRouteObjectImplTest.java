@@ -0,0 +1,167 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROUnnumberedInterface;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.MLDelimiter;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+
+public class PCEPGenericExplicitRouteObjectImplTest {
+
+	private static PCEPGenericExplicitRouteObjectImpl ero(
+			ArrayList<EROSubobjects> subobjects) {
+		return new PCEPGenericExplicitRouteObjectImpl(
+				new PCEPCommonObjectHeader(7, 1, "1", "0"), subobjects);
+	}
+
+	private static ArrayList<EROSubobjects> addresses(int hops) {
+		ArrayList<EROSubobjects> subobjects = new ArrayList<EROSubobjects>();
+		for (int i = 0; i < hops; i++)
+			subobjects.add(new PCEPAddress("192.169." + (i / 250) + "."
+					+ (i % 250 + 1), false));
+		return subobjects;
+	}
+
+	// Encoding of the object header and body
+	private static byte[] encode(PCEPGenericExplicitRouteObjectImpl object) {
+		ByteBuffer buffer = ByteBuffer.allocate(object
+				.getObjectFrameByteLength());
+		object.getObjectHeader().encode(buffer);
+		object.encodeObject(buffer);
+		assertFalse(buffer.hasRemaining());
+		return buffer.array();
+	}
+
+	// Encoding of the header and body binary strings
+	private static byte[] legacyEncode(
+			PCEPGenericExplicitRouteObjectImpl object) {
+		return PCEPComputationFactory.rawMessageToByteArray(object
+				.getObjectFrameBinaryString());
+	}
+
+	// Object of class 7 and type 1 around the given subobject bytes
+	private static byte[] object(int... body) {
+		byte[] bytes = new byte[4 + body.length];
+		bytes[0] = 7;
+		bytes[1] = 0x10;
+		bytes[2] = (byte) (bytes.length >> 8);
+		bytes[3] = (byte) bytes.length;
+		for (int i = 0; i < body.length; i++)
+			bytes[4 + i] = (byte) body[i];
+		return bytes;
+	}
+
+	private static void assertRoundTrip(PCEPGenericExplicitRouteObjectImpl object) {
+		byte[] bytes = encode(object);
+		assertArrayEquals(legacyEncode(object), bytes);
+
+		PCEPGenericExplicitRouteObjectImpl decoded = (PCEPGenericExplicitRouteObjectImpl) PCEPObjectFrameFactory
+				.getPCEPObjectFrame(ByteBuffer.wrap(bytes));
+		PCEPGenericExplicitRouteObjectImpl legacy = (PCEPGenericExplicitRouteObjectImpl) PCEPObjectFrameFactory
+				.getPCEPObjectFrame(PCEPComputationFactory
+						.byteArrayToRawMessage(bytes));
+		assertEquals(object.getTraversedVertexList().size(), decoded
+				.getTraversedVertexList().size());
+		assertEquals(object.getTraversedVertexList().size(), legacy
+				.getTraversedVertexList().size());
+		assertArrayEquals(bytes, encode(decoded));
+		assertArrayEquals(bytes, encode(legacy));
+		assertArrayEquals(bytes, legacyEncode(decoded));
+		assertEquals(object.getObjectBinaryString(),
+				decoded.getObjectBinaryString());
+	}
+
+	@Test
+	public void encodesTheRFCLayout() {
+		byte[] expected = { 0x07, 0x12, 0x00, 0x14, 0x01, 0x08, (byte) 192,
+				(byte) 169, 2, 1, 32, 0, 0x01, 0x08, (byte) 192, (byte) 169,
+				2, 14, 32, 0 };
+		ArrayList<EROSubobjects> subobjects = new ArrayList<EROSubobjects>();
+		subobjects.add(new PCEPAddress("192.169.2.1", false));
+		subobjects.add(new PCEPAddress("192.169.2.14", false));
+		PCEPGenericExplicitRouteObjectImpl object = ero(subobjects);
+		assertArrayEquals(expected, encode(object));
+		assertArrayEquals(expected, legacyEncode(object));
+	}
+
+	@Test
+	public void roundTripOfAddresses() {
+		int[] hops = { 0, 1, 5, 100 };
+		for (int i = 0; i < hops.length; i++)
+			assertRoundTrip(ero(addresses(hops[i])));
+	}
+
+	@Test
+	public void roundTripOfSubobjectsWithoutBinaryCodec() {
+		ArrayList<EROSubobjects> subobjects = addresses(2);
+		subobjects.add(new EROUnnumberedInterface(true, 0x40000001,
+				0xC0000002));
+		subobjects.add(new MLDelimiter());
+		subobjects.addAll(addresses(3));
+		assertRoundTrip(ero(subobjects));
+	}
+
+	@Test
+	public void malformedSubobjectsAreRejected() {
+		// Valid object for reference
+		assertTrue(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(1, 8, 192, 169, 2, 1, 32, 0))) != null);
+
+		// Length byte shorter than an IPv4 subobject
+		assertNull(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(1, 4, 192, 169))));
+		// Last subobject truncated
+		assertNull(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(1, 8, 192, 169, 2, 1, 32, 0, 1, 8, 1, 0))));
+		// Zero length, which would not move past the subobject
+		assertNull(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(1, 0, 0, 0))));
+		// Unknown subobject type
+		assertNull(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(99, 8, 0, 0, 0, 0, 0, 0))));
+		// A single byte left
+		assertNull(PCEPObjectFrameFactory.getPCEPObjectFrame(ByteBuffer
+				.wrap(object(1, 8, 192, 169, 2, 1, 32, 0, 1))));
+	}
+
+	@Test
+	public void isDecodableDoesNotMoveTheBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 8, (byte) 192,
+				(byte) 169, 2, 1, 32, 0, 1, 8 });
+		assertFalse(PCEPGenericExplicitRouteObjectImpl.isDecodable(buffer));
+		assertEquals(0, buffer.position());
+		buffer.limit(8);
+		assertTrue(PCEPGenericExplicitRouteObjectImpl.isDecodable(buffer));
+		assertEquals(0, buffer.position());
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessageFactory;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+import com.pcee.protocol.request.PCEPRequestFrame;
+import com.pcee.protocol.request.PCEPRequestFrameFactory;
+
+public class PCEPSynchronizationVectorObjectTest {
+
+	private static PCEPSynchronizationVectorObject generate(int... requestIDs) {
+		LinkedList<String> requestIDNumbers = new LinkedList<String>();
+		for (int i = 0; i < requestIDs.length; i++)
+			requestIDNumbers.add(PCEPComputationFactory.toBinaryString(
+					requestIDs[i], 32));
+		return PCEPObjectFrameFactory.generatePCEPSynchronizationVectorObject(
+				"1", "0", "0", "1", "1", requestIDNumbers);
+	}
+
+	// Encoding of the header and body binary strings
+	private static byte[] encode(PCEPSynchronizationVectorObject object) {
+		return PCEPComputationFactory.rawMessageToByteArray(object
+				.getObjectFrameBinaryString());
+	}
+
+	@Test
+	public void encodesTheRFCLayout() {
+		byte[] expected = { 0x0B, 0x12, 0x00, 0x10, 0, 0, 0, 3, 0, 0, 0x12,
+				0x67, 0, 0, 0x12, 0x68 };
+		assertArrayEquals(expected, encode(generate(4711, 4712)));
+	}
+
+	/**
+	 * Received SVEC objects were not decoded by the object factory
+	 */
+	@Test
+	public void decodesReceivedObjects() {
+		for (int count = 0; count <= 3; count++) {
+			int[] requestIDs = new int[count];
+			for (int i = 0; i < count; i++)
+				requestIDs[i] = 0x7FFFFFF0 + i;
+			PCEPSynchronizationVectorObject object = generate(requestIDs);
+			byte[] bytes = encode(object);
+
+			PCEPSynchronizationVectorObject decoded = (PCEPSynchronizationVectorObject) PCEPObjectFrameFactory
+					.getPCEPObjectFrame(ByteBuffer.wrap(bytes));
+			PCEPSynchronizationVectorObject legacy = (PCEPSynchronizationVectorObject) PCEPObjectFrameFactory
+					.getPCEPObjectFrame(PCEPComputationFactory
+							.byteArrayToRawMessage(bytes));
+			assertArrayEquals(bytes, encode(decoded));
+			assertArrayEquals(bytes, encode(legacy));
+			assertEquals(object.getRequestIDNumbers(),
+					decoded.getRequestIDNumbers());
+			assertEquals(bytes.length, decoded.getObjectFrameByteLength());
+			assertEquals(1, decoded.getNFlagDecimalValue());
+			assertEquals(0, decoded.getSFlagDecimalValue());
+		}
+	}
+
+	@Test
+	public void requestFrameExtractsReceivedObjects() {
+		PCEPRequestFrame requestFrame = PCEPRequestFrameFactory
+				.generatePathComputationRequestFrame(PCEPObjectFrameFactory
+						.generatePCEPRequestParametersObject("1", "0", "0",
+								"0", "0", "1", "4711"), PCEPObjectFrameFactory
+						.generatePCEPEndPointsObject("1", "0", new PCEPAddress(
+								"192.169.2.1", false), new PCEPAddress(
+								"192.169.2.14", false)));
+		requestFrame.insertSynchronizationVectorObject(generate(4711, 4712));
+		byte[] bytes = PCEPMessageFactory.generateMessage(requestFrame)
+				.getMessageByteArray();
+
+		PCEPMessage message = new PCEPMessage(bytes);
+		LinkedList<PCEPSynchronizationVectorObject> SVECList = PCEPRequestFrameFactory
+				.getPathComputationRequestFrame(message)
+				.extractSynchronizationVectorObjectList();
+		assertEquals(1, SVECList.size());
+		assertNotNull(SVECList.getFirst());
+		assertEquals(2, SVECList.getFirst().getRequestIDNumbers().size());
+		assertArrayEquals(bytes, PCEPComputationFactory
+				.rawMessageToByteArray(message.getMessageString()));
+	}
+}
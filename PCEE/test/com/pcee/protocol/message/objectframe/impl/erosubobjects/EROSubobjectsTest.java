@@ -0,0 +1,110 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe.impl.erosubobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+
+public class EROSubobjectsTest {
+
+	private static byte[] encode(EROSubobjects subobject) {
+		ByteBuffer buffer = ByteBuffer.allocate(subobject.getByteLength());
+		subobject.encode(buffer);
+		return buffer.array();
+	}
+
+	private static byte[] legacyEncode(EROSubobjects subobject) {
+		return PCEPComputationFactory.rawMessageToByteArray(subobject
+				.getObjectBinaryString());
+	}
+
+	@Test
+	public void addressEncodesTheRFCLayout() {
+		byte[] expected = { 0x01, 0x08, (byte) 192, (byte) 169, 2, 14, 32, 0 };
+		PCEPAddress address = new PCEPAddress("192.169.2.14", false);
+		assertArrayEquals(expected, encode(address));
+		assertArrayEquals(expected, legacyEncode(address));
+	}
+
+	/**
+	 * encode, decode from bytes and from the binary string, encode again
+	 */
+	@Test
+	public void addressRoundTripAgainstBinaryString() {
+		Random random = new Random(5440);
+		for (int i = 0; i < 1000; i++) {
+			PCEPAddress address = new PCEPAddress(random.nextInt());
+			byte[] bytes = encode(address);
+			assertArrayEquals(legacyEncode(address), bytes);
+
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			EROSubobjects decoded = EROSubobjects.decode(buffer);
+			assertEquals(8, buffer.position());
+			assertTrue(decoded instanceof PCEPAddress);
+			PCEPAddress legacy = new PCEPAddress(
+					PCEPComputationFactory.byteArrayToRawMessage(bytes), true);
+			assertArrayEquals(bytes, encode(decoded));
+			assertArrayEquals(bytes, encode(legacy));
+			assertEquals(address.getIPv4AddressDecimalValue(),
+					((PCEPAddress) decoded).getIPv4AddressDecimalValue());
+			assertEquals(address.getIPv4Address(false),
+					legacy.getIPv4Address(false));
+		}
+	}
+
+	@Test
+	public void subobjectsWithoutBinaryCodecRoundTrip() {
+		EROSubobjects[] subobjects = {
+				new EROUnnumberedInterface(false, 0x40000001, 0xC0000002),
+				new EROUnnumberedInterface(true, 1, 2), new MLDelimiter() };
+		for (int i = 0; i < subobjects.length; i++) {
+			byte[] bytes = encode(subobjects[i]);
+			assertArrayEquals(legacyEncode(subobjects[i]), bytes);
+			assertEquals(
+					EROSubobjects.getSubobjectLength(subobjects[i]
+							.getTypeDecimalValue()), bytes.length);
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			EROSubobjects decoded = EROSubobjects.decode(buffer);
+			assertEquals(subobjects[i].getClass(), decoded.getClass());
+			assertEquals(bytes.length, buffer.position());
+			assertArrayEquals(bytes, encode(decoded));
+		}
+	}
+
+	@Test
+	public void malformedSubobjectsAreNotDecoded() {
+		byte[][] malformed = { {}, { 1 }, { 1, 4, 0, 0 },
+				{ 1, 8, (byte) 192, (byte) 169, 2 }, { 1, 0, 0, 0, 0, 0, 0, 0 },
+				{ 4, 8, 0, 0, 0, 0, 0, 0 }, { 99, 8, 0, 0, 0, 0, 0, 0 } };
+		for (int i = 0; i < malformed.length; i++) {
+			ByteBuffer buffer = ByteBuffer.wrap(malformed[i]);
+			assertNull(EROSubobjects.decode(buffer));
+			// The buffer is not moved
+			assertEquals(0, buffer.position());
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.message.objectframe.impl.erosubobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class PCEPAddressTest {
+
+	@Test
+	public void addressKeyIsEqualForTheSameAddressAndPort() {
+		PCEPAddress first = new PCEPAddress("192.169.2.1", 4189);
+		PCEPAddress second = new PCEPAddress("192.169.2.1", 4189);
+		assertEquals(first.getAddressKey(), second.getAddressKey());
+		// Created once per object
+		assertSame(first.getAddressKey(), first.getAddressKey());
+	}
+
+	@Test
+	public void addressKeyDistinguishesAddressesAndPorts() {
+		PCEPAddress address = new PCEPAddress("192.169.2.1", 4189);
+		assertFalse(address.getAddressKey().equals(
+				new PCEPAddress("192.169.2.1", 4190).getAddressKey()));
+		assertFalse(address.getAddressKey().equals(
+				new PCEPAddress("192.169.2.2", 4189).getAddressKey()));
+		// Addresses above 127.255.255.255 do not collide with their port
+		assertFalse(new PCEPAddress("255.255.255.255", 1).getAddressKey()
+				.equals(new PCEPAddress("255.255.255.254", 1).getAddressKey()));
+	}
+
+	@Test
+	public void addressKeyFollowsChangesOfTheAddressAndPort() {
+		PCEPAddress address = new PCEPAddress("192.169.2.1", 4189);
+		Long key = address.getAddressKey();
+		address.setPort(4190);
+		assertEquals(new PCEPAddress("192.169.2.1", 4190).getAddressKey(),
+				address.getAddressKey());
+		address.setPort(4189);
+		address.setIPv4AddressBinaryString("192.169.2.2", false);
+		assertEquals(new PCEPAddress("192.169.2.2", 4189).getAddressKey(),
+				address.getAddressKey());
+		assertFalse(key.equals(address.getAddressKey()));
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.protocol.response;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessageFactory;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+
+/**
+ * The templates must encode the same bytes as the response frames built with
+ * PCEPResponseFrameFactory and encoded with PCEPMessageFactory
+ */
+public class PCEPResponseTemplatesTest {
+
+	// Request IDs above 2^31 are written as negative ints
+	private static final long[] REQUEST_IDS = { 0, 1, 432, 0x7FFFFFFFL,
+			0x80000000L, 3000000000L, 0xFFFFFFFFL };
+
+	private static final int[] HOPS = { 0, 5, 100 };
+
+	private static PCEPRequestParametersObject requestParameters(
+			long requestID) {
+		PCEPRequestParametersObject RP = PCEPObjectFrameFactory
+				.generatePCEPRequestParametersObject("1", "0", "0", "0", "0",
+						"1", "0");
+		// The decimal setter refuses request IDs above 2^31
+		RP.setRequestIDNumberBinaryString(PCEPComputationFactory
+				.toBinaryString(requestID, 32));
+		return RP;
+	}
+
+	private static ArrayList<EROSubobjects> subobjects(int hops) {
+		ArrayList<EROSubobjects> subobjects = new ArrayList<EROSubobjects>();
+		for (int i = 0; i < hops; i++)
+			subobjects.add(new PCEPAddress("192.169." + (i / 250) + "."
+					+ (i % 250 + 1), false));
+		return subobjects;
+	}
+
+	private static byte[] factoryNoPath(long requestID) {
+		PCEPResponseFrame frame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(requestParameters(requestID));
+		frame.insertNoPathObject(PCEPObjectFrameFactory
+				.generatePCEPNoPathObject("1", "0", 1, "0"));
+		return PCEPMessageFactory.generateMessage(frame).getMessageByteArray();
+	}
+
+	private static byte[] factoryPath(long requestID, int hops,
+			Float bandwidth) {
+		PCEPResponseFrame frame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(requestParameters(requestID));
+		frame.insertExplicitRouteObject(PCEPObjectFrameFactory
+				.generatePCEPExplicitRouteObject("1", "0", subobjects(hops)));
+		if (bandwidth != null)
+			frame.insertBandwidthObject(PCEPObjectFrameFactory
+					.generatePCEPBandwidthObject("1", "0",
+							bandwidth.floatValue()));
+		return PCEPMessageFactory.generateMessage(frame).getMessageByteArray();
+	}
+
+	// Bytes of a template message, checked against its header length
+	private static byte[] templateBytes(PCEPMessage message) {
+		ByteBuffer buffer = message.getWriteBuffer().duplicate();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		assertEquals(bytes.length, message.getMessageHeader()
+				.getLengthDecimalValue());
+		message.release();
+		return bytes;
+	}
+
+	@Test
+	public void noPathMessageMatchesFactory() {
+		for (int i = 0; i < REQUEST_IDS.length; i++) {
+			long requestID = REQUEST_IDS[i];
+			assertArrayEquals("request ID " + requestID,
+					factoryNoPath(requestID),
+					templateBytes(PCEPResponseTemplates
+							.generateNoPathMessage((int) requestID)));
+		}
+	}
+
+	@Test
+	public void pathMessageMatchesFactory() {
+		for (int i = 0; i < REQUEST_IDS.length; i++) {
+			for (int j = 0; j < HOPS.length; j++) {
+				long requestID = REQUEST_IDS[i];
+				int hops = HOPS[j];
+				assertArrayEquals("request ID " + requestID + ", " + hops
+						+ " hops", factoryPath(requestID, hops, null),
+						templateBytes(PCEPResponseTemplates
+								.generatePathMessage((int) requestID,
+										subobjects(hops))));
+			}
+		}
+	}
+
+	@Test
+	public void bandwidthPathMessageMatchesFactory() {
+		float[] bandwidths = { 0, 2.5f, 1000000 };
+		for (int i = 0; i < REQUEST_IDS.length; i++) {
+			for (int j = 0; j < HOPS.length; j++) {
+				for (int k = 0; k < bandwidths.length; k++) {
+					long requestID = REQUEST_IDS[i];
+					int hops = HOPS[j];
+					float bandwidth = bandwidths[k];
+					assertArrayEquals("request ID " + requestID + ", "
+							+ hops + " hops, bandwidth " + bandwidth,
+							factoryPath(requestID, hops,
+									Float.valueOf(bandwidth)),
+							templateBytes(PCEPResponseTemplates
+									.generatePathMessage((int) requestID,
+											subobjects(hops), bandwidth)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void requestIDIsReadBackUnsigned() {
+		for (int i = 0; i < REQUEST_IDS.length; i++) {
+			PCEPMessage message = PCEPResponseTemplates
+					.generatePathMessage((int) REQUEST_IDS[i], subobjects(5));
+			assertEquals(REQUEST_IDS[i], message.getRequestID());
+			message.release();
+		}
+	}
+
+	@Test
+	public void pathMessageWrittenInPlaceMatchesFactory() {
+		ArrayList<EROSubobjects> subobjects = subobjects(5);
+		int length = 0;
+		for (int i = 0; i < subobjects.size(); i++)
+			length += subobjects.get(i).getByteLength();
+		PCEPMessage message = PCEPResponseTemplates.beginPathMessage(77,
+				length, 10);
+		for (int i = 0; i < subobjects.size(); i++)
+			subobjects.get(i).encode(message.getWireBuffer());
+		assertArrayEquals(factoryPath(77, 5, Float.valueOf(10)),
+				templateBytes(PCEPResponseTemplates.endPathMessage(message)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void incompletePathMessageIsRefused() {
+		PCEPMessage message = PCEPResponseTemplates.beginPathMessage(77, 8);
+		PCEPResponseTemplates.endPathMessage(message);
+	}
+}
@@ -0,0 +1,230 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import com.pcee.protocol.keepalive.PCEPKeepaliveFrameFactory;
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.PCEPMessageAnalyser;
+import com.pcee.protocol.message.PCEPMessageFactory;
+import com.pcee.protocol.message.PCEPMessagePool;
+import com.pcee.protocol.message.objectframe.PCEPCommonObjectHeader;
+import com.pcee.protocol.message.objectframe.PCEPObjectFrameFactory;
+import com.pcee.protocol.message.objectframe.impl.PCEPExplicitRouteObject;
+import com.pcee.protocol.message.objectframe.impl.PCEPGenericExplicitRouteObjectImpl;
+import com.pcee.protocol.message.objectframe.impl.PCEPIncludeRouteObject;
+import com.pcee.protocol.message.objectframe.impl.PCEPRequestParametersObject;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.PCEPAddress;
+import com.pcee.protocol.open.PCEPOpenFrameFactory;
+import com.pcee.protocol.request.PCEPRequestFrame;
+import com.pcee.protocol.request.PCEPRequestFrameFactory;
+import com.pcee.protocol.response.PCEPResponseFrame;
+import com.pcee.protocol.response.PCEPResponseFrameFactory;
+
+/**
+ * Messages encoded and decoded by the benchmarks. Decoding follows the
+ * receive path of the server: the message is copied into a pooled message,
+ * its format checked and its objects extracted from the request or response
+ * frame. Encoding builds the objects with the factories and encodes the
+ * message to bytes.
+ */
+final class Messages {
+
+	static final int REQUEST_ID = 4711;
+
+	private static final String SOURCE_ADDRESS = "192.169.2.1";
+
+	private static final String DESTINATION_ADDRESS = "192.169.2.14";
+
+	// Optional objects of the benchmarked PCReq messages
+	static final int PCREQ_BANDWIDTH = 1;
+
+	static final int PCREQ_METRIC = 2;
+
+	static final int PCREQ_SVEC = 4;
+
+	static final int PCREQ_IRO = 8;
+
+	private Messages() {
+	}
+
+	/**
+	 * Function to get the optional objects of a PCReq from their name
+	 * 
+	 * @param name
+	 *            none, bandwidth, metric, svec, iro or all
+	 * @return
+	 */
+	static int getRequestObjects(String name) {
+		if (name.equals("none"))
+			return 0;
+		if (name.equals("bandwidth"))
+			return PCREQ_BANDWIDTH;
+		if (name.equals("metric"))
+			return PCREQ_METRIC;
+		if (name.equals("svec"))
+			return PCREQ_SVEC;
+		if (name.equals("iro"))
+			return PCREQ_IRO;
+		if (name.equals("all"))
+			return PCREQ_BANDWIDTH | PCREQ_METRIC | PCREQ_SVEC | PCREQ_IRO;
+		throw new IllegalArgumentException("Unknown PCReq objects " + name);
+	}
+
+	/**
+	 * Function to copy a received message into a pooled message and check its
+	 * format, as done by the network and session modules
+	 */
+	static PCEPMessage receive(byte[] bytes) {
+		PCEPMessage message = PCEPMessagePool.acquire(ByteBuffer.wrap(bytes),
+				bytes.length);
+		if (!PCEPMessageAnalyser.checkMessageFormat(message))
+			throw new IllegalStateException("Invalid benchmark message");
+		return message;
+	}
+
+	static byte[] encodeOpen() {
+		return PCEPMessageFactory.generateMessage(
+				PCEPOpenFrameFactory.generateOpenFrame(30, 120, "1", "0"))
+				.getMessageByteArray();
+	}
+
+	static byte[] encodeKeepalive() {
+		return PCEPMessageFactory.generateMessage(
+				PCEPKeepaliveFrameFactory.generateKeepaliveFrame())
+				.getMessageByteArray();
+	}
+
+	static PCEPMessage generateRequest(int objects) {
+		PCEPRequestParametersObject RP = PCEPObjectFrameFactory
+				.generatePCEPRequestParametersObject("1", "0", "0", "0", "0",
+						"1", Integer.toString(REQUEST_ID));
+		PCEPRequestFrame requestFrame = PCEPRequestFrameFactory
+				.generatePathComputationRequestFrame(RP, PCEPObjectFrameFactory
+						.generatePCEPEndPointsObject("1", "0", new PCEPAddress(
+								SOURCE_ADDRESS, false), new PCEPAddress(
+								DESTINATION_ADDRESS, false)));
+
+		if ((objects & PCREQ_BANDWIDTH) != 0)
+			requestFrame.insertBandwidthObject(PCEPObjectFrameFactory
+					.generatePCEPBandwidthObject("1", "0", 100));
+		if ((objects & PCREQ_METRIC) != 0)
+			requestFrame.insertMetricObject(PCEPObjectFrameFactory
+					.generatePCEPMetricObject("1", "0", "0", "0", 2, 10));
+		if ((objects & PCREQ_SVEC) != 0) {
+			LinkedList<String> requestIDs = new LinkedList<String>();
+			requestIDs.add(PCEPComputationFactory.toBinaryString(REQUEST_ID, 32));
+			requestIDs.add(PCEPComputationFactory.toBinaryString(
+					REQUEST_ID + 1, 32));
+			requestFrame.insertSynchronizationVectorObject(PCEPObjectFrameFactory
+					.generatePCEPSynchronizationVectorObject("1", "0", "0", "0",
+							"0", requestIDs));
+		}
+		if ((objects & PCREQ_IRO) != 0) {
+			// The IRO subobjects are given as a binary string, as in received
+			// objects
+			StringBuffer subobjects = new StringBuffer();
+			ArrayList<EROSubobjects> path = getPath(3);
+			for (int i = 0; i < path.size(); i++)
+				subobjects.append(path.get(i).getObjectBinaryString());
+			requestFrame.insertIncludeRouteObject(new PCEPIncludeRouteObject(
+					new PCEPCommonObjectHeader(10, 1, "1", "0"), subobjects
+							.toString()));
+		}
+
+		return PCEPMessageFactory.generateMessage(requestFrame);
+	}
+
+	static byte[] encodeRequest(int objects) {
+		return generateRequest(objects).getMessageByteArray();
+	}
+
+	/**
+	 * Function to decode a received PCReq and read the objects used by the
+	 * path computation
+	 * 
+	 * @return sum of the values read
+	 */
+	static int decodeRequest(byte[] bytes) {
+		PCEPMessage message = receive(bytes);
+		PCEPRequestFrame requestFrame = PCEPRequestFrameFactory
+				.getPathComputationRequestFrame(message);
+
+		int checksum = requestFrame.extractRequestParametersObject()
+				.getRequestIDNumberDecimalValue()
+				+ requestFrame.getSourceAddressDecimalValue()
+				+ requestFrame.getDestinationAddressDecimalValue();
+		if (requestFrame.containsBandwidthObject())
+			checksum += Float.floatToIntBits(requestFrame
+					.extractBandwidthObject().getBandwidthFloatValue());
+		if (requestFrame.containsMetricObjectList())
+			checksum += requestFrame.extractMetricObjectList().size();
+		if (requestFrame.containsSynchronizationVectorObjectList())
+			checksum += requestFrame.extractSynchronizationVectorObjectList()
+					.size();
+		if (requestFrame.containsIncludeRouteObject())
+			checksum += requestFrame.extractIncludeRouteObject()
+					.getObjectFrameByteLength();
+		message.release();
+		return checksum;
+	}
+
+	static byte[] encodeResponse(ArrayList<EROSubobjects> path) {
+		PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
+				.generatePathComputationResponseFrame(PCEPObjectFrameFactory
+						.generatePCEPRequestParametersObject("1", "0", "0",
+								"0", "0", "1", Integer.toString(REQUEST_ID)));
+		responseFrame.insertExplicitRouteObject(PCEPObjectFrameFactory
+				.generatePCEPExplicitRouteObject("1", "0", path));
+		return PCEPMessageFactory.generateMessage(responseFrame)
+				.getMessageByteArray();
+	}
+
+	/**
+	 * Function to decode a received PCRep and count the hops of its EROs
+	 * 
+	 * @return sum of the request ID and the number of hops
+	 */
+	static int decodeResponse(byte[] bytes) {
+		PCEPMessage message = receive(bytes);
+		PCEPResponseFrame responseFrame = PCEPResponseFrameFactory
+				.getPathComputationResponseFrame(message);
+
+		int hops = 0;
+		LinkedList<PCEPExplicitRouteObject> EROList = responseFrame
+				.extractExplicitRouteObjectList();
+		for (int i = 0; i < EROList.size(); i++)
+			hops += ((PCEPGenericExplicitRouteObjectImpl) EROList.get(i))
+					.getTraversedVertexList().size();
+		message.release();
+		return responseFrame.getRequestID() + hops;
+	}
+
+	static ArrayList<EROSubobjects> getPath(int hops) {
+		ArrayList<EROSubobjects> path = new ArrayList<EROSubobjects>();
+		for (int i = 0; i < hops; i++)
+			path.add(new PCEPAddress("10.0." + (i / 250) + "." + (i % 250 + 1),
+					false));
+		return path;
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pcee.protocol.message.PCEPComputationFactory;
+import com.pcee.protocol.message.PCEPMessage;
+
+/**
+ * Benchmark of the PCReq messages with the optional objects given by the
+ * objects parameter. See baseline.txt for how to run the benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RequestBenchmark {
+
+	@Param({ "none", "bandwidth", "metric", "svec", "iro", "all" })
+	public String objects;
+
+	private int requestObjects;
+
+	private byte[] request;
+
+	private PCEPMessage parsedRequest;
+
+	@Setup
+	public void setup() {
+		requestObjects = Messages.getRequestObjects(objects);
+		request = Messages.encodeRequest(requestObjects);
+		parsedRequest = new PCEPMessage(request);
+		parsedRequest.getObjectsList();
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return Messages.encodeRequest(requestObjects);
+	}
+
+	@Benchmark
+	public int decode() {
+		return Messages.decodeRequest(request);
+	}
+
+	/**
+	 * Binary string representation still used by the objects without a binary
+	 * codec
+	 */
+	@Benchmark
+	public byte[] encodeBinaryString() {
+		return PCEPComputationFactory.rawMessageToByteArray(parsedRequest
+				.getMessageString());
+	}
+}
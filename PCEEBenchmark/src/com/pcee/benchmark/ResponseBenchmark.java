@@ -0,0 +1,83 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.message.objectframe.impl.erosubobjects.EROSubobjects;
+import com.pcee.protocol.response.PCEPResponseTemplates;
+
+/**
+ * Benchmark of the PCRep messages carrying a path of the given number of hops,
+ * encoded through the response frame or the response templates. See
+ * baseline.txt for how to run the benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResponseBenchmark {
+
+	@Param({ "5", "20", "100" })
+	public int hops;
+
+	private ArrayList<EROSubobjects> path;
+
+	private byte[] response;
+
+	@Setup
+	public void setup() {
+		path = Messages.getPath(hops);
+		response = Messages.encodeResponse(path);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return Messages.encodeResponse(path);
+	}
+
+	@Benchmark
+	public PCEPMessage encodeTemplate() {
+		PCEPMessage message = PCEPResponseTemplates.generatePathMessage(
+				Messages.REQUEST_ID, path);
+		message.getWriteBuffer();
+		message.release();
+		return message;
+	}
+
+	@Benchmark
+	public int decode() {
+		return Messages.decodeResponse(response);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ *  This file is part of Path Computation Element Emulator (PCEE).
+ *
+ *  PCEE is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  PCEE is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with PCEE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pcee.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.pcee.protocol.message.PCEPMessage;
+import com.pcee.protocol.open.PCEPOpenFrame;
+import com.pcee.protocol.open.PCEPOpenFrameFactory;
+
+/**
+ * Benchmark of the session establishment and keepalive messages, encoded and
+ * decoded on every session. See baseline.txt for how to run the benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SessionMessageBenchmark {
+
+	private byte[] open;
+
+	private byte[] keepalive;
+
+	@Setup
+	public void setup() {
+		open = Messages.encodeOpen();
+		keepalive = Messages.encodeKeepalive();
+	}
+
+	@Benchmark
+	public byte[] encodeOpen() {
+		return Messages.encodeOpen();
+	}
+
+	@Benchmark
+	public PCEPOpenFrame decodeOpen() {
+		PCEPMessage message = Messages.receive(open);
+		PCEPOpenFrame openFrame = PCEPOpenFrameFactory.getOpenFrame(message);
+		message.release();
+		return openFrame;
+	}
+
+	@Benchmark
+	public byte[] encodeKeepalive() {
+		return Messages.encodeKeepalive();
+	}
+
+	@Benchmark
+	public PCEPMessage decodeKeepalive() {
+		PCEPMessage message = Messages.receive(keepalive);
+		message.release();
+		return message;
+	}
+}